@@ -0,0 +1,240 @@
+package com.example.pdf.bench;
+
+import com.example.pdf.preprocessor.ConfigurablePayloadPreProcessor;
+import com.example.pdf.service.enrichers.EnrollmentContextEnricher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic enrollment payloads for benchmarks and load tests.
+ *
+ * <p>Each payload carries every shape the service consumes: the top-level
+ * {@code applicants}/{@code coverages} lists used by AcroForm mappings, enrichers and
+ * templates, the nested {@code application} object (applicants, addresses,
+ * proposedProducts) that the preprocessing rules flatten, and the {@code enrollment} /
+ * {@code members} blocks read by the enrollment context enricher. Applicants are one
+ * PRIMARY, one SPOUSE and a configurable number of DEPENDENTs; which products each of them
+ * enrolls in is set by a {@link ProductMix}. The same seed always yields the same payload,
+ * so runs are comparable.
+ *
+ * <p>{@link #prepared} additionally applies the standard preprocessing rules and
+ * enrollment context the way the enrollment endpoint does, which is the model the bundled
+ * templates expect.
+ */
+public final class EnrollmentPayloads {
+
+    public static final String STANDARD_RULES = "preprocessing/standard-enrollment-rules.yml";
+
+    private static final String[] FIRST_NAMES = {"John", "Mary", "Ana", "Wei", "Omar", "Priya", "Lucas", "Emma", "Noah", "Sofia"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Chen", "Patel", "Johnson", "Nguyen", "Brown", "Kim"};
+    private static final String[] STATES = {"CA", "IL", "NY", "TX", "WA", "FL"};
+    private static final String[] PLANS = {"Bronze", "Silver", "Gold", "Platinum"};
+    private static final List<String> ALL_PRODUCTS = List.of("MEDICAL", "DENTAL", "VISION");
+
+    /** Which products each applicant enrolls in. */
+    public enum ProductMix {
+        MEDICAL_ONLY,
+        MEDICAL_DENTAL,
+        FULL,
+        /** Primary takes all three; everyone else a random subset that always includes MEDICAL. */
+        MIXED;
+
+        /** The mix matching "{@code count} products for everyone" (1-3). */
+        public static ProductMix ofCount(int count) {
+            return count <= 1 ? MEDICAL_ONLY : count == 2 ? MEDICAL_DENTAL : FULL;
+        }
+
+        List<String> productsFor(Random random, String relationship) {
+            switch (this) {
+                case MEDICAL_ONLY:
+                    return ALL_PRODUCTS.subList(0, 1);
+                case MEDICAL_DENTAL:
+                    return ALL_PRODUCTS.subList(0, 2);
+                case FULL:
+                    return ALL_PRODUCTS;
+                default:
+                    if ("PRIMARY".equals(relationship)) {
+                        return ALL_PRODUCTS;
+                    }
+                    List<String> products = new ArrayList<>(List.of("MEDICAL"));
+                    if (random.nextBoolean()) products.add("DENTAL");
+                    if (random.nextInt(3) == 0) products.add("VISION");
+                    return products;
+            }
+        }
+    }
+
+    private EnrollmentPayloads() {
+    }
+
+    /**
+     * @param dependents number of DEPENDENT applicants (a PRIMARY and a SPOUSE are always added)
+     * @param products   how many of MEDICAL, DENTAL, VISION each applicant enrolls in (1-3)
+     */
+    public static Map<String, Object> enrollment(long seed, int dependents, int products) {
+        return enrollment(seed, dependents, ProductMix.ofCount(products));
+    }
+
+    public static Map<String, Object> enrollment(long seed, int dependents, ProductMix mix) {
+        Random random = new Random(seed);
+        String state = pick(random, STATES);
+        String lastName = pick(random, LAST_NAMES);
+
+        List<Map<String, Object>> applicants = new ArrayList<>();
+        applicants.add(applicant(random, "A001", "PRIMARY", lastName, 1970 + random.nextInt(20), mix));
+        applicants.add(applicant(random, "A002", "SPOUSE", lastName, 1970 + random.nextInt(20), mix));
+        for (int i = 0; i < dependents; i++) {
+            String id = String.format("A%03d", i + 3);
+            applicants.add(applicant(random, id, "DEPENDENT", lastName, 2005 + random.nextInt(18), mix));
+        }
+
+        List<Map<String, Object>> coverages = new ArrayList<>();
+        List<Map<String, Object>> members = new ArrayList<>();
+        Map<String, List<Object>> coveredApplicants = new LinkedHashMap<>();
+        double total = 0;
+        for (Map<String, Object> applicant : applicants) {
+            Map<String, Object> member = new LinkedHashMap<>();
+            member.put("memberId", applicant.get("applicantId"));
+            member.put("relationship", applicant.get("relationship"));
+            for (Object p : (List<?>) applicant.get("products")) {
+                Map<?, ?> product = (Map<?, ?>) p;
+                String type = (String) product.get("productType");
+                Map<String, Object> coverage = new LinkedHashMap<>();
+                coverage.put("coverageId", "COV-" + applicant.get("applicantId") + "-" + type);
+                coverage.put("applicantId", applicant.get("applicantId"));
+                coverage.put("productType", type);
+                coverage.put("planName", product.get("planName"));
+                coverage.put("carrierName", product.get("carrierName"));
+                coverage.put("premium", product.get("premium"));
+                coverage.put("effectiveDate", "2026-01-01");
+                coverage.put("benefits", List.of("Preventive Care", "Specialist Visits", "Prescription Drugs"));
+                coverages.add(coverage);
+
+                double premium = Double.parseDouble((String) product.get("premium"));
+                member.put(type.toLowerCase(Locale.ROOT), Map.of("planName", product.get("planName"), "premium", premium));
+                coveredApplicants.computeIfAbsent(type, k -> new ArrayList<>()).add(applicant.get("applicantId"));
+                total += premium;
+            }
+            members.add(member);
+        }
+
+        List<Map<String, Object>> proposedProducts = new ArrayList<>();
+        List<String> productNames = new ArrayList<>();
+        Map<String, Object> plansByProduct = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Object>> e : coveredApplicants.entrySet()) {
+            String type = e.getKey();
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productType", type);
+            product.put("planName", pick(random, PLANS) + " " + type);
+            product.put("monthlyPremium", money(random, 40, 600));
+            product.put("coveredApplicants", e.getValue());
+            proposedProducts.add(product);
+            productNames.add(type.toLowerCase(Locale.ROOT));
+            plansByProduct.put(type.toLowerCase(Locale.ROOT), List.of((String) product.get("planName")));
+        }
+
+        Map<String, Object> enrollment = new LinkedHashMap<>();
+        enrollment.put("products", productNames);
+        enrollment.put("marketCategory", "individual");
+        enrollment.put("state", state);
+        enrollment.put("plansByProduct", plansByProduct);
+
+        Map<String, Object> application = new LinkedHashMap<>();
+        application.put("applicationId", "APP-" + (100000 + random.nextInt(900000)));
+        application.put("submittedDate", "2025-12-18");
+        application.put("effectiveDate", "2026-01-01");
+        application.put("applicants", applicants);
+        application.put("addresses", List.of(address(random, "MAILING", state), address(random, "BILLING", state)));
+        application.put("proposedProducts", proposedProducts);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("applicationNumber", application.get("applicationId"));
+        payload.put("effectiveDate", "2026-01-01");
+        payload.put("applicationDate", "2025-12-18");
+        payload.put("totalPremium", String.format("%.2f", total));
+        payload.put("planYear", "2026");
+        payload.put("applicants", applicants);
+        payload.put("coverages", coverages);
+        payload.put("members", members);
+        payload.put("companyInfo", Map.of("name", "Acme Health", "address", "100 Insurance Plaza",
+            "city", "Springfield", "state", "IL", "zipCode", "62701", "phone", "(800) 555-0100",
+            "email", "info@acmehealth.example", "website", "www.acmehealth.example"));
+        payload.put("agentInfo", Map.of("name", "Pat Agent", "licenseNumber", "AG-" + random.nextInt(10000),
+            "phone", "(555) 987-6543", "email", "agent@acmehealth.example"));
+        payload.put("enrollment", enrollment);
+        payload.put("application", application);
+        return payload;
+    }
+
+    /** {@link #enrollment} flattened with the standard rules and enriched, ready for templates. */
+    public static Map<String, Object> prepared(long seed, int dependents, int products) {
+        return prepared(seed, dependents, ProductMix.ofCount(products));
+    }
+
+    public static Map<String, Object> prepared(long seed, int dependents, ProductMix mix) {
+        Map<String, Object> payload = enrollment(seed, dependents, mix);
+        Map<String, Object> model = new HashMap<>(
+            new ConfigurablePayloadPreProcessor().preProcess(payload, STANDARD_RULES));
+        model.putAll(payload);
+        return new EnrollmentContextEnricher().enrich(model);
+    }
+
+    private static Map<String, Object> applicant(Random random, String id, String relationship, String lastName,
+                                                 int birthYear, ProductMix mix) {
+        Map<String, Object> demographic = new LinkedHashMap<>();
+        demographic.put("firstName", pick(random, FIRST_NAMES));
+        demographic.put("lastName", lastName);
+        demographic.put("dateOfBirth", String.format("%d-%02d-%02d", birthYear, 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        demographic.put("gender", random.nextBoolean() ? "Male" : "Female");
+        demographic.put("ssn", String.format("%03d-%02d-%04d", random.nextInt(900) + 100, random.nextInt(100), random.nextInt(10000)));
+
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (String type : mix.productsFor(random, relationship)) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productId", type.substring(0, 3) + "-" + (1 + random.nextInt(9)));
+            product.put("productType", type);
+            product.put("planName", pick(random, PLANS) + " Plan");
+            product.put("carrierName", "Acme Health");
+            product.put("premium", money(random, 20, 500));
+            products.add(product);
+        }
+
+        Map<String, Object> applicant = new LinkedHashMap<>();
+        applicant.put("applicantId", id);
+        applicant.put("relationship", relationship);
+        applicant.put("demographic", demographic);
+        // Flat copies as well: preprocessing rules and DateFormattingEnricher read these directly
+        applicant.put("firstName", demographic.get("firstName"));
+        applicant.put("lastName", lastName);
+        applicant.put("dateOfBirth", demographic.get("dateOfBirth"));
+        applicant.put("mailingAddress", Map.of("street", (100 + random.nextInt(900)) + " Main Street",
+            "city", "Springfield", "state", "IL", "zipCode", "62701"));
+        applicant.put("contactInfo", Map.of("phone", "(555) 123-4567", "email", "member" + id + "@example.com"));
+        applicant.put("products", products);
+        return applicant;
+    }
+
+    private static Map<String, Object> address(Random random, String type, String state) {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("type", type);
+        address.put("street", (100 + random.nextInt(900)) + " Oak Avenue");
+        address.put("city", "Springfield");
+        address.put("state", state);
+        address.put("zipCode", String.valueOf(10000 + random.nextInt(89999)));
+        return address;
+    }
+
+    private static String money(Random random, int min, int max) {
+        return String.format("%.2f", min + random.nextDouble() * (max - min));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.pdf.bench;
+
+import com.example.pdf.PdfGenerationApplication;
+import com.example.pdf.bench.EnrollmentPayloads.ProductMix;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: boots the service on a random port with its config server stubbed by
+ * a {@link MockWebServer} that serves {@code bench-configs/*.yml}, then drives
+ * {@code POST /api/pdf/merge} from a fixed number of closed-loop clients per scenario.
+ *
+ * <p>Each scenario is warmed up, then measured for a fixed time. Reported per scenario:
+ * throughput, latency percentiles, error/rejection counts, and heap (peak used during the
+ * run, sampled every 100 ms, and retained after a full GC). Results are printed as a table
+ * and written as JSON ({@code --out}, default {@code target/load-results.json}).
+ *
+ * <pre>
+ * mvn package exec:exec@load -Dload.args="--scenarios=packet-family --concurrency=8 --duration=60"
+ * </pre>
+ */
+public final class LoadDriver {
+
+    static final List<Scenario> SCENARIOS = List.of(
+        new Scenario("summary-medical", "enrollment-summary", 0, ProductMix.MEDICAL_ONLY),
+        new Scenario("packet-family", "enrollment-packet", 2, ProductMix.MIXED),
+        new Scenario("packet-large-family", "enrollment-packet", 8, ProductMix.FULL)
+    );
+
+    /** Distinct payloads per scenario; requests cycle through them. */
+    private static final int PAYLOADS_PER_SCENARIO = 64;
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final int concurrency;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+
+    LoadDriver(int concurrency, int warmupSeconds, int durationSeconds) {
+        this.concurrency = concurrency;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        Path out = Paths.get(options.getOrDefault("out", "target/load-results.json"));
+        List<Scenario> scenarios = select(options.get("scenarios"));
+
+        LoadDriver driver = new LoadDriver(concurrency, warmup, duration);
+        List<Map<String, Object>> results = driver.run(scenarios);
+
+        printTable(results);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", concurrency);
+        report.put("warmupSeconds", warmup);
+        report.put("durationSeconds", duration);
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("scenarios", results);
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        driver.mapper.writeValue(out.toFile(), report);
+        System.out.println("Results written to " + out.toAbsolutePath());
+        System.exit(0);
+    }
+
+    List<Map<String, Object>> run(List<Scenario> scenarios) throws Exception {
+        try (MockWebServer configServer = new MockWebServer()) {
+            configServer.setDispatcher(new BenchConfigDispatcher());
+            configServer.start();
+            String configServerUrl = configServer.url("/").toString().replaceAll("/$", "");
+
+            // Command-line arguments: unlike builder defaults, these override application.yml
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(PdfGenerationApplication.class)
+                .run(
+                    "--server.port=0",
+                    "--config-server.url=" + configServerUrl,
+                    // Force every config through the stubbed config server
+                    "--config.repo.path=" + Files.createTempDirectory("no-config-repo"),
+                    "--app.templates.mode=production",
+                    "--app.result-cache.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--spring.main.banner-mode=off");
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI endpoint = URI.create("http://localhost:" + port + "/api/pdf/merge");
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (Scenario scenario : scenarios) {
+                    System.out.printf("Running %s (%d clients, %ds warm-up, %ds measured)%n",
+                        scenario.name, concurrency, warmupSeconds, durationSeconds);
+                    results.add(runScenario(scenario, endpoint));
+                }
+                return results;
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private Map<String, Object> runScenario(Scenario scenario, URI endpoint) throws Exception {
+        List<byte[]> bodies = new ArrayList<>();
+        for (int i = 0; i < PAYLOADS_PER_SCENARIO; i++) {
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("configName", scenario.config);
+            request.put("payload", EnrollmentPayloads.prepared(i, scenario.dependents, scenario.mix));
+            bodies.add(mapper.writeValueAsBytes(request));
+        }
+
+        phase(endpoint, bodies, warmupSeconds, null);
+
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peakHeap = new AtomicLong(heapBefore);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+            0, 100, TimeUnit.MILLISECONDS);
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        try {
+            phase(endpoint, bodies, durationSeconds, recorder);
+        } finally {
+            sampler.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.gc();
+        long heapAfterGc = memory.getHeapMemoryUsage().getUsed();
+
+        long[] latencies = recorder.latencies();
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenario", scenario.name);
+        result.put("config", scenario.config);
+        result.put("dependents", scenario.dependents);
+        result.put("productMix", scenario.mix.name());
+        result.put("requests", latencies.length);
+        result.put("errors", recorder.errors.get());
+        result.put("rejected", recorder.rejected.get());
+        result.put("throughputPerSec", round(latencies.length / elapsedSeconds));
+        result.put("latencyMsP50", millis(percentile(latencies, 50)));
+        result.put("latencyMsP90", millis(percentile(latencies, 90)));
+        result.put("latencyMsP99", millis(percentile(latencies, 99)));
+        result.put("latencyMsMax", millis(latencies.length == 0 ? 0 : latencies[latencies.length - 1]));
+        result.put("avgResponseBytes", latencies.length == 0 ? 0 : recorder.bytes.get() / latencies.length);
+        result.put("heapPeakMb", peakHeap.get() / (1024 * 1024));
+        result.put("heapRetainedMb", heapAfterGc / (1024 * 1024));
+        return result;
+    }
+
+    /** Closed loop: each client sends its next request as soon as the previous one completes. */
+    private void phase(URI endpoint, List<byte[]> bodies, int seconds, Recorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            int offset = c;
+            Thread client = new Thread(() -> {
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    byte[] body = bodies.get(i++ % bodies.size());
+                    HttpRequest request = HttpRequest.newBuilder(endpoint)
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (recorder != null) recorder.record(response.statusCode(), System.nanoTime() - t0, response.body().length);
+                    } catch (IOException e) {
+                        if (recorder != null) recorder.errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "load-client-" + c);
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void printTable(List<Map<String, Object>> results) {
+        System.out.printf("%n%-22s %8s %7s %9s %9s %9s %9s %8s %8s %8s%n",
+            "scenario", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "peak MB", "kept MB");
+        for (Map<String, Object> r : results) {
+            System.out.printf("%-22s %8s %7s %9s %9s %9s %9s %8s %8s %8s%n",
+                r.get("scenario"), r.get("requests"), ((Number) r.get("errors")).longValue() + ((Number) r.get("rejected")).longValue(),
+                r.get("throughputPerSec"), r.get("latencyMsP50"), r.get("latencyMsP90"), r.get("latencyMsP99"),
+                r.get("latencyMsMax"), r.get("heapPeakMb"), r.get("heapRetainedMb"));
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static List<Scenario> select(String names) {
+        if (names == null || names.isBlank()) {
+            return SCENARIOS;
+        }
+        List<Scenario> selected = new ArrayList<>();
+        for (String name : names.split(",")) {
+            selected.add(SCENARIOS.stream()
+                .filter(s -> s.name.equals(name.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario: " + name)));
+        }
+        return selected;
+    }
+
+    static final class Scenario {
+        final String name;
+        final String config;
+        final int dependents;
+        final ProductMix mix;
+
+        Scenario(String name, String config, int dependents, ProductMix mix) {
+            this.name = name;
+            this.config = config;
+            this.dependents = dependents;
+            this.mix = mix;
+        }
+    }
+
+    private static final class Recorder {
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private long[] latencies = new long[4096];
+        private int count;
+
+        void record(int status, long latencyNanos, int responseBytes) {
+            if (status == 429 || status == 503) {
+                rejected.incrementAndGet();
+                return;
+            }
+            if (status != 200) {
+                errors.incrementAndGet();
+                return;
+            }
+            bytes.addAndGet(responseBytes);
+            synchronized (this) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latencyNanos;
+            }
+        }
+
+        synchronized long[] latencies() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+
+    /** Answers the config server's file endpoint ({@code /application/{profile}/{label}/{file}}) from the classpath. */
+    private static final class BenchConfigDispatcher extends Dispatcher {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath() == null ? "" : request.getPath();
+            String file = path.substring(path.lastIndexOf('/') + 1);
+            try (InputStream in = LoadDriver.class.getClassLoader().getResourceAsStream("bench-configs/" + file)) {
+                if (in == null) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse()
+                    .setHeader("Content-Type", "text/plain")
+                    .setBody(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                return new MockResponse().setResponseCode(500);
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.pdf.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Compares a benchmark run against a committed baseline and exits non-zero when any result
+ * got worse by more than its tolerance.
+ *
+ * <p>Reads both JMH JSON output ({@code -rf json}) and {@link LoadDriver} results. Metrics:
+ * <ul>
+ *   <li>{@code throughput}: operations per second. For JMH time modes (avgt, sample, ss)
+ *       the inverse of the score is compared, so "10%" means the same in every mode.</li>
+ *   <li>{@code allocation}: {@code gc.alloc.rate.norm} (bytes/op, needs {@code -prof gc}).
+ *       Increases below {@value #ALLOCATION_SLACK_BYTES} bytes/op are ignored as noise.</li>
+ *   <li>{@code latency} (load only): p99 latency in ms.</li>
+ *   <li>{@code heap} (load only): peak heap used in MB.</li>
+ * </ul>
+ *
+ * <p>Tolerances are fractions read from a properties file with keys
+ * {@code <pattern>.<metric>}: the longest pattern contained in the result name wins, and
+ * {@code default.<metric>} applies otherwise. Results present in only one of the files are
+ * reported but do not fail the gate, so a subset of benchmarks can be checked.
+ *
+ * <pre>
+ * RegressionGate --baseline=baselines/jmh.json --current=target/jmh-result.json
+ *                [--tolerances=baselines/tolerances.properties] [--update]
+ * </pre>
+ * {@code --update} writes the current run into the baseline instead of comparing.
+ */
+public final class RegressionGate {
+
+    static final String THROUGHPUT = "throughput";
+    static final String ALLOCATION = "allocation";
+    static final String LATENCY = "latency";
+    static final String HEAP = "heap";
+
+    static final double ALLOCATION_SLACK_BYTES = 256;
+
+    private static final Map<String, Double> DEFAULT_TOLERANCES = Map.of(
+        THROUGHPUT, 0.10,
+        ALLOCATION, 0.05,
+        LATENCY, 0.25,
+        HEAP, 0.25);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Properties tolerances;
+
+    RegressionGate(Properties tolerances) {
+        this.tolerances = tolerances;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name[=value], got: " + arg);
+            }
+            options.put(arg.substring(2, eq < 0 ? arg.length() : eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        Path baseline = Paths.get(required(options, "baseline"));
+        Path current = Paths.get(required(options, "current"));
+        if (!Files.exists(current)) {
+            fail("No current results at " + current.toAbsolutePath());
+        }
+
+        if (options.containsKey("update")) {
+            update(baseline, current);
+            System.out.println("Baseline " + baseline + " updated from " + current);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            fail("No baseline at " + baseline.toAbsolutePath() + "; create it with --update");
+        }
+
+        Properties tolerances = new Properties();
+        String tolerancesFile = options.get("tolerances");
+        if (tolerancesFile != null) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(tolerancesFile))) {
+                tolerances.load(reader);
+            }
+        }
+
+        List<Comparison> comparisons = new RegressionGate(tolerances).compare(read(baseline), read(current));
+        int regressions = print(comparisons);
+        if (regressions > 0) {
+            fail(regressions + " result(s) regressed beyond tolerance against " + baseline);
+        }
+        System.out.println("No regressions against " + baseline);
+    }
+
+    List<Comparison> compare(Map<String, Map<String, Double>> baseline, Map<String, Map<String, Double>> current) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Double>> result : baseline.entrySet()) {
+            Map<String, Double> now = current.get(result.getKey());
+            for (Map.Entry<String, Double> metric : result.getValue().entrySet()) {
+                Double value = now == null ? null : now.get(metric.getKey());
+                comparisons.add(new Comparison(result.getKey(), metric.getKey(), metric.getValue(), value,
+                    tolerance(result.getKey(), metric.getKey())));
+            }
+        }
+        for (Map.Entry<String, Map<String, Double>> result : current.entrySet()) {
+            if (!baseline.containsKey(result.getKey())) {
+                for (Map.Entry<String, Double> metric : result.getValue().entrySet()) {
+                    comparisons.add(new Comparison(result.getKey(), metric.getKey(), null, metric.getValue(),
+                        tolerance(result.getKey(), metric.getKey())));
+                }
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Write the current results into the baseline. Results already in the baseline are
+     * replaced by name and the rest are kept, so a run of a few benchmarks only moves theirs.
+     */
+    static void update(Path baseline, Path current) throws IOException {
+        if (baseline.getParent() != null) Files.createDirectories(baseline.getParent());
+        if (!Files.exists(baseline)) {
+            Files.copy(current, baseline, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        JsonNode base = MAPPER.readTree(baseline.toFile());
+        JsonNode now = MAPPER.readTree(current.toFile());
+        if (base.isArray() && now.isArray()) {
+            Map<String, JsonNode> merged = new LinkedHashMap<>();
+            base.forEach(run -> merged.put(jmhName(run), run));
+            now.forEach(run -> merged.put(jmhName(run), run));
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), merged.values());
+        } else if (base.has("scenarios") && now.has("scenarios")) {
+            Map<String, JsonNode> merged = new LinkedHashMap<>();
+            base.get("scenarios").forEach(sc -> merged.put(sc.path("scenario").asText(), sc));
+            now.get("scenarios").forEach(sc -> merged.put(sc.path("scenario").asText(), sc));
+            ObjectNode out = ((ObjectNode) now).deepCopy();
+            out.set("scenarios", MAPPER.valueToTree(merged.values()));
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), out);
+        } else {
+            Files.copy(current, baseline, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    double tolerance(String result, String metric) {
+        String best = null;
+        for (String key : tolerances.stringPropertyNames()) {
+            if (!key.endsWith("." + metric)) continue;
+            String pattern = key.substring(0, key.length() - metric.length() - 1);
+            if (!"default".equals(pattern) && result.contains(pattern)
+                    && (best == null || pattern.length() > best.length())) {
+                best = pattern;
+            }
+        }
+        String value = tolerances.getProperty((best != null ? best : "default") + "." + metric);
+        return value != null ? Double.parseDouble(value.trim()) : DEFAULT_TOLERANCES.getOrDefault(metric, 0.10);
+    }
+
+    /** Result name -> metric -> value, from either JMH JSON or LoadDriver output. */
+    static Map<String, Map<String, Double>> read(Path file) throws IOException {
+        JsonNode root = MAPPER.readTree(file.toFile());
+        Map<String, Map<String, Double>> results = new TreeMap<>();
+        if (root.isArray()) {
+            for (JsonNode run : root) {
+                results.put(jmhName(run), jmhMetrics(run));
+            }
+        } else if (root.has("scenarios")) {
+            for (JsonNode scenario : root.get("scenarios")) {
+                Map<String, Double> metrics = new LinkedHashMap<>();
+                metrics.put(THROUGHPUT, scenario.path("throughputPerSec").asDouble());
+                metrics.put(LATENCY, scenario.path("latencyMsP99").asDouble());
+                metrics.put(HEAP, scenario.path("heapPeakMb").asDouble());
+                results.put("load:" + scenario.path("scenario").asText(), metrics);
+            }
+        } else {
+            throw new IllegalArgumentException(file + " is neither JMH JSON nor LoadDriver output");
+        }
+        return results;
+    }
+
+    private static String jmhName(JsonNode run) {
+        String name = run.path("benchmark").asText().replaceFirst("^com\\.example\\.pdf\\.", "");
+        JsonNode params = run.path("params");
+        if (params.isObject() && params.size() > 0) {
+            StringBuilder sb = new StringBuilder(name).append(':');
+            Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> param = it.next();
+                sb.append(param.getKey()).append('=').append(param.getValue().asText());
+                if (it.hasNext()) sb.append(',');
+            }
+            name = sb.toString();
+        }
+        return name;
+    }
+
+    private static Map<String, Double> jmhMetrics(JsonNode run) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        double score = run.path("primaryMetric").path("score").asDouble();
+        String unit = run.path("primaryMetric").path("scoreUnit").asText();
+        // Normalise to ops/s so a larger value is always better
+        boolean throughputMode = "thrpt".equals(run.path("mode").asText());
+        double seconds = secondsPer(unit);
+        metrics.put(THROUGHPUT, throughputMode ? score / seconds : (score > 0 ? 1 / (score * seconds) : 0));
+        Iterator<Map.Entry<String, JsonNode>> secondary = run.path("secondaryMetrics").fields();
+        while (secondary.hasNext()) {
+            Map.Entry<String, JsonNode> metric = secondary.next();
+            if (metric.getKey().endsWith("gc.alloc.rate.norm")) {
+                metrics.put(ALLOCATION, metric.getValue().path("score").asDouble());
+            }
+        }
+        return metrics;
+    }
+
+    /** Seconds in the time unit of a JMH score unit ("ms/op", "ops/us", ...). */
+    private static double secondsPer(String unit) {
+        String time = unit.contains("/") ? unit.substring(unit.indexOf('/') + 1) : unit;
+        if (time.equals("op")) {
+            time = unit.substring(0, unit.indexOf('/'));
+        }
+        switch (time) {
+            case "ns": return 1e-9;
+            case "us": return 1e-6;
+            case "ms": return 1e-3;
+            case "min": return 60;
+            default: return 1;
+        }
+    }
+
+    private static int print(List<Comparison> comparisons) {
+        int regressions = 0;
+        System.out.printf("%-80s %-10s %14s %14s %9s %7s  %s%n",
+            "result", "metric", "baseline", "current", "change", "limit", "status");
+        for (Comparison c : comparisons) {
+            String status = c.status();
+            if ("REGRESSION".equals(status)) regressions++;
+            System.out.printf(Locale.ROOT, "%-80s %-10s %14s %14s %9s %6.0f%%  %s%n",
+                c.result, c.metric, format(c.baseline), format(c.current),
+                c.change() == null ? "" : String.format(Locale.ROOT, "%+.1f%%", c.change() * 100),
+                c.tolerance * 100, status);
+        }
+        return regressions;
+    }
+
+    private static String format(Double value) {
+        if (value == null) return "-";
+        return Math.abs(value) >= 100 ? String.format(Locale.ROOT, "%.0f", value) : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing --" + name + "=<file>");
+        }
+        return value;
+    }
+
+    private static void fail(String message) {
+        System.err.println("[regression-gate] " + message);
+        System.exit(1);
+    }
+
+    static final class Comparison {
+        final String result;
+        final String metric;
+        final Double baseline;
+        final Double current;
+        final double tolerance;
+
+        Comparison(String result, String metric, Double baseline, Double current, double tolerance) {
+            this.result = result;
+            this.metric = metric;
+            this.baseline = baseline;
+            this.current = current;
+            this.tolerance = tolerance;
+        }
+
+        /** Relative change, or null if either side is missing. */
+        Double change() {
+            if (baseline == null || current == null || baseline == 0) return null;
+            return (current - baseline) / baseline;
+        }
+
+        String status() {
+            if (baseline == null) return "NEW";
+            if (current == null) return "MISSING";
+            Double change = change();
+            if (change == null) return "OK";
+            boolean higherIsBetter = THROUGHPUT.equals(metric);
+            double worse = higherIsBetter ? -change : change;
+            if (ALLOCATION.equals(metric) && current - baseline < ALLOCATION_SLACK_BYTES) {
+                return change < -tolerance ? "IMPROVED" : "OK";
+            }
+            if (worse > tolerance) return "REGRESSION";
+            if (-worse > tolerance) return "IMPROVED";
+            return "OK";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.pdf.function;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FunctionExpressionResolver#resolve} on flat and nested function expressions against
+ * the primary applicant's demographic block, and {@link FunctionExpressionResolver#resolveAll}
+ * on mapping and footer-style templates mixing literal text with payload-dependent and
+ * constant expressions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FunctionExpressionBenchmark {
+
+    static final String[] EXPRESSIONS = {
+        "#{uppercase(lastName)}",
+        "#{concat(firstName, ' ', lastName)}",
+        "#{uppercase(concat(lastName, ', ', firstName))}",
+        "#{mask(ssn, 'XXX-XX-', 4)}",
+        "#{formatDate(dateOfBirth, 'yyyy-MM-dd', 'MM/dd/yyyy')}",
+        "#{coalesce(middleName, firstName)}",
+        "#{capitalize(lowercase(concat(firstName, ' ', trim(lastName))))}"
+    };
+
+    static final String[] TEMPLATES = {
+        "Applicant: #{concat(firstName, ' ', lastName)}",
+        "Plan: #{uppercase('gold ppo')} - confidential",
+        "SSN on file: #{mask(ssn, 'XXX-XX-', 4)} (verified)",
+        "Generated for enrollment - all rights reserved"
+    };
+
+    private FunctionExpressionResolver resolver;
+    private Map<String, Object> demographic;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        resolver = new FunctionExpressionResolver(new FunctionRegistry());
+        Map<String, Object> payload = EnrollmentPayloads.enrollment(42, 2, 3);
+        Map<String, Object> primary = ((List<Map<String, Object>>) payload.get("applicants")).get(0);
+        demographic = (Map<String, Object>) primary.get("demographic");
+    }
+
+    @Benchmark
+    public void resolve(Blackhole bh) {
+        for (String expression : EXPRESSIONS) {
+            bh.consume(resolver.resolve(expression, demographic));
+        }
+    }
+
+    @Benchmark
+    public void resolveAll(Blackhole bh) {
+        for (String template : TEMPLATES) {
+            bh.consume(resolver.resolveAll(template, demographic));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.pdf.preprocessor;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConfigurablePayloadPreProcessor#preProcess} with the bundled standard enrollment
+ * rules, and with multi-condition filters over applicants and coverages (rules are parsed
+ * once and cached, as in the service).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreProcessorBenchmark {
+
+    static final String RULES = EnrollmentPayloads.STANDARD_RULES;
+    static final String CONDITION_RULES = "bench-preprocessing/condition-rules.yml";
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private ConfigurablePayloadPreProcessor preProcessor;
+    private Map<String, Object> payload;
+
+    @Setup
+    public void setup() {
+        preProcessor = new ConfigurablePayloadPreProcessor();
+        payload = EnrollmentPayloads.enrollment(42, dependents, 3);
+        preProcessor.preProcess(payload, RULES);
+        preProcessor.preProcess(payload, CONDITION_RULES);
+    }
+
+    @Benchmark
+    public Map<String, Object> preProcess() {
+        return preProcessor.preProcess(payload, RULES);
+    }
+
+    @Benchmark
+    public Map<String, Object> preProcessConditions() {
+        return preProcessor.preProcess(payload, CONDITION_RULES);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.pdf.service;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import com.example.pdf.function.FunctionExpressionResolver;
+import com.example.pdf.function.FunctionRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AcroForm field value resolution with relationship/attribute filters, as used by the
+ * enrollment form mappings. One invocation resolves every mapped path once: field by field
+ * through the original resolver (kept here as {@link #resolveValue(Map, String)}, the service
+ * no longer has it), through individually compiled {@link PayloadPath}s, or as one
+ * {@link PayloadPathBatch} that applies shared prefixes once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AcroFormResolveBenchmark {
+
+    static final String[] PATHS = {
+        "static:Health Insurance Enrollment Form",
+        "applicationNumber",
+        "applicants[relationship=PRIMARY].demographic.firstName",
+        "applicants[relationship=PRIMARY].demographic.dateOfBirth",
+        "applicants[relationship=PRIMARY].mailingAddress.zipCode",
+        "applicants[relationship=PRIMARY].products[0].premium",
+        "applicants[relationship=SPOUSE].demographic.lastName",
+        "applicants[relationship=DEPENDENT][0].demographic.firstName",
+        "applicants[relationship=DEPENDENT][1].demographic.dateOfBirth",
+        "applicants[relationship=DEPENDENT][2].demographic.gender",
+        "coverages[applicantId=A001][productType=MEDICAL].carrierName",
+        "coverages[applicantId=A002][productType=DENTAL].premium",
+        "application.addresses[type=BILLING].street",
+        "application.proposedProducts[productType=VISION].planName"
+    };
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private AcroFormFillService fillService;
+    private Map<String, Object> payload;
+    private Map<String, String> fieldMappings;
+
+    @Setup
+    public void setup() {
+        fillService = new AcroFormFillService(new FunctionExpressionResolver(new FunctionRegistry()));
+        payload = EnrollmentPayloads.enrollment(42, dependents, 3);
+        fieldMappings = new LinkedHashMap<>();
+        for (int i = 0; i < PATHS.length; i++) {
+            fieldMappings.put("field" + i, PATHS[i]);
+        }
+    }
+
+    @Benchmark
+    public void resolveValue(Blackhole bh) {
+        for (String path : PATHS) {
+            bh.consume(resolveValue(payload, path));
+        }
+    }
+
+    @Benchmark
+    public void resolveCompiled(Blackhole bh) {
+        for (String path : PATHS) {
+            bh.consume(PayloadPath.compile(path).resolve(payload));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> resolveBatch() {
+        return fillService.pathBatch(fieldMappings).resolve(payload);
+    }
+
+    /** The resolver AcroFormFillService used before paths were compiled: split and filter on every call. */
+    static Object resolveValue(Map<String, Object> payload, String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        if (path.startsWith("static:")) {
+            return path.substring(7);
+        }
+        Object current = payload;
+        for (String part : path.split("\\.")) {
+            if (current == null) {
+                return null;
+            }
+            if (part.contains("[")) {
+                String arrayName = part.substring(0, part.indexOf('['));
+                if (current instanceof Map) {
+                    current = ((Map<?, ?>) current).get(arrayName);
+                }
+                if (!(current instanceof List)) {
+                    return null;
+                }
+                List<?> list = (List<?>) current;
+                for (String filter : extractFilters(part)) {
+                    if (isNumericIndex(filter)) {
+                        int index = Integer.parseInt(filter);
+                        if (index < 0 || index >= list.size()) {
+                            return null;
+                        }
+                        current = list.get(index);
+                        break;
+                    }
+                    String[] filterParts = filter.split("=", 2);
+                    if (filterParts.length != 2) {
+                        return null;
+                    }
+                    list = filterList(list, filterParts[0].trim(), filterParts[1].trim());
+                    if (list.isEmpty()) {
+                        return null;
+                    }
+                    current = list;
+                }
+                if (current instanceof List) {
+                    List<?> resultList = (List<?>) current;
+                    if (resultList.isEmpty()) {
+                        return null;
+                    }
+                    current = resultList.get(0);
+                }
+            } else if (current instanceof Map) {
+                current = ((Map<?, ?>) current).get(part);
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private static List<String> extractFilters(String part) {
+        List<String> filters = new ArrayList<>();
+        int startIndex = part.indexOf('[');
+        while (startIndex != -1) {
+            int endIndex = part.indexOf(']', startIndex);
+            if (endIndex == -1) break;
+            filters.add(part.substring(startIndex + 1, endIndex));
+            startIndex = part.indexOf('[', endIndex);
+        }
+        return filters;
+    }
+
+    private static boolean isNumericIndex(String filter) {
+        try {
+            Integer.parseInt(filter);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static List<?> filterList(List<?> list, String fieldName, String fieldValue) {
+        List<Object> filtered = new ArrayList<>();
+        for (Object item : list) {
+            if (item instanceof Map) {
+                Object actualValue = ((Map<?, ?>) item).get(fieldName);
+                if (actualValue != null && actualValue.toString().equals(fieldValue)) {
+                    filtered.add(item);
+                }
+            }
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.pdf.service;
+
+import com.example.pdf.controller.GenerateRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MappingComposer#compose}: unflattening and deep-merging a chain of dotted-key
+ * fragments (base, market, state, client), served from memory so only composition is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingComposerBenchmark {
+
+    @Param({"50", "400"})
+    public int fieldsPerFragment;
+
+    private MappingComposer composer;
+    private GenerateRequest request;
+    private List<String> candidates;
+
+    @Setup
+    public void setup() {
+        Map<String, Optional<Map<String, Object>>> fragments = new HashMap<>();
+        String[] layers = {"base", "market-individual", "state-ca", "client-acme"};
+        for (int layer = 0; layer < layers.length; layer++) {
+            Map<String, Object> flat = new LinkedHashMap<>();
+            // Later layers override a shrinking share of the earlier keys
+            int fields = fieldsPerFragment / (layer + 1);
+            for (int i = 0; i < fields; i++) {
+                flat.put("mapping.pdf.fields.Section" + (i % 10) + "_Field" + i, "applicants[" + (i % 4) + "].value" + layer);
+            }
+            flat.put("mapping.pdf.template", layers[layer] + ".pdf");
+            fragments.put("mappings/" + layers[layer] + ".yml", Optional.of(flat));
+        }
+        ConfigServerClient client = new ConfigServerClient() {
+            @Override
+            public Optional<Map<String, Object>> getFileSource(String profile, String label, String path) {
+                return fragments.getOrDefault(path, Optional.empty());
+            }
+        };
+        composer = new MappingComposer(client);
+        request = new GenerateRequest();
+        request.setTemplateName("enrollment");
+        candidates = List.of("mappings/base", "mappings/market-individual", "mappings/state-ca", "mappings/client-acme");
+    }
+
+    @Benchmark
+    public Map<String, Object> compose() {
+        return composer.compose(request, "main", candidates);
+    }
+}
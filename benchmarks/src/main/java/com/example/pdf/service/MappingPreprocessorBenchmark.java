@@ -0,0 +1,57 @@
+package com.example.pdf.service;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import com.example.pdf.controller.GenerateRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MappingPreprocessor#normalize} with JSONPath selectors and with the legacy
+ * type-field selection, on the nested {@code application} object of an enrollment payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingPreprocessorBenchmark {
+
+    @Param({"selectors", "types"})
+    public String selection;
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private GenerateRequest request;
+    private PreprocessorConfig config;
+
+    @Setup
+    public void setup() {
+        request = new GenerateRequest();
+        request.setPayload(EnrollmentPayloads.enrollment(42, dependents, 3));
+
+        config = new PreprocessorConfig();
+        config.rootAppKey = "application";
+        config.applicantTypeField = "relationship";
+        config.primaryOutputKey = "primaryApplicant";
+        config.spouseOutputKey = "spouseApplicant";
+        config.childTypeValue = "DEPENDENT";
+        if ("selectors".equals(selection)) {
+            config.selectors = Map.of(
+                "primary", "$.application.applicants[?(@.relationship=='PRIMARY')]",
+                "spouse", "$.application.applicants[?(@.relationship=='SPOUSE')]",
+                "children", "$.application.applicants[?(@.relationship=='DEPENDENT')]");
+        } else {
+            config.primaryTypeValue = "PRIMARY";
+            config.spouseTypeValue = "SPOUSE";
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> normalize() {
+        return MappingPreprocessor.normalize(request, config);
+    }
+}
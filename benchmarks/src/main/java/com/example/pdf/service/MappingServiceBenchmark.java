@@ -0,0 +1,55 @@
+package com.example.pdf.service;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MappingService#resolvePath} over the dotted/indexed paths a typical mapping document
+ * uses. One invocation resolves every path once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingServiceBenchmark {
+
+    static final String[] PATHS = {
+        "applicationNumber",
+        "effectiveDate",
+        "applicants[0].demographic.firstName",
+        "applicants[0].demographic.lastName",
+        "applicants[0].mailingAddress.zipCode",
+        "applicants.1.demographic.dateOfBirth",
+        "applicants[2].products[0].planName",
+        "coverages[3].premium",
+        "application.addresses[1].street",
+        "application.proposedProducts[0].monthlyPremium",
+        "companyInfo.name",
+        "applicants[9].demographic.firstName"
+    };
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private MappingService mappingService;
+    private Map<String, Object> payload;
+
+    @Setup
+    public void setup() {
+        mappingService = new MappingService();
+        payload = EnrollmentPayloads.enrollment(42, dependents, 3);
+    }
+
+    @Benchmark
+    public void resolvePath(Blackhole bh) {
+        for (String path : PATHS) {
+            bh.consume(mappingService.resolvePath(payload, path));
+        }
+    }
+}
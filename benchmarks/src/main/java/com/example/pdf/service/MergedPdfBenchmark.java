@@ -0,0 +1,80 @@
+package com.example.pdf.service;
+
+import com.example.pdf.PdfGenerationApplication;
+import com.example.pdf.bench.EnrollmentPayloads;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FlexiblePdfMergeService#generateMergedPdf(String, Map)} on the bundled sample
+ * configs, inside a real (non-web) application context so caching, enrichers and the
+ * template registry behave as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MergedPdfBenchmark {
+
+    static final String[] CONFIGS = {"enrollment-packet.yml", "enrollment-summary.yml"};
+
+    @Param({"enrollment-packet", "enrollment-summary"})
+    public String config;
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private ConfigurableApplicationContext context;
+    private FlexiblePdfMergeService mergeService;
+    private Map<String, Object> payload;
+    private Path configDir;
+
+    @Setup
+    public void setup() throws Exception {
+        configDir = Files.createTempDirectory("bench-configs");
+        for (String name : CONFIGS) {
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream("bench-configs/" + name)) {
+                Files.copy(in, configDir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        // Command-line arguments: unlike builder defaults, these override application.yml
+        context = new SpringApplicationBuilder(PdfGenerationApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--config.repo.path=" + configDir,
+                "--app.templates.mode=production",
+                "--app.result-cache.enabled=false",
+                "--app.profiler.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.pdf.service.ConfigServerClient=ERROR",
+                "--spring.main.banner-mode=off");
+        mergeService = context.getBean(FlexiblePdfMergeService.class);
+        payload = EnrollmentPayloads.prepared(42, dependents, 3);
+        mergeService.generateMergedPdf(config, payload);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (context != null) context.close();
+        for (String name : CONFIGS) {
+            Files.deleteIfExists(configDir.resolve(name));
+        }
+        Files.deleteIfExists(configDir);
+    }
+
+    @Benchmark
+    public byte[] generateMergedPdf() throws Exception {
+        return mergeService.generateMergedPdf(config, payload);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.pdf.service;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import com.example.pdf.service.enrichers.CoverageSummaryEnricher;
+import com.example.pdf.service.enrichers.DateFormattingEnricher;
+import com.example.pdf.service.enrichers.EnrollmentContextEnricher;
+import com.example.pdf.service.enrichers.PremiumCalculationEnricher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PayloadEnricherRegistry#applyEnrichers} with all four enrichers on a preprocessed
+ * enrollment model, as run once per template section; and five sections with overlapping
+ * chains enriched independently versus through one per-request {@link EnrichmentScope}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEnricherBenchmark {
+
+    private static final List<String> CHAIN =
+        List.of("enrollmentContext", "dateFormatting", "coverageSummary", "premiumCalculation");
+
+    private static final List<List<String>> SECTIONS = List.of(
+        List.of("enrollmentContext", "dateFormatting"),
+        List.of("enrollmentContext", "dateFormatting", "coverageSummary"),
+        List.of("enrollmentContext", "dateFormatting"),
+        List.of("enrollmentContext", "dateFormatting", "premiumCalculation"),
+        CHAIN);
+
+    @Param({"2", "8"})
+    public int dependents;
+
+    private PayloadEnricherRegistry registry;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setup() {
+        registry = new PayloadEnricherRegistry(List.of(
+            new EnrollmentContextEnricher(), new DateFormattingEnricher(),
+            new CoverageSummaryEnricher(), new PremiumCalculationEnricher()));
+        model = EnrollmentPayloads.prepared(42, dependents, 3);
+    }
+
+    @Benchmark
+    public Map<String, Object> applyEnrichers() {
+        return registry.applyEnrichers(CHAIN, model);
+    }
+
+    @Benchmark
+    public void sectionsIndependent(Blackhole bh) {
+        for (List<String> chain : SECTIONS) {
+            bh.consume(registry.applyEnrichers(chain, model));
+        }
+    }
+
+    @Benchmark
+    public void sectionsMemoized(Blackhole bh) {
+        EnrichmentScope scope = registry.newScope(model);
+        for (List<String> chain : SECTIONS) {
+            bh.consume(registry.applyEnrichers(chain, scope));
+        }
+    }
+}
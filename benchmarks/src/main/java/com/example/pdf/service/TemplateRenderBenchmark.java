@@ -0,0 +1,48 @@
+package com.example.pdf.service;
+
+import com.example.pdf.bench.EnrollmentPayloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One FreeMarker section end to end: template processing plus HTML-to-PDF layout in
+ * {@link HtmlPdfService}, per bundled template, on a preprocessed and enriched payload with
+ * overflow dependents. Templates are loaded once (production mode).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"templates/enrollment-cover.ftl", "templates/product-selection-summary.ftl",
+        "templates/additional-dependents-addendum.ftl", "templates/terms-and-conditions.ftl"})
+    public String template;
+
+    private FreemarkerService freemarkerService;
+    private HtmlPdfService htmlPdfService;
+    private Map<String, Object> payload;
+
+    @Setup
+    public void setup() throws Exception {
+        freemarkerService = new FreemarkerService("production", 0);
+        htmlPdfService = new HtmlPdfService(new HtmlAssetStore());
+        payload = EnrollmentPayloads.prepared(42, 6, 3);
+        render();
+    }
+
+    @Benchmark
+    public String processTemplate() throws Exception {
+        return freemarkerService.processTemplateFromLocation(template, payload);
+    }
+
+    @Benchmark
+    public byte[] render() throws Exception {
+        String html = freemarkerService.processTemplateFromLocation(template, payload);
+        return htmlPdfService.renderHtmlToPdf(html, template);
+    }
+}
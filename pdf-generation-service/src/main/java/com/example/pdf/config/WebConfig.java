@@ -0,0 +1,35 @@
+package com.example.pdf.config;
+
+import com.example.pdf.controller.RenderAdmissionInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RenderAdmissionInterceptor renderAdmissionInterceptor;
+    private final long asyncTimeoutMillis;
+
+    public WebConfig(RenderAdmissionInterceptor renderAdmissionInterceptor,
+                     @Value("${app.batch.async-timeout-ms:3600000}") long asyncTimeoutMillis) {
+        this.renderAdmissionInterceptor = renderAdmissionInterceptor;
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    /**
+     * Streamed responses (the NDJSON -> ZIP batch endpoint) run as async requests; without a
+     * timeout here the container default (30s on Tomcat) cuts off any longer batch.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(renderAdmissionInterceptor);
+    }
+}
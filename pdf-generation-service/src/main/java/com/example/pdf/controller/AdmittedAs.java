@@ -0,0 +1,18 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderAdmission.RenderClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method as a render endpoint of the given class; {@link RenderAdmissionInterceptor}
+ * holds a {@link com.example.pdf.service.RenderAdmission} slot for the duration of the request.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmittedAs {
+    RenderClass value();
+}
@@ -1,13 +1,16 @@
 package com.example.pdf.controller;
 
 import com.example.pdf.service.AcroFormFillService;
+import com.example.pdf.service.FreemarkerService;
 import com.example.pdf.service.PdfMergeConfigService;
+import com.example.pdf.service.RenderResultCache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.web.bind.annotation.*;
 
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,15 +24,21 @@ public class CacheAdminController {
     private final CacheManager cacheManager;
     private final PdfMergeConfigService configService;
     private final AcroFormFillService acroFormService;
+    private final FreemarkerService freemarkerService;
+    private final RenderResultCache resultCache;
 
     public CacheAdminController(
         CacheManager cacheManager,
         PdfMergeConfigService configService,
-        AcroFormFillService acroFormService
+        AcroFormFillService acroFormService,
+        FreemarkerService freemarkerService,
+        RenderResultCache resultCache
     ) {
         this.cacheManager = cacheManager;
         this.configService = configService;
         this.acroFormService = acroFormService;
+        this.freemarkerService = freemarkerService;
+        this.resultCache = resultCache;
     }
 
     /**
@@ -91,11 +100,19 @@ public class CacheAdminController {
                 break;
             case "acroformTemplates":
                 acroFormService.clearTemplateCache();
+                resultCache.clear();
                 break;
             case "configFile":
             case "appSource":
                 cacheManager.getCache(cacheName).clear();
                 break;
+            case "freemarkerTemplates":
+                try {
+                    freemarkerService.refresh("admin-api clear");
+                } catch (IOException e) {
+                    return Map.of("error", "Failed to refresh templates: " + e.getMessage());
+                }
+                break;
             default:
                 return Map.of("error", "Unknown cache: " + cacheName);
         }
@@ -111,15 +128,64 @@ public class CacheAdminController {
      * POST /api/admin/cache/clear-all
      */
     @PostMapping("/clear-all")
-    public Map<String, String> clearAllCaches() {
+    public Map<String, String> clearAllCaches() throws IOException {
         configService.clearCache();
         acroFormService.clearTemplateCache();
         cacheManager.getCache("configFile").clear();
         cacheManager.getCache("appSource").clear();
+        freemarkerService.refresh("admin-api clear-all");
+        resultCache.clear();
         
         return Map.of("message", "All caches cleared successfully");
     }
     
+    /**
+     * Atomically swap in fresh FreeMarker template versions.
+     * Use after a deploy or config push when running in production mode.
+     * POST /api/admin/cache/templates/refresh
+     */
+    @PostMapping("/templates/refresh")
+    public Map<String, Object> refreshTemplates() throws IOException {
+        long version = freemarkerService.refresh("admin-api");
+        return Map.of(
+            "message", "Template registry refreshed",
+            "version", version,
+            "mode", freemarkerService.getMode()
+        );
+    }
+
+    /**
+     * Get FreeMarker template registry info
+     * GET /api/admin/cache/templates
+     */
+    @GetMapping("/templates")
+    public Map<String, Object> getTemplateRegistryInfo() {
+        return Map.of(
+            "mode", freemarkerService.getMode(),
+            "version", freemarkerService.getVersion(),
+            "lastRefresh", java.time.Instant.ofEpochMilli(freemarkerService.getLastRefreshMillis()).toString()
+        );
+    }
+
+    /**
+     * Rendered-document result cache statistics
+     * GET /api/admin/cache/results
+     */
+    @GetMapping("/results")
+    public Map<String, Object> getResultCacheStats() {
+        return resultCache.getStats();
+    }
+
+    /**
+     * Drop all cached rendered documents
+     * POST /api/admin/cache/results/clear
+     */
+    @PostMapping("/results/clear")
+    public Map<String, String> clearResultCache() {
+        resultCache.clear();
+        return Map.of("message", "Result cache cleared");
+    }
+
     /**
      * Evict specific config from cache
      * POST /api/admin/cache/evict/config/{configName}
@@ -141,6 +207,8 @@ public class CacheAdminController {
     @PostMapping("/evict/acroform/**")
     public Map<String, String> evictAcroFormTemplate(@RequestParam String templatePath) {
         acroFormService.evictTemplate(templatePath);
+        // Documents filled from the old template bytes would otherwise outlive them
+        resultCache.clear();
         
         return Map.of(
             "message", "AcroForm template evicted successfully",
@@ -179,6 +247,7 @@ public class CacheAdminController {
         health.put("averageHitRate", String.format("%.2f%%", avgHitRate));
         health.put("totalCachedItems", totalSize);
         health.put("note", "FreeMarker templates cached natively by FreeMarker engine");
+        health.put("freemarkerTemplates", getTemplateRegistryInfo());
         health.put("caches", Map.of(
             "pdfConfigs", pdfConfigStats,
             "acroformTemplates", acroformStats,
@@ -2,8 +2,12 @@ package com.example.pdf.controller;
 
 import com.example.pdf.service.ConfigSelectionService;
 import com.example.pdf.service.FlexiblePdfMergeService;
+import com.example.pdf.service.RenderAdmission.RenderClass;
 import com.example.pdf.service.EnrollmentSubmission;
+import com.example.pdf.service.RenderJobService;
 import com.example.pdf.preprocessor.ConfigurablePayloadPreProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -18,6 +22,8 @@ import java.util.Map;
 @RequestMapping("/api/enrollment")
 public class EnrollmentPdfController {
 
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentPdfController.class);
+
     @Autowired
     private FlexiblePdfMergeService pdfMergeService;
     
@@ -27,6 +33,9 @@ public class EnrollmentPdfController {
     @Autowired
     private ConfigurablePayloadPreProcessor preprocessor;
     
+    @Autowired
+    private RenderJobService renderJobService;
+    
     @Value("${preprocessing.rules.default:preprocessing/standard-enrollment-rules.yml}")
     private String defaultPreprocessingRules;
 
@@ -40,16 +49,16 @@ public class EnrollmentPdfController {
      * - Separates MEDICAL, DENTAL, VISION products
      * - Manages overflow for 4+ dependents
      */
+    @AdmittedAs(RenderClass.ACROFORM)
     @PostMapping("/generate")
     public ResponseEntity<byte[]> generateEnrollmentPdf(@RequestBody EnrollmentPdfRequest request) {
         try {
             // Strategy 1: Use convention-based selection
             String configName = configSelectionService.selectConfigByConvention(request.getEnrollment());
             
-            System.out.println("Selected config: " + configName);
-            System.out.println("Products: " + request.getEnrollment().getProducts());
-            System.out.println("Market: " + request.getEnrollment().getMarketCategory());
-            System.out.println("State: " + request.getEnrollment().getState());
+            log.info("Selected config {} (products={}, market={}, state={})", configName,
+                request.getEnrollment().getProducts(), request.getEnrollment().getMarketCategory(),
+                request.getEnrollment().getState());
             
             // Prepare payload with optional pre-processing for complex structures
             Map<String, Object> processedPayload = preparePayload(request.getPayload());
@@ -67,23 +76,42 @@ public class EnrollmentPdfController {
                 .body(pdfBytes);
                 
         } catch (Exception e) {
-            System.err.println("Error generating enrollment PDF: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error generating enrollment PDF", e);
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    /**
+     * Asynchronous variant of {@link #generateEnrollmentPdf}
+     * POST /api/enrollment/generate/async?priority=N
+     * 
+     * Returns 202 with a job id; config selection, pre-processing and rendering run on the
+     * render pool. Poll GET /api/jobs/{id}, download from GET /api/jobs/{id}/result.
+     */
+    @PostMapping("/generate/async")
+    public ResponseEntity<Map<String, Object>> generateEnrollmentPdfAsync(@RequestBody EnrollmentPdfRequest request,
+                                                                          @RequestParam(defaultValue = "0") int priority) {
+        String fileName = request.getOutputFileName() != null ? request.getOutputFileName() : "enrollment.pdf";
+        return RenderJobController.accept(renderJobService, "enrollment", priority, fileName, () -> {
+            String configName = configSelectionService.selectConfigByConvention(request.getEnrollment());
+            log.info("Selected config (async): {}", configName);
+            Map<String, Object> processedPayload = preparePayload(request.getPayload());
+            return pdfMergeService.generateMergedPdf(configName, processedPayload);
+        });
+    }
+    
     /**
      * Generate enrollment PDF with rule-based config selection
      * POST /api/enrollment/generate-with-rules
      */
+    @AdmittedAs(RenderClass.ACROFORM)
     @PostMapping("/generate-with-rules")
     public ResponseEntity<byte[]> generateWithRules(@RequestBody EnrollmentPdfRequest request) {
         try {
             // Strategy 4: Use business rules
             String configName = configSelectionService.selectConfigByRules(request.getEnrollment());
             
-            System.out.println("Rule-based config selection: " + configName);
+            log.info("Rule-based config selection: {}", configName);
             
             // Prepare payload with optional pre-processing
             Map<String, Object> processedPayload = preparePayload(request.getPayload());
@@ -100,8 +128,7 @@ public class EnrollmentPdfController {
                 .body(pdfBytes);
                 
         } catch (Exception e) {
-            System.err.println("Error generating enrollment PDF: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error generating enrollment PDF", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -148,7 +175,7 @@ public class EnrollmentPdfController {
             return originalPayload;
         }
         
-        System.out.println("Detected complex structure - applying configuration-driven pre-processing");
+        log.debug("Detected complex structure - applying configuration-driven pre-processing");
         
         // Get preprocessing rules (can be overridden per client via config)
         String rulesConfig = determinePreprocessingRules(originalPayload);
@@ -163,10 +190,9 @@ public class EnrollmentPdfController {
         fullPayload.putAll(flattenedPayload);
         fullPayload.putAll(originalPayload); // Keep original nested structure
         
-        System.out.println("Pre-processing complete using rules: " + rulesConfig +
-            " | hasPrimary=" + fullPayload.containsKey("primary") +
-            ", hasSpouse=" + fullPayload.getOrDefault("hasSpouse", false) +
-            ", dependents=" + fullPayload.getOrDefault("dependentCount", 0));
+        log.debug("Pre-processing complete using rules: {} | hasPrimary={}, hasSpouse={}, dependents={}",
+            rulesConfig, fullPayload.containsKey("primary"),
+            fullPayload.getOrDefault("hasSpouse", false), fullPayload.getOrDefault("dependentCount", 0));
         
         return fullPayload;
     }
@@ -5,6 +5,10 @@ import com.example.pdf.service.ExcelTemplateService;
 import com.example.pdf.service.ExcelMergeConfigService;
 import com.example.pdf.service.ExcelMergeConfig;
 import com.example.pdf.service.ExcelToPdfConverter;
+import com.example.pdf.service.RenderResultCache;
+import com.example.pdf.service.RenderAdmission.RenderClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -15,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * REST Controller for Excel template generation
@@ -22,6 +27,8 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/excel")
 public class ExcelGenerationController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelGenerationController.class);
     
     @Autowired
     private ExcelTemplateService excelTemplateService;
@@ -35,6 +42,9 @@ public class ExcelGenerationController {
     @Autowired
     private ExcelToPdfConverter excelToPdfConverter;
     
+    @Autowired
+    private RenderResultCache resultCache;
+    
     /**
      * Generate Excel using YAML configuration (recommended approach)
      * 
@@ -44,40 +54,15 @@ public class ExcelGenerationController {
      *   "payload": {...}
      * }
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-from-config")
     public ResponseEntity<byte[]> generateFromConfig(@RequestBody ExcelConfigRequest request) {
         try {
             // Load configuration from YAML
             ExcelMergeConfig config = excelConfigService.loadConfig(request.getConfigName());
             
-            // Apply preprocessing if specified
-            Map<String, Object> processedPayload = request.getPayload();
-            if (config.getPreprocessingRules() != null) {
-                processedPayload = payloadPreProcessor.preProcess(
-                    request.getPayload(),
-                    "preprocessing/" + config.getPreprocessingRules()
-                );
-            }
-            
-            // Generate Excel based on config
-            byte[] excelBytes;
-            if (config.getTableMappings() != null && !config.getTableMappings().isEmpty()) {
-                // Has table mappings - convert to service format
-                List<ExcelTemplateService.TableMapping> tableMappings = 
-                    convertTableMappings(config.getTableMappings());
-                excelBytes = excelTemplateService.fillExcelWithTables(
-                    config.getTemplatePath(),
-                    tableMappings,
-                    processedPayload
-                );
-            } else {
-                // Simple cell mappings only
-                excelBytes = excelTemplateService.fillExcelTemplate(
-                    config.getTemplatePath(),
-                    config.getCellMappings(),
-                    processedPayload
-                );
-            }
+            byte[] excelBytes = cachedRender("excel", request.getConfigName(), config, request.getPayload(),
+                () -> fillFromConfig(config, request.getPayload()));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
@@ -86,11 +71,55 @@ public class ExcelGenerationController {
             return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Serve identical (config, template file, payload) requests from the result cache when it
+     * is enabled. Preprocessing rules are not part of the version: they are read once per
+     * process and never reloaded.
+     */
+    private byte[] cachedRender(String kind, String configName, ExcelMergeConfig config,
+                                Map<String, Object> payload, Callable<byte[]> render) throws Exception {
+        if (!resultCache.isEnabled()) {
+            return render.call();
+        }
+        String version = resultCache.fingerprint(config) + "/x"
+            + resultCache.fileVersion(excelTemplateService.resolveTemplate(config.getTemplatePath()));
+        return resultCache.getOrRender(kind, configName, version, payload, render);
+    }
+    
+    private byte[] fillFromConfig(ExcelMergeConfig config, Map<String, Object> payload) throws Exception {
+        // Apply preprocessing if specified
+        Map<String, Object> processedPayload = payload;
+        if (config.getPreprocessingRules() != null) {
+            processedPayload = payloadPreProcessor.preProcess(
+                payload,
+                "preprocessing/" + config.getPreprocessingRules()
+            );
+        }
+        
+        // Generate Excel based on config
+        if (config.getTableMappings() != null && !config.getTableMappings().isEmpty()) {
+            // Has table mappings - convert to service format
+            List<ExcelTemplateService.TableMapping> tableMappings = 
+                convertTableMappings(config.getTableMappings());
+            return excelTemplateService.fillExcelWithTables(
+                config.getTemplatePath(),
+                tableMappings,
+                processedPayload
+            );
+        }
+        // Simple cell mappings only
+        return excelTemplateService.fillExcelTemplate(
+            config.getTemplatePath(),
+            config.getCellMappings(),
+            processedPayload
+        );
+    }
+    
     /**
      * Generate Excel from template using cell mappings (simple key-value approach)
      * 
@@ -105,6 +134,7 @@ public class ExcelGenerationController {
      *   "payload": {...}
      * }
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate")
     public ResponseEntity<byte[]> generateExcel(@RequestBody ExcelGenerationRequest request) {
         try {
@@ -121,7 +151,7 @@ public class ExcelGenerationController {
             return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -142,6 +172,7 @@ public class ExcelGenerationController {
      *   "payload": {...}
      * }
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-with-preprocessing")
     public ResponseEntity<byte[]> generateExcelWithPreprocessing(@RequestBody ExcelPreprocessedRequest request) {
         try {
@@ -165,7 +196,7 @@ public class ExcelGenerationController {
             return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -192,6 +223,7 @@ public class ExcelGenerationController {
      *   "payload": {...}
      * }
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-with-tables")
     public ResponseEntity<byte[]> generateExcelWithTables(@RequestBody ExcelTableRequest request) {
         try {
@@ -208,7 +240,7 @@ public class ExcelGenerationController {
             return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -218,6 +250,7 @@ public class ExcelGenerationController {
      * 
      * POST /api/excel/generate-complete
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-complete")
     public ResponseEntity<byte[]> generateCompleteExcel(@RequestBody ExcelCompleteRequest request) {
         try {
@@ -244,7 +277,7 @@ public class ExcelGenerationController {
             return new ResponseEntity<>(excelBytes, headers, HttpStatus.OK);
             
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -339,6 +372,7 @@ public class ExcelGenerationController {
      * 
      * Same as /generate but returns PDF instead of Excel
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-as-pdf")
     public ResponseEntity<byte[]> generateExcelAsPdf(@RequestBody ExcelGenerationRequest request) {
         try {
@@ -365,7 +399,7 @@ public class ExcelGenerationController {
                 .body(("Excel-to-PDF conversion not available. " + e.getMessage()).getBytes());
                 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(("Error: " + e.getMessage()).getBytes());
@@ -376,18 +410,20 @@ public class ExcelGenerationController {
      * Generate Excel from config and convert to PDF
      * POST /api/excel/generate-from-config-as-pdf
      */
+    @AdmittedAs(RenderClass.EXCEL)
     @PostMapping("/generate-from-config-as-pdf")
     public ResponseEntity<byte[]> generateFromConfigAsPdf(@RequestBody ExcelConfigRequest request) {
         try {
             ExcelMergeConfig config = excelConfigService.loadConfig(request.getConfigName());
             
-            byte[] excelData = excelTemplateService.fillExcelTemplate(
-                config.getTemplatePath(),
-                config.getCellMappings(),
-                request.getPayload()
-            );
-            
-            byte[] pdfData = excelToPdfConverter.convertToPdf(excelData);
+            byte[] pdfData = cachedRender("excel-pdf", request.getConfigName(), config, request.getPayload(), () -> {
+                    byte[] excelData = excelTemplateService.fillExcelTemplate(
+                        config.getTemplatePath(),
+                        config.getCellMappings(),
+                        request.getPayload()
+                    );
+                    return excelToPdfConverter.convertToPdf(excelData);
+                });
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -401,7 +437,7 @@ public class ExcelGenerationController {
                 .body(("Conversion not available. " + e.getMessage()).getBytes());
                 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Excel generation failed", e);
             return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(("Error: " + e.getMessage()).getBytes());
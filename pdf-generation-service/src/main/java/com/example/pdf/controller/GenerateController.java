@@ -1,12 +1,17 @@
 package com.example.pdf.controller;
 
+import com.example.pdf.logging.DiagnosticSampler;
+import com.example.pdf.logging.LogValues;
+import com.example.pdf.logging.PiiRedactor;
 import com.example.pdf.service.MappingService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.pdf.service.RenderAdmission.RenderClass;
 import jakarta.validation.Valid;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -24,45 +29,53 @@ import java.util.Map;
 @RequestMapping("/generate")
 public class GenerateController {
 
+    private static final Logger log = LoggerFactory.getLogger(GenerateController.class);
+
     private final MappingService mappingService;
-    private final ObjectMapper mapper = new ObjectMapper();
     private final com.example.pdf.service.HtmlPdfService htmlPdfService;
     private final com.example.pdf.service.FreemarkerService freemarkerService;
+    private final DiagnosticSampler diagnosticSampler;
 
     public GenerateController(MappingService mappingService,
                               com.example.pdf.service.HtmlPdfService htmlPdfService,
-                              com.example.pdf.service.FreemarkerService freemarkerService) {
+                              com.example.pdf.service.FreemarkerService freemarkerService,
+                              DiagnosticSampler diagnosticSampler) {
         this.mappingService = mappingService;
         this.htmlPdfService = htmlPdfService;
         this.freemarkerService = freemarkerService;
+        this.diagnosticSampler = diagnosticSampler;
     }
 
+    @AdmittedAs(RenderClass.HTML)
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ByteArrayResource> generate(@Valid @RequestBody GenerateRequest req) throws Exception {
-        System.out.println("Received generate request: " + mapper.writeValueAsString(req));
+        log.info("Received generate request for template {}", req.getTemplateName());
+        // Full request/mapping/value dumps only for sampled requests (or at DEBUG); always redacted
+        DiagnosticSampler.Diagnostics diag = diagnosticSampler.begin(log);
+        diag.log("Generate request: {}", LogValues.json(req));
         try {
             // Resolve mapping document: either override or fetch from config server
             com.example.pdf.model.MappingDocument doc = mappingService.composeMappingDocument(req);
-
-            System.out.println("Resolved mapping document: " + mapper.writeValueAsString(doc));
+            diag.log("Resolved mapping document: {}", LogValues.json(doc));
 
             // Extract the pdf field->payloadPath map
             Map<String, String> fieldMap = mappingService.extractFieldMap(doc);
-            System.out.println("Extracted field map: " + mapper.writeValueAsString(fieldMap));
+            diag.log("Extracted field map: {}", LogValues.json(fieldMap));
 
-            // Apply mapping: for each mapping entry, resolve payload path
+            // Apply mapping: resolve all payload paths in one walk, shared prefixes once
             Map<String, Object> resolved = new LinkedHashMap<>();
             Map<String, Object> payload = req.getPayload() == null ? Map.of() : req.getPayload();
-            System.out.println("Using payload: " + mapper.writeValueAsString(payload));
+            Map<String, Object> values = mappingService.resolvePaths(payload, fieldMap);
             for (Map.Entry<String, String> e : fieldMap.entrySet()) {
                 String pdfField = e.getKey();
-                String payloadPath = e.getValue();
-                System.out.println("Mapping PDF field '" + pdfField + "' to payload path '" + payloadPath + "'");
-                Object value = mappingService.resolvePath(payload, payloadPath);
-                System.out.println("  Resolved value: " + (value == null ? "null" : mapper.writeValueAsString(value)));
+                Object value = values.get(pdfField);
+                if (diag.isEnabled()) {
+                    diag.log("Mapped PDF field '{}' <- '{}': {}", pdfField, e.getValue(),
+                        LogValues.json(PiiRedactor.value(pdfField, value)));
+                }
                 resolved.put(pdfField, value == null ? "" : value);
             }
-            System.out.println("Final resolved PDF data: " + mapper.writeValueAsString(resolved));
+            diag.log("Final resolved PDF data: {}", LogValues.json(resolved));
 
             byte[] pdf;
 
@@ -76,14 +89,14 @@ public class GenerateController {
                     Map<String, Object> model = new LinkedHashMap<>(resolved);
                     model.put("payload", payload);
                     String rendered = freemarkerService.processTemplateFromLocation(templateUrl, model);
-                    pdf = htmlPdfService.renderHtmlToPdf(rendered);
+                    pdf = htmlPdfService.renderHtmlToPdf(rendered, templateUrl);
                 } else if (ttype != null && "html".equalsIgnoreCase(ttype)) {
                     // Provide the payload to the simple replacer too (it expects a map)
                     Map<String, Object> model = new LinkedHashMap<>(resolved);
                     model.put("payload", payload);
                     String html = htmlPdfService.fetchTemplateContent(templateUrl);
                     String rendered = htmlPdfService.applySimpleReplacements(html, model);
-                    pdf = htmlPdfService.renderHtmlToPdf(rendered);
+                    pdf = htmlPdfService.renderHtmlToPdf(rendered, templateUrl);
                 } else {
                     pdf = createPdfFromMap(resolved);
                 }
@@ -115,8 +128,7 @@ public class GenerateController {
             HttpHeaders errHeaders = new HttpHeaders();
             errHeaders.setContentType(MediaType.APPLICATION_JSON);
             errHeaders.setContentLength(msg.length());
-            System.out.println("Template/request processing failed: " + ex.toString());
-            ex.printStackTrace(System.out);
+            log.error("Template/request processing failed", ex);
             return ResponseEntity.status(500).headers(errHeaders).body(err);
         }
     }
@@ -1,6 +1,9 @@
 package com.example.pdf.controller;
 
+import com.example.pdf.service.BatchMergeService;
 import com.example.pdf.service.FlexiblePdfMergeService;
+import com.example.pdf.service.RenderAdmission.RenderClass;
+import com.example.pdf.service.RenderJobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.InputStream;
 
 import java.util.Map;
 
@@ -21,6 +28,13 @@ public class PdfMergeController {
     @Autowired
     private FlexiblePdfMergeService flexiblePdfMergeService;
 
+    @Autowired
+    private RenderJobService renderJobService;
+
+    @Autowired
+    private BatchMergeService batchMergeService;
+
+    @AdmittedAs(RenderClass.MERGE)
     @PostMapping(value = "/merge", produces = MediaType.APPLICATION_PDF_VALUE)
     public ResponseEntity<byte[]> mergePdf(@RequestBody MergePdfRequest request) {
         try {
@@ -48,6 +62,43 @@ public class PdfMergeController {
         }
     }
 
+    /**
+     * Asynchronous variant of {@link #mergePdf}: returns 202 with a job id immediately.
+     * Poll GET /api/jobs/{id} and download from GET /api/jobs/{id}/result.
+     */
+    @PostMapping("/merge/async")
+    public ResponseEntity<Map<String, Object>> mergePdfAsync(@RequestBody MergePdfRequest request,
+                                                             @RequestParam(defaultValue = "0") int priority) {
+        log.info("Received async merge PDF request with config: {} (priority {})", request.getConfigName(), priority);
+        String fileName = request.getOutputFileName() != null ? request.getOutputFileName() : "merged-report.pdf";
+        return RenderJobController.accept(renderJobService, "merge", priority, fileName,
+            () -> flexiblePdfMergeService.generateMergedPdf(request.getConfigName(), request.getPayload()));
+    }
+
+    /**
+     * Bulk generation: NDJSON body in, ZIP of PDFs out.
+     *
+     * <pre>
+     * {"configName": "enrollment-ca"}          (header line, or use ?configName=)
+     * {"id": "A-1", "payload": {...}}
+     * {"id": "A-2", "payload": {...}, "outputFileName": "a2.pdf"}
+     * </pre>
+     * PDFs are streamed into the ZIP as they finish; manifest.json (last entry) lists every
+     * item with its status and error.
+     */
+    @PostMapping(value = "/merge/batch", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> mergeBatch(@RequestParam(required = false) String configName,
+                                                            HttpServletRequest request) throws java.io.IOException {
+        log.info("Received batch merge request (config: {})", configName != null ? configName : "from header line");
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = out -> batchMergeService.process(configName, body, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "merged-batch.zip");
+        return new ResponseEntity<>(stream, headers, HttpStatus.OK);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of(
@@ -0,0 +1,33 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderAdmission;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for render admission state.
+ *
+ * GET /actuator/admission - current limit, in-flight, queued and latency per render class
+ */
+@Component
+@Endpoint(id = "admission")
+public class RenderAdmissionEndpoint {
+
+    private final RenderAdmission admission;
+
+    public RenderAdmissionEndpoint(RenderAdmission admission) {
+        this.admission = admission;
+    }
+
+    @ReadOperation
+    public Map<String, Object> admission() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", admission.isEnabled());
+        result.put("classes", admission.snapshot());
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderAdmission;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link RenderAdmission} to handler methods annotated with {@link AdmittedAs}.
+ * The slot is taken before the handler runs and released when the request completes;
+ * rejected requests get 429/503 with Retry-After and never reach the controller.
+ *
+ * <p>Only successful requests (no exception, status below 400) feed the latency the limits
+ * adapt to; failures release their slot without a sample, so fast validation errors do not
+ * pull the baseline down and slow failures do not shrink the limit. The sample covers the
+ * whole handler, including reading a JSON request body and writing the response, so a slow
+ * client on either side looks like a slow render. Multipart uploads are read before the slot
+ * is taken and are not included.
+ */
+@Component
+public class RenderAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderAdmissionInterceptor.class);
+
+    private static final String PERMIT_ATTRIBUTE = RenderAdmissionInterceptor.class.getName() + ".permit";
+
+    private final RenderAdmission admission;
+
+    public RenderAdmissionInterceptor(RenderAdmission admission) {
+        this.admission = admission;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        AdmittedAs admittedAs = ((HandlerMethod) handler).getMethodAnnotation(AdmittedAs.class);
+        if (admittedAs == null) {
+            return true;
+        }
+        try {
+            request.setAttribute(PERMIT_ATTRIBUTE, admission.acquire(admittedAs.value()));
+            return true;
+        } catch (RenderAdmission.AdmissionRejectedException e) {
+            log.warn("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            response.setStatus(e.getStatus());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"" + e.getMessage().replace("\"", "'") + "\"}");
+            return false;
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            if (ex == null && response.getStatus() < 400) {
+                ((RenderAdmission.Permit) permit).close();
+            } else {
+                ((RenderAdmission.Permit) permit).abandon();
+            }
+        }
+    }
+}
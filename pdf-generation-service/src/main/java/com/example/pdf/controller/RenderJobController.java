@@ -0,0 +1,94 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderJob;
+import com.example.pdf.service.RenderJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Polling and download side of the async render API.
+ *
+ * Jobs are submitted via POST /api/pdf/merge/async or /api/enrollment/generate/async.
+ * GET /api/jobs/{id}        - job status
+ * GET /api/jobs/{id}/result - the finished PDF (202 while the job is still queued/running)
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class RenderJobController {
+
+    private final RenderJobService renderJobService;
+
+    public RenderJobController(RenderJobService renderJobService) {
+        this.renderJobService = renderJobService;
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable String jobId) {
+        RenderJob job = renderJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(withLinks(job));
+    }
+
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> result(@PathVariable String jobId) {
+        RenderJob job = renderJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        switch (job.getStatus()) {
+            case COMPLETED:
+                if (job.getResultFile() == null || !Files.exists(job.getResultFile())) {
+                    return ResponseEntity.status(HttpStatus.GONE).body(withLinks(job));
+                }
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_PDF);
+                headers.setContentDispositionFormData("attachment", job.getOutputFileName());
+                headers.setContentLength(job.getSizeBytes());
+                Resource body = new FileSystemResource(job.getResultFile());
+                return new ResponseEntity<>(body, headers, HttpStatus.OK);
+            case FAILED:
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(withLinks(job));
+            default:
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, "2")
+                    .body(withLinks(job));
+        }
+    }
+
+    /**
+     * Submit a render and build the 202 (or 503 when the queue is full) response. Shared
+     * by the controllers that expose async variants of their endpoints.
+     */
+    static ResponseEntity<Map<String, Object>> accept(RenderJobService service, String kind, int priority,
+                                                      String outputFileName, Callable<byte[]> work) {
+        try {
+            RenderJob job = service.submit(kind, priority, outputFileName, work);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(java.net.URI.create("/api/jobs/" + job.getId()))
+                .body(withLinks(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> withLinks(RenderJob job) {
+        Map<String, Object> body = job.toStatusMap();
+        body.put("statusUrl", "/api/jobs/" + job.getId());
+        body.put("resultUrl", "/api/jobs/" + job.getId() + "/result");
+        return body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderProfiler;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for per-template render timings.
+ *
+ * GET    /actuator/renderprofile?top=10      - templates ordered by total render time
+ * GET    /actuator/renderprofile/{template}  - one template (URL-encode slashes)
+ * DELETE /actuator/renderprofile             - reset all timings
+ */
+@Component
+@Endpoint(id = "renderprofile")
+public class RenderProfileEndpoint {
+
+    private final RenderProfiler profiler;
+
+    public RenderProfileEndpoint(RenderProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> profile(@Nullable Integer top) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", profiler.isEnabled());
+        result.put("templates", profiler.snapshot(top == null ? 0 : top));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> template(@Selector String template) {
+        return profiler.snapshot(template);
+    }
+
+    @DeleteOperation
+    public Map<String, Object> reset() {
+        profiler.reset();
+        return Map.of("message", "Render profile reset");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.pdf.function;
+
+import java.util.Map;
+
+/**
+ * Second-generation function contract used by compiled function expressions.
+ *
+ * <p>Instead of a fresh {@code Object[]} of strings per call, the function receives the
+ * call's evaluated arguments as {@link FunctionArgs} (literals keep their parsed type,
+ * field references their payload value) and appends its result to the caller's
+ * {@link StringBuilder}. Expressions are compiled once, and {@link #bind(CallSite)} is called
+ * once per call site at that point: functions whose arguments include patterns or other
+ * settings override it to resolve the constant ones up front (a date formatter for
+ * {@code formatDate(dob, 'MM/dd/yyyy')}) and return an {@link Invocation} that only does
+ * the per-value work.
+ *
+ * <p>{@link #apply(Object[], Map)} stays available for callers of the original contract.
+ */
+@FunctionalInterface
+public interface BindableFunction extends FieldTransformationFunction {
+
+    /**
+     * Append the result of the function for {@code args} to {@code out}.
+     *
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    void appendTo(FunctionArgs args, StringBuilder out);
+
+    /**
+     * Prepare a call site. The default performs no binding; override to pre-compute
+     * anything that depends only on {@link CallSite#isConstant constant} arguments.
+     */
+    default Invocation bind(CallSite site) {
+        return this::appendTo;
+    }
+
+    /**
+     * Whether the result depends only on the arguments. Calls of a pure function with only
+     * literal arguments are evaluated once at compile time; override to return false for
+     * functions that read the payload, the clock or other state.
+     */
+    default boolean isPure() {
+        return true;
+    }
+
+    @Override
+    default String apply(Object[] args, Map<String, Object> payload) {
+        StringBuilder out = new StringBuilder();
+        appendTo(FunctionArgs.of(args, payload), out);
+        return out.toString();
+    }
+
+    /**
+     * A function bound to one call site; shared by all threads evaluating the expression.
+     */
+    @FunctionalInterface
+    interface Invocation {
+
+        void appendTo(FunctionArgs args, StringBuilder out);
+    }
+}
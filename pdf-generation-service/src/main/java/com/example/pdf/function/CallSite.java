@@ -0,0 +1,37 @@
+package com.example.pdf.function;
+
+/**
+ * The arguments of a function call as written in an expression, seen by
+ * {@link BindableFunction#bind} when the expression is compiled: which of them are literals,
+ * and their values.
+ */
+public final class CallSite {
+
+    private final Object[] constants;
+    private final boolean[] constant;
+
+    CallSite(Object[] constants, boolean[] constant) {
+        this.constants = constants;
+        this.constant = constant;
+    }
+
+    /** Number of arguments at the call site. */
+    public int size() {
+        return constants.length;
+    }
+
+    /** Whether the argument at {@code index} is a literal (or absent) and so the same for every call. */
+    public boolean isConstant(int index) {
+        return index >= constant.length || constant[index];
+    }
+
+    /** The value of a constant argument, or null if it is absent or not constant. */
+    public Object constant(int index) {
+        return index < constants.length ? constants[index] : null;
+    }
+
+    /** A constant argument as an int, or {@code defaultValue} if absent or not an integer. */
+    public int constantInt(int index, int defaultValue) {
+        return FunctionArgs.toInt(constant(index), defaultValue);
+    }
+}
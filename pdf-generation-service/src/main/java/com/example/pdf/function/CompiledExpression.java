@@ -0,0 +1,597 @@
+package com.example.pdf.function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A function expression, or a template of literal text and expressions, parsed once into
+ * literals, field references and function calls bound to their call sites.
+ *
+ * <p>Calls to {@link BindableFunction#isPure() pure} functions whose arguments are all
+ * literals are evaluated at compile time and replaced by their result, and adjacent literal
+ * text is merged, so {@code "Plan: #{uppercase('gold')}"} compiles to one constant string.
+ *
+ * <p>Evaluation walks the tree with an {@link Evaluation} borrowed from a shared pool:
+ * arguments are pushed on a reused value stack and passed to the function as a
+ * {@link FunctionArgs} view, and call results are appended to reused builders, so evaluating
+ * an expression allocates little more than its result String. The pool is not tied to
+ * threads, so short-lived request threads reuse scratch state warmed up by earlier ones.
+ */
+public final class CompiledExpression {
+
+    private static final int MAX_POOLED_EVALUATIONS = 64;
+
+    private static final BlockingQueue<Evaluation> EVALUATIONS = new ArrayBlockingQueue<>(MAX_POOLED_EVALUATIONS);
+
+    private final Node[] segments;
+    /** The result when there is nothing to evaluate, otherwise null. */
+    private final String constant;
+
+    private CompiledExpression(Node... segments) {
+        this.segments = segments;
+        String text = null;
+        if (segments.length == 0) {
+            text = "";
+        } else if (segments.length == 1 && segments[0] instanceof Literal) {
+            text = ((Literal) segments[0]).text();
+        }
+        this.constant = text;
+    }
+
+    /** A plain field reference such as {@code applicant.firstName}. */
+    static CompiledExpression field(String path) {
+        return new CompiledExpression(new FieldRef(path));
+    }
+
+    /**
+     * Literal text with embedded {@code #{...}} expressions. Text that starts like an
+     * expression but does not parse as one is kept as literal text. With
+     * {@code placeholders}, {@code {name}} is also replaced by the top-level payload value
+     * {@code name}, and kept as written when there is none.
+     *
+     * @throws IllegalArgumentException if an expression calls an unknown function
+     */
+    static CompiledExpression template(String text, boolean placeholders, FunctionRegistry registry) {
+        List<Node> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            Node node = null;
+            int end = i;
+            if (c == '#' && text.startsWith("#{", i)) {
+                Parser parser = new Parser(text, registry, i);
+                try {
+                    node = parser.call();
+                    end = parser.pos;
+                } catch (SyntaxError e) {
+                    node = null;
+                }
+            } else if (c == '{' && placeholders) {
+                int close = text.indexOf('}', i + 1);
+                if (close > i + 1 && text.lastIndexOf('{', close - 1) == i) {
+                    node = new Placeholder(text.substring(i + 1, close));
+                    end = close + 1;
+                }
+            }
+            if (node == null) {
+                literal.append(c);
+                i++;
+            } else if (node instanceof Literal) {
+                literal.append(((Literal) node).text());
+                i = end;
+            } else {
+                if (literal.length() > 0) {
+                    segments.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(node);
+                i = end;
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new CompiledExpression(segments.toArray(new Node[0]));
+    }
+
+    /**
+     * A function expression such as {@code #{concat(firstName, ' ', lastName)}}.
+     *
+     * @throws IllegalArgumentException if a function is unknown or the expression is malformed
+     */
+    static CompiledExpression call(String expression, FunctionRegistry registry) {
+        return new CompiledExpression(new Parser(expression, registry, 0).wholeCall());
+    }
+
+    /**
+     * Whether {@code expression} should compile as one function call: false only when its first
+     * call parses and is followed by more text, as in the template {@code "#{a(x)} #{b(y)}"}.
+     * A malformed call stays a call so that {@link #compile} reports it. Function names are
+     * not looked up.
+     */
+    static boolean isWholeCall(String expression) {
+        Parser parser = new Parser(expression, null, 0);
+        try {
+            parser.call();
+        } catch (SyntaxError e) {
+            return true;
+        }
+        parser.skipSpaces();
+        return parser.pos == expression.length();
+    }
+
+    /** Whether the result is the same for every payload. */
+    public boolean isConstant() {
+        return constant != null;
+    }
+
+    /** Evaluate against a payload. */
+    public String evaluate(Map<String, Object> payload) {
+        if (constant != null) {
+            return constant;
+        }
+        Evaluation evaluation = Evaluation.acquire(payload);
+        try {
+            StringBuilder out = evaluation.borrow();
+            appendSegments(evaluation, out);
+            return out.toString();
+        } finally {
+            evaluation.release();
+        }
+    }
+
+    /** Evaluate against a payload, appending the result to {@code out}. */
+    public void appendTo(StringBuilder out, Map<String, Object> payload) {
+        if (constant != null) {
+            out.append(constant);
+            return;
+        }
+        Evaluation evaluation = Evaluation.acquire(payload);
+        try {
+            appendSegments(evaluation, out);
+        } finally {
+            evaluation.release();
+        }
+    }
+
+    private void appendSegments(Evaluation evaluation, StringBuilder out) {
+        for (Node segment : segments) {
+            segment.appendTo(evaluation, out);
+        }
+    }
+
+    private abstract static class Node {
+
+        /** The value passed as an argument to an enclosing call. */
+        abstract Object value(Evaluation evaluation);
+
+        void appendTo(Evaluation evaluation, StringBuilder out) {
+            Object value = value(evaluation);
+            out.append(value instanceof String ? (String) value : String.valueOf(value));
+        }
+    }
+
+    private static final class Literal extends Node {
+
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object value(Evaluation evaluation) {
+            return value;
+        }
+
+        String text() {
+            return value instanceof String ? (String) value : String.valueOf(value);
+        }
+    }
+
+    /** A {@code {name}} placeholder for a top-level payload value; kept as written if there is none. */
+    private static final class Placeholder extends Node {
+
+        private final String name;
+
+        Placeholder(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object value(Evaluation evaluation) {
+            Object value = evaluation.payload != null ? evaluation.payload.get(name) : null;
+            return value != null ? value : "{" + name + "}";
+        }
+    }
+
+    /** A dot-separated payload path; missing fields resolve to an empty String. */
+    private static final class FieldRef extends Node {
+
+        private final String[] parts;
+
+        FieldRef(String path) {
+            this.parts = path.isEmpty() ? new String[0] : path.split("\\.");
+        }
+
+        @Override
+        Object value(Evaluation evaluation) {
+            if (parts.length == 0 || evaluation.payload == null) {
+                return "";
+            }
+            Object current = evaluation.payload;
+            for (String part : parts) {
+                if (!(current instanceof Map)) {
+                    return "";
+                }
+                current = ((Map<?, ?>) current).get(part);
+                if (current == null) {
+                    return "";
+                }
+            }
+            return current;
+        }
+    }
+
+    private static final class Call extends Node {
+
+        private final BindableFunction.Invocation invocation;
+        private final Node[] args;
+
+        Call(BindableFunction.Invocation invocation, Node[] args) {
+            this.invocation = invocation;
+            this.args = args;
+        }
+
+        @Override
+        Object value(Evaluation evaluation) {
+            StringBuilder out = evaluation.borrow();
+            try {
+                appendTo(evaluation, out);
+                return out.toString();
+            } finally {
+                evaluation.giveBack();
+            }
+        }
+
+        @Override
+        void appendTo(Evaluation evaluation, StringBuilder out) {
+            int base = evaluation.top;
+            for (Node arg : args) {
+                evaluation.push(arg.value(evaluation));
+            }
+            FunctionArgs frame = evaluation.enter(base, args.length);
+            try {
+                invocation.appendTo(frame, out);
+            } finally {
+                evaluation.exit(base);
+            }
+        }
+    }
+
+    /** Scratch state for one evaluation at a time: value stack, argument views and builders, pooled between evaluations. */
+    private static final class Evaluation {
+
+        private static final int MAX_RETAINED_CAPACITY = 8 * 1024;
+
+        Map<String, Object> payload;
+
+        Object[] stack = new Object[16];
+        int top;
+
+        private FunctionArgs[] frames = new FunctionArgs[4];
+        private int depth;
+
+        private StringBuilder[] builders = new StringBuilder[4];
+        private int borrowed;
+
+        /**
+         * An idle evaluation from the pool, or a new one. One in use is not in the pool, so a
+         * function that resolves an expression itself gets a separate one.
+         */
+        static Evaluation acquire(Map<String, Object> payload) {
+            Evaluation evaluation = EVALUATIONS.poll();
+            if (evaluation == null) {
+                evaluation = new Evaluation();
+            }
+            evaluation.begin(payload);
+            return evaluation;
+        }
+
+        void begin(Map<String, Object> payload) {
+            this.payload = payload;
+        }
+
+        /** {@link #end()} and return to the pool, unless it is full. */
+        void release() {
+            end();
+            EVALUATIONS.offer(this);
+        }
+
+        void end() {
+            Arrays.fill(stack, 0, top, null);
+            for (int i = 0; i < depth; i++) {
+                frames[i].reset(stack, 0, 0, null);
+            }
+            top = 0;
+            depth = 0;
+            borrowed = 0;
+            payload = null;
+        }
+
+        void push(Object value) {
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = value;
+        }
+
+        FunctionArgs enter(int base, int size) {
+            if (depth == frames.length) {
+                frames = Arrays.copyOf(frames, depth * 2);
+            }
+            FunctionArgs frame = frames[depth];
+            if (frame == null) {
+                frame = frames[depth] = new FunctionArgs();
+            }
+            frame.reset(stack, base, size, payload);
+            depth++;
+            return frame;
+        }
+
+        void exit(int base) {
+            depth--;
+            Arrays.fill(stack, base, top, null);
+            top = base;
+        }
+
+        StringBuilder borrow() {
+            if (borrowed == builders.length) {
+                builders = Arrays.copyOf(builders, borrowed * 2);
+            }
+            StringBuilder builder = builders[borrowed];
+            if (builder == null || builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = builders[borrowed] = new StringBuilder(64);
+            } else {
+                builder.setLength(0);
+            }
+            borrowed++;
+            return builder;
+        }
+
+        void giveBack() {
+            borrowed--;
+        }
+    }
+
+    /**
+     * Recursive-descent parser for {@code #{name(arg, ...)}}. An argument is a quoted literal
+     * ({@code '...'} or {@code "..."}), a nested call (with or without its own {@code #{}}),
+     * or an unquoted token: an integer or decimal number, {@code true}/{@code false}, or
+     * otherwise a field path. An empty argument is an empty String.
+     */
+    private static final class Parser {
+
+        private final String text;
+        private final FunctionRegistry registry;
+        private int pos;
+
+        Parser(String text, FunctionRegistry registry, int pos) {
+            this.text = text;
+            this.registry = registry;
+            this.pos = pos;
+        }
+
+        Node wholeCall() {
+            Node call = call();
+            skipSpaces();
+            if (pos != text.length()) {
+                throw error();
+            }
+            return call;
+        }
+
+        Node call() {
+            boolean wrapped = text.startsWith("#{", pos);
+            if (wrapped) {
+                pos += 2;
+                skipSpaces();
+            }
+            int start = pos;
+            while (pos < text.length() && isNameChar(text.charAt(pos), pos == start)) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error();
+            }
+            String name = text.substring(start, pos);
+            skipSpaces();
+            expect('(');
+            List<Node> args = arguments();
+            expect(')');
+            if (wrapped) {
+                skipSpaces();
+                expect('}');
+            }
+            return bind(name, args);
+        }
+
+        private List<Node> arguments() {
+            List<Node> args = new ArrayList<>();
+            skipSpaces();
+            if (peek() == ')') {
+                return args;
+            }
+            while (true) {
+                args.add(argument());
+                skipSpaces();
+                if (peek() != ',') {
+                    return args;
+                }
+                pos++;
+                skipSpaces();
+                if (peek() == ')') {
+                    // A trailing comma adds no argument
+                    return args;
+                }
+            }
+        }
+
+        private Node argument() {
+            skipSpaces();
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                int end = text.indexOf(c, pos + 1);
+                if (end < 0) {
+                    throw error();
+                }
+                String literal = text.substring(pos + 1, end);
+                pos = end + 1;
+                return new Literal(literal);
+            }
+            if (text.startsWith("#{", pos) || startsCall()) {
+                return call();
+            }
+            int start = pos;
+            while (pos < text.length() && peek() != ',' && peek() != ')') {
+                pos++;
+            }
+            return token(text.substring(start, pos).trim());
+        }
+
+        private static Node token(String token) {
+            if (token.isEmpty()) {
+                return new Literal("");
+            }
+            try {
+                return new Literal(token.contains(".") ? (Object) Double.parseDouble(token) : (Object) Integer.parseInt(token));
+            } catch (NumberFormatException e) {
+                // Not a number
+            }
+            if ("true".equalsIgnoreCase(token) || "false".equalsIgnoreCase(token)) {
+                return new Literal(Boolean.parseBoolean(token));
+            }
+            return new FieldRef(token);
+        }
+
+        private Node bind(String name, List<Node> args) {
+            if (registry == null) {
+                // Syntax check only
+                return new Literal("");
+            }
+            FieldTransformationFunction function = registry.get(name);
+            if (function == null) {
+                throw new IllegalArgumentException("Unknown function: " + name);
+            }
+            Object[] constants = new Object[args.size()];
+            boolean[] constant = new boolean[args.size()];
+            for (int i = 0; i < args.size(); i++) {
+                if (args.get(i) instanceof Literal) {
+                    constants[i] = ((Literal) args.get(i)).value;
+                    constant[i] = true;
+                }
+            }
+            CallSite site = new CallSite(constants, constant);
+            boolean bindable = function instanceof BindableFunction;
+            BindableFunction.Invocation invocation = bindable
+                ? ((BindableFunction) function).bind(site)
+                : legacy(function, site);
+            Call call = new Call(invocation, args.toArray(new Node[0]));
+            if (bindable && ((BindableFunction) function).isPure() && allConstant(constant)) {
+                return fold(call);
+            }
+            return call;
+        }
+
+        /** The call's result as a literal, or the call itself if it fails (so it fails when evaluated, as before). */
+        private static Node fold(Call call) {
+            Evaluation evaluation = new Evaluation();
+            evaluation.begin(null);
+            try {
+                return new Literal(call.value(evaluation));
+            } catch (RuntimeException e) {
+                return call;
+            } finally {
+                evaluation.end();
+            }
+        }
+
+        private static boolean allConstant(boolean[] constant) {
+            for (boolean c : constant) {
+                if (!c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Call a function of the original contract, which receives field values and nested
+         * results as Strings.
+         */
+        private static BindableFunction.Invocation legacy(FieldTransformationFunction function, CallSite site) {
+            return (args, out) -> {
+                Object[] values = new Object[args.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Object value = args.get(i);
+                    values[i] = site.isConstant(i) || value == null ? value : value.toString();
+                }
+                String result = function.apply(values, args.payload());
+                if (result != null) {
+                    out.append(result);
+                }
+            };
+        }
+
+        private boolean startsCall() {
+            int i = pos;
+            while (i < text.length() && isNameChar(text.charAt(i), i == pos)) {
+                i++;
+            }
+            if (i == pos) {
+                return false;
+            }
+            while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            return i < text.length() && text.charAt(i) == '(';
+        }
+
+        private static boolean isNameChar(char c, boolean first) {
+            return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (!first && c >= '0' && c <= '9');
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error();
+            }
+            pos++;
+        }
+
+        private SyntaxError error() {
+            return new SyntaxError("Invalid function expression at position " + pos + ": " + text);
+        }
+    }
+
+    private static final class SyntaxError extends IllegalArgumentException {
+
+        SyntaxError(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.pdf.function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared date formatters and date parsing for functions and enrichers.
+ *
+ * <p>Formatters are compiled once per pattern and shared ({@link DateTimeFormatter} is
+ * immutable and thread-safe). Parsing never uses exceptions for control flow: each
+ * candidate pattern is tried with {@link DateTimeFormatter#parseUnresolved} and the
+ * day / month / year fields are range-checked before a {@link LocalDate} is built, so a
+ * miss costs one failed scan instead of a thrown exception. Parse results for date strings
+ * are kept in a bounded cache that evicts rarely used entries, since the same dates of
+ * birth and effective dates are read by several enrichers and field mappings for every
+ * section.
+ *
+ * <p>Input patterns are lenient about field width and case like the
+ * {@code SimpleDateFormat} parsing they replace ({@code 1/5/2026} matches
+ * {@code MM/dd/yyyy}), and text after a full match is ignored. Unlike lenient
+ * {@code SimpleDateFormat}, out-of-range fields do not roll over: {@code 13/05/2026} is not
+ * a valid {@code MM/dd/yyyy} date and falls through to {@code dd/MM/yyyy}. A two-letter
+ * year ({@code yy}) reads as the year within 80 years before and 20 years after today, as
+ * {@code SimpleDateFormat} does, so {@code 01/15/85} is 1985 rather than 2085.
+ *
+ * <p>Dates format as the start of that day in the system time zone, so patterns with time
+ * and zone fields ({@code HH:mm}, {@code Z}, {@code zzz}) print midnight and the zone.
+ */
+public final class DateFormats {
+
+    /** Input patterns tried in order when no input format is given. */
+    public static final List<String> COMMON_PATTERNS = List.of(
+        "yyyy-MM-dd",
+        "MM/dd/yyyy",
+        "dd/MM/yyyy",
+        "yyyy-MM-dd'T'HH:mm:ss",
+        "MMM dd, yyyy");
+
+    private static final int MAX_CACHED_PATTERNS = 1_000;
+    private static final int MAX_CACHED_DATES = 10_000;
+
+    private static final Cache<String, DateTimeFormatter> FORMATTERS = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATTERNS)
+        .build();
+    private static final Cache<String, DateTimeFormatter> PARSERS = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATTERNS)
+        .build();
+    private static final List<DateTimeFormatter> COMMON_PARSERS = COMMON_PATTERNS.stream().map(DateFormats::parser).toList();
+
+    // Bounded with eviction, so the dates of current requests stay cached once the number of
+    // distinct date strings seen by the process passes the bound
+    private static final Cache<String, Optional<LocalDate>> ISO_DATES = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_DATES)
+        .build();
+    private static final Cache<String, Optional<LocalDate>> COMMON_DATES = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_DATES)
+        .build();
+
+    private DateFormats() {
+    }
+
+    /**
+     * Shared output formatter for a pattern.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter formatter(String pattern) {
+        return FORMATTERS.get(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    /** Format a date with a pattern; time-of-day fields in the pattern print as midnight. */
+    public static String format(LocalDate date, String pattern) {
+        return formatter(pattern).format(date.atStartOfDay(ZoneId.systemDefault()));
+    }
+
+    /**
+     * A strict ISO {@code yyyy-MM-dd} date (the whole string, as {@link LocalDate#parse}
+     * accepts it), or null if {@code text} is not one.
+     */
+    public static LocalDate isoDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        return ISO_DATES.get(text, t -> Optional.ofNullable(parse(t, DateTimeFormatter.ISO_LOCAL_DATE, true)))
+            .orElse(null);
+    }
+
+    /** The first of {@link #COMMON_PATTERNS} that matches {@code text}, or null. */
+    public static LocalDate parseCommon(String text) {
+        if (text == null) {
+            return null;
+        }
+        return COMMON_DATES.get(text, DateFormats::parseCommonUncached).orElse(null);
+    }
+
+    private static Optional<LocalDate> parseCommonUncached(String text) {
+        for (DateTimeFormatter parser : COMMON_PARSERS) {
+            LocalDate parsed = parse(text, parser, false);
+            if (parsed != null) {
+                return Optional.of(parsed);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Number of cached parse results, for tests. */
+    static long cachedDateCount() {
+        ISO_DATES.cleanUp();
+        COMMON_DATES.cleanUp();
+        return ISO_DATES.estimatedSize() + COMMON_DATES.estimatedSize();
+    }
+
+    /**
+     * Parse {@code text} with an input pattern, or null if it does not match.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static LocalDate parse(String text, String pattern) {
+        return text == null ? null : parse(text, parser(pattern), false);
+    }
+
+    /**
+     * Parse {@code text} with a parser from {@link #parser(String)}, or null if it does not match.
+     */
+    public static LocalDate parse(String text, DateTimeFormatter parser) {
+        return text == null ? null : parse(text, parser, false);
+    }
+
+    /**
+     * Append a date to {@code out}; time-of-day fields in the formatter print as midnight.
+     *
+     * @throws java.time.DateTimeException if the formatter needs fields a date does not
+     *         have; nothing is appended in that case
+     */
+    public static void formatTo(LocalDate date, DateTimeFormatter formatter, StringBuilder out) {
+        int mark = out.length();
+        try {
+            formatter.formatTo(date.atStartOfDay(ZoneId.systemDefault()), out);
+        } catch (RuntimeException e) {
+            out.setLength(mark);
+            throw e;
+        }
+    }
+
+    /** Whole years from {@code dateOfBirth} to {@code today}. */
+    public static int age(LocalDate dateOfBirth, LocalDate today) {
+        return Period.between(dateOfBirth, today).getYears();
+    }
+
+    /**
+     * Shared input parser for a pattern, lenient about field width and case.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter parser(String pattern) {
+        return PARSERS.get(pattern, p -> {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .parseLenient();
+            appendInputPattern(builder, p);
+            return builder.toFormatter();
+        });
+    }
+
+    /**
+     * {@link DateTimeFormatterBuilder#appendPattern}, except that a two-letter year outside
+     * quotes gets a sliding century instead of the fixed base year 2000.
+     */
+    private static void appendInputPattern(DateTimeFormatterBuilder builder, String pattern) {
+        int from = 0;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == 'y' && !quoted) {
+                int end = i;
+                while (end < pattern.length() && pattern.charAt(end) == 'y') {
+                    end++;
+                }
+                if (end - i == 2) {
+                    if (i > from) {
+                        builder.appendPattern(pattern.substring(from, i));
+                    }
+                    builder.appendValueReduced(ChronoField.YEAR, 2, 2, LocalDate.now().minusYears(80));
+                    from = end;
+                }
+                i = end - 1;
+            }
+        }
+        if (from < pattern.length()) {
+            builder.appendPattern(pattern.substring(from));
+        }
+    }
+
+    private static LocalDate parse(String text, DateTimeFormatter parser, boolean wholeText) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor fields = parser.parseUnresolved(text, position);
+        if (fields == null || position.getErrorIndex() >= 0 || (wholeText && position.getIndex() != text.length())) {
+            return null;
+        }
+        return toDate(fields);
+    }
+
+    /** Build a date from parsed fields, or null if any is missing or out of range. */
+    private static LocalDate toDate(TemporalAccessor fields) {
+        ChronoField yearField = fields.isSupported(ChronoField.YEAR_OF_ERA) ? ChronoField.YEAR_OF_ERA
+            : fields.isSupported(ChronoField.YEAR) ? ChronoField.YEAR : null;
+        if (yearField == null || !fields.isSupported(ChronoField.MONTH_OF_YEAR) || !fields.isSupported(ChronoField.DAY_OF_MONTH)) {
+            return null;
+        }
+        long year = fields.getLong(yearField);
+        long month = fields.getLong(ChronoField.MONTH_OF_YEAR);
+        long day = fields.getLong(ChronoField.DAY_OF_MONTH);
+        if (year < 1 || year > 9999 || month < 1 || month > 12 || day < 1
+            || day > YearMonth.of((int) year, (int) month).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of((int) year, (int) month, (int) day);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.pdf.function;
+
+import java.util.Map;
+
+/**
+ * Evaluated arguments of one function call.
+ *
+ * <p>Values are typed as parsed: quoted literals are Strings, unquoted numbers Integer or
+ * Double, {@code true}/{@code false} Boolean, field references the payload value itself
+ * (an empty String when the field is missing) and nested calls their String result.
+ *
+ * <p>Instances are reused between calls by the expression evaluator, so functions must not
+ * keep a reference after returning.
+ */
+public final class FunctionArgs {
+
+    private static final Object[] NONE = new Object[0];
+
+    private Object[] values = NONE;
+    private int offset;
+    private int size;
+    private Map<String, Object> payload;
+
+    FunctionArgs() {
+    }
+
+    /** Arguments in the original {@code Object[]} form, as passed to {@link FieldTransformationFunction#apply}. */
+    public static FunctionArgs of(Object[] args, Map<String, Object> payload) {
+        FunctionArgs functionArgs = new FunctionArgs();
+        if (args != null) {
+            functionArgs.reset(args, 0, args.length, payload);
+        } else {
+            functionArgs.reset(NONE, 0, 0, payload);
+        }
+        return functionArgs;
+    }
+
+    void reset(Object[] values, int offset, int size, Map<String, Object> payload) {
+        this.values = values;
+        this.offset = offset;
+        this.size = size;
+        this.payload = payload;
+    }
+
+    /** Number of arguments given at the call site. */
+    public int size() {
+        return size;
+    }
+
+    /** The argument at {@code index}, or null if there is none. */
+    public Object get(int index) {
+        return index < size ? values[offset + index] : null;
+    }
+
+    /** Whether an argument is present at {@code index} and not null. */
+    public boolean has(int index) {
+        return get(index) != null;
+    }
+
+    /** The argument as text; empty if there is none. */
+    public String text(int index) {
+        Object value = get(index);
+        return value == null ? "" : value.toString();
+    }
+
+    /** The argument as an int, or {@code defaultValue} if there is none or it is not an integer. */
+    public int intValue(int index, int defaultValue) {
+        return toInt(get(index), defaultValue);
+    }
+
+    /** The complete payload, for functions that look up further fields. */
+    public Map<String, Object> payload() {
+        return payload;
+    }
+
+    static int toInt(Object value, int defaultValue) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.pdf.function;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.stereotype.Component;
-import java.util.*;
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 /**
@@ -13,8 +15,16 @@ import java.util.regex.Pattern;
  * - #{mask(ssn, 'XXX-XX-', 5)}
  * - #{uppercase(email)}
  * 
- * Also supports nested payload references:
+ * Also supports nested payload references and nested calls:
  * - #{concat(applicant.firstName, ' ', applicant.lastName)}
+ * - #{uppercase(concat(lastName, ', ', firstName))}
+ * 
+ * Each distinct expression is parsed once and kept as a {@link CompiledExpression}; functions
+ * implementing {@link BindableFunction} are bound to their call site at that point, so constant
+ * arguments such as format patterns are only processed once. Templates mixing literal text
+ * and expressions are compiled the same way by {@link #compileTemplate}. The caches are
+ * bounded and evict rarely used entries, so expressions built from payload values cannot
+ * crowd out the mappings in use.
  */
 @Component
 public class FunctionExpressionResolver {
@@ -26,19 +36,28 @@ public class FunctionExpressionResolver {
         "#\\{\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\((.*)\\)\\s*\\}"
     );
     
+    private static final int MAX_COMPILED = 10_000;
+    
+    private final Cache<String, CompiledExpression> compiled = newCache();
+    private final Cache<String, CompiledExpression> templates = newCache();
+    private final Cache<String, CompiledExpression> placeholderTemplates = newCache();
+    private volatile int compiledVersion;
+    
     public FunctionExpressionResolver(FunctionRegistry functionRegistry) {
         this.functionRegistry = functionRegistry;
     }
     
     /**
-     * Check if a string contains a function expression.
+     * Check if a string is a single function expression as a whole. Text with more than one
+     * expression, or literal text around one, is a template for {@link #resolveAll}.
      * 
      * @param expression The expression to check
-     * @return true if it contains a function expression
+     * @return true if it is exactly one function expression
      */
     public boolean isFunction(String expression) {
         if (expression == null) return false;
-        return FUNCTION_PATTERN.matcher(expression.trim()).matches();
+        String trimmed = expression.trim();
+        return FUNCTION_PATTERN.matcher(trimmed).matches() && CompiledExpression.isWholeCall(trimmed);
     }
     
     /**
@@ -54,172 +73,81 @@ public class FunctionExpressionResolver {
             return expression;
         }
         
-        String trimmed = expression.trim();
-        Matcher matcher = FUNCTION_PATTERN.matcher(trimmed);
-        
-        if (!matcher.matches()) {
-            // Not a function expression, return as-is or resolve as simple field reference
-            return resolveFieldReference(trimmed, payload);
-        }
-        
-        String functionName = matcher.group(1);
-        String argsString = matcher.group(2);
-        
-        FieldTransformationFunction function = functionRegistry.get(functionName);
-        if (function == null) {
-            throw new IllegalArgumentException("Unknown function: " + functionName);
-        }
-        
-        Object[] args = parseArguments(argsString, payload);
-        
-        return function.apply(args, payload);
+        return compile(expression).evaluate(payload);
     }
     
     /**
-     * Resolve multiple function expressions in a string.
-     * Supports mixed content like: "Name: #{concat(firstName, lastName)}, Email: #{lowercase(email)}"
-     * 
-     * @param template The template string with function expressions
-     * @param payload The payload context
-     * @return The resolved string
+     * The compiled form of an expression: a function call if {@link #isFunction} accepts it,
+     * otherwise a plain field reference.
      */
-    public String resolveAll(String template, Map<String, Object> payload) {
-        if (template == null || template.trim().isEmpty()) {
-            return template;
-        }
-        
-        StringBuffer result = new StringBuffer();
-        Matcher matcher = FUNCTION_PATTERN.matcher(template);
-        
-        while (matcher.find()) {
-            String fullMatch = matcher.group(0);
-            String resolved = resolve(fullMatch, payload);
-            matcher.appendReplacement(result, Matcher.quoteReplacement(resolved));
-        }
-        matcher.appendTail(result);
-        
-        return result.toString();
+    CompiledExpression compile(String expression) {
+        return cached(compiled, expression, e -> {
+            String trimmed = e.trim();
+            return isFunction(trimmed)
+                ? CompiledExpression.call(trimmed, functionRegistry)
+                : CompiledExpression.field(trimmed);
+        });
     }
     
     /**
-     * Parse function arguments from the argument string.
+     * Compile a template of literal text and {@code #{...}} expressions, such as
+     * "Name: #{concat(firstName, ' ', lastName)}". With {@code placeholders}, {@code {name}}
+     * segments are replaced by top-level payload values too, as in header and footer text.
+     * Compiled templates are cached, so callers can compile on every use.
      * 
-     * @param argsString The arguments string (e.g., "firstName, ' ', lastName")
-     * @param payload The payload for resolving field references
-     * @return Array of resolved argument values
+     * @throws IllegalArgumentException if an expression calls an unknown function
      */
-    private Object[] parseArguments(String argsString, Map<String, Object> payload) {
-        if (argsString == null || argsString.trim().isEmpty()) {
-            return new Object[0];
-        }
-        
-        List<Object> args = new ArrayList<>();
-        StringBuilder currentArg = new StringBuilder();
-        boolean inQuotes = false;
-        char quoteChar = '\0';
-        int parenthesesDepth = 0;
-        
-        for (int i = 0; i < argsString.length(); i++) {
-            char c = argsString.charAt(i);
-            
-            if (!inQuotes && (c == '"' || c == '\'')) {
-                inQuotes = true;
-                quoteChar = c;
-                continue;
-            } else if (inQuotes && c == quoteChar) {
-                inQuotes = false;
-                continue;
-            } else if (!inQuotes && c == '(') {
-                parenthesesDepth++;
-            } else if (!inQuotes && c == ')') {
-                parenthesesDepth--;
-            } else if (!inQuotes && c == ',' && parenthesesDepth == 0) {
-                args.add(resolveArgument(currentArg.toString().trim(), payload));
-                currentArg = new StringBuilder();
-                continue;
-            }
-            
-            currentArg.append(c);
-        }
-        
-        // Add the last argument
-        if (currentArg.length() > 0) {
-            args.add(resolveArgument(currentArg.toString().trim(), payload));
-        }
-        
-        return args.toArray();
+    public CompiledExpression compileTemplate(String template, boolean placeholders) {
+        return placeholders
+            ? cached(placeholderTemplates, template, t -> CompiledExpression.template(t, true, functionRegistry))
+            : cached(templates, template, t -> CompiledExpression.template(t, false, functionRegistry));
     }
     
-    /**
-     * Resolve a single argument (could be a literal, field reference, or nested function).
-     * 
-     * @param arg The argument string
-     * @param payload The payload context
-     * @return The resolved value
-     */
-    private Object resolveArgument(String arg, Map<String, Object> payload) {
-        if (arg == null || arg.isEmpty()) {
-            return "";
-        }
-        
-        // Check if it's a nested function
-        if (isFunction(arg)) {
-            return resolve(arg, payload);
-        }
-        
-        // Check if it's a string literal (already handled in parsing, but keep for safety)
-        if ((arg.startsWith("\"") && arg.endsWith("\"")) || 
-            (arg.startsWith("'") && arg.endsWith("'"))) {
-            return arg.substring(1, arg.length() - 1);
-        }
-        
-        // Check if it's a number
-        try {
-            if (arg.contains(".")) {
-                return Double.parseDouble(arg);
-            } else {
-                return Integer.parseInt(arg);
-            }
-        } catch (NumberFormatException e) {
-            // Not a number, continue
+    private static Cache<String, CompiledExpression> newCache() {
+        return Caffeine.newBuilder().maximumSize(MAX_COMPILED).build();
+    }
+    
+    /** Number of cached compiled expressions and templates, for tests. */
+    long cachedCount() {
+        compiled.cleanUp();
+        templates.cleanUp();
+        placeholderTemplates.cleanUp();
+        return compiled.estimatedSize() + templates.estimatedSize() + placeholderTemplates.estimatedSize();
+    }
+    
+    private CompiledExpression cached(Cache<String, CompiledExpression> cache, String key,
+                                      Function<String, CompiledExpression> compile) {
+        int version = functionRegistry.getVersion();
+        if (version != compiledVersion) {
+            // Functions were registered since these were bound
+            compiled.invalidateAll();
+            templates.invalidateAll();
+            placeholderTemplates.invalidateAll();
+            compiledVersion = version;
         }
-        
-        // Check if it's a boolean
-        if ("true".equalsIgnoreCase(arg) || "false".equalsIgnoreCase(arg)) {
-            return Boolean.parseBoolean(arg);
+        // Compiled outside the cache, since binding a function may compile expressions itself
+        CompiledExpression expr = cache.getIfPresent(key);
+        if (expr == null) {
+            expr = compile.apply(key);
+            cache.put(key, expr);
         }
-        
-        // Otherwise, treat as a field reference
-        return resolveFieldReference(arg, payload);
+        return expr;
     }
     
     /**
-     * Resolve a field reference from the payload (supports dot notation).
+     * Resolve multiple function expressions in a string.
+     * Supports mixed content like: "Name: #{concat(firstName, lastName)}, Email: #{lowercase(email)}"
+     * Text that looks like an expression but does not parse as one is left as is.
      * 
-     * @param fieldPath The field path (e.g., "applicant.firstName")
+     * @param template The template string with function expressions
      * @param payload The payload context
-     * @return The field value, or empty string if not found
+     * @return The resolved string
      */
-    private String resolveFieldReference(String fieldPath, Map<String, Object> payload) {
-        if (fieldPath == null || fieldPath.isEmpty() || payload == null) {
-            return "";
-        }
-        
-        String[] parts = fieldPath.split("\\.");
-        Object current = payload;
-        
-        for (String part : parts) {
-            if (current instanceof Map) {
-                current = ((Map<?, ?>) current).get(part);
-            } else {
-                return "";
-            }
-            
-            if (current == null) {
-                return "";
-            }
+    public String resolveAll(String template, Map<String, Object> payload) {
+        if (template == null || template.trim().isEmpty()) {
+            return template;
         }
         
-        return current.toString();
+        return compileTemplate(template, false).evaluate(payload);
     }
 }
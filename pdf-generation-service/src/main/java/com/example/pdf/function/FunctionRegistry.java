@@ -4,6 +4,7 @@ import com.example.pdf.function.impl.*;
 import org.springframework.stereotype.Component;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Registry for field transformation functions.
@@ -16,6 +17,9 @@ public class FunctionRegistry {
     
     private final Map<String, FieldTransformationFunction> functions = new ConcurrentHashMap<>();
     
+    /** Incremented on every registration, so compiled expressions can be rebound. */
+    private final AtomicInteger version = new AtomicInteger();
+    
     public FunctionRegistry() {
         // Register built-in functions
         registerDefaultFunctions();
@@ -29,6 +33,7 @@ public class FunctionRegistry {
      */
     public void register(String name, FieldTransformationFunction function) {
         functions.put(name.toLowerCase(), function);
+        version.incrementAndGet();
     }
     
     /**
@@ -80,6 +85,10 @@ public class FunctionRegistry {
         return descriptions;
     }
     
+    int getVersion() {
+        return version.get();
+    }
+    
     private void registerDefaultFunctions() {
         // String operations
         register(new ConcatFunction());
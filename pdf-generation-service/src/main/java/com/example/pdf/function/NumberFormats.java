@@ -0,0 +1,93 @@
+package com.example.pdf.function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared number formatting for functions.
+ *
+ * <p>{@link DecimalFormat} is not thread-safe, so each pattern is compiled once and kept
+ * with a small pool of copies that callers borrow and return. The pool is shared by all
+ * threads, so short-lived threads reuse formats compiled by earlier ones instead of
+ * compiling their own. Patterns are kept in a bounded cache that evicts rarely used ones.
+ */
+public final class NumberFormats {
+
+    private static final int MAX_CACHED_PATTERNS = 100;
+    private static final int POOL_SIZE = 16;
+    private static final String[] DECIMAL_PATTERNS = new String[10];
+
+    private static final Cache<String, Pool> POOLS = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATTERNS)
+        .build();
+
+    static {
+        for (int i = 0; i < DECIMAL_PATTERNS.length; i++) {
+            DECIMAL_PATTERNS[i] = buildDecimalPattern(i);
+        }
+    }
+
+    private NumberFormats() {
+    }
+
+    /** {@code #,##0} followed by {@code decimalPlaces} fraction digits. */
+    public static String decimalPattern(int decimalPlaces) {
+        if (decimalPlaces >= 0 && decimalPlaces < DECIMAL_PATTERNS.length) {
+            return DECIMAL_PATTERNS[decimalPlaces];
+        }
+        return buildDecimalPattern(decimalPlaces);
+    }
+
+    /**
+     * Append {@code value} formatted with a {@link DecimalFormat} pattern.
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static void appendTo(StringBuilder out, String pattern, double value) {
+        POOLS.get(pattern, Pool::new).appendTo(out, value);
+    }
+
+    /** Number of cached patterns, for tests. */
+    static long cachedPatternCount() {
+        POOLS.cleanUp();
+        return POOLS.estimatedSize();
+    }
+
+    private static String buildDecimalPattern(int decimalPlaces) {
+        StringBuilder pattern = new StringBuilder("#,##0");
+        if (decimalPlaces > 0) {
+            pattern.append(".");
+            for (int i = 0; i < decimalPlaces; i++) {
+                pattern.append("0");
+            }
+        }
+        return pattern.toString();
+    }
+
+    /** A compiled pattern and idle copies of it, each used by one thread at a time. */
+    private static final class Pool {
+
+        private final DecimalFormat prototype;
+        private final BlockingQueue<DecimalFormat> idle = new ArrayBlockingQueue<>(POOL_SIZE);
+
+        Pool(String pattern) {
+            this.prototype = new DecimalFormat(pattern);
+        }
+
+        void appendTo(StringBuilder out, double value) {
+            DecimalFormat format = idle.poll();
+            if (format == null) {
+                format = (DecimalFormat) prototype.clone();
+            }
+            try {
+                out.append(format.format(value));
+            } finally {
+                idle.offer(format);
+            }
+        }
+    }
+}
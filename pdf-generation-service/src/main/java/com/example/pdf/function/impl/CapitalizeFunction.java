@@ -1,44 +1,42 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Capitalizes the first letter of each word.
  * 
  * Usage: #{capitalize(name)} -> "John Doe"
  */
-public class CapitalizeFunction implements FieldTransformationFunction {
+public class CapitalizeFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
         }
         
-        String value = args[0].toString();
-        if (value.isEmpty()) {
-            return "";
-        }
-        
-        String[] words = value.split("\\s+");
-        StringBuilder result = new StringBuilder();
-        
-        for (int i = 0; i < words.length; i++) {
-            if (i > 0) {
-                result.append(" ");
+        // Words as split by \s+: leading whitespace leaves an empty first word, trailing whitespace is dropped
+        String value = args.text(0);
+        int i = 0;
+        boolean first = true;
+        while (i < value.length()) {
+            int start = i;
+            while (i < value.length() && !isSpace(value.charAt(i))) {
+                i++;
             }
-            
-            String word = words[i];
-            if (!word.isEmpty()) {
-                result.append(Character.toUpperCase(word.charAt(0)));
-                if (word.length() > 1) {
-                    result.append(word.substring(1).toLowerCase());
-                }
+            if (!first) {
+                out.append(' ');
+            }
+            first = false;
+            if (i > start) {
+                out.append(Character.toUpperCase(value.charAt(start)));
+                appendLowercase(value, start + 1, i, out);
+            }
+            while (i < value.length() && isSpace(value.charAt(i))) {
+                i++;
             }
         }
-        
-        return result.toString();
     }
     
     @Override
@@ -55,4 +53,20 @@ public class CapitalizeFunction implements FieldTransformationFunction {
     public String getDescription() {
         return "Capitalizes first letter of each word: capitalize('john doe') -> 'John Doe'";
     }
+    
+    private static void appendLowercase(String value, int start, int end, StringBuilder out) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || Character.isUpperCase(c)) {
+                // Locale-sensitive, as String.toLowerCase()
+                out.append(value.substring(start, end).toLowerCase());
+                return;
+            }
+        }
+        out.append(value, start, end);
+    }
+    
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
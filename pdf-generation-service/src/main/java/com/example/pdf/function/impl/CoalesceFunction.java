@@ -1,31 +1,26 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Returns the first non-null, non-empty value.
  * 
  * Usage: #{coalesce(value1, value2, 'default')} -> first non-empty value
  */
-public class CoalesceFunction implements FieldTransformationFunction {
+public class CoalesceFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0) {
-            return "";
-        }
-        
-        for (Object arg : args) {
-            if (arg != null) {
-                String value = arg.toString();
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        for (int i = 0; i < args.size(); i++) {
+            if (args.has(i)) {
+                String value = args.text(i);
                 if (!value.trim().isEmpty()) {
-                    return value;
+                    out.append(value);
+                    return;
                 }
             }
         }
-        
-        return "";
     }
     
     @Override
@@ -1,7 +1,7 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Concatenates multiple strings together.
@@ -9,22 +9,15 @@ import java.util.Map;
  * Usage: #{concat(firstName, ' ', lastName)}
  * Example: #{concat(firstName, ' ', middleName, ' ', lastName)} -> "John Michael Doe"
  */
-public class ConcatFunction implements FieldTransformationFunction {
+public class ConcatFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0) {
-            return "";
-        }
-        
-        StringBuilder result = new StringBuilder();
-        for (Object arg : args) {
-            if (arg != null) {
-                result.append(arg.toString());
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        for (int i = 0; i < args.size(); i++) {
+            if (args.has(i)) {
+                out.append(args.text(i));
             }
         }
-        
-        return result.toString();
     }
     
     @Override
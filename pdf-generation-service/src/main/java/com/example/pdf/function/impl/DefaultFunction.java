@@ -1,25 +1,23 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Returns a default value if the input is null or empty.
  * 
  * Usage: #{default(value, 'N/A')} -> value or 'N/A' if empty
  */
-public class DefaultFunction implements FieldTransformationFunction {
+public class DefaultFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 2) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.size() < 2) {
+            return;
         }
         
-        String value = args[0] != null ? args[0].toString() : "";
-        String defaultValue = args[1] != null ? args[1].toString() : "";
-        
-        return (value == null || value.trim().isEmpty()) ? defaultValue : value;
+        String value = args.text(0);
+        out.append(value.trim().isEmpty() ? args.text(1) : value);
     }
     
     @Override
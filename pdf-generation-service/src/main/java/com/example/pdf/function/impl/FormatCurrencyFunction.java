@@ -1,29 +1,29 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.text.DecimalFormat;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
+import com.example.pdf.function.NumberFormats;
 
 /**
  * Formats a number as currency with $ symbol.
  * 
  * Usage: #{formatCurrency(amount)} -> "$1,234.50"
  */
-public class FormatCurrencyFunction implements FieldTransformationFunction {
+public class FormatCurrencyFunction implements BindableFunction {
+    
+    private static final String PATTERN = "$#,##0.00";
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "$0.00";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (!args.has(0)) {
+            out.append("$0.00");
+            return;
         }
         
         try {
-            double value = parseDouble(args[0]);
-            DecimalFormat df = new DecimalFormat("$#,##0.00");
-            return df.format(value);
-            
+            NumberFormats.appendTo(out, PATTERN, parseDouble(args.get(0)));
         } catch (Exception e) {
-            return args[0].toString();
+            out.append(args.text(0));
         }
     }
     
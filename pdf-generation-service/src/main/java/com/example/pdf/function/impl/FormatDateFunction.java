@@ -1,9 +1,12 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.CallSite;
+import com.example.pdf.function.DateFormats;
+import com.example.pdf.function.FunctionArgs;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
 
 /**
  * Formats a date string to a specified format.
@@ -11,36 +14,59 @@ import java.util.Map;
  * Usage: #{formatDate(date, 'yyyy-MM-dd', 'MMM dd, yyyy')} -> "Jan 15, 2026"
  * Usage: #{formatDate(date, 'MMM dd, yyyy')} -> formats assuming ISO date input
  */
-public class FormatDateFunction implements FieldTransformationFunction {
+public class FormatDateFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 2 || args[0] == null) {
-            return "";
+    public Invocation bind(CallSite site) {
+        if (site.size() < 2) {
+            return this::appendTo;
+        }
+        DateTimeFormatter output = site.isConstant(1) ? compile(site.constant(1), DateFormats::formatter) : null;
+        boolean customInput = site.size() > 2 && (!site.isConstant(2) || site.constant(2) != null);
+        DateTimeFormatter input = customInput && site.isConstant(2) ? compile(site.constant(2), DateFormats::parser) : null;
+        if (output == null || (customInput && input == null)) {
+            return this::appendTo;
+        }
+        return (args, out) -> format(args, output, customInput ? input : null, out);
+    }
+    
+    @Override
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.size() < 2 || !args.has(0)) {
+            return;
+        }
+        
+        if (!args.has(1)) {
+            out.append(args.text(0));
+            return;
         }
         
         try {
-            String dateStr = args[0].toString();
-            String outputFormat = args[1].toString();
-            
-            // Try to parse the date
-            Date date;
-            if (args.length > 2 && args[2] != null) {
-                // Custom input format provided
-                String inputFormat = args[2].toString();
-                SimpleDateFormat inputSdf = new SimpleDateFormat(inputFormat);
-                date = inputSdf.parse(dateStr);
-            } else {
-                // Try common formats
-                date = parseCommonFormats(dateStr);
+            DateTimeFormatter output = DateFormats.formatter(args.text(1));
+            DateTimeFormatter input = args.has(2) ? DateFormats.parser(args.text(2)) : null;
+            format(args, output, input, out);
+        } catch (Exception e) {
+            out.append(args.text(0)); // Return original if a pattern is invalid
+        }
+    }
+    
+    private void format(FunctionArgs args, DateTimeFormatter output, DateTimeFormatter input, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
+        }
+        
+        String dateStr = args.text(0);
+        // Custom input format if provided, otherwise try common formats
+        LocalDate date = input != null ? DateFormats.parse(dateStr, input) : DateFormats.parseCommon(dateStr);
+        try {
+            if (date != null) {
+                DateFormats.formatTo(date, output, out);
+                return;
             }
-            
-            SimpleDateFormat outputSdf = new SimpleDateFormat(outputFormat);
-            return outputSdf.format(date);
-            
         } catch (Exception e) {
-            return args[0].toString(); // Return original if parsing fails
+            // Fall through to the original value
         }
+        out.append(dateStr); // Return original if parsing fails
     }
     
     @Override
@@ -53,24 +79,15 @@ public class FormatDateFunction implements FieldTransformationFunction {
         return "Formats date: formatDate(date, 'MMM dd, yyyy') -> 'Jan 15, 2026'";
     }
     
-    private Date parseCommonFormats(String dateStr) throws Exception {
-        String[] formats = {
-            "yyyy-MM-dd",
-            "MM/dd/yyyy",
-            "dd/MM/yyyy",
-            "yyyy-MM-dd'T'HH:mm:ss",
-            "MMM dd, yyyy"
-        };
-        
-        for (String format : formats) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(format);
-                return sdf.parse(dateStr);
-            } catch (Exception e) {
-                // Try next format
-            }
+    /** The formatter for a constant pattern argument, or null if it is missing or invalid. */
+    private static DateTimeFormatter compile(Object pattern, Function<String, DateTimeFormatter> compile) {
+        if (pattern == null) {
+            return null;
+        }
+        try {
+            return compile.apply(pattern.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        
-        throw new Exception("Unable to parse date: " + dateStr);
     }
 }
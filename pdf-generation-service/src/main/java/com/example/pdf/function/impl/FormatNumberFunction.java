@@ -1,39 +1,40 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.text.DecimalFormat;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.CallSite;
+import com.example.pdf.function.FunctionArgs;
+import com.example.pdf.function.NumberFormats;
 
 /**
  * Formats a number with specified decimal places.
  * 
  * Usage: #{formatNumber(value, 2)} -> "123.45"
  */
-public class FormatNumberFunction implements FieldTransformationFunction {
+public class FormatNumberFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public Invocation bind(CallSite site) {
+        if (site.size() > 1 && !site.isConstant(1)) {
+            return this::appendTo;
+        }
+        String pattern = NumberFormats.decimalPattern(site.size() > 1 ? site.constantInt(1, 2) : 2);
+        return (args, out) -> format(args, pattern, out);
+    }
+    
+    @Override
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        format(args, NumberFormats.decimalPattern(args.size() > 1 ? args.intValue(1, 2) : 2), out);
+    }
+    
+    private void format(FunctionArgs args, String pattern, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
         }
         
         try {
-            double value = parseDouble(args[0]);
-            int decimalPlaces = args.length > 1 ? parseIntOrDefault(args[1], 2) : 2;
-            
-            StringBuilder pattern = new StringBuilder("#,##0");
-            if (decimalPlaces > 0) {
-                pattern.append(".");
-                for (int i = 0; i < decimalPlaces; i++) {
-                    pattern.append("0");
-                }
-            }
-            
-            DecimalFormat df = new DecimalFormat(pattern.toString());
-            return df.format(value);
-            
+            NumberFormats.appendTo(out, pattern, parseDouble(args.get(0)));
         } catch (Exception e) {
-            return args[0].toString();
+            out.append(args.text(0));
         }
     }
     
@@ -53,15 +54,4 @@ public class FormatNumberFunction implements FieldTransformationFunction {
         }
         return Double.parseDouble(value.toString().replace(",", ""));
     }
-    
-    private int parseIntOrDefault(Object value, int defaultValue) {
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-        try {
-            return Integer.parseInt(value.toString());
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
 }
@@ -1,25 +1,23 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Returns a replacement value if the input is empty.
  * 
  * Usage: #{ifEmpty(value, 'Not Provided')} -> value or 'Not Provided'
  */
-public class IfEmptyFunction implements FieldTransformationFunction {
+public class IfEmptyFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 2) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.size() < 2) {
+            return;
         }
         
-        String value = args[0] != null ? args[0].toString().trim() : "";
-        String replacement = args[1] != null ? args[1].toString() : "";
-        
-        return value.isEmpty() ? replacement : value;
+        String value = args.text(0).trim();
+        out.append(value.isEmpty() ? args.text(1) : value);
     }
     
     @Override
@@ -1,22 +1,20 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Converts a string to lowercase.
  * 
  * Usage: #{lowercase(email)} -> "john@example.com"
  */
-public class LowercaseFunction implements FieldTransformationFunction {
+public class LowercaseFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.has(0)) {
+            out.append(args.text(0).toLowerCase());
         }
-        
-        return args[0].toString().toLowerCase();
     }
     
     @Override
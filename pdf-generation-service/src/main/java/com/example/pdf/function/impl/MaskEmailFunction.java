@@ -1,40 +1,31 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Masks an email address showing only first char and domain.
  * 
  * Usage: #{maskEmail(email)} -> "j***@example.com"
  */
-public class MaskEmailFunction implements FieldTransformationFunction {
+public class MaskEmailFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
         }
         
-        String email = args[0].toString();
-        if (!email.contains("@")) {
-            return email; // Not a valid email, return as-is
-        }
-        
-        String[] parts = email.split("@");
-        if (parts.length != 2) {
-            return email;
-        }
-        
-        String localPart = parts[0];
-        String domain = parts[1];
+        String email = args.text(0);
+        int at = email.indexOf('@');
         
-        if (localPart.length() <= 1) {
-            return email; // Too short to mask
+        // Needs exactly one '@' with a non-empty domain and at least two local characters
+        if (at <= 1 || email.indexOf('@', at + 1) >= 0 || at == email.length() - 1) {
+            out.append(email);
+            return;
         }
         
-        String maskedLocal = localPart.charAt(0) + "***";
-        return maskedLocal + "@" + domain;
+        out.append(email.charAt(0)).append("***").append(email, at, email.length());
     }
     
     @Override
@@ -1,7 +1,7 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Masks a string by showing only the last N characters.
@@ -9,28 +9,24 @@ import java.util.Map;
  * Usage: #{mask(ssn, 'XXX-XX-', 4)} -> "XXX-XX-1234"
  * Usage: #{mask(creditCard, '****-****-****-', 4)} -> "****-****-****-5678"
  */
-public class MaskFunction implements FieldTransformationFunction {
+public class MaskFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 1) {
-            return "";
-        }
-        
-        String value = args[0] != null ? args[0].toString() : "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        String value = args.text(0);
         if (value.isEmpty()) {
-            return "";
+            return;
         }
         
-        String maskPattern = args.length > 1 && args[1] != null ? args[1].toString() : "***";
-        int visibleChars = args.length > 2 ? parseIntOrDefault(args[2], 4) : 4;
+        int visibleChars = Math.max(0, args.size() > 2 ? args.intValue(2, 4) : 4);
         
         if (value.length() <= visibleChars) {
-            return value; // Don't mask if value is too short
+            out.append(value); // Don't mask if value is too short
+            return;
         }
         
-        String visiblePart = value.substring(value.length() - visibleChars);
-        return maskPattern + visiblePart;
+        out.append(args.has(1) ? args.text(1) : "***")
+            .append(value, value.length() - visibleChars, value.length());
     }
     
     @Override
@@ -42,15 +38,4 @@ public class MaskFunction implements FieldTransformationFunction {
     public String getDescription() {
         return "Masks a string showing only last N characters: mask(value, maskPattern, visibleCount) -> 'XXX-XX-1234'";
     }
-    
-    private int parseIntOrDefault(Object value, int defaultValue) {
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-        try {
-            return Integer.parseInt(value.toString());
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
 }
@@ -1,31 +1,43 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Masks a phone number showing only last 4 digits.
  * 
  * Usage: #{maskPhone(phone)} -> "XXX-XXX-1234"
  */
-public class MaskPhoneFunction implements FieldTransformationFunction {
+public class MaskPhoneFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
         }
         
-        String phone = args[0].toString();
-        // Extract digits only
-        String digits = phone.replaceAll("[^0-9]", "");
+        String phone = args.text(0);
+        // Start of the last four digits
+        int found = 0;
+        int from = phone.length();
+        while (found < 4 && from > 0) {
+            if (isDigit(phone.charAt(--from))) {
+                found++;
+            }
+        }
         
-        if (digits.length() < 4) {
-            return phone; // Too short to mask
+        if (found < 4) {
+            out.append(phone); // Too short to mask
+            return;
         }
         
-        String lastFour = digits.substring(digits.length() - 4);
-        return "XXX-XXX-" + lastFour;
+        out.append("XXX-XXX-");
+        for (int i = from; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (isDigit(c)) {
+                out.append(c);
+            }
+        }
     }
     
     @Override
@@ -42,4 +54,8 @@ public class MaskPhoneFunction implements FieldTransformationFunction {
     public String getDescription() {
         return "Masks phone number: maskPhone('555-123-4567') -> 'XXX-XXX-4567'";
     }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
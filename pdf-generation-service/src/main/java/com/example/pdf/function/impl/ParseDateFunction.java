@@ -1,42 +1,64 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.CallSite;
+import com.example.pdf.function.DateFormats;
+import com.example.pdf.function.FunctionArgs;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Parses a date string and returns it in ISO format.
  * 
  * Usage: #{parseDate(date, 'MM/dd/yyyy')} -> "2026-01-15"
  */
-public class ParseDateFunction implements FieldTransformationFunction {
+public class ParseDateFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 1 || args[0] == null) {
-            return "";
+    public Invocation bind(CallSite site) {
+        if (site.size() < 2) {
+            return (args, out) -> format(args, null, out);
+        }
+        if (!site.isConstant(1) || site.constant(1) == null) {
+            return this::appendTo;
+        }
+        DateTimeFormatter input;
+        try {
+            input = DateFormats.parser(site.constant(1).toString());
+        } catch (IllegalArgumentException e) {
+            return this::appendTo;
+        }
+        return (args, out) -> format(args, input, out);
+    }
+    
+    @Override
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
         }
         
         try {
-            String dateStr = args[0].toString();
-            String inputFormat = args.length > 1 ? args[1].toString() : null;
-            
-            Date date;
-            if (inputFormat != null) {
-                SimpleDateFormat sdf = new SimpleDateFormat(inputFormat);
-                date = sdf.parse(dateStr);
-            } else {
-                // Try common formats
-                date = parseCommonFormats(dateStr);
-            }
-            
-            SimpleDateFormat outputSdf = new SimpleDateFormat("yyyy-MM-dd");
-            return outputSdf.format(date);
-            
+            DateTimeFormatter input = args.size() > 1 ? DateFormats.parser(args.get(1).toString()) : null;
+            format(args, input, out);
         } catch (Exception e) {
-            return args[0].toString();
+            out.append(args.text(0));
+        }
+    }
+    
+    private void format(FunctionArgs args, DateTimeFormatter input, StringBuilder out) {
+        if (!args.has(0)) {
+            return;
+        }
+        
+        String dateStr = args.text(0);
+        // Input format if provided, otherwise try common formats
+        LocalDate date = input != null ? DateFormats.parse(dateStr, input) : DateFormats.parseCommon(dateStr);
+        if (date == null) {
+            out.append(dateStr);
+            return;
         }
+        
+        DateTimeFormatter.ISO_LOCAL_DATE.formatTo(date, out);
     }
     
     @Override
@@ -48,24 +70,4 @@ public class ParseDateFunction implements FieldTransformationFunction {
     public String getDescription() {
         return "Parses date to ISO format: parseDate('01/15/2026', 'MM/dd/yyyy') -> '2026-01-15'";
     }
-    
-    private Date parseCommonFormats(String dateStr) throws Exception {
-        String[] formats = {
-            "yyyy-MM-dd",
-            "MM/dd/yyyy",
-            "dd/MM/yyyy",
-            "MMM dd, yyyy"
-        };
-        
-        for (String format : formats) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(format);
-                return sdf.parse(dateStr);
-            } catch (Exception e) {
-                // Try next format
-            }
-        }
-        
-        throw new Exception("Unable to parse date: " + dateStr);
-    }
 }
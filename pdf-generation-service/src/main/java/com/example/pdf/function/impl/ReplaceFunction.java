@@ -1,26 +1,24 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Replaces all occurrences of a substring.
  * 
  * Usage: #{replace(text, 'old', 'new')} -> text with replacements
  */
-public class ReplaceFunction implements FieldTransformationFunction {
+public class ReplaceFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 3 || args[0] == null) {
-            return args != null && args.length > 0 && args[0] != null ? args[0].toString() : "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        String value = args.text(0);
+        if (args.size() < 3 || !args.has(0)) {
+            out.append(value);
+            return;
         }
         
-        String value = args[0].toString();
-        String oldStr = args[1] != null ? args[1].toString() : "";
-        String newStr = args[2] != null ? args[2].toString() : "";
-        
-        return value.replace(oldStr, newStr);
+        out.append(value.replace(args.text(1), args.text(2)));
     }
     
     @Override
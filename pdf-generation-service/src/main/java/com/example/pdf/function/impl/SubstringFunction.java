@@ -1,7 +1,7 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Extracts a substring from a string.
@@ -9,28 +9,23 @@ import java.util.Map;
  * Usage: #{substring(text, start, end)} -> substring
  * Usage: #{substring(text, start)} -> substring from start to end
  */
-public class SubstringFunction implements FieldTransformationFunction {
+public class SubstringFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length < 2 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.size() < 2 || !args.has(0)) {
+            return;
         }
         
-        String value = args[0].toString();
-        int start = parseIntOrDefault(args[1], 0);
+        String value = args.text(0);
+        int start = args.intValue(1, 0);
         
         if (start >= value.length()) {
-            return "";
+            return;
         }
         
-        if (args.length > 2) {
-            int end = parseIntOrDefault(args[2], value.length());
-            end = Math.min(end, value.length());
-            return value.substring(start, end);
-        } else {
-            return value.substring(start);
-        }
+        int end = args.size() > 2 ? Math.min(args.intValue(2, value.length()), value.length()) : value.length();
+        out.append(value, start, end);
     }
     
     @Override
@@ -42,15 +37,4 @@ public class SubstringFunction implements FieldTransformationFunction {
     public String getDescription() {
         return "Extracts substring: substring(text, start, end) or substring(text, start)";
     }
-    
-    private int parseIntOrDefault(Object value, int defaultValue) {
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-        try {
-            return Integer.parseInt(value.toString());
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
 }
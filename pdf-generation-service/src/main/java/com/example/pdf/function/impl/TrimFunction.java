@@ -1,22 +1,20 @@
 package com.example.pdf.function.impl;
 
-import com.example.pdf.function.FieldTransformationFunction;
-import java.util.Map;
+import com.example.pdf.function.BindableFunction;
+import com.example.pdf.function.FunctionArgs;
 
 /**
  * Trims whitespace from both ends of a string.
  * 
  * Usage: #{trim(text)} -> trimmed text
  */
-public class TrimFunction implements FieldTransformationFunction {
+public class TrimFunction implements BindableFunction {
     
     @Override
-    public String apply(Object[] args, Map<String, Object> payload) {
-        if (args == null || args.length == 0 || args[0] == null) {
-            return "";
+    public void appendTo(FunctionArgs args, StringBuilder out) {
+        if (args.has(0)) {
+            out.append(args.text(0).trim());
         }
-        
-        return args[0].toString().trim();
     }
     
     @Override
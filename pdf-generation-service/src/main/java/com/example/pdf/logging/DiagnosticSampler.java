@@ -0,0 +1,63 @@
+package com.example.pdf.logging;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides, once per request, whether verbose diagnostics (full request, mapping and resolved
+ * values) are logged.
+ *
+ * <p>If the logger is at DEBUG every request is traced at DEBUG. Otherwise a fraction
+ * {@code app.logging.diagnostics-sample-rate} of requests is traced at INFO, so production
+ * keeps a trickle of complete examples without paying serialization cost on every call.
+ */
+@Component
+public class DiagnosticSampler {
+
+    private static final Diagnostics OFF = new Diagnostics(null, false);
+
+    private final double sampleRate;
+
+    public DiagnosticSampler(@Value("${app.logging.diagnostics-sample-rate:0.0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Diagnostics begin(Logger log) {
+        if (log.isDebugEnabled()) {
+            return new Diagnostics(log, true);
+        }
+        if (sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            return new Diagnostics(log, false);
+        }
+        return OFF;
+    }
+
+    /** Diagnostics for one request; every call is a no-op when the request was not sampled. */
+    public static final class Diagnostics {
+        private final Logger log;
+        private final boolean debug;
+
+        Diagnostics(Logger log, boolean debug) {
+            this.log = log;
+            this.debug = debug;
+        }
+
+        public boolean isEnabled() {
+            return log != null;
+        }
+
+        public void log(String format, Object... args) {
+            if (log == null) {
+                return;
+            }
+            if (debug) {
+                log.debug(format, args);
+            } else {
+                log.info("[sampled] " + format, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.pdf.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Lazy log arguments. {@code log.debug("payload: {}", LogValues.json(payload))} costs one small
+ * allocation when DEBUG is off; the JSON (redacted via {@link PiiRedactor} and truncated) is
+ * only produced if the message is actually formatted.
+ */
+public final class LogValues {
+
+    static final int MAX_LENGTH = 2000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+    private LogValues() {
+    }
+
+    /** Redacted, truncated JSON of {@code value}, rendered on first {@code toString()}. */
+    public static Object json(Object value) {
+        return new Object() {
+            @Override
+            public String toString() {
+                try {
+                    Object tree = PiiRedactor.redact(MAPPER.convertValue(value, Object.class));
+                    return truncate(MAPPER.writeValueAsString(tree));
+                } catch (Exception | StackOverflowError e) {
+                    return "<unserializable " + (value == null ? "null" : value.getClass().getSimpleName()) + ">";
+                }
+            }
+        };
+    }
+
+    static String truncate(String s) {
+        return s.length() <= MAX_LENGTH ? s : s.substring(0, MAX_LENGTH) + "...(" + s.length() + " chars)";
+    }
+}
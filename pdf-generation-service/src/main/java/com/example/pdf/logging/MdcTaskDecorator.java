@@ -0,0 +1,57 @@
+package com.example.pdf.logging;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Carries the submitting thread's MDC (the {@link RequestIdFilter} request id) onto worker
+ * threads. As a bean it decorates Spring's task executor, which runs streamed responses; the
+ * service's own pools wrap their tasks with {@link #wrap}. The worker's previous MDC is
+ * restored afterwards so pooled threads do not keep a finished request's id.
+ */
+@Component
+public class MdcTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return wrap(runnable);
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = install(context);
+            try {
+                task.run();
+            } finally {
+                install(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = install(context);
+            try {
+                return task.call();
+            } finally {
+                install(previous);
+            }
+        };
+    }
+
+    private static Map<String, String> install(Map<String, String> context) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.pdf.logging;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Masks personal data before it is written to logs.
+ *
+ * <p>A key is sensitive when its lower-cased name, with {@code _}, {@code -} and {@code .}
+ * removed, contains one of {@link #SENSITIVE_FRAGMENTS} ({@code "taxid"} matches
+ * {@code taxId}, {@code tax_id}, {@code TAX-ID} and {@code primary.tax.id} alike). Keys
+ * naming a thing rather than a person ({@link #NON_PERSONAL_NAMES}: {@code templateName},
+ * {@code config_name}) are exempt from the {@code "name"} fragment.
+ * {@link #redact(Object)} returns a copy of a Map/List payload with sensitive values
+ * replaced; the original is never modified.
+ */
+public final class PiiRedactor {
+
+    public static final String MASK = "[REDACTED]";
+
+    static final List<String> SENSITIVE_FRAGMENTS = List.of(
+        "ssn", "social", "taxid", "birth", "dob", "name",
+        "email", "phone", "street", "address", "zip", "postal",
+        "account", "routing", "card", "memberid", "password", "secret", "token"
+    );
+
+    /** Normalized key suffixes for which {@code "name"} is not a person's name. */
+    static final List<String> NON_PERSONAL_NAMES = List.of(
+        "templatename", "configname", "filename", "fieldname", "sheetname", "mappingname",
+        "servicename", "enrichername", "functionname", "planname", "productname", "statename",
+        "companyname", "carriername", "tagname", "appname", "hostname"
+    );
+
+    private PiiRedactor() {
+    }
+
+    public static boolean isSensitive(String key) {
+        if (key == null) {
+            return false;
+        }
+        String k = normalize(key);
+        for (String fragment : SENSITIVE_FRAGMENTS) {
+            if (k.contains(fragment) && !("name".equals(fragment) && isNonPersonalName(k))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNonPersonalName(String normalizedKey) {
+        for (String suffix : NON_PERSONAL_NAMES) {
+            if (normalizedKey.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String key) {
+        StringBuilder k = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '_' && c != '-' && c != '.') {
+                k.append(c);
+            }
+        }
+        return k.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** The value to log for {@code key}: the mask if the key is sensitive, otherwise the value. */
+    public static Object value(String key, Object value) {
+        return value != null && isSensitive(key) ? MASK : value;
+    }
+
+    /**
+     * Deep copy of {@code value} with every sensitive map entry masked. A list under a sensitive
+     * key has its scalar items masked ({@code phoneNumbers: ["555-0100"]}); a nested object under
+     * one is walked so its own keys decide ({@code address.state} stays readable).
+     */
+    public static Object redact(Object value) {
+        return redact(value, false);
+    }
+
+    private static Object redact(Object value, boolean sensitive) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                copy.put(e.getKey(), redact(e.getValue(), isSensitive(String.valueOf(e.getKey()))));
+            }
+            return copy;
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                copy.add(redact(item, sensitive));
+            }
+            return copy;
+        }
+        return value != null && sensitive ? MASK : value;
+    }
+}
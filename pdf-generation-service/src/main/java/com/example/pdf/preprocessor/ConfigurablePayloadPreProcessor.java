@@ -1,11 +1,14 @@
 package com.example.pdf.preprocessor;
 
+import com.example.pdf.service.RenderMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.InputStream;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Flexible payload pre-processor driven by YAML configuration rules.
@@ -15,11 +18,17 @@ import java.util.stream.Collectors;
  * - Source paths (where to find data in payload)
  * - Filter rules (how to extract specific items from arrays)
  * - Target keys (where to put extracted data)
+ *
+ * Array filters that read the same source array are grouped when the rules are
+ * loaded, so each array is scanned once no matter how many filters target it.
  */
 @Service
 public class ConfigurablePayloadPreProcessor {
     
-    private Map<String, PreProcessingRules> rulesCache = new HashMap<>();
+    private final Map<String, PreProcessingRules> rulesCache = new ConcurrentHashMap<>();
+    
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
     
     /**
      * Pre-process payload using configuration rules.
@@ -29,18 +38,23 @@ public class ConfigurablePayloadPreProcessor {
      * @return Flattened payload based on rules
      */
     public Map<String, Object> preProcess(Map<String, Object> payload, String rulesConfigPath) {
-        PreProcessingRules rules = loadRules(rulesConfigPath);
-        return applyRules(payload, rules);
+        long start = renderMetrics.start();
+        try {
+            PreProcessingRules rules = loadRules(rulesConfigPath);
+            return applyRules(payload, rules);
+        } finally {
+            renderMetrics.preprocessed("configurable", start);
+        }
     }
     
     /**
      * Loads pre-processing rules from YAML configuration.
      */
     private PreProcessingRules loadRules(String configPath) {
-        if (rulesCache.containsKey(configPath)) {
-            return rulesCache.get(configPath);
-        }
-        
+        return rulesCache.computeIfAbsent(configPath, this::readRules);
+    }
+    
+    private PreProcessingRules readRules(String configPath) {
         try (InputStream input = getClass().getClassLoader().getResourceAsStream(configPath)) {
             if (input == null) {
                 throw new RuntimeException("Preprocessing rules not found: " + configPath);
@@ -53,8 +67,8 @@ public class ConfigurablePayloadPreProcessor {
             rules.arrayFilters = (List<Map<String, Object>>) config.get("arrayFilters");
             rules.simpleExtractors = (List<Map<String, Object>>) config.get("simpleExtractors");
             rules.calculatedFields = (List<Map<String, Object>>) config.get("calculatedFields");
-            
-            rulesCache.put(configPath, rules);
+            rules.filters = compileFilters(rules.arrayFilters);
+            rules.filterGroups = groupBySourcePath(rules.filters);
             return rules;
             
         } catch (Exception e) {
@@ -62,16 +76,53 @@ public class ConfigurablePayloadPreProcessor {
         }
     }
     
+    /**
+     * Compiles array filters (conditions, target key, mode) once, in rule order.
+     */
+    private static List<CompiledFilter> compileFilters(List<Map<String, Object>> arrayFilters) {
+        if (arrayFilters == null) {
+            return List.of();
+        }
+        List<CompiledFilter> filters = new ArrayList<>(arrayFilters.size());
+        for (Map<String, Object> filter : arrayFilters) {
+            filters.add(new CompiledFilter(filters.size(), filter));
+        }
+        return filters;
+    }
+    
+    /**
+     * Groups array filters by source path, keeping rule order within each group.
+     */
+    private static List<FilterGroup> groupBySourcePath(List<CompiledFilter> filters) {
+        Map<String, FilterGroup> groups = new LinkedHashMap<>();
+        for (CompiledFilter filter : filters) {
+            groups.computeIfAbsent(filter.sourcePath, FilterGroup::new).filters.add(filter);
+        }
+        return new ArrayList<>(groups.values());
+    }
+    
     /**
      * Applies configured rules to transform payload.
      */
     private Map<String, Object> applyRules(Map<String, Object> payload, PreProcessingRules rules) {
         Map<String, Object> result = new HashMap<>();
         
-        // Apply array filters (e.g., extract PRIMARY, SPOUSE, dependents)
-        if (rules.arrayFilters != null) {
-            for (Map<String, Object> filter : rules.arrayFilters) {
-                applyArrayFilter(payload, filter, result);
+        // Apply array filters (e.g., extract PRIMARY, SPOUSE, dependents): one pass per
+        // source array collects every filter's matches, then results are stored in rule
+        // order so later rules still overwrite earlier ones on shared target keys
+        if (!rules.filters.isEmpty()) {
+            List<Map<String, Object>>[] matches = new List[rules.filters.size()];
+            for (FilterGroup group : rules.filterGroups) {
+                Object sourceData = resolvePath(payload, group.sourcePath);
+                if (sourceData instanceof List) {
+                    filterInOnePass((List<Map<String, Object>>) sourceData, group.filters, matches);
+                }
+            }
+            for (CompiledFilter filter : rules.filters) {
+                List<Map<String, Object>> filtered = matches[filter.index];
+                if (filtered != null) {
+                    applyFilterMode(filter, filtered, result);
+                }
             }
         }
         
@@ -93,7 +144,8 @@ public class ConfigurablePayloadPreProcessor {
     }
     
     /**
-     * Extracts items from arrays based on filter criteria.
+     * Evaluates every filter of a group against each element of their shared source array
+     * in a single pass, collecting each filter's matches in element order.
      * 
      * Supports:
      * 1. Single condition: filterField + filterValue
@@ -112,40 +164,47 @@ public class ConfigurablePayloadPreProcessor {
      *       operator: "greaterThan"
      *       value: 18
      *   conditionLogic: "AND"  # or "OR"
+     * 
+     * Conditions are compiled by {@link RuleConditions} when the rules are loaded.
      */
-    private void applyArrayFilter(Map<String, Object> payload, 
-                                   Map<String, Object> filterConfig, 
-                                   Map<String, Object> result) {
-        String sourcePath = (String) filterConfig.get("sourcePath");
-        String targetKey = (String) filterConfig.get("targetKey");
-        String mode = (String) filterConfig.getOrDefault("mode", "first"); // first, all, indexed
-        Integer maxItems = (Integer) filterConfig.get("maxItems");
-        
-        // Navigate to source array
-        Object sourceData = resolvePath(payload, sourcePath);
-        if (!(sourceData instanceof List)) {
-            return; // Source not found or not an array
+    private void filterInOnePass(List<Map<String, Object>> sourceList,
+                                 List<CompiledFilter> filters,
+                                 List<Map<String, Object>>[] matches) {
+        for (CompiledFilter filter : filters) {
+            matches[filter.index] = new ArrayList<>();
         }
-        
-        List<Map<String, Object>> sourceList = (List<Map<String, Object>>) sourceData;
-        
-        // Filter array using single or multiple conditions
-        List<Map<String, Object>> filtered;
-        
-        if (filterConfig.containsKey("conditions")) {
-            // Multiple conditions with AND/OR logic
-            filtered = filterWithMultipleConditions(sourceList, filterConfig);
-        } else {
-            // Single condition (backward compatible)
-            String filterField = (String) filterConfig.get("filterField");
-            Object filterValue = filterConfig.get("filterValue");
-            filtered = sourceList.stream()
-                .filter(item -> filterValue.equals(item.get(filterField)))
-                .collect(Collectors.toList());
+        int open = filters.size();
+        for (Map<String, Object> item : sourceList) {
+            for (CompiledFilter filter : filters) {
+                List<Map<String, Object>> bucket = matches[filter.index];
+                // "first" filters stop matching once they have their element
+                if (filter.firstOnly && !bucket.isEmpty()) {
+                    continue;
+                }
+                if (filter.predicate.test(item)) {
+                    bucket.add(item);
+                    if (filter.firstOnly) {
+                        open--;
+                    }
+                }
+            }
+            if (open == 0) {
+                break;
+            }
         }
+    }
+    
+    /**
+     * Stores one filter's matches under its target key according to its mode.
+     */
+    private void applyFilterMode(CompiledFilter filter,
+                                 List<Map<String, Object>> filtered,
+                                 Map<String, Object> result) {
+        String targetKey = filter.targetKey;
+        Integer maxItems = filter.maxItems;
         
         // Apply mode
-        switch (mode) {
+        switch (filter.mode) {
             case "first":
                 if (!filtered.isEmpty()) {
                     result.put(targetKey, filtered.get(0));
@@ -171,91 +230,6 @@ public class ConfigurablePayloadPreProcessor {
         }
     }
     
-    /**
-     * Filters array with multiple conditions using AND/OR logic.
-     */
-    private List<Map<String, Object>> filterWithMultipleConditions(
-            List<Map<String, Object>> sourceList,
-            Map<String, Object> filterConfig) {
-        
-        List<Map<String, Object>> conditions = (List<Map<String, Object>>) filterConfig.get("conditions");
-        String logic = (String) filterConfig.getOrDefault("conditionLogic", "AND");
-        
-        return sourceList.stream()
-            .filter(item -> {
-                if ("OR".equalsIgnoreCase(logic)) {
-                    // OR: At least one condition must match
-                    return conditions.stream().anyMatch(cond -> matchesCondition(item, cond));
-                } else {
-                    // AND: All conditions must match
-                    return conditions.stream().allMatch(cond -> matchesCondition(item, cond));
-                }
-            })
-            .collect(Collectors.toList());
-    }
-    
-    /**
-     * Checks if an item matches a single condition.
-     */
-    private boolean matchesCondition(Map<String, Object> item, Map<String, Object> condition) {
-        String field = (String) condition.get("field");
-        String operator = (String) condition.getOrDefault("operator", "equals");
-        Object expectedValue = condition.get("value");
-        Object actualValue = item.get(field);
-        
-        if (actualValue == null) {
-            return false;
-        }
-        
-        switch (operator.toLowerCase()) {
-            case "equals":
-                return expectedValue.equals(actualValue);
-                
-            case "notequals":
-                return !expectedValue.equals(actualValue);
-                
-            case "contains":
-                return actualValue.toString().contains(expectedValue.toString());
-                
-            case "startswith":
-                return actualValue.toString().startsWith(expectedValue.toString());
-                
-            case "endswith":
-                return actualValue.toString().endsWith(expectedValue.toString());
-                
-            case "greaterthan":
-                return compareNumbers(actualValue, expectedValue) > 0;
-                
-            case "lessthan":
-                return compareNumbers(actualValue, expectedValue) < 0;
-                
-            case "greaterthanorequal":
-                return compareNumbers(actualValue, expectedValue) >= 0;
-                
-            case "lessthanorequal":
-                return compareNumbers(actualValue, expectedValue) <= 0;
-                
-            case "in":
-                // expectedValue should be a list
-                return ((List<?>) expectedValue).contains(actualValue);
-                
-            case "notin":
-                return !((List<?>) expectedValue).contains(actualValue);
-                
-            default:
-                return false;
-        }
-    }
-    
-    /**
-     * Compares two numbers for numeric operators.
-     */
-    private int compareNumbers(Object actual, Object expected) {
-        double actualNum = Double.parseDouble(actual.toString());
-        double expectedNum = Double.parseDouble(expected.toString());
-        return Double.compare(actualNum, expectedNum);
-    }
-    
     /**
      * Copies fields from source to target with optional transformation.
      * 
@@ -356,5 +330,42 @@ public class ConfigurablePayloadPreProcessor {
         List<Map<String, Object>> arrayFilters;
         List<Map<String, Object>> simpleExtractors;
         List<Map<String, Object>> calculatedFields;
+        List<CompiledFilter> filters;
+        List<FilterGroup> filterGroups;
+    }
+    
+    /**
+     * An array filter with its conditions compiled by {@link RuleConditions}.
+     */
+    private static class CompiledFilter {
+        final int index;
+        final String sourcePath;
+        final String targetKey;
+        final String mode; // first, all, indexed
+        final boolean firstOnly;
+        final Integer maxItems;
+        final Predicate<Map<String, Object>> predicate;
+        
+        CompiledFilter(int index, Map<String, Object> config) {
+            this.index = index;
+            this.sourcePath = (String) config.get("sourcePath");
+            this.targetKey = (String) config.get("targetKey");
+            this.mode = (String) config.getOrDefault("mode", "first");
+            this.firstOnly = "first".equals(mode);
+            this.maxItems = (Integer) config.get("maxItems");
+            this.predicate = RuleConditions.compileFilter(config);
+        }
+    }
+    
+    /**
+     * Array filters sharing one source path, in rule order.
+     */
+    private static class FilterGroup {
+        final String sourcePath;
+        final List<CompiledFilter> filters = new ArrayList<>();
+        
+        FilterGroup(String sourcePath) {
+            this.sourcePath = sourcePath;
+        }
     }
 }
@@ -5,10 +5,11 @@ package com.example.pdf.preprocessor;
 // import com.pdfgen.model.Applicant;
 // import com.pdfgen.model.Address;
 // import com.pdfgen.model.Product;
+import com.example.pdf.service.RenderMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Pre-processes complex enrollment applications for PDF field mapping.
@@ -18,10 +19,15 @@ import java.util.stream.Collectors;
  *   "Primary_FirstName": "application.applicants[relationship=PRIMARY].demographic.firstName"
  * To:
  *   "Primary_FirstName": "primary.demographic.firstName"
+ * 
+ * Each array (applicants, addresses, products, coverages) is scanned once.
  */
 @Service
 public class EnrollmentApplicationPreProcessor {
     
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+    
     /**
      * Flattens complex application structure for simplified PDF field mapping.
      * 
@@ -29,6 +35,7 @@ public class EnrollmentApplicationPreProcessor {
      * @return Flattened map with direct access to role-based entities
      */
     public Map<String, Object> prepareForPdfMapping(Map<String, Object> applicationData) {
+        long start = renderMetrics.start();
         Map<String, Object> flattened = new HashMap<>();
         
         // Handle if root is wrapped in "application" key or not
@@ -41,25 +48,26 @@ public class EnrollmentApplicationPreProcessor {
         flattened.put("submittedDate", app.get("submittedDate"));
         flattened.put("effectiveDate", app.get("effectiveDate"));
         
-        // Process applicants array
+        // Process applicants array: one pass classifies every applicant
         if (app.containsKey("applicants") && app.get("applicants") instanceof List) {
             List<Map<String, Object>> applicants = (List<Map<String, Object>>) app.get("applicants");
             
-            // Separate by relationship
-            applicants.stream()
-                .filter(a -> "PRIMARY".equals(a.get("relationship")))
-                .findFirst()
-                .ifPresent(primary -> flattened.put("primary", primary));
-            
-            applicants.stream()
-                .filter(a -> "SPOUSE".equals(a.get("relationship")))
-                .findFirst()
-                .ifPresent(spouse -> flattened.put("spouse", spouse));
-            
-            // Get all dependents
-            List<Map<String, Object>> dependents = applicants.stream()
-                .filter(a -> "DEPENDENT".equals(a.get("relationship")))
-                .collect(Collectors.toList());
+            // Separate by relationship (first PRIMARY / SPOUSE, all dependents)
+            Map<String, Object> primary = null;
+            Map<String, Object> spouse = null;
+            List<Map<String, Object>> dependents = new ArrayList<>();
+            for (Map<String, Object> applicant : applicants) {
+                Object relationship = applicant.get("relationship");
+                if ("PRIMARY".equals(relationship)) {
+                    if (primary == null) primary = applicant;
+                } else if ("SPOUSE".equals(relationship)) {
+                    if (spouse == null) spouse = applicant;
+                } else if ("DEPENDENT".equals(relationship)) {
+                    dependents.add(applicant);
+                }
+            }
+            if (primary != null) flattened.put("primary", primary);
+            if (spouse != null) flattened.put("spouse", spouse);
             
             // Map first 3 dependents to fixed slots
             if (dependents.size() > 0) {
@@ -79,8 +87,7 @@ public class EnrollmentApplicationPreProcessor {
             }
             
             // Counts
-            flattened.put("hasSpouse", applicants.stream()
-                .anyMatch(a -> "SPOUSE".equals(a.get("relationship"))));
+            flattened.put("hasSpouse", spouse != null);
             flattened.put("dependentCount", dependents.size());
             flattened.put("primaryDependentCount", Math.min(3, dependents.size()));
             flattened.put("additionalDependentCount", Math.max(0, dependents.size() - 3));
@@ -90,43 +97,35 @@ public class EnrollmentApplicationPreProcessor {
         if (app.containsKey("addresses") && app.get("addresses") instanceof List) {
             List<Map<String, Object>> addresses = (List<Map<String, Object>>) app.get("addresses");
             
-            addresses.stream()
-                .filter(a -> "BILLING".equals(a.get("type")))
-                .findFirst()
-                .ifPresent(billing -> flattened.put("billing", billing));
-            
-            addresses.stream()
-                .filter(a -> "MAILING".equals(a.get("type")))
-                .findFirst()
-                .ifPresent(mailing -> flattened.put("mailing", mailing));
+            for (Map<String, Object> address : addresses) {
+                Object type = address.get("type");
+                if ("BILLING".equals(type)) {
+                    flattened.putIfAbsent("billing", address);
+                } else if ("MAILING".equals(type)) {
+                    flattened.putIfAbsent("mailing", address);
+                }
+            }
         }
         
         // Process proposed products array
         if (app.containsKey("proposedProducts") && app.get("proposedProducts") instanceof List) {
             List<Map<String, Object>> products = (List<Map<String, Object>>) app.get("proposedProducts");
             
-            products.stream()
-                .filter(p -> "MEDICAL".equals(p.get("productType")))
-                .findFirst()
-                .ifPresent(medical -> flattened.put("medical", medical));
-            
-            products.stream()
-                .filter(p -> "DENTAL".equals(p.get("productType")))
-                .findFirst()
-                .ifPresent(dental -> flattened.put("dental", dental));
-            
-            products.stream()
-                .filter(p -> "VISION".equals(p.get("productType")))
-                .findFirst()
-                .ifPresent(vision -> flattened.put("vision", vision));
+            for (Map<String, Object> product : products) {
+                Object type = product.get("productType");
+                if ("MEDICAL".equals(type)) {
+                    flattened.putIfAbsent("medical", product);
+                } else if ("DENTAL".equals(type)) {
+                    flattened.putIfAbsent("dental", product);
+                } else if ("VISION".equals(type)) {
+                    flattened.putIfAbsent("vision", product);
+                }
+            }
             
             // Has product flags
-            flattened.put("hasMedical", products.stream()
-                .anyMatch(p -> "MEDICAL".equals(p.get("productType"))));
-            flattened.put("hasDental", products.stream()
-                .anyMatch(p -> "DENTAL".equals(p.get("productType"))));
-            flattened.put("hasVision", products.stream()
-                .anyMatch(p -> "VISION".equals(p.get("productType"))));
+            flattened.put("hasMedical", flattened.containsKey("medical"));
+            flattened.put("hasDental", flattened.containsKey("dental"));
+            flattened.put("hasVision", flattened.containsKey("vision"));
         }
         
         // Process current coverages array (if needed for AcroForm)
@@ -145,20 +144,16 @@ public class EnrollmentApplicationPreProcessor {
             flattened.put("currentCoverageMap", coverageMap);
             
             // Convenience accessors for primary applicant (assuming A001)
-            coverageMap.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("A001_MEDICAL"))
-                .findFirst()
-                .ifPresent(e -> flattened.put("primaryPriorMedical", e.getValue()));
-            
-            coverageMap.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("A001_DENTAL"))
-                .findFirst()
-                .ifPresent(e -> flattened.put("primaryPriorDental", e.getValue()));
-            
-            coverageMap.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("A001_VISION"))
-                .findFirst()
-                .ifPresent(e -> flattened.put("primaryPriorVision", e.getValue()));
+            for (Map.Entry<String, Map<String, Object>> e : coverageMap.entrySet()) {
+                String key = e.getKey();
+                if (key.startsWith("A001_MEDICAL")) {
+                    flattened.putIfAbsent("primaryPriorMedical", e.getValue());
+                } else if (key.startsWith("A001_DENTAL")) {
+                    flattened.putIfAbsent("primaryPriorDental", e.getValue());
+                } else if (key.startsWith("A001_VISION")) {
+                    flattened.putIfAbsent("primaryPriorVision", e.getValue());
+                }
+            }
         }
         
         // Copy calculated values if present
@@ -167,6 +162,7 @@ public class EnrollmentApplicationPreProcessor {
             flattened.putAll(calculated);
         }
         
+        renderMetrics.preprocessed("enrollment", start);
         return flattened;
     }
     
@@ -0,0 +1,186 @@
+package com.example.pdf.preprocessor;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Compiles array filter conditions from preprocessing rules into predicates.
+ *
+ * The operator is resolved once, numeric thresholds are parsed once and in / notin
+ * lists become hash sets, so evaluating a condition per array element does no string
+ * switching or re-parsing. Semantics match the original per-element evaluation: a missing
+ * field never matches, operators are case-insensitive, and unknown operators never match.
+ * Misconfigured conditions (no value, in / notin without a list, non-numeric threshold)
+ * are rejected when the rules are loaded.
+ */
+final class RuleConditions {
+
+    private RuleConditions() {
+    }
+
+    /**
+     * Compiles a whole array filter: either its {@code conditions} list combined with
+     * {@code conditionLogic} (AND by default, or OR), or the single
+     * {@code filterField} / {@code filterValue} equality.
+     */
+    @SuppressWarnings("unchecked")
+    static Predicate<Map<String, Object>> compileFilter(Map<String, Object> filterConfig) {
+        if (filterConfig.containsKey("conditions")) {
+            List<Map<String, Object>> conditions = (List<Map<String, Object>>) filterConfig.get("conditions");
+            Predicate<Map<String, Object>>[] compiled = new Predicate[conditions.size()];
+            for (int i = 0; i < compiled.length; i++) {
+                compiled[i] = compileCondition(conditions.get(i));
+            }
+            String logic = (String) filterConfig.getOrDefault("conditionLogic", "AND");
+            if ("OR".equalsIgnoreCase(logic)) {
+                return item -> {
+                    for (Predicate<Map<String, Object>> condition : compiled) {
+                        if (condition.test(item)) return true;
+                    }
+                    return false;
+                };
+            }
+            return item -> {
+                for (Predicate<Map<String, Object>> condition : compiled) {
+                    if (!condition.test(item)) return false;
+                }
+                return true;
+            };
+        }
+        String filterField = (String) filterConfig.get("filterField");
+        Object filterValue = filterConfig.get("filterValue");
+        if (filterValue == null) {
+            throw new IllegalArgumentException("Array filter on '" + filterField + "' has no filterValue");
+        }
+        return item -> filterValue.equals(item.get(filterField));
+    }
+
+    /**
+     * Compiles one {@code field} / {@code operator} / {@code value} condition.
+     */
+    static Predicate<Map<String, Object>> compileCondition(Map<String, Object> condition) {
+        String field = (String) condition.get("field");
+        String operator = ((String) condition.getOrDefault("operator", "equals")).toLowerCase(Locale.ROOT);
+        Object expected = condition.get("value");
+        if (expected == null) {
+            throw new IllegalArgumentException("Condition on '" + field + "' (" + operator + ") has no value");
+        }
+
+        switch (operator) {
+            case "equals":
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && expected.equals(actual);
+                };
+
+            case "notequals":
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && !expected.equals(actual);
+                };
+
+            case "contains": {
+                String text = expected.toString();
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && actual.toString().contains(text);
+                };
+            }
+
+            case "startswith": {
+                String text = expected.toString();
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && actual.toString().startsWith(text);
+                };
+            }
+
+            case "endswith": {
+                String text = expected.toString();
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && actual.toString().endsWith(text);
+                };
+            }
+
+            case "greaterthan": {
+                double threshold = threshold(field, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && Double.compare(number(actual), threshold) > 0;
+                };
+            }
+
+            case "lessthan": {
+                double threshold = threshold(field, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && Double.compare(number(actual), threshold) < 0;
+                };
+            }
+
+            case "greaterthanorequal": {
+                double threshold = threshold(field, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && Double.compare(number(actual), threshold) >= 0;
+                };
+            }
+
+            case "lessthanorequal": {
+                double threshold = threshold(field, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && Double.compare(number(actual), threshold) <= 0;
+                };
+            }
+
+            case "in": {
+                Set<Object> values = valueSet(field, operator, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && values.contains(actual);
+                };
+            }
+
+            case "notin": {
+                Set<Object> values = valueSet(field, operator, expected);
+                return item -> {
+                    Object actual = item.get(field);
+                    return actual != null && !values.contains(actual);
+                };
+            }
+
+            default:
+                return item -> false;
+        }
+    }
+
+    private static double threshold(String field, Object expected) {
+        try {
+            return number(expected);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Condition on '" + field + "' needs a numeric value, got: " + expected);
+        }
+    }
+
+    /** Numbers are used directly; anything else is parsed from its string form. */
+    private static double number(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    private static Set<Object> valueSet(String field, String operator, Object expected) {
+        if (!(expected instanceof Collection)) {
+            throw new IllegalArgumentException("Condition on '" + field + "' (" + operator + ") needs a list value");
+        }
+        return new HashSet<>((Collection<?>) expected);
+    }
+}
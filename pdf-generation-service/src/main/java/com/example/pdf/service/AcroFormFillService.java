@@ -1,9 +1,16 @@
 package com.example.pdf.service;
 
+import com.example.pdf.function.DateFormats;
 import com.example.pdf.function.FunctionExpressionResolver;
+import com.example.pdf.logging.PiiRedactor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 import org.apache.pdfbox.pdmodel.interactive.form.PDField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
@@ -13,8 +20,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
 
@@ -25,8 +34,24 @@ import java.util.List;
 @Service
 public class AcroFormFillService {
     
+    private static final Logger log = LoggerFactory.getLogger(AcroFormFillService.class);
+    
+    private static final int MAX_CACHED_PATH_BATCHES = 256;
+    
     private final FunctionExpressionResolver functionResolver;
     
+    // Compiled payload paths per field mapping, keyed by a copy of the mapping; rarely used
+    // mappings are evicted
+    private final Cache<Map<String, String>, PayloadPathBatch> pathBatches = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATH_BATCHES)
+        .build();
+    
+    @Autowired(required = false)
+    private RenderProfiler renderProfiler = RenderProfiler.disabled();
+    
+    @Autowired(required = false)
+    private RenderExecutor renderExecutor = RenderExecutor.inline();
+    
     public AcroFormFillService(FunctionExpressionResolver functionResolver) {
         this.functionResolver = functionResolver;
     }
@@ -40,28 +65,43 @@ public class AcroFormFillService {
      * @return Filled PDF as byte array
      */
     public byte[] fillAcroForm(String templatePath, Map<String, String> fieldMappings, Map<String, Object> payload) throws IOException {
-        // Load the AcroForm template
-        try (PDDocument document = loadTemplate(templatePath)) {
+        long start = renderProfiler.start();
+        try {
+            // Load the AcroForm template
+            byte[] templateBytes = loadTemplateBytes(templatePath);
+            // Filling and saving are CPU-bound: in virtual-thread mode they run on the carrier pool
+            return renderExecutor.cpuBoundIO(() -> fill(templatePath, templateBytes, fieldMappings, payload));
+        } finally {
+            renderProfiler.stop(templatePath, RenderProfiler.Stage.ACROFORM_FILL, start);
+        }
+    }
+    
+    private byte[] fill(String templatePath, byte[] templateBytes, Map<String, String> fieldMappings,
+                        Map<String, Object> payload) throws IOException {
+        try (PDDocument document = PDDocument.load(new ByteArrayInputStream(templateBytes))) {
             PDAcroForm acroForm = document.getDocumentCatalog().getAcroForm();
             
             if (acroForm == null) {
                 throw new IllegalArgumentException("PDF does not contain an AcroForm: " + templatePath);
             }
             
+            // Resolve every plain payload path in one walk; shared prefixes such as
+            // applicants[relationship=PRIMARY] are filtered once for all their fields
+            Map<String, Object> pathValues = pathBatch(fieldMappings).resolve(payload);
+            
             // Fill each field according to mappings
             for (Map.Entry<String, String> mapping : fieldMappings.entrySet()) {
                 String pdfFieldName = mapping.getKey();
                 String payloadPath = mapping.getValue();
                 
-                // Check if it's a function expression
+                // Function expressions, alone or embedded in literal text
+                // (e.g. "#{uppercase(firstName)}", "Dear #{capitalize(firstName)},")
                 Object value;
-                if (functionResolver.isFunction(payloadPath)) {
-                    // Resolve function expression
-                    String resolvedValue = functionResolver.resolve(payloadPath, payload);
-                    value = resolvedValue;
+                if (payloadPath != null && payloadPath.contains("#{")) {
+                    value = functionResolver.resolveAll(payloadPath, payload);
                 } else {
-                    // Resolve value from payload using path notation
-                    value = resolveValue(payload, payloadPath);
+                    // Resolved above from the payload using path notation
+                    value = pathValues.get(pdfFieldName);
                 }
                 
                 if (value != null) {
@@ -79,21 +119,55 @@ public class AcroFormFillService {
         }
     }
     
+    /**
+     * The plain payload paths of a mapping compiled into one {@link PayloadPathBatch}, cached
+     * per mapping. Function expressions, empty paths and malformed paths are left out and
+     * resolve to null here.
+     */
+    PayloadPathBatch pathBatch(Map<String, String> fieldMappings) {
+        PayloadPathBatch batch = pathBatches.getIfPresent(fieldMappings);
+        if (batch == null) {
+            Map<String, String> paths = new LinkedHashMap<>();
+            for (Map.Entry<String, String> mapping : fieldMappings.entrySet()) {
+                String payloadPath = mapping.getValue();
+                if (payloadPath == null || payloadPath.isEmpty() || payloadPath.contains("#{")) {
+                    continue;
+                }
+                try {
+                    PayloadPath.compile(payloadPath);
+                    paths.put(mapping.getKey(), payloadPath);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping field '{}': {}", mapping.getKey(), e.getMessage());
+                }
+            }
+            batch = PayloadPathBatch.compile(paths);
+            pathBatches.put(new LinkedHashMap<>(fieldMappings), batch);
+        }
+        return batch;
+    }
+    
     /**
      * Load AcroForm template from file system with caching.
      * Returns byte array instead of PDDocument to make it cacheable.
      */
     @Cacheable(value = "acroformTemplates", key = "#templatePath")
     public byte[] loadTemplateBytes(String templatePath) throws IOException {
-        System.out.println("Loading AcroForm template from disk (cache miss): " + templatePath);
+        log.info("Loading AcroForm template from disk (cache miss): {}", templatePath);
         
-        String fullPath = "../config-repo/acroforms/" + templatePath;
+        return Files.readAllBytes(resolveTemplate(templatePath));
+    }
+    
+    /**
+     * The file an AcroForm template is read from: config-repo first, then the local directory.
+     */
+    public Path resolveTemplate(String templatePath) {
+        Path path = Paths.get("../config-repo/acroforms/" + templatePath);
         
-        if (!Files.exists(Paths.get(fullPath))) {
-            fullPath = "acroforms/" + templatePath;
+        if (!Files.exists(path)) {
+            path = Paths.get("acroforms/" + templatePath);
         }
         
-        return Files.readAllBytes(Paths.get(fullPath));
+        return path;
     }
     
     /**
@@ -111,7 +185,7 @@ public class AcroFormFillService {
         PDField field = acroForm.getField(fieldName);
         
         if (field == null) {
-            System.err.println("Warning: Field not found in PDF: " + fieldName);
+            log.debug("Field not found in PDF: {}", fieldName);
             return;
         }
         
@@ -120,9 +194,11 @@ public class AcroFormFillService {
             String stringValue = convertToString(value);
             field.setValue(stringValue);
             
-            System.out.println("Filled field: " + fieldName + " = " + stringValue);
+            if (log.isTraceEnabled()) {
+                log.trace("Filled field: {} = {}", fieldName, PiiRedactor.value(fieldName, stringValue));
+            }
         } catch (Exception e) {
-            System.err.println("Error filling field " + fieldName + ": " + e.getMessage());
+            log.warn("Error filling field {}: {}", fieldName, e.getMessage());
         }
     }
     
@@ -158,7 +234,7 @@ public class AcroFormFillService {
             Map<String, String> fields = pattern.getFields();
             
             if (fieldPattern == null || source == null || fields == null) {
-                System.err.println("Warning: Invalid pattern configuration, skipping");
+                log.warn("Invalid pattern configuration, skipping");
                 continue;
             }
             
@@ -196,181 +272,10 @@ public class AcroFormFillService {
             }
         }
         
-        System.out.println("Expanded " + patterns.size() + " patterns into " + expanded.size() + " field mappings");
+        log.debug("Expanded {} patterns into {} field mappings", patterns.size(), expanded.size());
         return expanded;
     }
     
-    /**
-     * Resolve value from payload using path notation with enhanced filter support
-     * 
-     * Examples:
-     *   "memberName" → payload.get("memberName")
-     *   "member.name" → payload.get("member").get("name")
-     *   "members[0].name" → payload.get("members").get(0).get("name")
-     *   "applicants[relationship=PRIMARY].firstName" → filter array by field value
-     *   "applicants[relationship=DEPENDENT][0].name" → filter then index
-     *   "coverages[applicantId=A001][productType=MEDICAL].carrier" → multiple filters
-     *   "static:Enrollment Form" → returns literal string "Enrollment Form"
-     *   "static:v2.0" → returns literal string "v2.0"
-     */
-    private Object resolveValue(Map<String, Object> payload, String path) {
-        if (path == null || path.isEmpty()) {
-            return null;
-        }
-        
-        // Handle static/literal values with "static:" prefix
-        if (path.startsWith("static:")) {
-            return path.substring(7); // Return everything after "static:"
-        }
-        
-        Object current = payload;
-        String[] parts = path.split("\\.");
-        
-        for (String part : parts) {
-            if (current == null) {
-                return null;
-            }
-            
-            // Handle array notation with filters or index
-            if (part.contains("[")) {
-                String arrayName = part.substring(0, part.indexOf('['));
-                
-                // Get the array/list from current object
-                if (current instanceof Map) {
-                    current = ((Map<?, ?>) current).get(arrayName);
-                }
-                
-                if (current == null) {
-                    return null;
-                }
-                
-                if (!(current instanceof java.util.List)) {
-                    System.err.println("Warning: Expected list for path part '" + part + "' but got: " + current.getClass());
-                    return null;
-                }
-                
-                java.util.List<?> list = (java.util.List<?>) current;
-                
-                // Extract all filters from the path part: [filter1][filter2]...
-                java.util.List<String> filters = extractFilters(part);
-                
-                // Apply each filter in sequence
-                for (String filter : filters) {
-                    if (isNumericIndex(filter)) {
-                        // Numeric index: [0], [1], etc.
-                        int index = Integer.parseInt(filter);
-                        if (index >= 0 && index < list.size()) {
-                            current = list.get(index);
-                            list = null; // No longer a list after indexing
-                            break;
-                        } else {
-                            System.err.println("Warning: Index " + index + " out of bounds for list of size " + list.size());
-                            return null;
-                        }
-                    } else {
-                        // Filter expression: [field=value]
-                        String[] filterParts = filter.split("=", 2);
-                        if (filterParts.length != 2) {
-                            System.err.println("Warning: Invalid filter syntax: " + filter);
-                            return null;
-                        }
-                        
-                        String fieldName = filterParts[0].trim();
-                        String fieldValue = filterParts[1].trim();
-                        
-                        // Filter the list
-                        list = filterList(list, fieldName, fieldValue);
-                        
-                        if (list.isEmpty()) {
-                            System.err.println("Warning: No items match filter [" + filter + "]");
-                            return null;
-                        }
-                        
-                        current = list;
-                    }
-                }
-                
-                // If we still have a list after all filters (no index was used), take first element
-                if (current instanceof java.util.List) {
-                    java.util.List<?> resultList = (java.util.List<?>) current;
-                    if (!resultList.isEmpty()) {
-                        current = resultList.get(0);
-                    } else {
-                        return null;
-                    }
-                }
-                
-            } else {
-                // Simple property access
-                if (current instanceof Map) {
-                    current = ((Map<?, ?>) current).get(part);
-                } else {
-                    return null;
-                }
-            }
-        }
-        
-        return current;
-    }
-    
-    /**
-     * Extract all filters from a path part like "members[relationship=PRIMARY][0]"
-     * Returns: ["relationship=PRIMARY", "0"]
-     */
-    private java.util.List<String> extractFilters(String part) {
-        java.util.List<String> filters = new java.util.ArrayList<>();
-        int startIndex = part.indexOf('[');
-        
-        while (startIndex != -1) {
-            int endIndex = part.indexOf(']', startIndex);
-            if (endIndex == -1) break;
-            
-            String filter = part.substring(startIndex + 1, endIndex);
-            filters.add(filter);
-            
-            startIndex = part.indexOf('[', endIndex);
-        }
-        
-        return filters;
-    }
-    
-    /**
-     * Check if a filter is a numeric index
-     */
-    private boolean isNumericIndex(String filter) {
-        try {
-            Integer.parseInt(filter);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
-    
-    /**
-     * Filter a list by matching a field value
-     * 
-     * @param list List of objects (typically Map objects)
-     * @param fieldName Field name to match
-     * @param fieldValue Expected value (string comparison)
-     * @return Filtered list containing only matching items
-     */
-    private java.util.List<?> filterList(java.util.List<?> list, String fieldName, String fieldValue) {
-        java.util.List<Object> filtered = new java.util.ArrayList<>();
-        
-        for (Object item : list) {
-            if (item instanceof Map) {
-                Map<?, ?> map = (Map<?, ?>) item;
-                Object actualValue = map.get(fieldName);
-                
-                if (actualValue != null && actualValue.toString().equals(fieldValue)) {
-                    filtered.add(item);
-                }
-            }
-        }
-        
-        return filtered;
-    }
-    
     /**
      * Convert value to string for PDF form field
      */
@@ -389,7 +294,7 @@ public class AcroFormFillService {
         } else if (value instanceof java.util.Date) {
             return new java.text.SimpleDateFormat("MM/dd/yyyy").format((java.util.Date) value);
         } else if (value instanceof java.time.LocalDate) {
-            return ((java.time.LocalDate) value).format(java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy"));
+            return ((java.time.LocalDate) value).format(DateFormats.formatter("MM/dd/yyyy"));
         } else {
             return value.toString();
         }
@@ -419,7 +324,7 @@ public class AcroFormFillService {
      */
     @CacheEvict(value = "acroformTemplates", key = "#templatePath")
     public void evictTemplate(String templatePath) {
-        System.out.println("Evicted AcroForm template from cache: " + templatePath);
+        log.info("Evicted AcroForm template from cache: {}", templatePath);
     }
     
     /**
@@ -427,6 +332,6 @@ public class AcroFormFillService {
      */
     @CacheEvict(value = "acroformTemplates", allEntries = true)
     public void clearTemplateCache() {
-        System.out.println("Cleared all AcroForm templates from cache");
+        log.info("Cleared all AcroForm templates from cache");
     }
 }
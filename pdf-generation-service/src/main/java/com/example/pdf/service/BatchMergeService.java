@@ -0,0 +1,304 @@
+package com.example.pdf.service;
+
+import com.example.pdf.logging.MdcTaskDecorator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many payloads against one merge configuration and streams the PDFs back as a ZIP.
+ *
+ * <p>Input is NDJSON: an optional header line {@code {"configName": "..."}} (required
+ * unless the config name is given separately) followed by one item per line,
+ * {@code {"id": "...", "payload": {...}, "outputFileName": "..."}} ({@code id} and
+ * {@code outputFileName} optional). The config is loaded once per batch, so config
+ * resolution, compiled templates and AcroForm fill plans are shared by all items.
+ *
+ * <p>Items render on a shared worker pool with a bounded number in flight, and each PDF
+ * is written to the ZIP as soon as it finishes (completion order). Bad lines and failed
+ * renders do not stop the batch; every item is listed in a final {@code manifest.json}
+ * entry with its status and error. A line that is not valid JSON is listed with the id
+ * {@code line-N}, N being its line number in the input.
+ */
+@Service
+public class BatchMergeService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchMergeService.class);
+
+    static final String MANIFEST_ENTRY = "manifest.json";
+
+    private final FlexiblePdfMergeService mergeService;
+    private final PdfMergeConfigService configService;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int workerThreads;
+    private final int maxInFlight;
+    private ExecutorService workers;
+
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+
+    public BatchMergeService(FlexiblePdfMergeService mergeService,
+                             PdfMergeConfigService configService,
+                             @Value("${app.batch.worker-threads:0}") int workerThreads,
+                             @Value("${app.batch.max-in-flight:0}") int maxInFlight) {
+        this.mergeService = mergeService;
+        this.configService = configService;
+        this.workerThreads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : this.workerThreads * 2;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "pdf-batch-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) workers.shutdownNow();
+    }
+
+    /**
+     * Process one NDJSON batch.
+     *
+     * @param configName config to use, or null to take it from the header line
+     * @return the manifest that was written as the last ZIP entry
+     */
+    public Map<String, Object> process(String configName, InputStream ndjson, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        List<Map<String, Object>> items = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Set<String> entryNames = new HashSet<>();
+        PdfMergeConfig config = null;
+        String configError = null;
+
+        CompletionService<ItemResult> completion = new ExecutorCompletionService<>(workers);
+        int inFlight = 0;
+        int index = 0;
+        int lineNumber = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            int itemIndex = index++;
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                items.add(failed(itemIndex, "line-" + lineNumber, "Invalid JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+            // Header line: {"configName": "..."} without a payload
+            if (itemIndex == 0 && node.has("configName") && !node.has("payload")) {
+                index = 0;
+                if (configName == null) {
+                    configName = node.get("configName").asText();
+                }
+                continue;
+            }
+            if (config == null && configError == null) {
+                if (configName == null) {
+                    configError = "No configName: pass it as a parameter or in the first NDJSON line";
+                } else {
+                    long loadStart = renderMetrics.configLoadStart();
+                    try {
+                        config = configService.loadConfig(configName);
+                    } catch (Exception e) {
+                        configError = "Failed to load config " + configName + ": " + e.getMessage();
+                    } finally {
+                        renderMetrics.configLoaded(loadStart);
+                    }
+                }
+            }
+
+            String id = node.hasNonNull("id") ? node.get("id").asText() : "item-" + (itemIndex + 1);
+            if (configError != null) {
+                items.add(failed(itemIndex, id, configError));
+                continue;
+            }
+            JsonNode payloadNode = node.get("payload");
+            if (payloadNode == null || !payloadNode.isObject()) {
+                items.add(failed(itemIndex, id, "Missing 'payload' object"));
+                continue;
+            }
+            String fileName = node.hasNonNull("outputFileName") ? node.get("outputFileName").asText() : id + ".pdf";
+            @SuppressWarnings("unchecked")
+            Map<String, Object> payload = mapper.convertValue(payloadNode, Map.class);
+
+            // Keep a bounded number of renders in flight; write finished ones while waiting
+            while (inFlight >= maxInFlight) {
+                writeResult(take(completion), zip, entryNames, items);
+                inFlight--;
+            }
+            PdfMergeConfig batchConfig = config;
+            completion.submit(MdcTaskDecorator.wrap(() -> render(itemIndex, id, fileName, batchConfig, payload)));
+            inFlight++;
+
+            // Drain anything already finished so results stream out early
+            Future<ItemResult> done;
+            while ((done = completion.poll()) != null) {
+                writeResult(get(done), zip, entryNames, items);
+                inFlight--;
+            }
+        }
+        while (inFlight > 0) {
+            writeResult(take(completion), zip, entryNames, items);
+            inFlight--;
+        }
+
+        // Manifest lists items in input order
+        items.sort(Comparator.comparingInt(m -> (Integer) m.get("index")));
+        items.forEach(m -> m.remove("index"));
+        long succeeded = items.stream().filter(m -> "OK".equals(m.get("status"))).count();
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("configName", configName);
+        manifest.put("total", items.size());
+        manifest.put("succeeded", succeeded);
+        manifest.put("failed", items.size() - succeeded);
+        manifest.put("elapsedMs", System.currentTimeMillis() - started);
+        manifest.put("items", items);
+
+        zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+        zip.write(mapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(manifest));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+        log.info("Batch merge for config {}: {} items, {} failed, {} ms",
+            configName, items.size(), items.size() - succeeded, manifest.get("elapsedMs"));
+        return manifest;
+    }
+
+    private ItemResult render(int index, String id, String fileName, PdfMergeConfig config, Map<String, Object> payload) {
+        long start = System.currentTimeMillis();
+        try {
+            byte[] pdf = mergeService.generateMergedPdf(config, payload);
+            return new ItemResult(index, id, fileName, pdf, null, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Batch item {} failed: {}", id, e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new ItemResult(index, id, fileName, null, error, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void writeResult(ItemResult result, ZipOutputStream zip, Set<String> entryNames,
+                             List<Map<String, Object>> items) throws IOException {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", result.index);
+        item.put("id", result.id);
+        if (result.pdf != null) {
+            String entry = uniqueEntryName(result.fileName, result.index, entryNames);
+            zip.putNextEntry(new ZipEntry(entry));
+            zip.write(result.pdf);
+            zip.closeEntry();
+            zip.flush();
+            item.put("status", "OK");
+            item.put("file", entry);
+            item.put("sizeBytes", result.pdf.length);
+        } else {
+            item.put("status", "FAILED");
+            item.put("error", result.error);
+        }
+        item.put("elapsedMs", result.elapsedMs);
+        items.add(item);
+    }
+
+    private static Map<String, Object> failed(int index, String id, String error) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        item.put("id", id);
+        item.put("status", "FAILED");
+        item.put("error", error);
+        return item;
+    }
+
+    private static String uniqueEntryName(String fileName, int index, Set<String> used) {
+        String name = fileName.replaceAll("[\\\\/:*?\"<>|]", "_");
+        if (name.isBlank() || MANIFEST_ENTRY.equals(name)) {
+            name = "item-" + (index + 1) + ".pdf";
+        }
+        // Prefixed candidates can match names other items asked for, so each one is checked too
+        String candidate = name;
+        for (int attempt = 1; !used.add(candidate); attempt++) {
+            candidate = (index + 1) + (attempt > 1 ? "-" + attempt : "") + "-" + name;
+        }
+        return candidate;
+    }
+
+    private static ItemResult take(CompletionService<ItemResult> completion) throws IOException {
+        try {
+            return get(completion.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        }
+    }
+
+    private static ItemResult get(Future<ItemResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            // render() catches everything, so this only happens on errors such as OOM
+            throw new IOException("Batch worker failed", e.getCause());
+        }
+    }
+
+    private static final class ItemResult {
+        final int index;
+        final String id;
+        final String fileName;
+        final byte[] pdf;
+        final String error;
+        final long elapsedMs;
+
+        ItemResult(int index, String id, String fileName, byte[] pdf, String error, long elapsedMs) {
+            this.index = index;
+            this.id = id;
+            this.fileName = fileName;
+            this.pdf = pdf;
+            this.error = error;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.pdf.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -36,6 +38,11 @@ public class ConfigServerClient {
     private final ObjectMapper json = new ObjectMapper();
     private final ObjectMapper yaml = new ObjectMapper(new YAMLFactory());
 
+    @Autowired
+    public ConfigServerClient(@Value("${config-server.url:http://localhost:8888}") String baseUrl) {
+        this((WebClient) null, baseUrl);
+    }
+
     public ConfigServerClient(WebClient webClient, String baseUrl) {
         this.baseUrl = baseUrl == null ? "http://localhost:8888" : baseUrl;
         this.webClient = webClient == null ? WebClient.builder().baseUrl(this.baseUrl).build() : webClient;
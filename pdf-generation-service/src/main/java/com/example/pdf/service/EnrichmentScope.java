@@ -0,0 +1,52 @@
+package com.example.pdf.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-request memo of enricher chain results for one payload.
+ *
+ * <p>Results are keyed by chain prefix: a section listing {@code [dateFormatting,
+ * enrollmentContext]} after one that listed {@code [dateFormatting]} continues from the
+ * memoized {@code [dateFormatting]} result and runs only {@code enrollmentContext}. Order
+ * still matters, so {@code [enrollmentContext, dateFormatting]} is a different chain. This
+ * relies on enrichers being pure functions of their input, which {@link PayloadEnricher}
+ * requires. A scope is not thread-safe; create one per request via
+ * {@link PayloadEnricherRegistry#newScope(Map)}.
+ */
+public final class EnrichmentScope {
+
+    private final Map<String, Object> payload;
+    private final Map<List<String>, Map<String, Object>> results = new HashMap<>();
+
+    EnrichmentScope(Map<String, Object> payload) {
+        this.payload = payload;
+    }
+
+    public Map<String, Object> getPayload() {
+        return payload;
+    }
+
+    /** Result of the longest memoized prefix of {@code chain} and its length (0 = the payload). */
+    Map<String, Object> longestPrefix(List<String> chain, int[] length) {
+        for (int n = chain.size(); n > 0; n--) {
+            Map<String, Object> result = results.get(chain.subList(0, n));
+            if (result != null) {
+                length[0] = n;
+                return result;
+            }
+        }
+        length[0] = 0;
+        return payload;
+    }
+
+    void remember(List<String> prefix, Map<String, Object> result) {
+        results.put(List.copyOf(prefix), result);
+    }
+
+    /** Number of distinct chain prefixes computed so far. */
+    public int getMemoizedChainCount() {
+        return results.size();
+    }
+}
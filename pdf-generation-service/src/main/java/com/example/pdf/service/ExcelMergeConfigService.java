@@ -1,5 +1,7 @@
 package com.example.pdf.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.Yaml;
@@ -20,6 +22,8 @@ import java.util.*;
  */
 @Service
 public class ExcelMergeConfigService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelMergeConfigService.class);
     
     @Value("${config.repo.path:../config-repo}")
     private String configRepoPath;
@@ -70,7 +74,7 @@ public class ExcelMergeConfigService {
             throw new RuntimeException("Config file not found: " + configName);
         }
         
-        System.out.println("Loading Excel config from: " + configPath);
+        log.info("Loading Excel config from: {}", configPath);
         
         try (InputStream inputStream = new FileInputStream(configPath)) {
             Yaml yaml = new Yaml();
@@ -87,7 +91,7 @@ public class ExcelMergeConfigService {
         Map<String, Object> merged = new HashMap<>();
         
         if (basePath != null) {
-            System.out.println("Loading base Excel config: " + basePath);
+            log.debug("Loading base Excel config: {}", basePath);
             Map<String, Object> baseData = loadYamlFile(basePath);
             merged = deepMerge(merged, baseData);
         }
@@ -96,7 +100,7 @@ public class ExcelMergeConfigService {
         List<String> components = (List<String>) composition.get("components");
         if (components != null) {
             for (String componentPath : components) {
-                System.out.println("Loading component Excel config: " + componentPath);
+                log.debug("Loading component Excel config: {}", componentPath);
                 Map<String, Object> componentData = loadYamlFile(componentPath);
                 merged = deepMerge(merged, componentData);
             }
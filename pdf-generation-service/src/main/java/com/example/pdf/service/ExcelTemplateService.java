@@ -3,13 +3,16 @@ package com.example.pdf.service;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -23,9 +26,20 @@ import java.util.*;
  */
 @Service
 public class ExcelTemplateService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExcelTemplateService.class);
     
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy");
     
+    @Autowired(required = false)
+    private RenderProfiler renderProfiler = RenderProfiler.disabled();
+    
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+    
+    @Autowired(required = false)
+    private RenderExecutor renderExecutor = RenderExecutor.inline();
+    
     /**
      * Fill Excel template using cell mappings (similar to AcroForm field mappings)
      * 
@@ -35,26 +49,39 @@ public class ExcelTemplateService {
      * @return Filled Excel as byte array
      */
     public byte[] fillExcelTemplate(String templatePath, Map<String, String> cellMappings, Map<String, Object> payload) throws IOException {
-        try (InputStream templateStream = loadTemplate(templatePath);
-             Workbook workbook = new XSSFWorkbook(templateStream)) {
-            
-            // Process each mapping
-            for (Map.Entry<String, String> mapping : cellMappings.entrySet()) {
-                String cellRef = mapping.getKey();
-                String payloadPath = mapping.getValue();
-                
-                // Resolve value from payload
-                Object value = resolveValue(payload, payloadPath);
-                
-                if (value != null) {
-                    setCellValue(workbook, cellRef, value);
+        long start = renderProfiler.start();
+        long metricsStart = renderMetrics.start();
+        byte[] result = null;
+        try {
+            byte[] template = loadTemplate(templatePath);
+            // Workbook parsing, filling and writing are CPU-bound: in virtual-thread mode they
+            // run on the carrier pool
+            result = renderExecutor.cpuBoundIO(() -> {
+                try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(template))) {
+                    
+                    // Process each mapping
+                    for (Map.Entry<String, String> mapping : cellMappings.entrySet()) {
+                        String cellRef = mapping.getKey();
+                        String payloadPath = mapping.getValue();
+                        
+                        // Resolve value from payload
+                        Object value = resolveValue(payload, payloadPath);
+                        
+                        if (value != null) {
+                            setCellValue(workbook, cellRef, value);
+                        }
+                    }
+                    
+                    // Write to byte array
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    workbook.write(outputStream);
+                    return outputStream.toByteArray();
                 }
-            }
-            
-            // Write to byte array
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+            });
+            return result;
+        } finally {
+            renderProfiler.stop(templatePath, RenderProfiler.Stage.EXCEL_FILL, start);
+            renderMetrics.generated("excel", metricsStart, result);
         }
     }
     
@@ -67,35 +94,53 @@ public class ExcelTemplateService {
      * @return Filled Excel as byte array
      */
     public byte[] fillExcelWithTables(String templatePath, List<TableMapping> tableMappings, Map<String, Object> payload) throws IOException {
-        try (InputStream templateStream = loadTemplate(templatePath);
-             Workbook workbook = new XSSFWorkbook(templateStream)) {
-            
-            for (TableMapping tableMapping : tableMappings) {
-                fillTable(workbook, tableMapping, payload);
-            }
-            
-            // Write to byte array
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+        long start = renderProfiler.start();
+        long metricsStart = renderMetrics.start();
+        byte[] result = null;
+        try {
+            byte[] template = loadTemplate(templatePath);
+            result = renderExecutor.cpuBoundIO(() -> {
+                try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(template))) {
+                    
+                    for (TableMapping tableMapping : tableMappings) {
+                        fillTable(workbook, tableMapping, payload);
+                    }
+                    
+                    // Write to byte array
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    workbook.write(outputStream);
+                    return outputStream.toByteArray();
+                }
+            });
+            return result;
+        } finally {
+            renderProfiler.stop(templatePath, RenderProfiler.Stage.EXCEL_FILL, start);
+            renderMetrics.generated("excel", metricsStart, result);
         }
     }
     
     /**
      * Load Excel template from file system
      */
-    private InputStream loadTemplate(String templatePath) throws IOException {
-        String fullPath = "../config-repo/excel-templates/" + templatePath;
+    private byte[] loadTemplate(String templatePath) throws IOException {
+        return Files.readAllBytes(resolveTemplate(templatePath));
+    }
+    
+    /**
+     * The file an Excel template is read from: config-repo first, then the local directory.
+     */
+    public Path resolveTemplate(String templatePath) throws IOException {
+        Path path = Paths.get("../config-repo/excel-templates/" + templatePath);
         
-        if (!Files.exists(Paths.get(fullPath))) {
-            fullPath = "excel-templates/" + templatePath;
+        if (!Files.exists(path)) {
+            path = Paths.get("excel-templates/" + templatePath);
         }
         
-        if (!Files.exists(Paths.get(fullPath))) {
+        if (!Files.exists(path)) {
             throw new IOException("Template not found: " + templatePath);
         }
         
-        return new FileInputStream(fullPath);
+        return path;
     }
     
     /**
@@ -147,7 +192,7 @@ public class ExcelTemplateService {
         if (cell != null) {
             setCellValueTyped(cell, value);
         } else {
-            System.err.println("Warning: Cell not found: " + cellRef);
+            log.warn("Cell not found: {}", cellRef);
         }
     }
     
@@ -1,5 +1,7 @@
 package com.example.pdf.service;
 
+import com.example.pdf.function.CompiledExpression;
+import com.example.pdf.function.FunctionExpressionResolver;
 import com.example.pdf.service.FreemarkerService;
 import com.example.pdf.service.HtmlPdfService;
 import org.apache.pdfbox.multipdf.PDFMergerUtility;
@@ -12,7 +14,10 @@ import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPa
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageFitDestination;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
@@ -23,6 +28,8 @@ import java.util.*;
 @Service
 public class FlexiblePdfMergeService {
 
+    private static final Logger log = LoggerFactory.getLogger(FlexiblePdfMergeService.class);
+
     @Autowired
     private PdfMergeConfigService configService;
     
@@ -38,13 +45,88 @@ public class FlexiblePdfMergeService {
     @Autowired
     private AcroFormFillService acroFormFillService;
     
+    @Autowired
+    private FunctionExpressionResolver functionResolver;
+    
     @Autowired(required = false)
     private PayloadEnricherRegistry payloadEnricherRegistry;
+    
+    @Autowired(required = false)
+    private RenderResultCache resultCache = RenderResultCache.disabled();
+    
+    @Autowired(required = false)
+    private RenderExecutor renderExecutor = RenderExecutor.inline();
+    
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+    
+    @Value("${app.pdf.dedup-resources:true}")
+    private boolean dedupResources = true;
+    
+    @Value("${app.pdf.batch-html-sections:false}")
+    private boolean batchHtmlSections = false;
+
+    /** Expanded AcroForm field mappings per section (keyed by identity of the cached SectionConfig). */
+    private final Map<SectionConfig, Map<String, String>> fillPlans = Collections.synchronizedMap(new WeakHashMap<>());
 
     public byte[] generateMergedPdf(String configName, Map<String, Object> payload) throws IOException {
         // Load merge configuration
-        PdfMergeConfig config = configService.loadConfig(configName);
-        
+        long loadStart = renderMetrics.configLoadStart();
+        PdfMergeConfig config;
+        try {
+            config = configService.loadConfig(configName);
+        } finally {
+            renderMetrics.configLoaded(loadStart);
+        }
+        if (!resultCache.isEnabled()) {
+            return generateMergedPdf(config, payload);
+        }
+        // Identical (config, templates, payload) requests are served from the result cache
+        String version = resultCache.fingerprint(config) + "/t" + freemarkerService.getVersion()
+            + "/a" + acroFormTemplateVersions(config);
+        try {
+            return resultCache.getOrRender("merge", configName, version, payload, () -> generateMergedPdf(config, payload));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Merged PDF generation failed for config " + configName, e);
+        }
+    }
+    
+    /** File versions of every AcroForm template the config can fill, conditional sections included. */
+    private String acroFormTemplateVersions(PdfMergeConfig config) {
+        List<SectionConfig> sections = new ArrayList<>();
+        if (config.getSections() != null) sections.addAll(config.getSections());
+        if (config.getConditionalSections() != null) {
+            for (ConditionalSection conditional : config.getConditionalSections()) {
+                if (conditional.getSections() != null) sections.addAll(conditional.getSections());
+            }
+        }
+        StringJoiner versions = new StringJoiner(",");
+        for (SectionConfig section : sections) {
+            if ("acroform".equals(section.getType()) && section.getTemplate() != null) {
+                versions.add(resultCache.fileVersion(acroFormFillService.resolveTemplate(section.getTemplate())));
+            }
+        }
+        return versions.toString();
+    }
+    
+    /**
+     * Generate a merged PDF from an already loaded configuration. Batch callers load the
+     * config once and reuse it for every payload.
+     */
+    public byte[] generateMergedPdf(PdfMergeConfig config, Map<String, Object> payload) throws IOException {
+        long start = renderMetrics.start();
+        byte[] pdf = null;
+        try {
+            pdf = renderMergedPdf(config, payload);
+            return pdf;
+        } finally {
+            renderMetrics.generated("merge", start, pdf);
+        }
+    }
+    
+    private byte[] renderMergedPdf(PdfMergeConfig config, Map<String, Object> payload) throws IOException {
         // Resolve sections (including conditionals)
         List<SectionConfig> resolvedSections = resolveSections(config, payload);
         
@@ -53,44 +135,93 @@ public class FlexiblePdfMergeService {
         Map<String, Integer> sectionStartPages = new HashMap<>();
         int currentPage = 0;
         
+        // One wrapping scope per request: FreeMarker sections share the wrapped payload
+        TemplateModelScope modelScope = freemarkerService.newModelScope();
+        // Enricher chains shared by several sections run once per request
+        EnrichmentScope enrichment = payloadEnricherRegistry != null ? payloadEnricherRegistry.newScope(payload) : null;
+        
+        List<SectionConfig> enabledSections = new ArrayList<>();
         for (SectionConfig section : resolvedSections) {
-            if (!section.isEnabled()) {
+            if (section.isEnabled()) {
+                enabledSections.add(section);
+            }
+        }
+        boolean batchHtml = batchHtmlSections || config.isBatchHtmlSections();
+        
+        for (int i = 0; i < enabledSections.size(); ) {
+            SectionConfig section = enabledSections.get(i);
+            
+            // Batch a run of adjacent freemarker sections into one layout pass
+            int runEnd = i;
+            if (batchHtml) {
+                while (runEnd + 1 < enabledSections.size() && isFreemarker(section) && isFreemarker(enabledSections.get(runEnd + 1))) {
+                    runEnd++;
+                }
+            }
+            if (runEnd > i) {
+                List<SectionConfig> run = enabledSections.subList(i, runEnd + 1);
+                long sectionStart = renderMetrics.start();
+                currentPage = generateBatchedHtmlSections(run, payload, enrichment, modelScope, currentPage, sectionDocs, sectionStartPages);
+                renderMetrics.section("freemarker-batch", sectionStart);
+                i = runEnd + 1;
                 continue;
             }
             
-            PDDocument doc = generateSectionPdf(section, payload);
+            long sectionStart = renderMetrics.start();
+            PDDocument doc = generateSectionPdf(section, payload, enrichment, modelScope);
+            renderMetrics.section(section.getType(), sectionStart);
             sectionDocs.put(section.getName(), doc);
             sectionStartPages.put(section.getName(), currentPage);
             currentPage += doc.getNumberOfPages();
+            i++;
         }
         
+        // Merging, decorating and saving are CPU-bound: in virtual-thread mode they run on the
+        // carrier pool
+        return renderExecutor.cpuBoundIO(() -> assemble(config, payload, resolvedSections, sectionDocs, sectionStartPages));
+    }
+    
+    private byte[] assemble(PdfMergeConfig config, Map<String, Object> payload, List<SectionConfig> resolvedSections,
+                            Map<String, PDDocument> sectionDocs, Map<String, Integer> sectionStartPages) throws IOException {
         // Merge all documents
+        long stageStart = renderMetrics.start();
         PDDocument mergedDoc = mergeDocs(sectionDocs, resolvedSections);
+        renderMetrics.stage("merge", stageStart);
         
         // Add page numbers if configured
         if (config.getPageNumberingConfig() != null) {
+            stageStart = renderMetrics.start();
             addPageNumbers(mergedDoc, config.getPageNumberingConfig());
+            renderMetrics.stage("page-numbering", stageStart);
         }
         
         // Add common header if configured
         if (config.getHeader() != null && config.getHeader().isEnabled()) {
+            stageStart = renderMetrics.start();
             addHeaderFooter(mergedDoc, config.getHeader(), payload, true);
+            renderMetrics.stage("header-footer", stageStart);
         }
         
         // Add common footer if configured
         if (config.getFooter() != null && config.getFooter().isEnabled()) {
+            stageStart = renderMetrics.start();
             addHeaderFooter(mergedDoc, config.getFooter(), payload, false);
+            renderMetrics.stage("header-footer", stageStart);
         }
         
         // Add bookmarks if configured
         if (config.isAddBookmarks() && config.getBookmarks() != null) {
+            stageStart = renderMetrics.start();
             addBookmarks(mergedDoc, config.getBookmarks(), sectionStartPages);
+            renderMetrics.stage("bookmarks", stageStart);
         }
         
         // Convert to byte array
+        stageStart = renderMetrics.start();
         ByteArrayOutputStream output = new ByteArrayOutputStream();
         mergedDoc.save(output);
         mergedDoc.close();
+        renderMetrics.stage("save", stageStart);
         
         // Close section documents
         for (PDDocument doc : sectionDocs.values()) {
@@ -151,52 +282,87 @@ public class FlexiblePdfMergeService {
         return -1;
     }
     
-    private PDDocument generateSectionPdf(SectionConfig section, Map<String, Object> payload) throws IOException {
+    private static boolean isFreemarker(SectionConfig section) {
+        return "freemarker".equals(section.getType());
+    }
+    
+    /**
+     * Render adjacent freemarker sections as one HTML document in a single openhtmltopdf
+     * pass. The combined PDF is stored under the first section's name (mergeDocs skips the
+     * others) and each section's start page is recovered from its anchor.
+     *
+     * @return the page counter after the run
+     */
+    private int generateBatchedHtmlSections(List<SectionConfig> run, Map<String, Object> payload,
+                                            EnrichmentScope enrichment, TemplateModelScope modelScope, int currentPage,
+                                            Map<String, PDDocument> sectionDocs,
+                                            Map<String, Integer> sectionStartPages) throws IOException {
+        List<String> htmls = new ArrayList<>(run.size());
+        List<String> anchors = new ArrayList<>(run.size());
+        List<String> templates = new ArrayList<>(run.size());
+        for (int i = 0; i < run.size(); i++) {
+            SectionConfig section = run.get(i);
+            htmls.add(renderSectionHtml(section, enrichPayload(section, payload, enrichment), modelScope));
+            anchors.add("pdf-section-" + i);
+            templates.add(section.getTemplate());
+        }
+        
+        HtmlPdfService.BatchedPdf batched = htmlPdfService.renderHtmlSectionsToPdf(htmls, anchors, String.join("+", templates));
+        PDDocument doc = PDDocument.load(new ByteArrayInputStream(batched.getPdf()));
+        sectionDocs.put(run.get(0).getName(), doc);
+        
+        int previousStart = 0;
+        for (int i = 0; i < run.size(); i++) {
+            Integer start = batched.getStartPages().get(anchors.get(i));
+            // An empty section produces no box: it shares the previous section's start page
+            int sectionStart = start != null ? start : previousStart;
+            sectionStartPages.put(run.get(i).getName(), currentPage + sectionStart);
+            previousStart = sectionStart;
+        }
+        return currentPage + doc.getNumberOfPages();
+    }
+    
+    private Map<String, Object> enrichPayload(SectionConfig section, Map<String, Object> payload,
+                                              EnrichmentScope enrichment) {
         // Apply payload enrichers if specified
         Map<String, Object> enrichedPayload = payload;
         if (section.getPayloadEnrichers() != null && !section.getPayloadEnrichers().isEmpty()) {
             if (payloadEnricherRegistry != null) {
-                System.out.println("Applying enrichers: " + section.getPayloadEnrichers());
-                enrichedPayload = payloadEnricherRegistry.applyEnrichers(
-                    section.getPayloadEnrichers(), 
-                    payload
-                );
+                log.debug("Applying enrichers: {}", section.getPayloadEnrichers());
+                enrichedPayload = payloadEnricherRegistry.applyEnrichers(section.getPayloadEnrichers(), enrichment);
             } else {
-                System.err.println("PayloadEnricherRegistry not available, skipping enrichers");
+                log.warn("PayloadEnricherRegistry not available, skipping enrichers");
             }
         }
+        return enrichedPayload;
+    }
+    
+    private String renderSectionHtml(SectionConfig section, Map<String, Object> enrichedPayload,
+                                     TemplateModelScope modelScope) throws IOException {
+        // FreeMarker templates expect payload to be nested under "payload" key
+        Map<String, Object> model = new java.util.HashMap<>();
+        model.put("payload", enrichedPayload);
+        return freemarkerService.processTemplateFromLocation(section.getTemplate(), model, modelScope);
+    }
+    
+    private PDDocument generateSectionPdf(SectionConfig section, Map<String, Object> payload,
+                                          EnrichmentScope enrichment, TemplateModelScope modelScope) throws IOException {
+        Map<String, Object> enrichedPayload = enrichPayload(section, payload, enrichment);
         
-        if ("freemarker".equals(section.getType())) {
+        if (isFreemarker(section)) {
             // Generate HTML via FreeMarker
-            // FreeMarker templates expect payload to be nested under "payload" key
-            Map<String, Object> model = new java.util.HashMap<>();
-            model.put("payload", enrichedPayload);
-            
-            String html = freemarkerService.processTemplateFromLocation(section.getTemplate(), model);
-            byte[] pdfBytes = htmlPdfService.renderHtmlToPdf(html);
+            String html = renderSectionHtml(section, enrichedPayload, modelScope);
+            byte[] pdfBytes = htmlPdfService.renderHtmlToPdf(html, section.getTemplate());
             return PDDocument.load(new ByteArrayInputStream(pdfBytes));
             
         } else if ("pdfbox".equals(section.getType())) {
             // Generate via PDFBox generator
             PdfBoxGenerator generator = pdfBoxRegistry.getGenerator(section.getTemplate());
-            return generator.generate(enrichedPayload);
+            return renderExecutor.cpuBoundIO(() -> generator.generate(enrichedPayload));
             
         } else if ("acroform".equals(section.getType())) {
-            // Fill AcroForm PDF using field mappings
-            
-            // Start with base field mappings
-            java.util.Map<String, String> allFieldMappings = new java.util.HashMap<>();
-            
-            // Expand patterns first (if any)
-            if (section.getPatterns() != null && !section.getPatterns().isEmpty()) {
-                java.util.Map<String, String> expandedMappings = acroFormFillService.expandPatterns(section.getPatterns());
-                allFieldMappings.putAll(expandedMappings);
-            }
-            
-            // Add explicit field mappings (can override pattern-generated ones)
-            if (section.getFieldMapping() != null) {
-                allFieldMappings.putAll(section.getFieldMapping());
-            }
+            // Fill AcroForm PDF using field mappings (expanded once per section config)
+            Map<String, String> allFieldMappings = fillPlans.computeIfAbsent(section, this::buildFillPlan);
             
             if (allFieldMappings.isEmpty()) {
                 throw new IllegalArgumentException("AcroForm section must have fieldMapping or patterns: " + section.getName());
@@ -214,6 +380,22 @@ public class FlexiblePdfMergeService {
         }
     }
     
+    private Map<String, String> buildFillPlan(SectionConfig section) {
+        // Start with base field mappings
+        Map<String, String> allFieldMappings = new HashMap<>();
+        
+        // Expand patterns first (if any)
+        if (section.getPatterns() != null && !section.getPatterns().isEmpty()) {
+            allFieldMappings.putAll(acroFormFillService.expandPatterns(section.getPatterns()));
+        }
+        
+        // Add explicit field mappings (can override pattern-generated ones)
+        if (section.getFieldMapping() != null) {
+            allFieldMappings.putAll(section.getFieldMapping());
+        }
+        return Collections.unmodifiableMap(allFieldMappings);
+    }
+    
     private PDDocument mergeDocs(Map<String, PDDocument> sectionDocs, List<SectionConfig> sections) throws IOException {
         PDDocument mergedDoc = new PDDocument();
         
@@ -230,6 +412,11 @@ public class FlexiblePdfMergeService {
             }
         }
         
+        // Sections are rendered independently: collapse identical images/fonts they share
+        if (dedupResources) {
+            PdfResourceDeduplicator.deduplicate(mergedDoc);
+        }
+        
         return mergedDoc;
     }
     
@@ -379,25 +566,25 @@ public class FlexiblePdfMergeService {
         contentStream.endText();
     }
     
+    /**
+     * Header/footer text: {@code {current}}, {@code {total}} and {@code {date}}, other
+     * {@code {key}} placeholders for top-level payload values, and {@code #{...}} function
+     * expressions. The text is compiled once and evaluated per page.
+     */
     private String replaceVariables(String text, int currentPage, int totalPages, Map<String, Object> payload) {
         if (text == null) return "";
         
-        String result = text
-            .replace("{current}", String.valueOf(currentPage))
-            .replace("{total}", String.valueOf(totalPages))
-            .replace("{date}", java.time.LocalDate.now().toString());
-        
-        // Replace payload variables
-        if (payload != null) {
-            for (Map.Entry<String, Object> entry : payload.entrySet()) {
-                String placeholder = "{" + entry.getKey() + "}";
-                if (result.contains(placeholder) && entry.getValue() != null) {
-                    result = result.replace(placeholder, entry.getValue().toString());
-                }
-            }
+        CompiledExpression template = functionResolver.compileTemplate(text, true);
+        if (template.isConstant()) {
+            return template.evaluate(payload);
         }
         
-        return result;
+        // Page variables take precedence over payload values of the same name
+        Map<String, Object> variables = payload != null ? PayloadOverlay.over(payload) : new HashMap<>();
+        variables.put("current", currentPage);
+        variables.put("total", totalPages);
+        variables.put("date", java.time.LocalDate.now());
+        return template.evaluate(variables);
     }
     
     private PDType1Font getFont(String fontName) {
@@ -7,26 +7,101 @@ import freemarker.cache.TemplateLoader;
 import freemarker.cache.URLTemplateLoader;
 import freemarker.cache.StringTemplateLoader;
 import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.ObjectWrapper;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import freemarker.template.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Renders FreeMarker templates from the classpath, the working directory or http(s) URLs.
+ *
+ * <p>Compiled templates live in a {@link Configuration} that is held behind an atomic
+ * reference. In {@code production} mode the template update delay is infinite, so a
+ * cached template is never re-stat'ed through the {@link MultiTemplateLoader}; new
+ * template versions only become visible through {@link #refresh(String)}, which builds a
+ * fresh configuration and swaps it in one step. Renders already in flight keep using the
+ * configuration they started with. In {@code development} mode FreeMarker's periodic
+ * update check stays on (see {@code app.templates.update-delay-ms}).
+ *
+ * <p>A refresh can be triggered via the admin API, by publishing a
+ * {@link TemplateRefreshEvent}, or by {@link TemplateFileWatcher} when it is enabled.
+ *
+ * <p>The stock wrapper (incompatible improvements 2.3.32) already exposes Map and List
+ * payloads through container adapters. With {@code app.templates.object-wrapper=tuned},
+ * other Collections are adapted too instead of being copied into a SimpleSequence,
+ * Iterables can be listed, and callers rendering several sections for one request can share
+ * a {@link TemplateModelScope} so the payload's adapters are created only once. Every template also sees the {@code resolvePath} method
+ * ({@link PayloadPathMethod}).
+ */
 @Service
 public class FreemarkerService {
 
     private static final Logger log = LoggerFactory.getLogger(FreemarkerService.class);
-    private final Configuration cfg;
+
+    public static final String MODE_PRODUCTION = "production";
+    public static final String MODE_DEVELOPMENT = "development";
+    public static final String WRAPPER_DEFAULT = "default";
+    public static final String WRAPPER_TUNED = "tuned";
+
+    private static final Version FREEMARKER_VERSION = new Version(2, 3, 32);
+
+    private final String mode;
+    private final long updateDelayMillis;
+    private final String objectWrapperMode;
+    private final AtomicReference<Configuration> cfgRef = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastRefreshMillis;
+
+    @Autowired(required = false)
+    private RenderProfiler renderProfiler = RenderProfiler.disabled();
+
+    @Autowired(required = false)
+    private RenderExecutor renderExecutor = RenderExecutor.inline();
 
     public FreemarkerService() throws IOException {
-        cfg = new Configuration(new Version(2, 3, 32));
+        this(MODE_DEVELOPMENT, 5000);
+    }
+
+    public FreemarkerService(String mode, long updateDelayMillis) throws IOException {
+        this(mode, updateDelayMillis, WRAPPER_DEFAULT);
+    }
+
+    @Autowired
+    public FreemarkerService(@Value("${app.templates.mode:development}") String mode,
+                             @Value("${app.templates.update-delay-ms:5000}") long updateDelayMillis,
+                             @Value("${app.templates.object-wrapper:default}") String objectWrapperMode) throws IOException {
+        this.mode = MODE_PRODUCTION.equalsIgnoreCase(mode) ? MODE_PRODUCTION : MODE_DEVELOPMENT;
+        this.updateDelayMillis = updateDelayMillis;
+        this.objectWrapperMode = WRAPPER_TUNED.equalsIgnoreCase(objectWrapperMode) ? WRAPPER_TUNED : WRAPPER_DEFAULT;
+        cfgRef.set(buildConfiguration());
+        version.set(1);
+        lastRefreshMillis = System.currentTimeMillis();
+        log.info("FreeMarker template registry initialised in {} mode (update delay: {}, object wrapper: {})",
+            this.mode, isProductionMode() ? "infinite" : updateDelayMillis + "ms", this.objectWrapperMode);
+    }
+
+    private Configuration buildConfiguration() throws IOException {
+        Configuration cfg = new Configuration(FREEMARKER_VERSION);
         cfg.setDefaultEncoding("UTF-8");
+        if (isTunedObjectWrapper()) {
+            cfg.setObjectWrapper(tunedWrapperConfiguration().build());
+        }
+        cfg.setSharedVariable(PayloadPathMethod.NAME, new PayloadPathMethod());
 
         // Classpath loader (templates packaged in resources)
         ClassTemplateLoader classLoader = new ClassTemplateLoader(this.getClass(), "/");
@@ -53,8 +128,83 @@ public class FreemarkerService {
         MultiTemplateLoader mtl = new MultiTemplateLoader(loaders);
         cfg.setTemplateLoader(mtl);
 
-        // Cache templates for 5 seconds (adjust as needed); 0 means always check
-        cfg.setTemplateUpdateDelayMilliseconds(5000);
+        // Production: never re-check sources, templates change only through refresh().
+        // Development: let FreeMarker re-check sources after the configured delay.
+        cfg.setTemplateUpdateDelayMilliseconds(isProductionMode() ? Long.MAX_VALUE : updateDelayMillis);
+        return cfg;
+    }
+
+    /**
+     * Atomically replace the compiled-template registry with an empty one so the next
+     * lookup of every template loads its current version.
+     *
+     * @param reason free-form description used for logging (e.g. "admin-api", "file-watch")
+     * @return the new registry version
+     */
+    public long refresh(String reason) throws IOException {
+        Configuration fresh = buildConfiguration();
+        cfgRef.set(fresh);
+        lastRefreshMillis = System.currentTimeMillis();
+        long v = version.incrementAndGet();
+        log.info("FreeMarker template registry refreshed to version {} ({})", v, reason);
+        return v;
+    }
+
+    /**
+     * Event hook: any component can publish a {@link TemplateRefreshEvent} (e.g. after a
+     * config push) to swap in fresh template versions.
+     */
+    @EventListener
+    public void onTemplateRefresh(TemplateRefreshEvent event) {
+        try {
+            refresh(event.getReason());
+        } catch (IOException e) {
+            log.error("Failed to refresh FreeMarker template registry ({})", event.getReason(), e);
+        }
+    }
+
+    /**
+     * Adapters for Map/List (the 2.3.22+ default, set explicitly) and for other Collections
+     * (no legacy SimpleSequence copies), plus Iterable support.
+     */
+    private static DefaultObjectWrapperBuilder tunedWrapperConfiguration() {
+        DefaultObjectWrapperBuilder builder = new DefaultObjectWrapperBuilder(FREEMARKER_VERSION);
+        builder.setUseAdaptersForContainers(true);
+        builder.setForceLegacyNonListCollections(false);
+        builder.setIterableSupport(true);
+        return builder;
+    }
+
+    /**
+     * Create a wrapping scope for one request. Pass the same scope to every
+     * {@link #processTemplateFromLocation(String, Map, TemplateModelScope)} call made while
+     * rendering that request so shared payload structures are wrapped once.
+     */
+    public TemplateModelScope newModelScope() {
+        if (isTunedObjectWrapper()) {
+            return TemplateModelScope.memoizing(tunedWrapperConfiguration());
+        }
+        return new TemplateModelScope(cfgRef.get().getObjectWrapper());
+    }
+
+    public boolean isTunedObjectWrapper() {
+        return WRAPPER_TUNED.equals(objectWrapperMode);
+    }
+
+    public boolean isProductionMode() {
+        return MODE_PRODUCTION.equals(mode);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getLastRefreshMillis() {
+        return lastRefreshMillis;
     }
 
     /**
@@ -65,14 +215,17 @@ public class FreemarkerService {
         StringTemplateLoader loader = new StringTemplateLoader();
         String name = "inline-template";
         loader.putTemplate(name, templateContent);
+        Configuration cfg = cfgRef.get();
         Configuration tmpCfg = new Configuration(cfg.getIncompatibleImprovements());
         tmpCfg.setTemplateLoader(loader);
         tmpCfg.setDefaultEncoding("UTF-8");
         tmpCfg.setTemplateUpdateDelayMilliseconds(cfg.getTemplateUpdateDelayMilliseconds());
+        tmpCfg.setObjectWrapper(cfg.getObjectWrapper());
+        tmpCfg.setSharedVariable(PayloadPathMethod.NAME, new PayloadPathMethod());
 
         try (StringWriter out = new StringWriter()) {
             Template t = tmpCfg.getTemplate(name);
-            t.process(model, out);
+            process(t, model, out, null);
             return out.toString();
         } catch (TemplateException te) {
             log.error("Freemarker processing failed", te);
@@ -85,9 +238,18 @@ public class FreemarkerService {
      * - classpath: "/templates/foo.ftl" or "templates/foo.ftl"
      * - relative file: "templates/foo.ftl"
      * - absolute or http URL: "http://.../foo.ftl" or "/absolute/path.ftl" (fallback to reading file)
-     * Note: FreeMarker has built-in template caching via cfg.setTemplateUpdateDelayMilliseconds()
+     * Note: compiled templates are cached in the current registry; see {@link #refresh(String)}
      */
     public String processTemplateFromLocation(String location, Map<String, Object> model) throws IOException {
+        return processTemplateFromLocation(location, model, null);
+    }
+
+    /**
+     * Same as {@link #processTemplateFromLocation(String, Map)}, wrapping the model with the
+     * given request scope (may be null to use the configuration's wrapper).
+     */
+    public String processTemplateFromLocation(String location, Map<String, Object> model,
+                                              TemplateModelScope scope) throws IOException {
         if (location == null) throw new IOException("Template location is null");
         String name = location.trim();
         // If leading slash, drop it for classpath/file lookups
@@ -95,9 +257,11 @@ public class FreemarkerService {
 
         try (StringWriter out = new StringWriter()) {
             try {
-                // FreeMarker caches templates internally
-                Template t = cfg.getTemplate(name);
-                t.process(model, out);
+                // Resolve against the current registry snapshot
+                Template t = cfgRef.get().getTemplate(name);
+                long start = renderProfiler.start();
+                process(t, model, out, scope != null ? scope.getObjectWrapper() : null);
+                renderProfiler.stop(location, RenderProfiler.Stage.FREEMARKER_PROCESS, start);
                 return out.toString();
             } catch (freemarker.template.TemplateNotFoundException tnfe) {
                 // As a fallback, if the original location looks like an absolute path, try to read file directly
@@ -113,4 +277,30 @@ public class FreemarkerService {
             }
         }
     }
+
+    /**
+     * Process an already loaded template. Template execution is CPU-bound: in virtual-thread
+     * mode it runs on the {@link RenderExecutor} pool while loading stays on the caller.
+     */
+    private void process(Template t, Map<String, Object> model, Writer out, ObjectWrapper wrapper)
+            throws IOException, TemplateException {
+        try {
+            renderExecutor.cpuBound(() -> {
+                if (wrapper != null) {
+                    t.process(model, out, wrapper);
+                } else {
+                    t.process(model, out);
+                }
+                return null;
+            });
+        } catch (IOException | TemplateException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for a render thread");
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
 }
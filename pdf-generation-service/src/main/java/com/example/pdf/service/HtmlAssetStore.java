@@ -0,0 +1,170 @@
+package com.example.pdf.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Process-wide, content-hashed store for images embedded in templates as data URIs
+ * (logos, signatures).
+ *
+ * <p>{@link HtmlPdfService} replaces each {@code data:} image source with an
+ * {@code asset:<sha256>} reference before rendering; openhtmltopdf then loads the bytes
+ * through {@link #streamFactory()}. A given data URI is base64-decoded only once per
+ * process, and identical image bytes are stored once regardless of how many templates,
+ * sections or requests embed them. The store is bounded, so each render also pins the
+ * assets it registered until it has finished.
+ */
+@Component
+public class HtmlAssetStore {
+
+    private static final Logger log = LoggerFactory.getLogger(HtmlAssetStore.class);
+
+    public static final String PROTOCOL = "asset";
+
+    /** sha256(data URI text) -> sha256(decoded bytes): skips decoding for URIs seen before. */
+    private final Cache<String, String> uriIndex;
+    /** sha256(decoded bytes) -> decoded bytes. */
+    private final Cache<String, byte[]> assets;
+    private final int maxAssetBytes;
+
+    public HtmlAssetStore() {
+        this(64L * 1024 * 1024, 5 * 1024 * 1024);
+    }
+
+    @Autowired
+    public HtmlAssetStore(@Value("${app.assets.max-total-bytes:67108864}") long maxTotalBytes,
+                          @Value("${app.assets.max-asset-bytes:5242880}") int maxAssetBytes) {
+        this.maxAssetBytes = maxAssetBytes;
+        this.assets = Caffeine.newBuilder()
+            .maximumWeight(maxTotalBytes)
+            .weigher((String key, byte[] value) -> value.length)
+            .recordStats()
+            .build();
+        this.uriIndex = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+    }
+
+    /**
+     * Store the image carried by a data URI and return its {@code asset:} reference, or the
+     * original URI if it is not a base64 data URI or exceeds the per-asset limit.
+     */
+    public String register(String dataUri) {
+        return register(dataUri, null);
+    }
+
+    /**
+     * As {@link #register(String)}, also putting the bytes into {@code pinned} (content hash
+     * -> bytes) when not null. The store is bounded and may evict an asset before the render
+     * reads it; a render pins its assets and reads them through {@link #streamFactory(Map)}.
+     */
+    public String register(String dataUri, Map<String, byte[]> pinned) {
+        if (dataUri == null || !dataUri.startsWith("data:")) {
+            return dataUri;
+        }
+        int comma = dataUri.indexOf(',');
+        if (comma < 0 || !dataUri.substring(0, comma).endsWith(";base64")) {
+            return dataUri;
+        }
+        // Encoded length is ~4/3 of the decoded size
+        if ((long) (dataUri.length() - comma - 1) * 3 / 4 > maxAssetBytes) {
+            return dataUri;
+        }
+
+        String uriKey = sha256(dataUri.getBytes(StandardCharsets.US_ASCII));
+        String contentKey = uriIndex.getIfPresent(uriKey);
+        byte[] bytes = contentKey == null ? null : assets.getIfPresent(contentKey);
+        if (bytes == null) {
+            try {
+                bytes = Base64.getMimeDecoder().decode(dataUri.substring(comma + 1));
+            } catch (IllegalArgumentException e) {
+                log.debug("Leaving undecodable data URI in place", e);
+                return dataUri;
+            }
+            contentKey = sha256(bytes);
+            byte[] existing = assets.asMap().putIfAbsent(contentKey, bytes);
+            if (existing != null) {
+                bytes = existing;
+            }
+            uriIndex.put(uriKey, contentKey);
+        }
+        if (pinned != null) {
+            pinned.put(contentKey, bytes);
+        }
+        return PROTOCOL + ":" + contentKey;
+    }
+
+    /** Bytes for an {@code asset:} URI (or bare hash), or null if evicted/unknown. */
+    public byte[] get(String uri) {
+        return assets.getIfPresent(key(uri));
+    }
+
+    public long size() {
+        return assets.estimatedSize();
+    }
+
+    public void clear() {
+        assets.invalidateAll();
+        uriIndex.invalidateAll();
+    }
+
+    /** Stream factory to register with openhtmltopdf for the {@value #PROTOCOL} protocol. */
+    public FSStreamFactory streamFactory() {
+        return streamFactory(null);
+    }
+
+    /**
+     * Stream factory that reads assets pinned by {@link #register(String, Map)} first, so a
+     * render does not lose an image evicted from the store after it was registered.
+     */
+    public FSStreamFactory streamFactory(Map<String, byte[]> pinned) {
+        return uri -> {
+            byte[] pinnedBytes = pinned == null ? null : pinned.get(key(uri));
+            byte[] bytes = pinnedBytes != null ? pinnedBytes : get(uri);
+            if (bytes == null) {
+                log.warn("Asset not found in store: {}", uri);
+            }
+            return new FSStream() {
+                @Override
+                public InputStream getStream() {
+                    return bytes == null ? null : new ByteArrayInputStream(bytes);
+                }
+
+                @Override
+                public Reader getReader() {
+                    return bytes == null ? null : new InputStreamReader(getStream(), StandardCharsets.UTF_8);
+                }
+            };
+        };
+    }
+
+    private static String key(String uri) {
+        return uri.startsWith(PROTOCOL + ":") ? uri.substring(PROTOCOL.length() + 1) : uri;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.pdf.service;
 
+import com.example.pdf.service.RenderProfiler.Stage;
+import com.openhtmltopdf.pdfboxout.PdfBoxRenderer;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.openhtmltopdf.render.Box;
+import com.openhtmltopdf.render.PageBox;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Entities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,7 +27,76 @@ public class HtmlPdfService {
 
     private static final Logger log = LoggerFactory.getLogger(HtmlPdfService.class);
 
+    private final HtmlAssetStore assetStore;
+
+    @Autowired(required = false)
+    private RenderProfiler renderProfiler = RenderProfiler.disabled();
+
+    @Autowired(required = false)
+    private RenderExecutor renderExecutor = RenderExecutor.inline();
+
+    public HtmlPdfService() {
+        this(new HtmlAssetStore());
+    }
+
+    @Autowired
+    public HtmlPdfService(HtmlAssetStore assetStore) {
+        this.assetStore = assetStore;
+    }
+
     public byte[] renderHtmlToPdf(String html) throws IOException {
+        return renderHtmlToPdf(html, null);
+    }
+
+    /**
+     * Render HTML to PDF, attributing stage timings to {@code profileKey} (normally the
+     * template the HTML came from) in the {@link RenderProfiler}.
+     */
+    public byte[] renderHtmlToPdf(String html, String profileKey) throws IOException {
+        // Tidying, layout and output are CPU-bound: in virtual-thread mode they run on the carrier pool
+        return renderExecutor.cpuBoundIO(() -> render(html, profileKey, null));
+    }
+
+    /**
+     * Render several HTML documents in one openhtmltopdf pass. Sections are combined by
+     * {@link HtmlSectionBatcher} (one page-break-separated block per section, identified by
+     * its anchor id) and the page each section starts on is read back from the layout.
+     *
+     * @param sectionHtmls complete HTML documents, in output order
+     * @param anchorIds    one unique id per section, used as the block's anchor
+     * @return the PDF plus a map of anchor id to 0-based start page
+     */
+    public BatchedPdf renderHtmlSectionsToPdf(List<String> sectionHtmls, List<String> anchorIds, String profileKey) throws IOException {
+        Map<String, Integer> startPages = new LinkedHashMap<>();
+        for (String id : anchorIds) {
+            startPages.put(id, null);
+        }
+        byte[] pdf = renderExecutor.cpuBoundIO(
+            () -> render(HtmlSectionBatcher.combine(sectionHtmls, anchorIds), profileKey, startPages));
+        return new BatchedPdf(pdf, startPages);
+    }
+
+    /** Result of {@link #renderHtmlSectionsToPdf}. */
+    public static class BatchedPdf {
+        private final byte[] pdf;
+        private final Map<String, Integer> startPages;
+
+        BatchedPdf(byte[] pdf, Map<String, Integer> startPages) {
+            this.pdf = pdf;
+            this.startPages = startPages;
+        }
+
+        public byte[] getPdf() { return pdf; }
+
+        /** Anchor id to 0-based start page; null if the anchor was not laid out. */
+        public Map<String, Integer> getStartPages() { return startPages; }
+    }
+
+    /**
+     * @param anchorPages if not null, its keys are element ids whose 0-based page index is
+     *                    filled in after layout
+     */
+    private byte[] render(String html, String profileKey, Map<String, Integer> anchorPages) throws IOException {
         if (html == null) html = "";
         // Remove BOM if present
         if (html.length() > 0 && html.charAt(0) == '\uFEFF') {
@@ -33,7 +111,11 @@ public class HtmlPdfService {
         // Auto-inject @page CSS for consistent US Letter sizing if not already present
         html = ensurePageSizeCss(html);
 
+        // Assets this render references, held until it finishes even if the store evicts them
+        Map<String, byte[]> pinnedAssets = new HashMap<>();
+
         // Use Jsoup to tidy and convert arbitrary HTML into well-formed XHTML
+        long tidyStart = renderProfiler.start();
         try {
             Document doc = Jsoup.parse(html);
             Document.OutputSettings out = new Document.OutputSettings();
@@ -41,6 +123,10 @@ public class HtmlPdfService {
             out.charset(StandardCharsets.UTF_8);
             out.escapeMode(Entities.EscapeMode.xhtml);
             doc.outputSettings(out);
+            // Swap embedded data-URI images for content-hashed asset references (decoded once per process)
+            for (Element img : doc.select("img[src^=data:]")) {
+                img.attr("src", assetStore.register(img.attr("src"), pinnedAssets));
+            }
             // Ensure the html element has the XHTML namespace
             if (!doc.select("html").attr("xmlns").equals("http://www.w3.org/1999/xhtml")) {
                 doc.select("html").attr("xmlns", "http://www.w3.org/1999/xhtml");
@@ -66,6 +152,7 @@ public class HtmlPdfService {
                 log.debug("Fallback coercion also failed", ex);
             }
         }
+        renderProfiler.stop(profileKey, Stage.JSOUP_TIDY, tidyStart);
 
         // Log a short snippet (codepoints) to help diagnose malformed-leading-content errors
         if (log.isDebugEnabled()) {
@@ -83,14 +170,47 @@ public class HtmlPdfService {
             // Use current directory as base URI so relative resources resolve during development
             String baseUri = null;
             builder.withHtmlContent(html, baseUri);
+            builder.useProtocolsStreamImplementation(assetStore.streamFactory(pinnedAssets), HtmlAssetStore.PROTOCOL);
             builder.toStream(baos);
-            builder.run();
+            // Equivalent to builder.run(), split so layout and PDF output are timed separately
+            try (PdfBoxRenderer renderer = builder.buildPdfRenderer()) {
+                long layoutStart = renderProfiler.start();
+                renderer.layout();
+                renderProfiler.stop(profileKey, Stage.HTML_LAYOUT, layoutStart);
+                if (anchorPages != null) {
+                    resolveAnchorPages(renderer, anchorPages);
+                }
+                long writeStart = renderProfiler.start();
+                renderer.createPDF();
+                renderProfiler.stop(profileKey, Stage.PDF_WRITE, writeStart);
+            }
             return baos.toByteArray();
         } catch (Exception e) {
             String snippet = html.length() <= 200 ? html : html.substring(0, 200);
             String msg = "Failed to render HTML to PDF. HTML snippet: '" + snippet.replaceAll("\n", "\\n") + "'";
             log.error(msg, e);
             throw new IOException(msg, e);
+        } finally {
+            pinnedAssets.clear();
+        }
+    }
+
+    /** Map each anchor's laid-out box to the page whose vertical range contains it. */
+    private void resolveAnchorPages(PdfBoxRenderer renderer, Map<String, Integer> anchorPages) {
+        List<PageBox> pages = renderer.getRootBox().getLayer().getPages();
+        for (Map.Entry<String, Integer> anchor : anchorPages.entrySet()) {
+            Box box = renderer.getSharedContext().getBoxById(anchor.getKey());
+            if (box == null) {
+                log.warn("Anchor '{}' not found in batched layout", anchor.getKey());
+                continue;
+            }
+            int y = box.getAbsY();
+            for (int i = 0; i < pages.size(); i++) {
+                if (y >= pages.get(i).getTop() && y < pages.get(i).getBottom()) {
+                    anchor.setValue(i);
+                    break;
+                }
+            }
         }
     }
 
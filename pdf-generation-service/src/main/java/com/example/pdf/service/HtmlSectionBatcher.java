@@ -0,0 +1,72 @@
+package com.example.pdf.service;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Combines several rendered HTML documents into one so they can be laid out in a single
+ * openhtmltopdf pass.
+ *
+ * <p>Head content ({@code <style>}, {@code <link>}, {@code <meta>}) is concatenated with
+ * exact duplicates dropped; stylesheets stay global, so batched templates must not define
+ * conflicting rules for the same selectors. Each body becomes a
+ * {@code <div id="anchor" class="pdf-batch-section">} block carrying the original body's
+ * class/style, and every block after the first starts on a new page.
+ */
+final class HtmlSectionBatcher {
+
+    static final String SECTION_CLASS = "pdf-batch-section";
+
+    private HtmlSectionBatcher() {
+    }
+
+    static String combine(List<String> sectionHtmls, List<String> anchorIds) {
+        if (sectionHtmls.size() != anchorIds.size()) {
+            throw new IllegalArgumentException("Expected one anchor per section: "
+                + sectionHtmls.size() + " sections, " + anchorIds.size() + " anchors");
+        }
+        Set<String> headParts = new LinkedHashSet<>();
+        StringBuilder body = new StringBuilder();
+
+        for (int i = 0; i < sectionHtmls.size(); i++) {
+            String html = sectionHtmls.get(i) == null ? "" : sectionHtmls.get(i);
+            if (!html.isEmpty() && html.charAt(0) == '\uFEFF') {
+                html = html.substring(1);
+            }
+            Document doc = Jsoup.parse(html);
+            for (Element el : doc.head().children()) {
+                if (!"title".equals(el.tagName())) {
+                    headParts.add(el.outerHtml());
+                }
+            }
+
+            Element bodyEl = doc.body();
+            StringBuilder style = new StringBuilder();
+            if (i > 0) {
+                style.append("page-break-before: always;");
+            }
+            if (bodyEl.hasAttr("style")) {
+                style.append(' ').append(bodyEl.attr("style"));
+            }
+            String cls = SECTION_CLASS + (bodyEl.hasAttr("class") ? " " + bodyEl.attr("class") : "");
+
+            body.append("<div id=\"").append(anchorIds.get(i)).append("\" class=\"").append(cls).append('"');
+            if (style.length() > 0) {
+                body.append(" style=\"").append(style.toString().trim().replace("\"", "'")).append('"');
+            }
+            body.append('>').append(bodyEl.html()).append("</div>\n");
+        }
+
+        StringBuilder out = new StringBuilder("<!DOCTYPE html>\n<html>\n<head>\n");
+        for (String part : headParts) {
+            out.append(part).append('\n');
+        }
+        out.append("</head>\n<body>\n").append(body).append("</body>\n</html>");
+        return out.toString();
+    }
+}
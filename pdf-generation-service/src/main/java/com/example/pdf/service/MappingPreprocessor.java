@@ -8,9 +8,8 @@ import java.util.List;
 import java.util.Map;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.Option;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * Helper to normalize incoming payloads into a predictable shape suitable for
@@ -19,6 +18,9 @@ import com.fasterxml.jackson.databind.JsonNode;
  */
 public class MappingPreprocessor {
 
+    private static final Configuration SELECTOR_CONF =
+            Configuration.defaultConfiguration().addOptions(Option.DEFAULT_PATH_LEAF_TO_NULL);
+
     @SuppressWarnings("unchecked")
     public static Map<String, Object> normalize(GenerateRequest req) {
         return normalize(req, new PreprocessorConfig());
@@ -38,12 +40,6 @@ public class MappingPreprocessor {
         if (cfg.rootAppKey != null && payload.get(cfg.rootAppKey) instanceof Map) app = (Map<String,Object>) payload.get(cfg.rootAppKey);
         else app = payload;
 
-        // If JSONPath selectors are provided in config, attempt to resolve
-        // primary/spouse/children using them. This allows fully declarative
-        // selection without embedding domain strings in the code.
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode = mapper.valueToTree(payload);
-
         // applicants list (legacy behavior uses this)
         List<Map<String, Object>> applicants = null;
         Object aobj = app.get(cfg.applicantsKey);
@@ -52,16 +48,22 @@ public class MappingPreprocessor {
         // If arbitrary selectors are configured, treat them as a map of
         // outputKey -> JSONPath. This is fully generic: the library no
         // longer has any special-cased knowledge of domain roles when
-        // selectors are supplied.
+        // selectors are supplied. Selectors are compiled once per config and
+        // all of them read from one document context over the payload.
         boolean hasSelectors = cfg.selectors != null && !cfg.selectors.isEmpty();
         if (hasSelectors) {
             try {
-                Configuration conf = Configuration.defaultConfiguration().addOptions(Option.DEFAULT_PATH_LEAF_TO_NULL);
-                for (Map.Entry<String, String> se : cfg.selectors.entrySet()) {
+                DocumentContext doc = JsonPath.using(SELECTOR_CONF).parse(payload);
+                for (Map.Entry<String, JsonPath> se : cfg.compiledSelectors().entrySet()) {
                     String outKey = se.getKey();
-                    String expr = se.getValue();
+                    JsonPath path = se.getValue();
+                    if (path == null) {
+                        // invalid expression
+                        out.put(outKey, null);
+                        continue;
+                    }
                     try {
-                        Object found = JsonPath.using(conf).parse(payload).read(expr);
+                        Object found = doc.read(path);
                         if (found instanceof Map) {
                             Map<String,Object> m = new LinkedHashMap<>((Map<String,Object>) found);
                             // normalize applicant-like maps where applicable
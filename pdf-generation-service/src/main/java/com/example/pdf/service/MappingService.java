@@ -2,12 +2,15 @@ package com.example.pdf.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,6 +62,13 @@ public class MappingService {
     private final ObjectMapper yaml = new ObjectMapper(new YAMLFactory());
     private final ObjectMapper json = new ObjectMapper();
 
+    private static final int MAX_CACHED_PATH_BATCHES = 256;
+    // Compiled field -> path mappings for resolvePaths, keyed by a copy of the mapping; rarely
+    // used mappings are evicted
+    private final Cache<Map<String, String>, PayloadPathBatch> pathBatchCache = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATH_BATCHES)
+        .build();
+
     public MappingService() {
         this.configClient = new ConfigServerClient();
     }
@@ -428,66 +438,120 @@ public class MappingService {
         Object cur = payload;
         for (String p : parts) {
             if (cur == null) return null;
-            // support bracket syntax like items[0] or items[0][1]
-            String remaining = p;
-            // if current object is a Map, we expect a key next
-            if (cur instanceof Map) {
-                Map m = (Map) cur;
-                // handle leading bracket, e.g. [0]
-                if (remaining.startsWith("[")) {
-                    // fall through to list handling below
+            cur = resolvePart(cur, p);
+        }
+        log.debug("resolvePath: Resolved value: {}", (cur == null ? "null" : cur.toString()));
+        return cur;
+    }
+
+    /**
+     * Resolve every field of a field -> path mapping (as in {@link #resolvePath}) in one walk
+     * of the payload. Shared path prefixes are resolved once; the compiled mapping is cached.
+     *
+     * @return field -> value in mapping order; unresolved fields map to null
+     */
+    public Map<String, Object> resolvePaths(Map<String, Object> payload, Map<String, String> fieldMap) {
+        PayloadPathBatch batch = pathBatchCache.getIfPresent(fieldMap);
+        if (batch == null) {
+            batch = PayloadPathBatch.build(fieldMap, MappingService::pathSteps);
+            pathBatchCache.put(new LinkedHashMap<>(fieldMap), batch);
+        }
+        return batch.resolve(payload);
+    }
+
+    private static List<PathPart> pathSteps(String path) {
+        List<PathPart> steps = new ArrayList<>();
+        for (String p : path.split("\\.")) {
+            steps.add(new PathPart(p));
+        }
+        return steps;
+    }
+
+    // Resolve one dot-separated part of a path against the current value
+    private static Object resolvePart(Object cur, String p) {
+        if (cur == null) return null;
+        // support bracket syntax like items[0] or items[0][1]
+        String remaining = p;
+        // if current object is a Map, we expect a key next
+        if (cur instanceof Map) {
+            Map m = (Map) cur;
+            // handle leading bracket, e.g. [0]
+            if (remaining.startsWith("[")) {
+                // fall through to list handling below
+            } else {
+                // extract base key before any bracket
+                int bi = remaining.indexOf('[');
+                String key = bi == -1 ? remaining : remaining.substring(0, bi);
+                cur = m.get(key);
+                // if there are bracketed indices after the key, process them
+                if (bi != -1) {
+                    remaining = remaining.substring(bi);
                 } else {
-                    // extract base key before any bracket
-                    int bi = remaining.indexOf('[');
-                    String key = bi == -1 ? remaining : remaining.substring(0, bi);
-                    cur = m.get(key);
-                    // if there are bracketed indices after the key, process them
-                    if (bi != -1) {
-                        remaining = remaining.substring(bi);
-                    } else {
-                        continue;
-                    }
+                    return cur;
                 }
             }
+        }
 
-            // now handle list indices if the current object is a List or remaining begins with brackets
-            // remaining may be like "[0][1]" or a plain numeric index like "0"
-            while (remaining != null && remaining.length() > 0) {
-                if (remaining.startsWith("[")) {
-                    int idxEnd = remaining.indexOf(']');
-                    if (idxEnd == -1) return null;
-                    String idxStr = remaining.substring(1, idxEnd).trim();
-                    int idx;
-                    try {
-                        idx = Integer.parseInt(idxStr);
-                    } catch (NumberFormatException nfe) {
-                        return null;
-                    }
+        // now handle list indices if the current object is a List or remaining begins with brackets
+        // remaining may be like "[0][1]" or a plain numeric index like "0"
+        while (remaining != null && remaining.length() > 0) {
+            if (remaining.startsWith("[")) {
+                int idxEnd = remaining.indexOf(']');
+                if (idxEnd == -1) return null;
+                String idxStr = remaining.substring(1, idxEnd).trim();
+                int idx;
+                try {
+                    idx = Integer.parseInt(idxStr);
+                } catch (NumberFormatException nfe) {
+                    return null;
+                }
+                if (!(cur instanceof java.util.List)) return null;
+                java.util.List list = (java.util.List) cur;
+                if (idx < 0 || idx >= list.size()) return null;
+                cur = list.get(idx);
+                remaining = remaining.substring(idxEnd + 1);
+            } else {
+                // if remaining is a plain number (dot-separated), treat as index
+                if (remaining.matches("^\\d+$")) {
+                    int idx = Integer.parseInt(remaining);
                     if (!(cur instanceof java.util.List)) return null;
                     java.util.List list = (java.util.List) cur;
                     if (idx < 0 || idx >= list.size()) return null;
                     cur = list.get(idx);
-                    remaining = remaining.substring(idxEnd + 1);
+                    remaining = "";
                 } else {
-                    // if remaining is a plain number (dot-separated), treat as index
-                    if (remaining.matches("^\\d+$")) {
-                        int idx = Integer.parseInt(remaining);
-                        if (!(cur instanceof java.util.List)) return null;
-                        java.util.List list = (java.util.List) cur;
-                        if (idx < 0 || idx >= list.size()) return null;
-                        cur = list.get(idx);
-                        remaining = "";
-                    } else {
-                        // nothing to process, break
-                        break;
-                    }
+                    // nothing to process, break
+                    break;
                 }
             }
         }
-        log.debug("resolvePath: Resolved value: {}", (cur == null ? "null" : cur.toString()));
         return cur;
     }
 
+    // One path part as a batch step; equal parts on a shared prefix are resolved once
+    private static final class PathPart implements PayloadPathBatch.Step {
+        private final String part;
+
+        PathPart(String part) {
+            this.part = part;
+        }
+
+        @Override
+        public Object apply(Object current) {
+            return resolvePart(current, part);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PathPart && ((PathPart) o).part.equals(part);
+        }
+
+        @Override
+        public int hashCode() {
+            return part.hashCode();
+        }
+    }
+
     // flatten nested YAML/Map into flat string->string map by joining keys with '.'
     private Map<String, String> flattenToStringMap(Map<?,?> input) {
         Map<String, String> out = new LinkedHashMap<>();
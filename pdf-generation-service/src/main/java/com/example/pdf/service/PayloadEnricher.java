@@ -1,6 +1,7 @@
 package com.example.pdf.service;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Interface for payload enrichers/transformers.
@@ -20,6 +21,9 @@ public interface PayloadEnricher {
     /**
      * Enrich/transform the payload by adding calculated fields, formatted data, etc.
      * 
+     * Implementations must not modify {@code payload} or the maps inside it: start from
+     * {@link PayloadOverlay#over} and put only the added fields (nested maps likewise).
+     * 
      * @param payload Original payload
      * @return Enriched payload with additional fields
      */
@@ -29,4 +33,21 @@ public interface PayloadEnricher {
      * Unique name for this enricher (used in YAML config)
      */
     String getName();
+    
+    /**
+     * Top-level payload keys this enricher reads, or null if undeclared. Enrichers that
+     * declare both {@link #reads()} and {@link #writes()} may run concurrently with
+     * neighbours in a chain they don't depend on; undeclared ones always run on their own.
+     */
+    default Set<String> reads() {
+        return null;
+    }
+    
+    /**
+     * Top-level payload keys this enricher adds, replaces or removes, or null if undeclared.
+     * When run concurrently only these keys are taken from the enricher's result.
+     */
+    default Set<String> writes() {
+        return null;
+    }
 }
@@ -1,28 +1,82 @@
 package com.example.pdf.service;
 
+import com.example.pdf.logging.MdcTaskDecorator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Registry for payload enrichers.
  * Auto-discovers all PayloadEnricher implementations.
+ *
+ * With {@code app.enrichers.parallel-threads > 0}, each chain is split into stages using
+ * the keys enrichers declare in {@link PayloadEnricher#reads()} / {@link PayloadEnricher#writes()}:
+ * an enricher joins the current stage unless it conflicts with a member (one writes what
+ * the other reads or writes), otherwise it starts the next one. The enrichers of a stage run
+ * concurrently on the same input and their declared writes are merged in chain order, so
+ * the result is the same as running the chain in sequence. By default chains run in order
+ * on the calling thread.
  */
 @Component
 public class PayloadEnricherRegistry {
     
     private final Map<String, PayloadEnricher> enrichers = new HashMap<>();
     
-    @Autowired
+    private final int parallelThreads;
+    private ExecutorService workers;
+    
+    /** Stages per chain; chains come from section configs, so there are few of them. */
+    private final Map<List<String>, List<List<PayloadEnricher>>> stagePlans = new ConcurrentHashMap<>();
+    
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+    
     public PayloadEnricherRegistry(List<PayloadEnricher> enricherList) {
+        this(enricherList, 0);
+    }
+    
+    @Autowired
+    public PayloadEnricherRegistry(List<PayloadEnricher> enricherList,
+                                   @Value("${app.enrichers.parallel-threads:0}") int parallelThreads) {
         if (enricherList != null) {
             for (PayloadEnricher enricher : enricherList) {
                 enrichers.put(enricher.getName(), enricher);
             }
         }
+        this.parallelThreads = parallelThreads;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (parallelThreads <= 0) {
+            return;
+        }
+        AtomicInteger threadNo = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelThreads, r -> {
+            Thread t = new Thread(r, "pdf-enricher-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (workers != null) workers.shutdownNow();
     }
     
     /**
@@ -44,18 +98,147 @@ public class PayloadEnricherRegistry {
     }
     
     /**
-     * Apply multiple enrichers in sequence
+     * Apply multiple enrichers in sequence. The caller's payload is left unchanged; the
+     * result is an overlay holding the enrichers' additions over it.
      */
     public Map<String, Object> applyEnrichers(List<String> enricherNames, Map<String, Object> payload) {
-        Map<String, Object> enriched = new HashMap<>(payload);
+        Map<String, Object> enriched = PayloadOverlay.over(payload);
         
         if (enricherNames != null) {
-            for (String enricherName : enricherNames) {
-                PayloadEnricher enricher = getEnricher(enricherName);
-                enriched = enricher.enrich(enriched);
-            }
+            enriched = run(enricherNames, 0, enriched, null);
         }
         
         return enriched;
     }
+    
+    /**
+     * Start memoizing enricher results for one request's payload.
+     */
+    public EnrichmentScope newScope(Map<String, Object> payload) {
+        return new EnrichmentScope(payload);
+    }
+    
+    /**
+     * Apply enrichers in sequence to the scope's payload, reusing the result of the longest
+     * chain prefix already computed in this scope and memoizing each new prefix. Each call
+     * gets its own top-level overlay, so sections see the same isolation as with
+     * {@link #applyEnrichers(List, Map)}.
+     */
+    public Map<String, Object> applyEnrichers(List<String> enricherNames, EnrichmentScope scope) {
+        if (enricherNames == null || enricherNames.isEmpty()) {
+            return PayloadOverlay.over(scope.getPayload());
+        }
+        int[] done = new int[1];
+        Map<String, Object> enriched = scope.longestPrefix(enricherNames, done);
+        if (done[0] == 0) {
+            enriched = PayloadOverlay.over(enriched);
+        }
+        return PayloadOverlay.over(run(enricherNames, done[0], enriched, scope));
+    }
+    
+    /** Stages of {@code chain} as run with the current settings (one enricher each when sequential). */
+    List<List<PayloadEnricher>> stages(List<String> chain) {
+        if (workers == null) {
+            List<List<PayloadEnricher>> stages = new ArrayList<>(chain.size());
+            for (String name : chain) {
+                stages.add(List.of(getEnricher(name)));
+            }
+            return stages;
+        }
+        return stagePlans.computeIfAbsent(List.copyOf(chain), this::planStages);
+    }
+    
+    /**
+     * Run {@code enricherNames} from index {@code from} on {@code enriched}, memoizing the
+     * chain prefix at every stage boundary when a scope is given.
+     */
+    private Map<String, Object> run(List<String> enricherNames, int from, Map<String, Object> enriched,
+                                    EnrichmentScope scope) {
+        if (workers == null) {
+            for (int i = from; i < enricherNames.size(); i++) {
+                enriched = enrich(getEnricher(enricherNames.get(i)), enriched);
+                if (scope != null) scope.remember(enricherNames.subList(0, i + 1), enriched);
+            }
+            return enriched;
+        }
+        int done = from;
+        for (List<PayloadEnricher> stage : stages(enricherNames.subList(from, enricherNames.size()))) {
+            enriched = stage.size() == 1 ? enrich(stage.get(0), enriched) : enrichConcurrently(stage, enriched);
+            done += stage.size();
+            if (scope != null) scope.remember(enricherNames.subList(0, done), enriched);
+        }
+        return enriched;
+    }
+    
+    private Map<String, Object> enrich(PayloadEnricher enricher, Map<String, Object> payload) {
+        long start = renderMetrics.start();
+        Map<String, Object> enriched = enricher.enrich(payload);
+        renderMetrics.enricher(enricher.getName(), start);
+        return enriched;
+    }
+    
+    /** Run a stage's enrichers on the same input and merge their declared writes in chain order. */
+    private Map<String, Object> enrichConcurrently(List<PayloadEnricher> stage, Map<String, Object> payload) {
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(stage.size());
+        for (PayloadEnricher enricher : stage) {
+            futures.add(workers.submit(MdcTaskDecorator.wrap(() -> enrich(enricher, payload))));
+        }
+        Map<String, Object> merged = PayloadOverlay.over(payload);
+        try {
+            for (int i = 0; i < stage.size(); i++) {
+                Map<String, Object> result = futures.get(i).get();
+                for (String key : stage.get(i).writes()) {
+                    if (result.containsKey(key)) {
+                        merged.put(key, result.get(key));
+                    } else {
+                        merged.remove(key);
+                    }
+                }
+            }
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while applying enrichers", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Enricher failed", cause);
+        } finally {
+            for (Future<Map<String, Object>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+    
+    private List<List<PayloadEnricher>> planStages(List<String> chain) {
+        List<List<PayloadEnricher>> stages = new ArrayList<>();
+        List<PayloadEnricher> current = new ArrayList<>();
+        for (String name : chain) {
+            PayloadEnricher enricher = getEnricher(name);
+            for (PayloadEnricher member : current) {
+                if (!independent(member, enricher)) {
+                    stages.add(List.copyOf(current));
+                    current = new ArrayList<>();
+                    break;
+                }
+            }
+            current.add(enricher);
+        }
+        if (!current.isEmpty()) {
+            stages.add(List.copyOf(current));
+        }
+        return stages;
+    }
+    
+    /** Neither writes a key the other reads or writes; undeclared enrichers depend on everything. */
+    static boolean independent(PayloadEnricher a, PayloadEnricher b) {
+        Set<String> readsA = a.reads(), writesA = a.writes(), readsB = b.reads(), writesB = b.writes();
+        if (readsA == null || writesA == null || readsB == null || writesB == null) {
+            return false;
+        }
+        return Collections.disjoint(writesA, writesB)
+            && Collections.disjoint(writesA, readsB)
+            && Collections.disjoint(readsA, writesB);
+    }
 }
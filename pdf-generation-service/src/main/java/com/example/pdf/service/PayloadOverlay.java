@@ -0,0 +1,161 @@
+package com.example.pdf.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Copy-on-write view of a payload map for {@link PayloadEnricher}s.
+ *
+ * <p>Reads fall through to the base map; writes and removals are kept in a small
+ * local layer, so the base is never modified and never copied. An enricher starts from
+ * {@code PayloadOverlay.over(payload)} and puts only what it adds. Overlaying an overlay
+ * reuses its base and copies just its additions, so a chain of enrichers stays one layer
+ * deep and per-section payload memory grows with what the enrichers add, not with the
+ * payload size. Nested maps (applicants, coverages) are overlaid the same way when an
+ * enricher adds fields to them.
+ *
+ * <p>Not thread-safe, like the HashMap copies it replaces.
+ */
+public final class PayloadOverlay extends AbstractMap<String, Object> {
+
+    /** Marks a base key removed in this layer. */
+    private static final Object REMOVED = new Object();
+
+    private final Map<String, Object> base;
+    private final Map<String, Object> local;
+
+    private PayloadOverlay(Map<String, Object> base, Map<String, Object> local) {
+        this.base = base;
+        this.local = local;
+    }
+
+    /**
+     * A writable view of {@code payload} that leaves it untouched. If {@code payload} is
+     * itself an overlay, the new one shares its base and starts from a copy of its changes.
+     */
+    public static PayloadOverlay over(Map<String, Object> payload) {
+        if (payload instanceof PayloadOverlay) {
+            PayloadOverlay overlay = (PayloadOverlay) payload;
+            return new PayloadOverlay(overlay.base, new HashMap<>(overlay.local));
+        }
+        return new PayloadOverlay(payload, new HashMap<>());
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = local.get(key);
+        if (value != null) {
+            return value == REMOVED ? null : value;
+        }
+        return local.containsKey(key) ? null : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Object value = local.get(key);
+        if (value != null) {
+            return value != REMOVED;
+        }
+        return local.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        local.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String) || !containsKey(key)) {
+            return null;
+        }
+        Object previous = get(key);
+        if (base.containsKey(key)) {
+            local.put((String) key, REMOVED);
+        } else {
+            local.remove(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        for (String key : base.keySet()) {
+            local.put(key, REMOVED);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        for (Map.Entry<String, Object> e : local.entrySet()) {
+            boolean inBase = base.containsKey(e.getKey());
+            if (e.getValue() == REMOVED) {
+                if (inBase) size--;
+            } else if (!inBase) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return PayloadOverlay.this.size();
+            }
+        };
+    }
+
+    /** Local entries first (skipping removals), then base entries not shadowed locally. */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Iterator<Map.Entry<String, Object>> localEntries = local.entrySet().iterator();
+        private final Iterator<Map.Entry<String, Object>> baseEntries = base.entrySet().iterator();
+        private Map.Entry<String, Object> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (localEntries.hasNext()) {
+                    Map.Entry<String, Object> e = localEntries.next();
+                    if (e.getValue() != REMOVED) {
+                        next = new SimpleImmutableEntry<>(e);
+                    }
+                } else if (baseEntries.hasNext()) {
+                    Map.Entry<String, Object> e = baseEntries.next();
+                    if (!local.containsKey(e.getKey())) {
+                        next = new SimpleImmutableEntry<>(e);
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> e = next;
+            next = null;
+            return e;
+        }
+    }
+}
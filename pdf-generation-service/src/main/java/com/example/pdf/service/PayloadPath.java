@@ -0,0 +1,286 @@
+package com.example.pdf.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiled form of a payload path such as
+ * {@code applicants[relationship=PRIMARY].demographic.firstName}.
+ *
+ * <p>Supports the same syntax as the AcroForm field mappings: dotted keys, one or more
+ * {@code [field=value]} filters, numeric {@code [n]} indexes and {@code static:} literals.
+ * A bracketed segment that is still a list after its filters resolves to the first match. The path string is
+ * parsed once and cached (bounded, least used evicted), so repeated lookups only walk the payload.
+ *
+ * <p>A compiled path is a sequence of {@link PayloadPathBatch.Step}s (key lookup, filter,
+ * index, first match); equal steps on a common prefix are shared when many paths are
+ * resolved together by a {@link PayloadPathBatch}.
+ */
+public final class PayloadPath {
+
+    private static final String STATIC_PREFIX = "static:";
+    private static final int MAX_CACHED_PATHS = 10_000;
+    private static final Cache<String, PayloadPath> CACHE = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_PATHS)
+        .build();
+
+    private final String source;
+    private final String staticValue;
+    private final List<PayloadPathBatch.Step> steps;
+
+    private PayloadPath(String source, String staticValue, List<PayloadPathBatch.Step> steps) {
+        this.source = source;
+        this.staticValue = staticValue;
+        this.steps = steps;
+    }
+
+    /**
+     * Returns the compiled path for the given expression, parsing it on first use.
+     */
+    public static PayloadPath compile(String path) {
+        Objects.requireNonNull(path, "path");
+        return CACHE.get(path, PayloadPath::parse);
+    }
+
+    /**
+     * Resolves this path against the given root object (normally the payload map).
+     *
+     * @return the resolved value, or {@code null} if any step is missing
+     */
+    public Object resolve(Object root) {
+        if (staticValue != null) {
+            return staticValue;
+        }
+        Object current = root;
+        for (PayloadPathBatch.Step step : steps) {
+            if (current == null) {
+                return null;
+            }
+            current = step.apply(current);
+        }
+        return current;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /** The steps of this path; a {@code static:} path is a single constant step. */
+    List<PayloadPathBatch.Step> steps() {
+        return staticValue != null ? List.of(new Constant(staticValue)) : steps;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static PayloadPath parse(String path) {
+        if (path.startsWith(STATIC_PREFIX)) {
+            return new PayloadPath(path, path.substring(STATIC_PREFIX.length()), List.of());
+        }
+        List<PayloadPathBatch.Step> steps = new ArrayList<>();
+        for (String part : splitOutsideBrackets(path)) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int bracket = part.indexOf('[');
+            if (bracket < 0) {
+                steps.add(new Key(part, true));
+                continue;
+            }
+            steps.add(new Key(part.substring(0, bracket), false));
+            boolean filtered = false;
+            int i = bracket;
+            while (i < part.length() && part.charAt(i) == '[') {
+                int close = part.indexOf(']', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed '[' in path: " + path);
+                }
+                PayloadPathBatch.Step step = parseStep(part.substring(i + 1, close).trim());
+                steps.add(step);
+                if (step instanceof Index) {
+                    // An index selects a single element; further filters are ignored
+                    filtered = false;
+                    break;
+                }
+                filtered = true;
+                i = close + 1;
+            }
+            if (filtered) {
+                // Still a list after the filters: take the first match
+                steps.add(First.INSTANCE);
+            }
+        }
+        return new PayloadPath(path, null, List.copyOf(steps));
+    }
+
+    private static PayloadPathBatch.Step parseStep(String expr) {
+        int eq = expr.indexOf('=');
+        if (eq < 0) {
+            try {
+                return new Index(Integer.parseInt(expr));
+            } catch (NumberFormatException e) {
+                // Neither an index nor a filter: never matches, like the AcroForm resolver
+                return new Index(Integer.MAX_VALUE);
+            }
+        }
+        return new Filter(expr.substring(0, eq).trim(), expr.substring(eq + 1).trim());
+    }
+
+    /** Splits on '.' except inside brackets, so filter values may contain dots. */
+    private static List<String> splitOutsideBrackets(String path) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '.' && depth == 0) {
+                parts.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(path.substring(start));
+        return parts;
+    }
+
+    /**
+     * Map lookup; null when the current value is not a map. Before brackets
+     * ({@code strict == false}) an empty key keeps the current value, so a leading
+     * {@code [0]} can index a top-level list, while {@code foo[0]} needs a map with {@code foo}.
+     */
+    private static final class Key implements PayloadPathBatch.Step {
+        private final String key;
+        private final boolean strict;
+
+        Key(String key, boolean strict) {
+            this.key = key;
+            this.strict = strict;
+        }
+
+        @Override
+        public Object apply(Object current) {
+            if (key.isEmpty()) {
+                return strict ? null : current;
+            }
+            return current instanceof Map<?, ?> map ? map.get(key) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && key.equals(other.key) && strict == other.strict;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() * 31 + (strict ? 1 : 0);
+        }
+    }
+
+    private static final class Index implements PayloadPathBatch.Step {
+        private final int index;
+
+        Index(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object apply(Object current) {
+            if (!(current instanceof List<?> list)) {
+                return null;
+            }
+            return index >= 0 && index < list.size() ? list.get(index) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Index other && index == other.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+    }
+
+    /** Keeps the map elements whose {@code field} has the given string value; null if none do. */
+    private static final class Filter implements PayloadPathBatch.Step {
+        private final String field;
+        private final String value;
+
+        Filter(String field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        @Override
+        public Object apply(Object current) {
+            if (!(current instanceof List<?> list)) {
+                return null;
+            }
+            List<Object> matches = new ArrayList<>();
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> map) {
+                    Object fieldValue = map.get(field);
+                    if (fieldValue != null && value.equals(fieldValue.toString())) {
+                        matches.add(item);
+                    }
+                }
+            }
+            return matches.isEmpty() ? null : matches;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Filter other && field.equals(other.field) && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return field.hashCode() * 31 + value.hashCode();
+        }
+    }
+
+    /** First element of a filtered list. */
+    private static final class First implements PayloadPathBatch.Step {
+        static final First INSTANCE = new First();
+
+        @Override
+        public Object apply(Object current) {
+            return current instanceof List<?> list && !list.isEmpty() ? list.get(0) : null;
+        }
+    }
+
+    /** A {@code static:} value, independent of the payload. */
+    private static final class Constant implements PayloadPathBatch.Step {
+        private final String value;
+
+        Constant(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object apply(Object current) {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Constant other && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+}
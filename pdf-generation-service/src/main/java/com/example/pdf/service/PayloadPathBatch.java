@@ -0,0 +1,151 @@
+package com.example.pdf.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A whole field → path mapping compiled into a prefix trie of path steps, resolved in one
+ * walk of the payload.
+ *
+ * <p>Resolving fields one by one repeats every shared prefix: fifty fields under
+ * {@code applicants[relationship=PRIMARY]} filter the applicants list fifty times. Here
+ * equal steps on a common prefix are one trie node, so each filter, index and key lookup is
+ * applied once per payload and its result fans out to every field below it. A prefix that
+ * resolves to null ends its whole subtree.
+ *
+ * <p>Batches are immutable and can be shared between threads; build one per mapping and
+ * reuse it.
+ */
+public final class PayloadPathBatch {
+
+    /**
+     * One step of a compiled path, applied to the value of the previous step. Steps that
+     * {@code equals} each other are merged when they follow the same prefix.
+     */
+    interface Step {
+
+        /** The next value, or null if the path does not resolve. */
+        Object apply(Object current);
+    }
+
+    private final List<String> fields;
+    private final Node root;
+    private final int stepCount;
+
+    private PayloadPathBatch(List<String> fields, Node root, int stepCount) {
+        this.fields = fields;
+        this.root = root;
+        this.stepCount = stepCount;
+    }
+
+    /**
+     * Compile AcroForm-style {@link PayloadPath}s. Null paths resolve to null.
+     *
+     * @throws IllegalArgumentException if a path is malformed
+     */
+    public static PayloadPathBatch compile(Map<String, String> fieldPaths) {
+        return build(fieldPaths, path -> PayloadPath.compile(path).steps());
+    }
+
+    /** Compile paths with another path syntax, given its steps for a path. */
+    static PayloadPathBatch build(Map<String, String> fieldPaths, Function<String, List<? extends Step>> compile) {
+        List<String> fields = new ArrayList<>(fieldPaths.size());
+        Builder root = new Builder(null);
+        int[] stepCount = new int[1];
+        for (Map.Entry<String, String> entry : fieldPaths.entrySet()) {
+            int field = fields.size();
+            fields.add(entry.getKey());
+            if (entry.getValue() == null) {
+                continue;
+            }
+            Builder node = root;
+            for (Step step : compile.apply(entry.getValue())) {
+                node = node.child(step, stepCount);
+            }
+            node.fields.add(field);
+        }
+        return new PayloadPathBatch(List.copyOf(fields), root.build(), stepCount[0]);
+    }
+
+    /**
+     * Resolve every field against {@code root} (normally the payload map).
+     *
+     * @return field → value in mapping order; unresolved fields map to null
+     */
+    public Map<String, Object> resolve(Object root) {
+        Object[] values = new Object[fields.size()];
+        // Children of the root are applied even to a null payload, so static values still resolve
+        for (int field : this.root.fields) {
+            values[field] = root;
+        }
+        for (Node child : this.root.children) {
+            walk(child, child.step.apply(root), values);
+        }
+        Map<String, Object> resolved = new LinkedHashMap<>(fields.size() * 4 / 3 + 1);
+        for (int i = 0; i < values.length; i++) {
+            resolved.put(fields.get(i), values[i]);
+        }
+        return resolved;
+    }
+
+    /** Number of distinct steps applied per {@link #resolve}, after merging shared prefixes. */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    private static void walk(Node node, Object value, Object[] values) {
+        if (value == null) {
+            return;
+        }
+        for (int field : node.fields) {
+            values[field] = value;
+        }
+        for (Node child : node.children) {
+            walk(child, child.step.apply(value), values);
+        }
+    }
+
+    private static final class Node {
+        final Step step;
+        final Node[] children;
+        final int[] fields;
+
+        Node(Step step, Node[] children, int[] fields) {
+            this.step = step;
+            this.children = children;
+            this.fields = fields;
+        }
+    }
+
+    private static final class Builder {
+        final Step step;
+        final Map<Step, Builder> children = new LinkedHashMap<>();
+        final List<Integer> fields = new ArrayList<>();
+
+        Builder(Step step) {
+            this.step = step;
+        }
+
+        Builder child(Step step, int[] stepCount) {
+            Builder child = children.get(step);
+            if (child == null) {
+                child = new Builder(step);
+                children.put(step, child);
+                stepCount[0]++;
+            }
+            return child;
+        }
+
+        Node build() {
+            Node[] built = new Node[children.size()];
+            int i = 0;
+            for (Builder child : children.values()) {
+                built[i++] = child.build();
+            }
+            return new Node(step, built, fields.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pdf.service;
+
+import freemarker.core.Environment;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateMethodModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.utility.DeepUnwrap;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FreeMarker method exposing {@link PayloadPath} to templates as {@code resolvePath}.
+ *
+ * <p>Replaces chains of {@code ??}/{@code &&} checks with one compiled lookup:
+ * <pre>
+ *   ${resolvePath("applicants[relationship=PRIMARY].demographic.firstName")!""}
+ *   ${resolvePath(applicant, "addresses[type=HOME].city")!"N/A"}
+ * </pre>
+ * With one argument the path is resolved against the model's {@code payload} (or against
+ * the top-level data model when there is none); with two, against the given object. A
+ * missing value yields null, so use {@code !} for defaults.
+ */
+public class PayloadPathMethod implements TemplateMethodModelEx {
+
+    public static final String NAME = "resolvePath";
+
+    @Override
+    public Object exec(List arguments) throws TemplateModelException {
+        if (arguments.size() != 1 && arguments.size() != 2) {
+            throw new TemplateModelException(NAME + " expects (path) or (base, path), got "
+                + arguments.size() + " arguments");
+        }
+        Object pathArg = arguments.get(arguments.size() - 1);
+        if (!(pathArg instanceof TemplateScalarModel scalar)) {
+            throw new TemplateModelException(NAME + ": path argument must be a string");
+        }
+        String path = scalar.getAsString();
+
+        PayloadPath compiled = PayloadPath.compile(path);
+        if (arguments.size() == 2) {
+            TemplateModel base = (TemplateModel) arguments.get(0);
+            return base == null ? null : compiled.resolve(DeepUnwrap.unwrap(base));
+        }
+        TemplateHashModel dataModel = Environment.getCurrentEnvironment().getDataModel();
+        TemplateModel payload = dataModel.get("payload");
+        return compiled.resolve(payload != null ? DeepUnwrap.unwrap(payload) : lookupView(dataModel));
+    }
+
+    /**
+     * Read-only Map view over the data model. Lookups go straight to the model; iterating
+     * lists the model's keys, which FreeMarker provides when the root is a hash with keys
+     * (any Map model is).
+     */
+    static Map<String, Object> lookupView(TemplateHashModel dataModel) {
+        return new AbstractMap<>() {
+            @Override
+            public Object get(Object key) {
+                try {
+                    TemplateModel value = dataModel.get(String.valueOf(key));
+                    return value == null ? null : DeepUnwrap.unwrap(value);
+                } catch (TemplateModelException e) {
+                    throw new IllegalStateException("Failed to read '" + key + "' from data model", e);
+                }
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return get(key) != null;
+            }
+
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                if (!(dataModel instanceof TemplateHashModelEx hash)) {
+                    throw new UnsupportedOperationException("data model cannot list its keys");
+                }
+                Set<Entry<String, Object>> entries = new LinkedHashSet<>();
+                try {
+                    for (TemplateModelIterator keys = hash.keys().iterator(); keys.hasNext(); ) {
+                        String key = ((TemplateScalarModel) keys.next()).getAsString();
+                        entries.add(new SimpleImmutableEntry<>(key, get(key)));
+                    }
+                } catch (TemplateModelException e) {
+                    throw new IllegalStateException("Failed to list data model keys", e);
+                }
+                return Collections.unmodifiableSet(entries);
+            }
+        };
+    }
+}
@@ -11,6 +11,7 @@ public class PdfMergeConfig {
     private String pageNumbering;
     private boolean addBookmarks;
     private boolean addTableOfContents;
+    private boolean batchHtmlSections; // Render adjacent freemarker sections in one layout pass
     private List<SectionConfig> sections;
     private List<ConditionalSection> conditionalSections;
     private PageNumberingConfig pageNumberingConfig;
@@ -35,6 +36,9 @@ public class PdfMergeConfig {
     public boolean isAddTableOfContents() { return addTableOfContents; }
     public void setAddTableOfContents(boolean addTableOfContents) { this.addTableOfContents = addTableOfContents; }
 
+    public boolean isBatchHtmlSections() { return batchHtmlSections; }
+    public void setBatchHtmlSections(boolean batchHtmlSections) { this.batchHtmlSections = batchHtmlSections; }
+
     public List<SectionConfig> getSections() { return sections; }
     public void setSections(List<SectionConfig> sections) { this.sections = sections; }
 
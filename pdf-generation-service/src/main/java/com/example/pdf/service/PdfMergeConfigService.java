@@ -1,6 +1,8 @@
 package com.example.pdf.service;
 
 import com.example.pdf.service.ConfigServerClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
@@ -16,11 +18,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 @Service
 public class PdfMergeConfigService {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfMergeConfigService.class);
+
 
     @Autowired(required = false)
     private ConfigServerClient configServerClient;
@@ -28,13 +31,17 @@ public class PdfMergeConfigService {
     @Value("${config.repo.path:../config-repo}")
     private String configRepoPath;
 
+    @Autowired(required = false)
+    private RenderMetrics renderMetrics = RenderMetrics.noop();
+
     /**
      * Load config with caching enabled.
      * Same config name returns cached result, avoiding disk I/O and YAML parsing.
      */
     @Cacheable(value = "pdfConfigs", key = "#configName")
     public PdfMergeConfig loadConfig(String configName) {
-        System.out.println("Loading config from disk (cache miss): " + configName);
+        log.info("Loading config from disk (cache miss): {}", configName);
+        renderMetrics.configCacheMiss();
         try {
             // Load the main configuration
             Map<String, Object> data = loadYamlFile(configName);
@@ -61,17 +68,17 @@ public class PdfMergeConfigService {
         
         // Try to load from config server first (if available)
         if (configServerClient != null) {
-            System.out.println("Attempting to load config from config server: " + fileName);
+            log.debug("Attempting to load config from config server: {}", fileName);
             Optional<Map<String, Object>> configOpt = configServerClient.getFileSource(
                 "default", "main", fileName
             );
             if (configOpt.isPresent()) {
-                System.out.println("Config loaded from config server: " + fileName);
+                log.info("Config loaded from config server: {}", fileName);
                 return configOpt.get();
             }
         }
 
-        System.out.println("Config server not available or config not found, falling back to file system.");
+        log.debug("Config server not available or config not found, falling back to file system");
         
         // Fallback to loading from file system
         String configPath = configRepoPath + "/" + fileName;
@@ -92,7 +99,7 @@ public class PdfMergeConfigService {
         Map<String, Object> merged = new java.util.HashMap<>();
         
         if (basePath != null) {
-            System.out.println("Loading base config: " + basePath);
+            log.debug("Loading base config: {}", basePath);
             Map<String, Object> baseData = loadYamlFile(basePath);
             merged = deepMerge(merged, baseData);
         }
@@ -101,7 +108,7 @@ public class PdfMergeConfigService {
         List<String> components = (List<String>) composition.get("components");
         if (components != null) {
             for (String componentPath : components) {
-                System.out.println("Loading component config: " + componentPath);
+                log.debug("Loading component config: {}", componentPath);
                 Map<String, Object> componentData = loadYamlFile(componentPath);
                 merged = deepMerge(merged, componentData);
             }
@@ -211,6 +218,7 @@ public class PdfMergeConfigService {
             config.setPageNumbering((String) settings.get("pageNumbering"));
             config.setAddBookmarks((Boolean) settings.getOrDefault("addBookmarks", false));
             config.setAddTableOfContents((Boolean) settings.getOrDefault("addTableOfContents", false));
+            config.setBatchHtmlSections((Boolean) settings.getOrDefault("batchHtmlSections", false));
         }
         
         // Parse sections
@@ -354,7 +362,7 @@ public class PdfMergeConfigService {
      */
     @CacheEvict(value = "pdfConfigs", key = "#configName")
     public void evictConfig(String configName) {
-        System.out.println("Evicted config from cache: " + configName);
+        log.info("Evicted config from cache: {}", configName);
     }
     
     /**
@@ -362,6 +370,6 @@ public class PdfMergeConfigService {
      */
     @CacheEvict(value = "pdfConfigs", allEntries = true)
     public void clearCache() {
-        System.out.println("Cleared all configs from cache");
+        log.info("Cleared all configs from cache");
     }
 }
@@ -0,0 +1,215 @@
+package com.example.pdf.service;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Post-merge pass that collapses identical image XObjects and fonts across the pages of a
+ * merged document.
+ *
+ * <p>Each section is rendered on its own, so a logo or an embedded font subset used by
+ * several sections ends up as several identical objects. This pass fingerprints every
+ * image and font referenced from page (and nested form XObject) resources by content,
+ * and points all resource entries at the first occurrence. Duplicates become unreachable
+ * and are not written on save. A resource nested deeper than {@value #MAX_DEPTH} levels is
+ * left as it is.
+ */
+final class PdfResourceDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfResourceDeduplicator.class);
+
+    private static final int MAX_DEPTH = 16;
+
+    /** fingerprint -> canonical object */
+    private final Map<String, COSBase> canonical = new HashMap<>();
+    /** fingerprints already computed, by identity */
+    private final Map<COSBase, String> fingerprints = new IdentityHashMap<>();
+    /** form XObject resources already visited */
+    private final Map<COSDictionary, Boolean> visitedResources = new IdentityHashMap<>();
+    private int replaced;
+
+    private PdfResourceDeduplicator() {
+    }
+
+    /**
+     * Deduplicate image and font resources in place.
+     *
+     * @return number of resource entries that were pointed at an existing identical object
+     */
+    static int deduplicate(PDDocument doc) throws IOException {
+        PdfResourceDeduplicator dedup = new PdfResourceDeduplicator();
+        for (PDPage page : doc.getPages()) {
+            COSDictionary resources = page.getCOSObject().getCOSDictionary(COSName.RESOURCES);
+            if (resources != null) {
+                dedup.processResources(resources);
+            }
+        }
+        if (dedup.replaced > 0) {
+            log.debug("Collapsed {} duplicate image/font resources across {} pages", dedup.replaced, doc.getNumberOfPages());
+        }
+        return dedup.replaced;
+    }
+
+    private void processResources(COSDictionary resources) throws IOException {
+        if (visitedResources.put(resources, Boolean.TRUE) != null) {
+            return;
+        }
+        COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+        if (xObjects != null) {
+            for (COSName name : xObjects.keySet()) {
+                COSBase value = xObjects.getDictionaryObject(name);
+                if (!(value instanceof COSStream stream)) {
+                    continue;
+                }
+                if (COSName.IMAGE.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                    replaceIfDuplicate(xObjects, name, stream);
+                } else if (COSName.FORM.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                    COSDictionary formResources = stream.getCOSDictionary(COSName.RESOURCES);
+                    if (formResources != null) {
+                        processResources(formResources);
+                    }
+                }
+            }
+        }
+        COSDictionary fonts = resources.getCOSDictionary(COSName.FONT);
+        if (fonts != null) {
+            for (COSName name : fonts.keySet()) {
+                COSBase value = fonts.getDictionaryObject(name);
+                if (value instanceof COSDictionary font) {
+                    replaceIfDuplicate(fonts, name, font);
+                }
+            }
+        }
+    }
+
+    private void replaceIfDuplicate(COSDictionary container, COSName name, COSBase object) throws IOException {
+        String fingerprint = fingerprint(object);
+        if (fingerprint == null) {
+            return;
+        }
+        COSBase existing = canonical.putIfAbsent(fingerprint, object);
+        if (existing != null && existing != object) {
+            container.setItem(name, existing);
+            replaced++;
+        }
+    }
+
+    /** Content fingerprint, or null if the object is nested too deeply to fingerprint. */
+    private String fingerprint(COSBase object) throws IOException {
+        if (fingerprints.containsKey(object)) {
+            return fingerprints.get(object);
+        }
+        MessageDigest md = newDigest();
+        String fp = digest(object, md, 0) ? HexFormat.of().formatHex(md.digest()) : null;
+        if (fp == null) {
+            log.debug("Resource nesting deeper than {} levels, not deduplicated", MAX_DEPTH);
+        }
+        fingerprints.put(object, fp);
+        return fp;
+    }
+
+    /**
+     * Structural digest: dictionaries and arrays by value, streams by raw (encoded) bytes.
+     *
+     * @return false if the object is nested deeper than {@link #MAX_DEPTH}
+     */
+    private boolean digest(COSBase base, MessageDigest md, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            return false;
+        }
+        if (base instanceof COSObject obj) {
+            base = obj.getObject();
+        }
+        if (base == null || base instanceof COSNull) {
+            md.update((byte) 'n');
+        } else if (base instanceof COSName name) {
+            update(md, "/" + name.getName());
+        } else if (base instanceof COSInteger i) {
+            update(md, "i" + i.longValue());
+        } else if (base instanceof COSFloat f) {
+            update(md, "f" + f.floatValue());
+        } else if (base instanceof COSBoolean b) {
+            update(md, "b" + b.getValue());
+        } else if (base instanceof COSString s) {
+            md.update((byte) 's');
+            md.update(s.getBytes());
+        } else if (base instanceof COSArray array) {
+            update(md, "[" + array.size());
+            for (COSBase item : array) {
+                if (!digest(item, md, depth + 1)) {
+                    return false;
+                }
+            }
+        } else if (base instanceof COSStream stream) {
+            if (!digestDictionary(stream, md, depth)) {
+                return false;
+            }
+            md.update((byte) 'S');
+            try (InputStream in = stream.createRawInputStream()) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    md.update(buf, 0, n);
+                }
+            }
+        } else if (base instanceof COSDictionary dict) {
+            return digestDictionary(dict, md, depth);
+        } else {
+            // Unknown type: never equal to anything else
+            update(md, "?" + System.identityHashCode(base));
+        }
+        return true;
+    }
+
+    private boolean digestDictionary(COSDictionary dict, MessageDigest md, int depth) throws IOException {
+        update(md, "<<" + dict.size());
+        // keySet() preserves insertion order; sort for a stable fingerprint
+        for (COSName key : new TreeSet<>(dict.keySet())) {
+            if (COSName.LENGTH.equals(key) || COSName.PARENT.equals(key)) {
+                continue;
+            }
+            update(md, "/" + key.getName());
+            if (!digest(dict.getItem(key), md, depth + 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void update(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.pdf.service;
 
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -51,4 +56,28 @@ public class PreprocessorConfig {
     public String productTypeField = "type"; // fallback to productType in code
 
     public PreprocessorConfig() {}
+
+    // Selectors compiled by MappingPreprocessor, and the selector map they were compiled from
+    private Map<String, String> compiledFrom;
+    private Map<String, JsonPath> compiledSelectors;
+
+    /**
+     * {@link #selectors} compiled to JSONPath, in selector order. Compiled on first use and
+     * again only when the selectors change. Invalid expressions map to null.
+     */
+    synchronized Map<String, JsonPath> compiledSelectors() {
+        if (compiledSelectors == null || !compiledFrom.equals(selectors)) {
+            Map<String, JsonPath> compiled = new LinkedHashMap<>();
+            for (Map.Entry<String, String> se : selectors.entrySet()) {
+                try {
+                    compiled.put(se.getKey(), JsonPath.compile(se.getValue()));
+                } catch (InvalidPathException | IllegalArgumentException ex) {
+                    compiled.put(se.getKey(), null);
+                }
+            }
+            compiledFrom = new LinkedHashMap<>(selectors);
+            compiledSelectors = Collections.unmodifiableMap(compiled);
+        }
+        return compiledSelectors;
+    }
 }
@@ -0,0 +1,308 @@
+package com.example.pdf.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for CPU-heavy render endpoints.
+ *
+ * <p>Each {@link RenderClass} has its own concurrency limit. A request that finds the limit
+ * reached waits in a bounded queue; when the queue is full it is rejected straight away
+ * (429), and when it has waited {@code app.admission.max-wait-ms} without a slot it is
+ * rejected as overloaded (503). Both carry a Retry-After estimate. Queued requests are
+ * admitted in arrival order: a freed slot is handed to the oldest waiter, never to a newcomer.
+ *
+ * <p>Limits adapt to measured latency (AIMD): every completed render updates a smoothed
+ * latency and a slowly drifting no-load baseline. While the smoothed latency stays within
+ * {@code latency-tolerance} x baseline and the class is saturated, the limit grows by one;
+ * once it exceeds that, the limit is cut by 10% (at most once per smoothed-latency
+ * interval), between {@code min-limit} and {@code max-limit}.
+ */
+@Component
+public class RenderAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderAdmission.class);
+
+    public enum RenderClass { MERGE, ACROFORM, EXCEL, HTML }
+
+    /**
+     * A granted slot; must be released exactly once, by {@link #close} or {@link #abandon}.
+     * Further calls do nothing.
+     */
+    public interface Permit extends AutoCloseable {
+
+        /** Release the slot and record the time since it was granted as a latency sample. */
+        @Override
+        void close();
+
+        /**
+         * Release the slot without a latency sample, for requests that failed and so say
+         * nothing about how long a render takes.
+         */
+        default void abandon() {
+            close();
+        }
+    }
+
+    private static final Permit NO_OP = () -> { };
+
+    /** Baselines below this are treated as this, so sub-millisecond jitter does not move limits. */
+    private static final double MIN_BASELINE_NANOS = 1_000_000d;
+
+    private final boolean enabled;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final double latencyTolerance;
+    private final Map<RenderClass, Limiter> limiters = new EnumMap<>(RenderClass.class);
+
+    public RenderAdmission(@Value("${app.admission.enabled:true}") boolean enabled,
+                           @Value("${app.admission.initial-limit:0}") int initialLimit,
+                           @Value("${app.admission.min-limit:1}") int minLimit,
+                           @Value("${app.admission.max-limit:0}") int maxLimit,
+                           @Value("${app.admission.max-queue:50}") int maxQueue,
+                           @Value("${app.admission.max-wait-ms:10000}") long maxWaitMillis,
+                           @Value("${app.admission.latency-tolerance:2.0}") double latencyTolerance) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int min = Math.max(1, minLimit);
+        int max = Math.max(min, maxLimit > 0 ? maxLimit : cpus * 4);
+        int initial = Math.min(max, Math.max(min, initialLimit > 0 ? initialLimit : cpus));
+        this.enabled = enabled;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitMillis = maxWaitMillis;
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+        for (RenderClass renderClass : RenderClass.values()) {
+            limiters.put(renderClass, new Limiter(renderClass, initial, min, max));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait for a slot in {@code renderClass}.
+     *
+     * @throws AdmissionRejectedException if the queue is full or no slot freed up in time
+     */
+    public Permit acquire(RenderClass renderClass) {
+        if (!enabled) {
+            return NO_OP;
+        }
+        return limiters.get(renderClass).acquire();
+    }
+
+    /** Current limit, in-flight and queued counts and latencies per class. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Limiter limiter : limiters.values()) {
+            result.put(limiter.renderClass.name().toLowerCase(), limiter.snapshot());
+        }
+        return result;
+    }
+
+    /** Thrown when a request is not admitted; carries the HTTP status to answer with. */
+    public static class AdmissionRejectedException extends RuntimeException {
+        private final int status;
+        private final long retryAfterSeconds;
+
+        AdmissionRejectedException(String message, int status, long retryAfterSeconds) {
+            super(message);
+            this.status = status;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /** 429 when the queue was full, 503 when the wait timed out. */
+        public int getStatus() { return status; }
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+
+    private final class Limiter {
+        private final RenderClass renderClass;
+        private final int minLimit;
+        private final int maxLimit;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // Waiting requests in arrival order; release() hands a freed slot to the head directly
+        private final Deque<Waiter> queue = new ArrayDeque<>();
+
+        private int limit;
+        private int inFlight;
+        private double smoothedNanos;
+        private double baselineNanos;
+        private long lastDecreaseNanos;
+        private long admitted;
+        private long rejected;
+
+        Limiter(RenderClass renderClass, int initialLimit, int minLimit, int maxLimit) {
+            this.renderClass = renderClass;
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        Permit acquire() {
+            lock.lock();
+            try {
+                if (inFlight < limit && queue.isEmpty()) {
+                    inFlight++;
+                } else {
+                    if (queue.size() >= maxQueue) {
+                        throw reject(429, renderClass + " render queue is full (" + maxQueue + " waiting)");
+                    }
+                    awaitSlot();
+                }
+                admitted++;
+            } finally {
+                lock.unlock();
+            }
+            return new Grant(this);
+        }
+
+        /** Queue behind earlier requests until {@link #dispatch} grants a slot (already counted in flight). */
+        private void awaitSlot() {
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        throw reject(503, "Timed out waiting for a " + renderClass + " render slot");
+                    }
+                    remaining = waiter.ready.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.granted) {
+                    // Granted while being interrupted: pass the slot on
+                    inFlight--;
+                    dispatch();
+                } else {
+                    queue.remove(waiter);
+                }
+                throw reject(503, "Interrupted waiting for a " + renderClass + " render slot");
+            }
+        }
+
+        /** Free a slot; a negative latency means no sample, so the limit is left as is. */
+        private void release(long latencyNanos) {
+            lock.lock();
+            try {
+                boolean saturated = !queue.isEmpty() || inFlight >= limit;
+                inFlight--;
+                if (latencyNanos >= 0) {
+                    adapt(latencyNanos, saturated);
+                }
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Grant free slots to waiting requests, oldest first. */
+        private void dispatch() {
+            while (inFlight < limit && !queue.isEmpty()) {
+                Waiter waiter = queue.pollFirst();
+                waiter.granted = true;
+                inFlight++;
+                waiter.ready.signal();
+            }
+        }
+
+        private void adapt(long sample, boolean saturated) {
+            smoothedNanos = smoothedNanos == 0 ? sample : smoothedNanos + 0.2 * (sample - smoothedNanos);
+            // Baseline follows new minimums at once and drifts slowly towards current latency,
+            // so a permanently slower mix of templates does not keep the limit pinned down
+            if (baselineNanos == 0 || sample < baselineNanos) {
+                baselineNanos = sample;
+            } else {
+                baselineNanos += 0.01 * (smoothedNanos - baselineNanos);
+            }
+            int previous = limit;
+            long now = System.nanoTime();
+            if (smoothedNanos > Math.max(baselineNanos, MIN_BASELINE_NANOS) * latencyTolerance) {
+                if (now - lastDecreaseNanos > smoothedNanos) {
+                    limit = Math.max(minLimit, (int) (limit * 0.9));
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            if (limit != previous && log.isDebugEnabled()) {
+                log.debug("{} render limit {} -> {} (latency {} ms, baseline {} ms)", renderClass, previous, limit,
+                    Math.round(smoothedNanos / 1_000_000), Math.round(baselineNanos / 1_000_000));
+            }
+        }
+
+        private AdmissionRejectedException reject(int status, String message) {
+            rejected++;
+            // Rough time until this request would get a slot: queue ahead of it x latency / limit
+            double waitNanos = Math.max(smoothedNanos, 1_000_000_000d) * (queue.size() + 1) / Math.max(1, limit);
+            long retryAfter = Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000d));
+            return new AdmissionRejectedException(message, status, retryAfter);
+        }
+
+        Map<String, Object> snapshot() {
+            lock.lock();
+            try {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("limit", limit);
+                m.put("inFlight", inFlight);
+                m.put("waiting", queue.size());
+                m.put("latencyMs", Math.round(smoothedNanos / 1_000_000));
+                m.put("baselineMs", Math.round(baselineNanos / 1_000_000));
+                m.put("admitted", admitted);
+                m.put("rejected", rejected);
+                return m;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Grant implements Permit {
+        private final Limiter limiter;
+        private final long start = System.nanoTime();
+        private boolean released;
+
+        Grant(Limiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void close() {
+            release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void abandon() {
+            release(-1);
+        }
+
+        private void release(long latencyNanos) {
+            if (!released) {
+                released = true;
+                limiter.release(latencyNanos);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition ready;
+        private boolean granted;
+
+        Waiter(Condition ready) {
+            this.ready = ready;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.pdf.service;
+
+import com.example.pdf.logging.MdcTaskDecorator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides where CPU-bound render stages run when the service is in virtual-thread mode.
+ *
+ * <p>With {@code app.threads.virtual=true} on a Java 21+ runtime, Spring Boot serves requests
+ * on virtual threads ({@code spring.threads.virtual.enabled}), so blocking I/O such as config
+ * server calls and template URL reads no longer pins a platform thread. The render stages
+ * themselves are pure CPU work, though, and running one per request on virtual threads would
+ * oversubscribe the cores; {@link #cpuBound} hands them to a fixed pool of
+ * {@code app.threads.render-carriers} platform threads instead and the virtual thread parks
+ * until the result is ready. The stages sent there are FreeMarker processing, Jsoup tidying
+ * and openhtmltopdf layout/output, AcroForm and Excel filling, PDFBox generator sections,
+ * and the merge/page-numbering/save tail of a merged PDF. Template and config loading,
+ * enrichers and result-cache reads stay on the request thread since they may block on I/O.
+ *
+ * <p>Work already on a platform thread (the default mode, async job and batch workers) runs
+ * inline. The service is compiled for Java 17, so virtual threads are detected reflectively;
+ * on an older runtime the setting is ignored with a warning.
+ */
+@Component
+public class RenderExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderExecutor.class);
+
+    private static final Method IS_VIRTUAL = findIsVirtual();
+
+    private static final RenderExecutor INLINE = new RenderExecutor(false, 1);
+
+    private final boolean virtualRequested;
+    private final int renderCarriers;
+    private volatile boolean virtual;
+    private ExecutorService carriers;
+
+    public RenderExecutor(@Value("${app.threads.virtual:false}") boolean virtualRequested,
+                          @Value("${app.threads.render-carriers:0}") int renderCarriers) {
+        this.virtualRequested = virtualRequested;
+        this.renderCarriers = renderCarriers > 0 ? renderCarriers : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Runs everything on the calling thread; default for services constructed outside Spring. */
+    public static RenderExecutor inline() {
+        return INLINE;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!virtualRequested) {
+            return;
+        }
+        if (IS_VIRTUAL == null) {
+            log.warn("app.threads.virtual is set but this runtime ({}) has no virtual threads; using platform threads",
+                System.getProperty("java.version"));
+            return;
+        }
+        AtomicInteger threadNo = new AtomicInteger();
+        carriers = Executors.newFixedThreadPool(renderCarriers, r -> {
+            Thread t = new Thread(r, "pdf-cpu-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        virtual = true;
+        log.info("Virtual-thread mode: CPU-bound render stages limited to {} carrier threads", renderCarriers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        virtual = false;
+        if (carriers != null) carriers.shutdownNow();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Run a CPU-bound stage. From a virtual thread in virtual mode the task runs on the
+     * carrier pool and the caller waits for it; otherwise it runs inline.
+     */
+    public <T> T cpuBound(Callable<T> task) throws Exception {
+        if (!virtual || !isVirtualThread(Thread.currentThread())) {
+            return task.call();
+        }
+        Future<T> future = carriers.submit(MdcTaskDecorator.wrap(task));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /** A CPU-bound stage that only throws {@link IOException} (or unchecked exceptions). */
+    @FunctionalInterface
+    public interface IOTask<T> {
+        T call() throws IOException;
+    }
+
+    /** {@link #cpuBound} for stages that throw {@link IOException}. */
+    public <T> T cpuBoundIO(IOTask<T> task) throws IOException {
+        try {
+            return cpuBound(task::call);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for a render thread");
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    static boolean isVirtualThread(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Method findIsVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.pdf.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * State of one asynchronous render submitted to {@link RenderJobService}.
+ */
+public class RenderJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String kind;
+    private final int priority;
+    private final String outputFileName;
+    private final Instant createdAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile Path resultFile;
+    private volatile long sizeBytes;
+    private volatile String error;
+
+    RenderJob(String id, String kind, int priority, String outputFileName) {
+        this.id = id;
+        this.kind = kind;
+        this.priority = priority;
+        this.outputFileName = outputFileName;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(Path resultFile, long sizeBytes) {
+        this.resultFile = resultFile;
+        this.sizeBytes = sizeBytes;
+        completedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        completedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public String getId() { return id; }
+    public String getKind() { return kind; }
+    public int getPriority() { return priority; }
+    public String getOutputFileName() { return outputFileName; }
+    public Status getStatus() { return status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getCompletedAt() { return completedAt; }
+    public Path getResultFile() { return resultFile; }
+    public long getSizeBytes() { return sizeBytes; }
+    public String getError() { return error; }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /** Status view returned by the job API. */
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("jobId", id);
+        m.put("kind", kind);
+        m.put("status", status.name());
+        m.put("priority", priority);
+        m.put("createdAt", createdAt.toString());
+        if (startedAt != null) m.put("startedAt", startedAt.toString());
+        if (completedAt != null) m.put("completedAt", completedAt.toString());
+        if (status == Status.COMPLETED) m.put("sizeBytes", sizeBytes);
+        if (error != null) m.put("error", error);
+        return m;
+    }
+}
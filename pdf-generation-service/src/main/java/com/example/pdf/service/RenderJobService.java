@@ -0,0 +1,204 @@
+package com.example.pdf.service;
+
+import com.example.pdf.logging.MdcTaskDecorator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs PDF renders asynchronously so HTTP request threads are not held for the whole render.
+ *
+ * <p>Jobs run on a fixed-size render pool fed by a priority queue (higher priority first,
+ * FIFO within a priority). The number of queued jobs is capped; beyond the cap
+ * {@link #submit} throws {@link RejectedExecutionException}. Finished PDFs are written to
+ * a local spool directory and served from there; finished jobs and their files are
+ * removed after {@code app.jobs.ttl-ms}. Job state is in memory only, so jobs do not
+ * survive a restart; spool files left by an earlier process are swept by age, at startup
+ * and on every cleanup run.
+ */
+@Service
+public class RenderJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderJobService.class);
+
+    private final int renderThreads;
+    private final int maxQueued;
+    private final Path spoolDir;
+    private final long ttlMillis;
+    private final long cleanupIntervalMillis;
+
+    private final Map<String, RenderJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService cleaner;
+
+    public RenderJobService(@Value("${app.jobs.render-threads:0}") int renderThreads,
+                            @Value("${app.jobs.max-queued:200}") int maxQueued,
+                            @Value("${app.jobs.spool-dir:${java.io.tmpdir}/pdf-render-jobs}") String spoolDir,
+                            @Value("${app.jobs.ttl-ms:3600000}") long ttlMillis,
+                            @Value("${app.jobs.cleanup-interval-ms:60000}") long cleanupIntervalMillis) {
+        this.renderThreads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        this.maxQueued = maxQueued;
+        this.spoolDir = Paths.get(spoolDir);
+        this.ttlMillis = ttlMillis;
+        this.cleanupIntervalMillis = cleanupIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(spoolDir);
+        removeStaleSpoolFiles();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "pdf-render-" + threadNo.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+        cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pdf-render-job-cleanup");
+            t.setDaemon(true);
+            return t;
+        });
+        cleaner.scheduleWithFixedDelay(this::cleanupExpired, cleanupIntervalMillis, cleanupIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Render job service started: {} render threads, max {} queued, spool {}", renderThreads, maxQueued, spoolDir);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) executor.shutdownNow();
+        if (cleaner != null) cleaner.shutdownNow();
+    }
+
+    /**
+     * Queue a render.
+     *
+     * @param kind           short label for the job type (e.g. "merge", "enrollment")
+     * @param priority       higher runs first
+     * @param outputFileName file name used when the result is downloaded
+     * @param work           produces the PDF bytes
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public RenderJob submit(String kind, int priority, String outputFileName, Callable<byte[]> work) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Render queue is full (" + maxQueued + " jobs)");
+        }
+        RenderJob job = new RenderJob(UUID.randomUUID().toString(), kind, priority, outputFileName);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(new PrioritizedTask(job, sequence.incrementAndGet(), MdcTaskDecorator.wrap(work)));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public RenderJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    private void run(RenderJob job, Callable<byte[]> work) {
+        queued.decrementAndGet();
+        job.markRunning();
+        try {
+            byte[] pdf = work.call();
+            Path file = spoolDir.resolve(job.getId() + ".pdf");
+            Files.write(file, pdf);
+            job.markCompleted(file, pdf.length);
+            log.info("Render job {} ({}) completed: {} bytes", job.getId(), job.getKind(), pdf.length);
+        } catch (Exception e) {
+            log.error("Render job {} ({}) failed", job.getId(), job.getKind(), e);
+            job.markFailed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    void cleanupExpired() {
+        Instant cutoff = Instant.now().minusMillis(ttlMillis);
+        for (RenderJob job : jobs.values()) {
+            if (job.isFinished() && job.getCompletedAt().isBefore(cutoff)) {
+                jobs.remove(job.getId());
+                deleteQuietly(job.getResultFile());
+            }
+        }
+        // Files of jobs from a previous process are not in jobs; remove them once past the TTL
+        removeStaleSpoolFiles();
+    }
+
+    private void removeStaleSpoolFiles() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*.pdf")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan spool directory {}", spoolDir, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}", file, e);
+        }
+    }
+
+    /** Queue entry ordered by priority (desc), then submission order. */
+    private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final RenderJob job;
+        private final long seq;
+        private final Callable<byte[]> work;
+
+        PrioritizedTask(RenderJob job, long seq, Callable<byte[]> work) {
+            this.job = job;
+            this.seq = seq;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            RenderJobService.this.run(job, work);
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = Integer.compare(other.job.getPriority(), job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.pdf.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the generation pipeline, published via /actuator/metrics and
+ * /actuator/prometheus.
+ *
+ * <p>All tags are low-cardinality (cache hit/miss, preprocessor, enricher bean name,
+ * section type, stage, document kind, outcome); per-template timings stay in
+ * {@link RenderProfiler}. Timers publish percentile histograms unless
+ * {@code app.metrics.percentile-histograms=false}, so latency alerts can use
+ * {@code histogram_quantile} per stage.
+ *
+ * <p>Usage mirrors the profiler: {@code long t0 = metrics.start(); ...; metrics.stage("merge", t0);}
+ */
+@Component
+public class RenderMetrics {
+
+    public static final String CONFIG_LOAD = "pdf.config.load";
+    public static final String PREPROCESS = "pdf.preprocess";
+    public static final String ENRICHER = "pdf.enricher";
+    public static final String SECTION_RENDER = "pdf.section.render";
+    public static final String MERGE_STAGE = "pdf.merge.stage";
+    public static final String GENERATE = "pdf.generate";
+    public static final String OUTPUT_SIZE = "pdf.output.size";
+
+    private static final RenderMetrics NOOP = new RenderMetrics(new CompositeMeterRegistry(), false);
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistograms;
+
+    /** Set by the config loader when it actually reads the config (the @Cacheable body ran). */
+    private final ThreadLocal<Boolean> configCacheMiss = new ThreadLocal<>();
+
+    public RenderMetrics(MeterRegistry registry, boolean percentileHistograms) {
+        this.registry = registry;
+        this.percentileHistograms = percentileHistograms;
+    }
+
+    /** Without a MeterRegistry (e.g. MVC slice tests) meters are created but not published. */
+    @Autowired
+    public RenderMetrics(ObjectProvider<MeterRegistry> registry,
+                         @Value("${app.metrics.percentile-histograms:true}") boolean percentileHistograms) {
+        this(registry.getIfAvailable(CompositeMeterRegistry::new), percentileHistograms);
+    }
+
+    /** Metrics that go nowhere; default for services constructed outside Spring. */
+    public static RenderMetrics noop() {
+        return NOOP;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Start timing a config lookup. Clears any miss flag left on this thread by a load that
+     * was never recorded, so it cannot tag this lookup.
+     */
+    public long configLoadStart() {
+        configCacheMiss.remove();
+        return start();
+    }
+
+    public void configCacheMiss() {
+        configCacheMiss.set(Boolean.TRUE);
+    }
+
+    /**
+     * Record a config lookup started with {@link #configLoadStart}; hit or miss depending on
+     * whether {@link #configCacheMiss} was called. Call it in a finally block so the flag
+     * never outlives the lookup.
+     */
+    public void configLoaded(long startNanos) {
+        boolean miss = configCacheMiss.get() != null;
+        configCacheMiss.remove();
+        record(timer(CONFIG_LOAD, "cache", miss ? "miss" : "hit"), startNanos);
+    }
+
+    public void preprocessed(String preprocessor, long startNanos) {
+        record(timer(PREPROCESS, "preprocessor", preprocessor), startNanos);
+    }
+
+    public void enricher(String enricher, long startNanos) {
+        record(timer(ENRICHER, "enricher", enricher), startNanos);
+    }
+
+    public void section(String type, long startNanos) {
+        record(timer(SECTION_RENDER, "type", type == null ? "unknown" : type), startNanos);
+    }
+
+    public void stage(String stage, long startNanos) {
+        record(timer(MERGE_STAGE, "stage", stage), startNanos);
+    }
+
+    /**
+     * Record a finished (or failed) document.
+     *
+     * @param output the generated bytes, or null if generation failed
+     */
+    public void generated(String kind, long startNanos, byte[] output) {
+        record(timer(GENERATE, "kind", kind, "outcome", output != null ? "success" : "error"), startNanos);
+        if (output != null) {
+            DistributionSummary.builder(OUTPUT_SIZE)
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry)
+                .record(output.length);
+        }
+    }
+
+    private Timer timer(String name, String... tags) {
+        return Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram(percentileHistograms)
+            .register(registry);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
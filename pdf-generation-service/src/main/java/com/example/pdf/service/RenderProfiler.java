@@ -0,0 +1,262 @@
+package com.example.pdf.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-template, per-stage render timings.
+ *
+ * <p>Each (template, stage) pair keeps its most recent {@code app.profiler.sample-size}
+ * durations in a ring buffer, from which p50/p99 are computed on read, plus lifetime
+ * count/total/max. The number of tracked templates is capped; anything beyond the cap is
+ * folded into {@value #OTHER}. Timings are exposed through the {@code renderprofile}
+ * actuator endpoint and summarised as a top-N slow-template report in the log every
+ * {@code app.profiler.report-interval-ms}.
+ *
+ * <p>Usage: {@code long t0 = profiler.start(); ...; profiler.stop(template, Stage.X, t0);}
+ */
+@Component
+public class RenderProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderProfiler.class);
+
+    static final String OTHER = "(other)";
+
+    public enum Stage {
+        FREEMARKER_PROCESS("freemarker"),
+        JSOUP_TIDY("jsoup-tidy"),
+        HTML_LAYOUT("openhtmltopdf-layout"),
+        PDF_WRITE("pdf-write"),
+        ACROFORM_FILL("acroform-fill"),
+        EXCEL_FILL("excel-fill");
+
+        private final String id;
+
+        Stage(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    private static final RenderProfiler DISABLED = new RenderProfiler(false, 1, 1, 0, 0);
+
+    private final boolean enabled;
+    private final int sampleSize;
+    private final int maxTemplates;
+    private final long reportIntervalMillis;
+    private final int reportTopN;
+    private final Map<String, Map<Stage, StageStats>> profiles = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    public RenderProfiler(@Value("${app.profiler.enabled:true}") boolean enabled,
+                          @Value("${app.profiler.sample-size:512}") int sampleSize,
+                          @Value("${app.profiler.max-templates:500}") int maxTemplates,
+                          @Value("${app.profiler.report-interval-ms:300000}") long reportIntervalMillis,
+                          @Value("${app.profiler.report-top-n:10}") int reportTopN) {
+        this.enabled = enabled;
+        this.sampleSize = Math.max(1, sampleSize);
+        this.maxTemplates = Math.max(1, maxTemplates);
+        this.reportIntervalMillis = reportIntervalMillis;
+        this.reportTopN = reportTopN;
+    }
+
+    /** A profiler that records nothing; default for services constructed outside Spring. */
+    public static RenderProfiler disabled() {
+        return DISABLED;
+    }
+
+    @PostConstruct
+    public void startReporter() {
+        if (!enabled || reportIntervalMillis <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "render-profile-report");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleWithFixedDelay(this::logReport, reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Start timestamp for {@link #stop}; 0 when disabled. */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(String template, Stage stage, long startNanos) {
+        if (enabled) {
+            record(template, stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void record(String template, Stage stage, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String key = template == null || template.isEmpty() ? "(inline)" : template;
+        Map<Stage, StageStats> stages = profiles.get(key);
+        if (stages == null) {
+            if (profiles.size() >= maxTemplates) {
+                key = OTHER;
+            }
+            stages = profiles.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+        }
+        stages.computeIfAbsent(stage, s -> new StageStats(sampleSize)).add(nanos);
+    }
+
+    public void reset() {
+        profiles.clear();
+    }
+
+    /**
+     * Snapshot of all templates ordered by total time spent (most expensive first).
+     *
+     * @param limit maximum number of templates to return, or &lt;= 0 for all
+     */
+    public List<Map<String, Object>> snapshot(int limit) {
+        List<Map.Entry<String, Map<Stage, StageStats>>> entries = new ArrayList<>(profiles.entrySet());
+        List<Map<String, Object>> rows = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Map<Stage, StageStats>> e : entries) {
+            rows.add(describe(e.getKey(), e.getValue()));
+        }
+        rows.sort(Comparator.comparingDouble((Map<String, Object> r) -> (Double) r.get("totalMs")).reversed());
+        return limit > 0 && rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    /** Snapshot of a single template, or null if it has not been seen. */
+    public Map<String, Object> snapshot(String template) {
+        Map<Stage, StageStats> stages = profiles.get(template);
+        return stages == null ? null : describe(template, stages);
+    }
+
+    private Map<String, Object> describe(String template, Map<Stage, StageStats> stages) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        Map<String, Object> stageRows = new LinkedHashMap<>();
+        double totalMs = 0;
+        double p50SumMs = 0;
+        for (Map.Entry<Stage, StageStats> s : new EnumMap<>(stages).entrySet()) {
+            Map<String, Object> stats = s.getValue().describe();
+            stageRows.put(s.getKey().getId(), stats);
+            totalMs += (Double) stats.get("totalMs");
+            p50SumMs += (Double) stats.get("p50Ms");
+        }
+        row.put("template", template);
+        row.put("totalMs", round(totalMs));
+        row.put("p50SumMs", round(p50SumMs));
+        row.put("stages", stageRows);
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    void logReport() {
+        List<Map<String, Object>> top = snapshot(reportTopN);
+        if (top.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("Slowest templates by total render time (top ")
+            .append(top.size()).append("):");
+        int rank = 1;
+        for (Map<String, Object> row : top) {
+            sb.append("\n  ").append(rank++).append(". ").append(row.get("template"))
+                .append(" total=").append(row.get("totalMs")).append("ms");
+            Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) row.get("stages");
+            for (Map.Entry<String, Map<String, Object>> s : stages.entrySet()) {
+                sb.append(" | ").append(s.getKey())
+                    .append(" n=").append(s.getValue().get("count"))
+                    .append(" p50=").append(s.getValue().get("p50Ms"))
+                    .append(" p99=").append(s.getValue().get("p99Ms"));
+            }
+        }
+        log.info(sb.toString());
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 100.0) / 100.0;
+    }
+
+    /** Ring buffer of recent durations plus lifetime aggregates. */
+    private static final class StageStats {
+        private final long[] ring;
+        private int next;
+        private int filled;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        StageStats(int size) {
+            this.ring = new long[size];
+        }
+
+        synchronized void add(long nanos) {
+            ring[next] = nanos;
+            next = (next + 1) % ring.length;
+            if (filled < ring.length) {
+                filled++;
+            }
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        Map<String, Object> describe() {
+            long[] samples;
+            long n;
+            long total;
+            long max;
+            synchronized (this) {
+                samples = Arrays.copyOf(ring, filled);
+                n = count;
+                total = totalNanos;
+                max = maxNanos;
+            }
+            Arrays.sort(samples);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", n);
+            m.put("totalMs", round(total / 1e6));
+            m.put("meanMs", round(n == 0 ? 0 : total / 1e6 / n));
+            m.put("p50Ms", round(percentile(samples, 0.50) / 1e6));
+            m.put("p99Ms", round(percentile(samples, 0.99) / 1e6));
+            m.put("maxMs", round(max / 1e6));
+            m.put("window", samples.length);
+            return m;
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.min(Math.max(idx, 0), sorted.length - 1)];
+        }
+    }
+}
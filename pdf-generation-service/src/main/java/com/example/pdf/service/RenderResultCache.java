@@ -0,0 +1,321 @@
+package com.example.pdf.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional cache of finished documents for idempotent re-requests.
+ *
+ * <p>Results are keyed by SHA-256 of (kind, config name, config version, canonical payload
+ * JSON). The canonical form sorts map keys, so payloads that differ only in key order share
+ * an entry. The config version is supplied by the caller, normally {@link #fingerprint} of
+ * the loaded config plus the template registry version and the {@link #fileVersion} of each
+ * template file the document is filled from, so edited configs or changed templates never
+ * serve stale documents.
+ *
+ * <p>Documents are stored as files in a directory of their own under
+ * {@code app.result-cache.dir}, created at startup and removed at shutdown, so instances
+ * sharing the parent directory never touch each other's entries. Stored bytes are bounded by
+ * {@code max-bytes} (least recently used evicted first) and {@code ttl-ms}; the index is in
+ * memory. Concurrent identical requests are collapsed: the first renders and the others
+ * wait for its result.
+ */
+@Component
+public class RenderResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderResultCache.class);
+
+    private static final String SUFFIX = ".bin";
+
+    private static final RenderResultCache DISABLED = new RenderResultCache(false, "", 0, 0);
+
+    private final boolean enabled;
+    private final Path baseDir;
+    private volatile Path dir;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+        .build();
+    private final Map<Object, String> fingerprints = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RenderResultCache(@Value("${app.result-cache.enabled:false}") boolean enabled,
+                             @Value("${app.result-cache.dir:${java.io.tmpdir}/pdf-result-cache}") String dir,
+                             @Value("${app.result-cache.max-bytes:536870912}") long maxBytes,
+                             @Value("${app.result-cache.ttl-ms:600000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.baseDir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** A cache that always renders; default for services constructed outside Spring. */
+    public static RenderResultCache disabled() {
+        return DISABLED;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(baseDir);
+        dir = Files.createTempDirectory(baseDir, "instance-");
+        log.info("Render result cache enabled: {} (max {} bytes, ttl {} ms)", dir, maxBytes, ttlMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dir == null) {
+            return;
+        }
+        clear();
+        try {
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("Could not remove result cache directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return the cached document for this request, or render, store and return it. While a
+     * render for the same key is running, other callers wait for it instead of rendering.
+     */
+    public byte[] getOrRender(String kind, String configName, String configVersion, Object payload,
+                              Callable<byte[]> render) throws Exception {
+        if (!enabled) {
+            return render.call();
+        }
+        String key = key(kind, configName, configVersion, payload);
+        byte[] cached = read(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            collapsed.incrementAndGet();
+            return await(running);
+        }
+        try {
+            // Another caller may have stored it between the read and winning the slot
+            byte[] result = read(key);
+            if (result == null) {
+                misses.incrementAndGet();
+                result = render.call();
+                write(key, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Stable content fingerprint of a loaded config object (its canonical JSON form),
+     * computed once per config instance.
+     */
+    public String fingerprint(Object config) {
+        if (config == null) {
+            return "none";
+        }
+        return fingerprints.computeIfAbsent(config, c -> {
+            try {
+                return sha256(canonicalMapper.writeValueAsBytes(c)).substring(0, 16);
+            } catch (JsonProcessingException e) {
+                // Falls back to per-instance versioning: a reloaded config gets a new key
+                log.warn("Could not fingerprint {}: {}", c.getClass().getSimpleName(), e.getOriginalMessage());
+                return "instance-" + Integer.toHexString(System.identityHashCode(c));
+            }
+        });
+    }
+
+    /**
+     * Version of a template file read at render time: its modification time and size, or
+     * {@code "missing"}. Put it in the config version so that replacing the file changes the key.
+     */
+    public String fileVersion(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() + "-" + Files.size(file);
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    public void clear() {
+        for (String key : new ArrayList<>(index.keySet())) {
+            remove(key);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", index.size());
+        stats.put("totalBytes", totalBytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("collapsed", collapsed.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    String key(String kind, String configName, String configVersion, Object payload) throws JsonProcessingException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(kind).append('\0').append(configName).append('\0').append(configVersion).append('\0');
+        sb.append(canonicalMapper.writeValueAsString(payload));
+        return sha256(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] read(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            remove(key);
+            return null;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(entry.file);
+            entry.lastAccess = System.currentTimeMillis();
+            return bytes;
+        } catch (IOException e) {
+            log.warn("Result cache file unreadable, dropping entry: {}", entry.file);
+            remove(key);
+            return null;
+        }
+    }
+
+    private void write(String key, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        Path file = dir.resolve(key + SUFFIX);
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not store result cache entry {}: {}", file, e.getMessage());
+            return;
+        }
+        Entry previous = index.put(key, new Entry(file, bytes.length));
+        totalBytes.addAndGet(bytes.length - (previous != null ? previous.size : 0));
+        if (totalBytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    private synchronized void evict() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (Map.Entry<String, Entry> e : entries) {
+            boolean expired = now - e.getValue().createdAt > ttlMillis;
+            if (!expired && totalBytes.get() <= maxBytes) {
+                continue;
+            }
+            if (remove(e.getKey())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        totalBytes.addAndGet(-entry.size);
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            log.warn("Could not delete result cache file {}", entry.file, e);
+        }
+        return true;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        final Path file;
+        final long size;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastAccess = createdAt;
+
+        Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.pdf.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Development helper: watches local template directories and publishes a
+ * {@link TemplateRefreshEvent} when a file changes, so edits show up without
+ * relying on FreeMarker's periodic update checks.
+ *
+ * Enable with {@code app.templates.watch.enabled=true} (on in the dev profile).
+ */
+@Component
+@ConditionalOnProperty(name = "app.templates.watch.enabled", havingValue = "true")
+public class TemplateFileWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateFileWatcher.class);
+
+    private final ApplicationEventPublisher publisher;
+    private final List<String> watchPaths;
+    private final long debounceMillis;
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public TemplateFileWatcher(ApplicationEventPublisher publisher,
+                               @Value("${app.templates.watch.paths:src/main/resources/templates,templates}") List<String> watchPaths,
+                               @Value("${app.templates.watch.debounce-ms:300}") long debounceMillis) {
+        this.publisher = publisher;
+        this.watchPaths = watchPaths;
+        this.debounceMillis = debounceMillis;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        int registered = 0;
+        for (String p : watchPaths) {
+            Path root = Paths.get(p.trim());
+            if (Files.isDirectory(root)) {
+                registerRecursive(root);
+                registered++;
+            } else {
+                log.debug("Template watch path does not exist, skipping: {}", root.toAbsolutePath());
+            }
+        }
+        if (registered == 0) {
+            log.info("No template directories found to watch ({})", watchPaths);
+            return;
+        }
+        watcherThread = new Thread(this::watchLoop, "template-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching template directories for changes: {}", watchPaths);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void registerRecursive(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                Path changed = drain(key);
+
+                // Editors often write several events per save; collapse them into one refresh
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    Path p = drain(next);
+                    if (p != null) changed = p;
+                }
+
+                publisher.publishEvent(new TemplateRefreshEvent(this,
+                    "file-watch" + (changed != null ? ": " + changed : "")));
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Template file watcher stopped: {}", e.toString());
+        }
+    }
+
+    private Path drain(WatchKey key) {
+        Path last = null;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path) {
+                last = dir.resolve((Path) event.context());
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(last)) {
+                    try {
+                        registerRecursive(last);
+                    } catch (IOException e) {
+                        log.debug("Could not watch new directory {}", last, e);
+                    }
+                }
+            }
+        }
+        key.reset();
+        return last;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.pdf.service;
+
+import freemarker.template.DefaultObjectWrapper;
+import freemarker.template.DefaultObjectWrapperConfiguration;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-request holder for the object wrapper used to expose the payload to templates.
+ *
+ * <p>With the tuned wrapper, Map/List payload nodes are wrapped into adapters (live views,
+ * no copying) and each adapter is remembered by identity. All sections rendered for the
+ * same request share one scope, so nested payload structures are wrapped once per merged
+ * PDF rather than once per section and access. A scope is not thread-safe; create one per
+ * request via {@link FreemarkerService#newModelScope()}.
+ */
+public final class TemplateModelScope {
+
+    private final ObjectWrapper objectWrapper;
+
+    TemplateModelScope(ObjectWrapper objectWrapper) {
+        this.objectWrapper = objectWrapper;
+    }
+
+    static TemplateModelScope memoizing(DefaultObjectWrapperConfiguration config) {
+        return new TemplateModelScope(new MemoizingObjectWrapper(config));
+    }
+
+    public ObjectWrapper getObjectWrapper() {
+        return objectWrapper;
+    }
+
+    /** Number of distinct containers wrapped so far (0 when the scope does not memoize). */
+    public int getWrappedContainerCount() {
+        return objectWrapper instanceof MemoizingObjectWrapper m ? m.adapters.size() : 0;
+    }
+
+    private static final class MemoizingObjectWrapper extends DefaultObjectWrapper {
+
+        private final Map<Object, TemplateModel> adapters = new IdentityHashMap<>();
+
+        MemoizingObjectWrapper(DefaultObjectWrapperConfiguration config) {
+            super(config, false);
+        }
+
+        @Override
+        public TemplateModel wrap(Object obj) throws TemplateModelException {
+            if (!(obj instanceof Map) && !(obj instanceof Collection)) {
+                return super.wrap(obj);
+            }
+            TemplateModel model = adapters.get(obj);
+            if (model == null) {
+                model = super.wrap(obj);
+                adapters.put(obj, model);
+            }
+            return model;
+        }
+    }
+}
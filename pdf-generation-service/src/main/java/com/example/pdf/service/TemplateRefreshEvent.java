@@ -0,0 +1,23 @@
+package com.example.pdf.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published to ask {@link FreemarkerService} to swap in fresh template versions.
+ *
+ * Typical publishers: config-push hooks, deploy scripts calling the admin API,
+ * and {@link TemplateFileWatcher} in local development.
+ */
+public class TemplateRefreshEvent extends ApplicationEvent {
+
+    private final String reason;
+
+    public TemplateRefreshEvent(Object source, String reason) {
+        super(source);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
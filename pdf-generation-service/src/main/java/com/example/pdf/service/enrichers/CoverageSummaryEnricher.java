@@ -1,6 +1,8 @@
 package com.example.pdf.service.enrichers;
 
+import com.example.pdf.function.DateFormats;
 import com.example.pdf.service.PayloadEnricher;
+import com.example.pdf.service.PayloadOverlay;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -11,14 +13,26 @@ import java.time.format.DateTimeFormatter;
 @Component
 public class CoverageSummaryEnricher implements PayloadEnricher {
 
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateFormats.formatter("MMMM d, yyyy");
+
     @Override
     public String getName() {
         return "coverageSummary";
     }
 
+    @Override
+    public Set<String> reads() {
+        return Set.of("applicants", "coverages", "applicationNumber", "effectiveDate", "totalPremium");
+    }
+
+    @Override
+    public Set<String> writes() {
+        return Set.of("coverageSummary");
+    }
+
     @Override
     public Map<String, Object> enrich(Map<String, Object> payload) {
-        Map<String, Object> enriched = new HashMap<>(payload);
+        Map<String, Object> enriched = PayloadOverlay.over(payload);
         
         // Create coverage summary data structure
         Map<String, Object> coverageSummary = new HashMap<>();
@@ -34,7 +48,7 @@ public class CoverageSummaryEnricher implements PayloadEnricher {
             List<Map<String, Object>> enrichedApplicants = new ArrayList<>();
             
             for (Map<String, Object> applicant : applicants) {
-                Map<String, Object> enrichedApplicant = new HashMap<>(applicant);
+                Map<String, Object> enrichedApplicant = PayloadOverlay.over(applicant);
                 
                 // Calculate age from DOB
                 Map<String, Object> demographic = (Map<String, Object>) applicant.get("demographic");
@@ -85,7 +99,7 @@ public class CoverageSummaryEnricher implements PayloadEnricher {
             int totalBenefits = 0;
             
             for (Map<String, Object> coverage : coverages) {
-                Map<String, Object> enrichedCoverage = new HashMap<>(coverage);
+                Map<String, Object> enrichedCoverage = PayloadOverlay.over(coverage);
                 
                 String carrierName = (String) coverage.get("carrierName");
                 if (carrierName != null) {
@@ -123,32 +137,17 @@ public class CoverageSummaryEnricher implements PayloadEnricher {
     }
     
     private int calculateAge(String dateOfBirth) {
-        try {
-            LocalDate dob = LocalDate.parse(dateOfBirth);
-            LocalDate now = LocalDate.now();
-            return Period.between(dob, now).getYears();
-        } catch (Exception e) {
-            return 0;
-        }
+        LocalDate dob = DateFormats.isoDate(dateOfBirth);
+        return dob != null ? DateFormats.age(dob, LocalDate.now()) : 0;
     }
     
     private String formatDate(String date) {
-        try {
-            LocalDate localDate = LocalDate.parse(date);
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMMM d, yyyy");
-            return localDate.format(formatter);
-        } catch (Exception e) {
-            return date;
-        }
+        LocalDate localDate = DateFormats.isoDate(date);
+        return localDate != null ? localDate.format(DISPLAY_FORMAT) : date;
     }
     
     private long calculateDaysUntilEffective(String effectiveDate) {
-        try {
-            LocalDate effective = LocalDate.parse(effectiveDate);
-            LocalDate now = LocalDate.now();
-            return Period.between(now, effective).getDays();
-        } catch (Exception e) {
-            return 0;
-        }
+        LocalDate effective = DateFormats.isoDate(effectiveDate);
+        return effective != null ? Period.between(LocalDate.now(), effective).getDays() : 0;
     }
 }
@@ -1,10 +1,11 @@
 package com.example.pdf.service.enrichers;
 
+import com.example.pdf.function.DateFormats;
 import com.example.pdf.service.PayloadEnricher;
+import com.example.pdf.service.PayloadOverlay;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.time.Period;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -17,13 +18,17 @@ import java.util.*;
 @Component
 public class DateFormattingEnricher implements PayloadEnricher {
     
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE; // yyyy-MM-dd
-    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMMM d, yyyy");
-    private static final DateTimeFormatter SHORT_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateFormats.formatter("MMMM d, yyyy");
+    private static final DateTimeFormatter SHORT_FORMAT = DateFormats.formatter("MM/dd/yyyy");
+    
+    /** Applicant entries replaced by copies with calculatedAge / ageCategory. */
+    private static final Set<String> APPLICANT_KEYS = applicantKeys();
+    private static final Set<String> READS = with(APPLICANT_KEYS, "effectiveDate", "submittedDate");
+    private static final Set<String> WRITES = with(APPLICANT_KEYS, "formattedDates");
     
     @Override
     public Map<String, Object> enrich(Map<String, Object> payload) {
-        Map<String, Object> enriched = new HashMap<>(payload);
+        Map<String, Object> enriched = PayloadOverlay.over(payload);
         
         // Add formatted dates
         Map<String, Object> formattedDates = new HashMap<>();
@@ -54,32 +59,49 @@ public class DateFormattingEnricher implements PayloadEnricher {
         return "dateFormatting";
     }
     
+    @Override
+    public Set<String> reads() {
+        return READS;
+    }
+    
+    @Override
+    public Set<String> writes() {
+        return WRITES;
+    }
+    
+    private static Set<String> applicantKeys() {
+        Set<String> keys = new HashSet<>(List.of("primary", "spouse", "allDependents"));
+        for (int i = 1; i <= 10; i++) {
+            keys.add("dependent" + i);
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+    
+    private static Set<String> with(Set<String> keys, String... more) {
+        Set<String> all = new HashSet<>(keys);
+        all.addAll(List.of(more));
+        return Collections.unmodifiableSet(all);
+    }
+    
     /**
      * Format date in long format: "December 15, 2025"
      */
     private String formatDateLong(String isoDate) {
-        try {
-            LocalDate date = LocalDate.parse(isoDate, INPUT_FORMAT);
-            return date.format(DISPLAY_FORMAT);
-        } catch (Exception e) {
-            return isoDate;
-        }
+        LocalDate date = DateFormats.isoDate(isoDate);
+        return date != null ? date.format(DISPLAY_FORMAT) : isoDate;
     }
     
     /**
      * Format date in short format: "12/15/2025"
      */
     private String formatDateShort(String isoDate) {
-        try {
-            LocalDate date = LocalDate.parse(isoDate, INPUT_FORMAT);
-            return date.format(SHORT_FORMAT);
-        } catch (Exception e) {
-            return isoDate;
-        }
+        LocalDate date = DateFormats.isoDate(isoDate);
+        return date != null ? date.format(SHORT_FORMAT) : isoDate;
     }
     
     /**
-     * Calculate ages for primary, spouse, and dependents
+     * Calculate ages for primary, spouse, and dependents. Applicants are replaced by
+     * overlays carrying the age fields; the payload's own maps are not modified.
      */
     @SuppressWarnings("unchecked")
     private void calculateAges(Map<String, Object> payload) {
@@ -88,13 +110,13 @@ public class DateFormattingEnricher implements PayloadEnricher {
         // Calculate primary age
         if (payload.containsKey("primary") && payload.get("primary") instanceof Map) {
             Map<String, Object> primary = (Map<String, Object>) payload.get("primary");
-            calculateAge(primary, today);
+            payload.put("primary", withAge(primary, today));
         }
         
         // Calculate spouse age
         if (payload.containsKey("spouse") && payload.get("spouse") instanceof Map) {
             Map<String, Object> spouse = (Map<String, Object>) payload.get("spouse");
-            calculateAge(spouse, today);
+            payload.put("spouse", withAge(spouse, today));
         }
         
         // Calculate dependent ages (dependent1, dependent2, dependent3)
@@ -102,39 +124,41 @@ public class DateFormattingEnricher implements PayloadEnricher {
             String key = "dependent" + i;
             if (payload.containsKey(key) && payload.get(key) instanceof Map) {
                 Map<String, Object> dependent = (Map<String, Object>) payload.get(key);
-                calculateAge(dependent, today);
+                payload.put(key, withAge(dependent, today));
             }
         }
         
         // Calculate ages for allDependents array
         if (payload.containsKey("allDependents") && payload.get("allDependents") instanceof List) {
             List<Map<String, Object>> dependents = (List<Map<String, Object>>) payload.get("allDependents");
+            List<Map<String, Object>> aged = new ArrayList<>(dependents.size());
             for (Map<String, Object> dependent : dependents) {
-                calculateAge(dependent, today);
+                aged.add(withAge(dependent, today));
             }
+            payload.put("allDependents", aged);
         }
     }
     
     /**
-     * Calculate age from dateOfBirth and add to applicant map
+     * Calculate age from dateOfBirth; returns an overlay of the applicant with the age
+     * fields added, or the applicant itself when there is no parseable date of birth.
      */
-    private void calculateAge(Map<String, Object> applicant, LocalDate today) {
-        if (applicant.containsKey("dateOfBirth")) {
-            try {
-                String dobStr = applicant.get("dateOfBirth").toString();
-                LocalDate dob = LocalDate.parse(dobStr, INPUT_FORMAT);
-                int age = Period.between(dob, today).getYears();
-                
-                // Add calculated age
-                applicant.put("calculatedAge", age);
-                
-                // Add age category
-                applicant.put("ageCategory", getAgeCategory(age));
-                
-            } catch (Exception e) {
-                // If age already exists or date parsing fails, skip
-            }
+    private Map<String, Object> withAge(Map<String, Object> applicant, LocalDate today) {
+        Object dobValue = applicant.get("dateOfBirth");
+        LocalDate dob = dobValue != null ? DateFormats.isoDate(dobValue.toString()) : null;
+        if (dob == null) {
+            // No date of birth or not parseable: skip
+            return applicant;
         }
+        int age = DateFormats.age(dob, today);
+        
+        Map<String, Object> aged = PayloadOverlay.over(applicant);
+        // Add calculated age
+        aged.put("calculatedAge", age);
+        
+        // Add age category
+        aged.put("ageCategory", getAgeCategory(age));
+        return aged;
     }
     
     /**
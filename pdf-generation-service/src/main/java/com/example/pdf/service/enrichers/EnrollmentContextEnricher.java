@@ -1,6 +1,7 @@
 package com.example.pdf.service.enrichers;
 
 import com.example.pdf.service.PayloadEnricher;
+import com.example.pdf.service.PayloadOverlay;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -22,9 +23,19 @@ public class EnrollmentContextEnricher implements PayloadEnricher {
         return "enrollmentContext";
     }
 
+    @Override
+    public Set<String> reads() {
+        return Set.of("enrollment", "members");
+    }
+
+    @Override
+    public Set<String> writes() {
+        return Set.of("enrollmentContext", "productSummary");
+    }
+
     @Override
     public Map<String, Object> enrich(Map<String, Object> payload) {
-        Map<String, Object> enriched = new HashMap<>(payload);
+        Map<String, Object> enriched = PayloadOverlay.over(payload);
         
         // Extract enrollment metadata if present
         Map<String, Object> enrollment = (Map<String, Object>) payload.get("enrollment");
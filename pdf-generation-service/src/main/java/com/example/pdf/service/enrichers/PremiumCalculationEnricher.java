@@ -1,6 +1,7 @@
 package com.example.pdf.service.enrichers;
 
 import com.example.pdf.service.PayloadEnricher;
+import com.example.pdf.service.PayloadOverlay;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -18,7 +19,7 @@ public class PremiumCalculationEnricher implements PayloadEnricher {
     
     @Override
     public Map<String, Object> enrich(Map<String, Object> payload) {
-        Map<String, Object> enriched = new HashMap<>(payload);
+        Map<String, Object> enriched = PayloadOverlay.over(payload);
         
         // Extract products from nested structure
         List<Map<String, Object>> products = extractProducts(payload);
@@ -64,6 +65,16 @@ public class PremiumCalculationEnricher implements PayloadEnricher {
         return "premiumCalculation";
     }
     
+    @Override
+    public Set<String> reads() {
+        return Set.of("medical", "dental", "vision", "proposedProducts");
+    }
+    
+    @Override
+    public Set<String> writes() {
+        return Set.of("premiumCalculations");
+    }
+    
     /**
      * Extract products from nested payload structure
      */
@@ -19,7 +19,6 @@ import java.util.Map;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -67,23 +66,28 @@ public class GenerateControllerIntegrationTest {
         // extractFieldMap should return the same flattened mapping (controller calls it)
         when(mappingService.extractFieldMap(any())).thenReturn(fields);
 
-        // Make resolvePath behave like the real method: traverse maps by '.'
+        // Make resolvePaths behave like the real method: traverse maps by '.' for each field
         Answer<Object> resolver = invocation -> {
             Map<String, Object> payload = invocation.getArgument(0);
-            String path = invocation.getArgument(1);
-            if (path == null) return null;
-            String pth = path;
-            if (pth.startsWith("payload.")) pth = pth.substring("payload.".length());
-            String[] parts = pth.split("\\.");
-            Object cur = payload;
-            for (String part : parts) {
-                if (!(cur instanceof Map)) return null;
-                cur = ((Map) cur).get(part);
+            Map<String, String> fieldMap = invocation.getArgument(1);
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<String, String> e : fieldMap.entrySet()) {
+                String pth = e.getValue();
+                if (pth.startsWith("payload.")) pth = pth.substring("payload.".length());
+                Object cur = payload;
+                for (String part : pth.split("\\.")) {
+                    if (!(cur instanceof Map)) {
+                        cur = null;
+                        break;
+                    }
+                    cur = ((Map) cur).get(part);
+                }
+                values.put(e.getKey(), cur);
             }
-            return cur;
+            return values;
         };
 
-        doAnswer(resolver).when(mappingService).resolvePath(anyMap(), anyString());
+        doAnswer(resolver).when(mappingService).resolvePaths(anyMap(), anyMap());
 
         // Perform POST and assert response
         byte[] resp = mvc.perform(post("/generate")
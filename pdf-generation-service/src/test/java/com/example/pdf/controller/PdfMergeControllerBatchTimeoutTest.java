@@ -0,0 +1,65 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.BatchMergeService;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "app.batch.async-timeout-ms=60000")
+public class PdfMergeControllerBatchTimeoutTest {
+
+    /** Container async timeout, scaled down from Tomcat's 30s default so the test stays fast. */
+    private static final long CONTAINER_ASYNC_TIMEOUT_MS = 300;
+
+    @TestConfiguration
+    static class ShortContainerTimeout {
+        @Bean
+        TomcatConnectorCustomizer shortAsyncTimeout() {
+            return (Connector connector) -> connector.setAsyncTimeout(CONTAINER_ASYNC_TIMEOUT_MS);
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private BatchMergeService batchMergeService;
+
+    @Test
+    public void batchRunningLongerThanContainerDefaultCompletes() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            Thread.sleep(CONTAINER_ASYNC_TIMEOUT_MS * 10);
+            out.write("ZIP".getBytes(StandardCharsets.US_ASCII));
+            return Map.of();
+        }).when(batchMergeService).process(isNull(), any(), any());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        ResponseEntity<byte[]> response = restTemplate.postForEntity("/api/pdf/merge/batch",
+            new HttpEntity<>("{\"configName\":\"x\"}\n", headers), byte[].class);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(new String(response.getBody(), StandardCharsets.US_ASCII)).isEqualTo("ZIP");
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pdf.controller;
+
+import com.example.pdf.service.RenderAdmission;
+import com.example.pdf.service.RenderAdmission.RenderClass;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderAdmissionInterceptorTest {
+
+    static class Handlers {
+        @AdmittedAs(RenderClass.MERGE)
+        public void merge() {
+        }
+    }
+
+    private final RenderAdmission admission = new RenderAdmission(true, 1, 1, 10, 10, 1_000, 2.0);
+    private final RenderAdmissionInterceptor interceptor = new RenderAdmissionInterceptor(admission);
+
+    @SuppressWarnings("unchecked")
+    private long latencyMs() {
+        return (Long) ((Map<String, Object>) admission.snapshot().get("merge")).get("latencyMs");
+    }
+
+    private void handle(int status, Exception ex, long millis) throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Handlers(), Handlers.class.getMethod("merge"));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/merge");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, handler));
+        Thread.sleep(millis);
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, handler, ex);
+    }
+
+    @Test
+    public void onlySuccessfulRequestsAreLatencySamples() throws Exception {
+        handle(200, null, 0);
+        long latency = latencyMs();
+
+        handle(500, null, 50);
+        handle(400, null, 50);
+        handle(200, new IllegalStateException("failed"), 50);
+        assertEquals(latency, latencyMs());
+
+        handle(200, null, 50);
+        assertTrue(latencyMs() > latency);
+    }
+}
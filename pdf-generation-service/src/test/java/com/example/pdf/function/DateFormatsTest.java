@@ -0,0 +1,82 @@
+package com.example.pdf.function;
+
+import com.example.pdf.function.impl.FormatDateFunction;
+import com.example.pdf.function.impl.ParseDateFunction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateFormatsTest {
+
+    @Test
+    public void parsesCommonPatternsWithoutRollingOver() {
+        assertEquals(LocalDate.of(2026, 1, 15), DateFormats.parseCommon("2026-01-15"));
+        assertEquals(LocalDate.of(2026, 1, 15), DateFormats.parseCommon("2026-01-15T10:30:00"));
+        assertEquals(LocalDate.of(2026, 1, 15), DateFormats.parseCommon("01/15/2026"));
+        assertEquals(LocalDate.of(2026, 1, 5), DateFormats.parseCommon("1/5/2026"));
+        // Not a valid month for MM/dd/yyyy, so dd/MM/yyyy applies
+        assertEquals(LocalDate.of(2026, 5, 13), DateFormats.parseCommon("13/05/2026"));
+        assertEquals(LocalDate.of(2026, 1, 15), DateFormats.parseCommon("jan 15, 2026"));
+
+        assertNull(DateFormats.parseCommon("2026-02-30"));
+        assertNull(DateFormats.parseCommon("not a date"));
+        assertNull(DateFormats.parseCommon(null));
+    }
+
+    @Test
+    public void isoDateIsStrict() {
+        assertEquals(LocalDate.of(1980, 5, 15), DateFormats.isoDate("1980-05-15"));
+        assertNull(DateFormats.isoDate("1980-5-15"));
+        assertNull(DateFormats.isoDate("1980-05-15T00:00:00"));
+        assertNull(DateFormats.isoDate("05/15/1980"));
+        assertSame(DateFormats.formatter("MMMM d, yyyy"), DateFormats.formatter("MMMM d, yyyy"));
+    }
+
+    @Test
+    public void dateCacheStaysBoundedAndKeepsResolvingNewDates() {
+        LocalDate start = LocalDate.of(1900, 1, 1);
+        for (int i = 0; i < 25_000; i++) {
+            LocalDate date = start.plusDays(i);
+            assertEquals(date, DateFormats.isoDate(date.toString()));
+        }
+        assertTrue(DateFormats.cachedDateCount() <= 2 * 10_000);
+        assertEquals(LocalDate.of(2026, 10, 19), DateFormats.parseCommon("10/19/2026"));
+    }
+
+    @Test
+    public void twoDigitYearsUseASlidingCentury() {
+        assertEquals(LocalDate.of(1985, 1, 15), DateFormats.parse("01/15/85", "MM/dd/yy"));
+        int nextYear = LocalDate.now().getYear() % 100 + 1;
+        assertEquals(LocalDate.now().getYear() + 1,
+            DateFormats.parse(String.format("01/15/%02d", nextYear), "MM/dd/yy").getYear());
+        assertEquals(LocalDate.of(1985, 1, 15), DateFormats.parse("85-01-15 yy", "yy-MM-dd 'yy'"));
+        assertEquals(LocalDate.of(2026, 1, 15), DateFormats.parse("01/15/2026", "MM/dd/yyyy"));
+    }
+
+    @Test
+    public void formatsZoneFieldsAtStartOfDay() {
+        FormatDateFunction formatDate = new FormatDateFunction();
+        String offset = DateFormats.format(LocalDate.of(2026, 1, 15), "Z");
+
+        assertEquals("2026-01-15 " + offset, DateFormats.format(LocalDate.of(2026, 1, 15), "yyyy-MM-dd Z"));
+        assertEquals("2026-01-15 " + offset, formatDate.apply(new Object[]{"2026-01-15", "yyyy-MM-dd Z"}, Map.of()));
+        assertTrue(offset.matches("[+-]\\d{4}"), offset);
+    }
+
+    @Test
+    public void functionsUseSharedParsing() {
+        FormatDateFunction formatDate = new FormatDateFunction();
+        ParseDateFunction parseDate = new ParseDateFunction();
+
+        assertEquals("01/15/2026", formatDate.apply(new Object[]{"2026-01-15", "MM/dd/yyyy"}, Map.of()));
+        assertEquals("2026-01-15 00:00", formatDate.apply(new Object[]{"15.01.2026", "yyyy-MM-dd HH:mm", "dd.MM.yyyy"}, Map.of()));
+        assertEquals("garbage", formatDate.apply(new Object[]{"garbage", "MM/dd/yyyy"}, Map.of()));
+
+        assertEquals("2026-01-15", parseDate.apply(new Object[]{"01/15/2026"}, Map.of()));
+        assertEquals("2026-01-15", parseDate.apply(new Object[]{"15-01-2026", "dd-MM-yyyy"}, Map.of()));
+        assertEquals("15-01-2026", parseDate.apply(new Object[]{"15-01-2026", "yyyy/MM/dd"}, Map.of()));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.pdf.function;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FunctionExpressionResolverTest {
+
+    private final FunctionRegistry registry = new FunctionRegistry();
+    private final FunctionExpressionResolver resolver = new FunctionExpressionResolver(registry);
+
+    private static Map<String, Object> payload() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("firstName", "john");
+        payload.put("lastName", "  SMITH ");
+        payload.put("ssn", "123-45-6789");
+        payload.put("dob", "1980-05-15");
+        payload.put("premium", 1234.5);
+        payload.put("applicant", Map.of("email", "John.Smith@Example.com", "phone", "(555) 123-4567"));
+        return payload;
+    }
+
+    private String resolve(String expression) {
+        return resolver.resolve(expression, payload());
+    }
+
+    @Test
+    public void resolvesLiteralsFieldsAndNestedCalls() {
+        assertEquals("john SMITH", resolve("#{concat(firstName, ' ', trim(lastName))}"));
+        assertEquals("SMITH, JOHN", resolve("#{uppercase(concat(trim(lastName), \", \", firstName))}"));
+        assertEquals("John Smith", resolve("#{ capitalize( #{concat(firstName, ' ', lastName)} ) }"));
+        assertEquals("STATIC", resolve("#{uppercase('static')}"));
+        assertEquals("a,b", resolve("#{concat('a', ',', 'b')}"));
+        assertEquals("1true2.5", resolve("#{concat(1, true, 2.5)}"));
+        assertEquals("fallback", resolve("#{coalesce(middleName, , 'fallback')}"));
+
+        assertEquals("john", resolve("firstName"));
+        assertEquals("", resolve("applicant.missing.deeper"));
+        assertNull(resolver.resolve(null, payload()));
+    }
+
+    @Test
+    public void rejectsUnknownFunctionsAndMalformedExpressions() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+            () -> resolve("#{shout(firstName)}"));
+        assertEquals("Unknown function: shout", unknown.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> resolve("#{concat('open, firstName)}"));
+        assertThrows(IllegalArgumentException.class, () -> resolve("#{concat(firstName)) x(y)}"));
+    }
+
+    @Test
+    public void formatsWithConstantAndFieldPatterns() {
+        assertEquals("05/15/1980", resolve("#{formatDate(dob, 'MM/dd/yyyy')}"));
+        assertEquals("May 15, 1980", resolve("#{formatDate('15.05.1980', 'MMM d, yyyy', 'dd.MM.yyyy')}"));
+        assertEquals("not a date", resolve("#{formatDate('not a date', 'MM/dd/yyyy')}"));
+        assertEquals("1980-05-15", resolve("#{formatDate(dob, '[bad')}"));
+        assertEquals("00:00 " + ZoneId.systemDefault().getId(), resolve("#{formatDate(dob, 'HH:mm VV')}"));
+
+        Map<String, Object> payload = payload();
+        payload.put("pattern", "yyyy/MM/dd");
+        assertEquals("1980/05/15", resolver.resolve("#{formatDate(dob, pattern)}", payload));
+        assertEquals("1980-05-15", resolver.resolve("#{parseDate('15/05/1980', 'dd/MM/yyyy')}", payload));
+
+        assertEquals("1,234.50", resolve("#{formatNumber(premium)}"));
+        assertEquals("1,234", resolve("#{formatNumber(premium, 0)}"));
+        assertEquals("1,234.500", resolve("#{formatNumber('1,234.5', 3)}"));
+        assertEquals("$1,234.50", resolve("#{formatCurrency(premium)}"));
+        assertEquals("$0.00", registry.get("formatCurrency").apply(new Object[0], Map.of()));
+        assertEquals("n/a", resolve("#{formatCurrency('n/a')}"));
+    }
+
+    @Test
+    public void masksWithoutChangingResults() {
+        assertEquals("XXX-XX-6789", resolve("#{mask(ssn, 'XXX-XX-', 4)}"));
+        assertEquals("***6789", resolve("#{mask(ssn)}"));
+        assertEquals("abc", resolve("#{mask('abc', 'X', 4)}"));
+        assertEquals("XXX-XX-", resolve("#{mask(ssn, 'XXX-XX-', -2)}"));
+        assertEquals("J***@Example.com", resolve("#{maskEmail(applicant.email)}"));
+        assertEquals("a@b.com", resolve("#{maskEmail('a@b.com')}"));
+        assertEquals("ab@c@d", resolve("#{maskEmail('ab@c@d')}"));
+        assertEquals("ab@", resolve("#{maskEmail('ab@')}"));
+        assertEquals("XXX-XXX-4567", resolve("#{maskPhone(applicant.phone)}"));
+        assertEquals("12-3", resolve("#{maskPhone('12-3')}"));
+
+        assertEquals(" John Smith", resolve("#{capitalize(' jOHN   smith  ')}"));
+        assertEquals("", resolve("#{capitalize('   ')}"));
+        assertEquals("Élan Über", resolve("#{capitalize('élan ÜBER')}"));
+        assertEquals("SMITH", resolve("#{ifEmpty(lastName, 'none')}"));
+        assertEquals("none", resolve("#{default(middleName, 'none')}"));
+        assertEquals("jo", resolve("#{substring(firstName, 0, 2)}"));
+        assertEquals("jXhn", resolve("#{replace(firstName, 'o', 'X')}"));
+    }
+
+    @Test
+    public void legacyFunctionsReceiveStringArguments() {
+        Map<String, Object> payload = payload();
+        payload.put("count", 3);
+        registry.register("describe", (args, p) -> {
+            StringBuilder types = new StringBuilder();
+            for (Object arg : args) {
+                types.append(arg.getClass().getSimpleName()).append(' ');
+            }
+            return types.toString().trim();
+        });
+
+        assertEquals("String Integer String String", resolver.resolve("#{describe(count, 3, 'x', trim(lastName))}", payload));
+
+        // Registering a function rebinds expressions compiled against the previous one
+        registry.register("describe", (args, p) -> "replaced");
+        assertEquals("replaced", resolver.resolve("#{describe(count, 3, 'x', trim(lastName))}", payload));
+    }
+
+    @Test
+    public void bindsConstantArgumentsOncePerCallSite() {
+        int[] binds = new int[1];
+        registry.register("tag", new BindableFunction() {
+            @Override
+            public Invocation bind(CallSite site) {
+                binds[0]++;
+                String prefix = site.isConstant(1) ? "<" + site.constant(1) + ">" : null;
+                return (args, out) -> out.append(prefix != null ? prefix : "<" + args.text(1) + ">").append(args.text(0));
+            }
+
+            @Override
+            public void appendTo(FunctionArgs args, StringBuilder out) {
+                out.append('<').append(args.text(1)).append('>').append(args.text(0));
+            }
+        });
+
+        for (String name : List.of("john", "jane")) {
+            Map<String, Object> payload = Map.of("firstName", name, "kind", "b");
+            assertEquals("<i>" + name, resolver.resolve("#{tag(firstName, 'i')}", payload));
+            assertEquals("<b>" + name, resolver.resolve("#{tag(firstName, kind)}", payload));
+        }
+        assertEquals(2, binds[0]);
+        assertEquals("<i>x", registry.get("tag").apply(new Object[]{"x", "i"}, Map.of()));
+    }
+
+    @Test
+    public void expressionsSeparatedByLiteralTextAreATemplateNotAFunction() {
+        String twoCalls = "#{uppercase(firstName)} #{uppercase(trim(lastName))}";
+        assertFalse(resolver.isFunction(twoCalls));
+        assertTrue(resolver.isFunction(" #{uppercase(firstName)} "));
+        assertEquals("JOHN SMITH", resolver.resolveAll(twoCalls, payload()));
+    }
+
+    @Test
+    public void compilesTemplatesAndFoldsConstantCalls() {
+        assertEquals("Name: john SMITH, SSN: XXX-XX-6789.",
+            resolver.resolveAll("Name: #{concat(firstName, ' ', trim(lastName))}, SSN: #{mask(ssn, 'XXX-XX-', 4)}.", payload()));
+        assertEquals("Keep #{firstName} and #{concat('x'", resolver.resolveAll("Keep #{firstName} and #{concat('x'", payload()));
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolveAll("Hi #{shout(firstName)}", payload()));
+
+        CompiledExpression folded = resolver.compileTemplate("Plan: #{uppercase(concat('gold', ' ', 'ppo'))} (#{formatCurrency(100)})", false);
+        assertTrue(folded.isConstant());
+        assertEquals("Plan: GOLD PPO ($100.00)", folded.evaluate(null));
+        assertSame(folded, resolver.compileTemplate("Plan: #{uppercase(concat('gold', ' ', 'ppo'))} (#{formatCurrency(100)})", false));
+        assertFalse(resolver.compileTemplate("Hi #{uppercase(firstName)}", false).isConstant());
+
+        int[] calls = new int[1];
+        registry.register("counter", new BindableFunction() {
+            @Override
+            public void appendTo(FunctionArgs args, StringBuilder out) {
+                out.append(++calls[0]);
+            }
+
+            @Override
+            public boolean isPure() {
+                return false;
+            }
+        });
+        CompiledExpression impure = resolver.compileTemplate("#{counter('x')}", false);
+        assertFalse(impure.isConstant());
+        assertEquals("1", impure.evaluate(Map.of()));
+        assertEquals("2", impure.evaluate(Map.of()));
+    }
+
+    @Test
+    public void replacesPlaceholdersInTextTemplates() {
+        Map<String, Object> payload = payload();
+        payload.put("current", 2);
+        payload.put("total", 5);
+
+        StringBuilder out = new StringBuilder("> ");
+        resolver.compileTemplate("Page {current} of {total} - {missing} {} #{uppercase(firstName)}", true).appendTo(out, payload);
+        assertEquals("> Page 2 of 5 - {missing} {} JOHN", out.toString());
+        assertEquals("Page {current}", resolver.resolveAll("Page {current}", payload));
+    }
+
+    @Test
+    public void compiledCacheEvictsAndKeepsCompilingNewExpressions() {
+        for (int i = 0; i < 25_000; i++) {
+            assertEquals("v" + i, resolver.resolve("#{concat('v', " + i + ")}", Map.of()));
+        }
+        assertTrue(resolver.cachedCount() <= 3 * 10_000);
+        assertEquals("JOHN", resolve("#{uppercase(firstName)}"));
+    }
+
+    @Test
+    public void evaluatesOnManyShortLivedThreads() throws Exception {
+        CompiledExpression expr = resolver.compile("#{concat(uppercase(firstName), ' ', formatNumber(premium, 1))}");
+        for (int i = 0; i < 50; i++) {
+            String[] result = new String[1];
+            Thread thread = new Thread(() -> result[0] = expr.evaluate(payload()));
+            thread.start();
+            thread.join();
+            assertEquals("JOHN 1,234.5", result[0]);
+        }
+        for (int i = 0; i < 200; i++) {
+            StringBuilder out = new StringBuilder();
+            NumberFormats.appendTo(out, "#,##0." + "0".repeat(i % 20) + "#".repeat(i / 20 + 1), 1.5);
+            assertTrue(out.toString().startsWith("1.5"), out.toString());
+        }
+        assertTrue(NumberFormats.cachedPatternCount() <= 100);
+    }
+}
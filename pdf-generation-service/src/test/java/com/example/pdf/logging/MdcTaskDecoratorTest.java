@@ -0,0 +1,44 @@
+package com.example.pdf.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MdcTaskDecoratorTest {
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    public void workerSeesSubmitterRequestIdAndIsClearedAfterwards() throws Exception {
+        MDC.put(RequestIdFilter.MDC_KEY, "req-1");
+        String seen = pool.submit(MdcTaskDecorator.wrap(() -> MDC.get(RequestIdFilter.MDC_KEY))).get();
+        assertEquals("req-1", seen);
+
+        // The pooled thread does not keep the finished request's id
+        assertNull(pool.submit(() -> MDC.get(RequestIdFilter.MDC_KEY)).get());
+
+        MDC.put(RequestIdFilter.MDC_KEY, "req-2");
+        AtomicReference<String> fromRunnable = new AtomicReference<>();
+        pool.submit(new MdcTaskDecorator().decorate(() -> fromRunnable.set(MDC.get(RequestIdFilter.MDC_KEY)))).get();
+        assertEquals("req-2", fromRunnable.get());
+    }
+
+    @Test
+    public void taskSubmittedWithoutContextRunsWithout() throws Exception {
+        pool.submit(() -> MDC.put(RequestIdFilter.MDC_KEY, "stale")).get();
+        assertNull(pool.submit(MdcTaskDecorator.wrap(() -> MDC.get(RequestIdFilter.MDC_KEY))).get());
+        assertEquals("stale", pool.submit(() -> MDC.get(RequestIdFilter.MDC_KEY)).get());
+    }
+}
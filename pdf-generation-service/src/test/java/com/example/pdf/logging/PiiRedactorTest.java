@@ -0,0 +1,80 @@
+package com.example.pdf.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PiiRedactorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void masksSensitiveKeysAndLeavesOriginalUntouched() {
+        Map<String, Object> primary = new LinkedHashMap<>();
+        primary.put("firstName", "Jane");
+        primary.put("SSN", "123-45-6789");
+        primary.put("relationship", "SELF");
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("primary", primary);
+        payload.put("dependents", List.of(Map.of("dateOfBirth", "2010-01-01", "age", 14)));
+        payload.put("address", Map.of("street", "1 Main St", "state", "CA"));
+
+        Map<String, Object> redacted = (Map<String, Object>) PiiRedactor.redact(payload);
+
+        Map<String, Object> p = (Map<String, Object>) redacted.get("primary");
+        assertEquals(PiiRedactor.MASK, p.get("firstName"));
+        assertEquals(PiiRedactor.MASK, p.get("SSN"));
+        assertEquals("SELF", p.get("relationship"));
+        Map<String, Object> dependent = ((List<Map<String, Object>>) redacted.get("dependents")).get(0);
+        assertEquals(PiiRedactor.MASK, dependent.get("dateOfBirth"));
+        assertEquals(14, dependent.get("age"));
+        // Nested objects under a sensitive key are walked rather than masked whole
+        assertEquals(Map.of("street", PiiRedactor.MASK, "state", "CA"), redacted.get("address"));
+        assertEquals("123-45-6789", primary.get("SSN"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void masksScalarsInsideSensitiveCollections() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("phoneNumbers", List.of("555-1234", "555-9876"));
+        payload.put("emails", List.of(List.of("jane@example.com")));
+        payload.put("addresses", List.of(Map.of("zip", "94105", "state", "CA")));
+        payload.put("planCodes", List.of("G1", "G2"));
+
+        Map<String, Object> redacted = (Map<String, Object>) PiiRedactor.redact(payload);
+
+        assertEquals(List.of(PiiRedactor.MASK, PiiRedactor.MASK), redacted.get("phoneNumbers"));
+        assertEquals(List.of(List.of(PiiRedactor.MASK)), redacted.get("emails"));
+        assertEquals(List.of(Map.of("zip", PiiRedactor.MASK, "state", "CA")), redacted.get("addresses"));
+        assertEquals(List.of("G1", "G2"), redacted.get("planCodes"));
+    }
+
+    @Test
+    public void matchesSnakeKebabAndDottedKeys() {
+        for (String key : List.of("first_name", "last_name", "social_security_number", "member_id", "tax_id",
+                "TAX-ID", "primary.tax.id", "applicant_name", "displayName", "date-of-birth")) {
+            assertTrue(PiiRedactor.isSensitive(key), key);
+        }
+        for (String key : List.of("relationship", "state", "age", "plan_code", "effective-date",
+                "templateName", "config_name", "outputFileName", "sheetName")) {
+            assertFalse(PiiRedactor.isSensitive(key), key);
+        }
+        assertEquals(Map.of("first_name", PiiRedactor.MASK, "plan_code", "G1"),
+            PiiRedactor.redact(Map.of("first_name", "Jane", "plan_code", "G1")));
+    }
+
+    @Test
+    public void logValuesRendersRedactedJsonLazily() {
+        Object arg = LogValues.json(Map.of("email", "jane@example.com"));
+        assertEquals("{\"email\":\"[REDACTED]\"}", arg.toString());
+        assertEquals("PRIMARY_PHONE", PiiRedactor.value("field", "PRIMARY_PHONE"));
+        assertEquals(PiiRedactor.MASK, PiiRedactor.value("Primary_Phone", "555-0100"));
+
+        String longValue = "x".repeat(LogValues.MAX_LENGTH * 2);
+        assertTrue(LogValues.json(longValue).toString().endsWith("chars)"));
+    }
+}
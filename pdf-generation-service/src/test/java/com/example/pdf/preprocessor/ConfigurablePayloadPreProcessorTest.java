@@ -0,0 +1,77 @@
+package com.example.pdf.preprocessor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurablePayloadPreProcessorTest {
+
+    private final ConfigurablePayloadPreProcessor preProcessor = new ConfigurablePayloadPreProcessor();
+
+    @Test
+    public void standardRulesFlattenApplicantsAddressesAndProducts() {
+        List<Map<String, Object>> applicants = new ArrayList<>();
+        applicants.add(Map.of("applicantId", "A001", "relationship", "PRIMARY"));
+        applicants.add(Map.of("applicantId", "A002", "relationship", "SPOUSE"));
+        for (int i = 3; i <= 7; i++) {
+            applicants.add(Map.of("applicantId", "A00" + i, "relationship", "DEPENDENT"));
+        }
+        Map<String, Object> payload = Map.of("application", Map.of(
+                "applicationId", "APP-1",
+                "applicants", applicants,
+                "addresses", List.of(Map.of("type", "MAILING", "city", "Springfield"),
+                        Map.of("type", "BILLING", "city", "Shelbyville")),
+                "proposedProducts", List.of(Map.of("productType", "MEDICAL"), Map.of("productType", "VISION"))));
+
+        Map<String, Object> result = preProcessor.preProcess(payload, "preprocessing/standard-enrollment-rules.yml");
+
+        assertEquals("APP-1", result.get("applicationId"));
+        assertEquals("A001", ((Map<?, ?>) result.get("primary")).get("applicantId"));
+        assertEquals("A002", ((Map<?, ?>) result.get("spouse")).get("applicantId"));
+        assertEquals("A003", ((Map<?, ?>) result.get("dependent1")).get("applicantId"));
+        assertEquals("A005", ((Map<?, ?>) result.get("dependent3")).get("applicantId"));
+        assertEquals(2, ((List<?>) result.get("dependentOverflow")).size());
+        assertEquals(5, ((List<?>) result.get("allDependents")).size());
+        assertEquals("Shelbyville", ((Map<?, ?>) result.get("billing")).get("city"));
+        assertEquals("Springfield", ((Map<?, ?>) result.get("mailing")).get("city"));
+        assertEquals(true, result.get("hasSpouse"));
+        assertEquals(true, result.get("hasMedical"));
+        assertEquals(false, result.get("hasDental"));
+        assertEquals(5, result.get("dependentCount"));
+        assertEquals(2, result.get("additionalDependentCount"));
+    }
+
+    @Test
+    public void rulesSharingASourceArrayKeepTheirOwnMatchesAndRuleOrder() {
+        Map<String, Object> payload = Map.of("group", Map.of(
+                "members", List.of(
+                        Map.of("id", 1, "role", "SUBSCRIBER", "state", "CA"),
+                        Map.of("id", 2, "role", "SPOUSE", "state", "CA"),
+                        Map.of("id", 3, "role", "CHILD", "age", 20, "state", "NY"),
+                        Map.of("id", 4, "role", "CHILD", "age", 12, "state", "NJ"),
+                        Map.of("id", 5, "role", "CHILD", "age", "19", "state", "TX")),
+                "contacts", List.of(Map.of("id", 9, "primary", true))));
+
+        Map<String, Object> result = preProcessor.preProcess(payload, "preprocessing/test-filter-rules.yml");
+
+        // Written by the members rule first, then overwritten by the later contacts rule
+        assertEquals(9, ((Map<?, ?>) result.get("subscriber")).get("id"));
+        assertEquals(List.of(3, 5), ids(result.get("adultChildren")));
+        assertEquals(2, ((Map<?, ?>) result.get("member1")).get("id"));
+        assertEquals(3, ((Map<?, ?>) result.get("member2")).get("id"));
+        assertEquals(List.of(4), ids(result.get("memberOverflow")));
+        assertFalse(result.containsKey("neverSet"));
+    }
+
+    private static List<Object> ids(Object items) {
+        List<Object> ids = new ArrayList<>();
+        for (Object item : (List<?>) items) {
+            ids.add(((Map<?, ?>) item).get("id"));
+        }
+        return ids;
+    }
+}
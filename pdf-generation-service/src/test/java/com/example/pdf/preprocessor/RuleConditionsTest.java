@@ -0,0 +1,71 @@
+package com.example.pdf.preprocessor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RuleConditionsTest {
+
+    private static Predicate<Map<String, Object>> condition(String operator, Object value) {
+        return RuleConditions.compileCondition(Map.of("field", "f", "operator", operator, "value", value));
+    }
+
+    @Test
+    public void numericOperatorsAcceptNumbersAndNumericStrings() {
+        Predicate<Map<String, Object>> adult = condition("greaterThanOrEqual", 18);
+
+        assertTrue(adult.test(Map.of("f", 18)));
+        assertTrue(adult.test(Map.of("f", 21.5)));
+        assertTrue(adult.test(Map.of("f", "40")));
+        assertFalse(adult.test(Map.of("f", 17L)));
+        assertTrue(condition("lessThan", "2.5").test(Map.of("f", 2)));
+    }
+
+    @Test
+    public void membershipUsesTheConfiguredList() {
+        Predicate<Map<String, Object>> in = condition("IN", List.of("NY", "NJ"));
+        Predicate<Map<String, Object>> notIn = condition("notIn", List.of("NY", "NJ"));
+
+        assertTrue(in.test(Map.of("f", "NJ")));
+        assertFalse(in.test(Map.of("f", "CA")));
+        assertTrue(notIn.test(Map.of("f", "CA")));
+        assertFalse(notIn.test(Map.of("g", "CA")));
+    }
+
+    @Test
+    public void missingFieldsAndUnknownOperatorsNeverMatch() {
+        assertFalse(condition("notEquals", "x").test(Map.of()));
+        assertFalse(condition("matches", "x").test(Map.of("f", "x")));
+        assertTrue(condition("startsWith", "DEP").test(Map.of("f", "DEPENDENT")));
+        assertTrue(RuleConditions.compileCondition(Map.of("field", "f", "value", 3)).test(Map.of("f", 3)));
+    }
+
+    @Test
+    public void filtersCombineConditionsWithAndOr() {
+        List<Map<String, Object>> conditions = List.of(
+                Map.of("field", "role", "value", "CHILD"),
+                Map.of("field", "age", "operator", "lessThan", "value", 26));
+        Predicate<Map<String, Object>> and = RuleConditions.compileFilter(Map.of("conditions", conditions));
+        Predicate<Map<String, Object>> or = RuleConditions.compileFilter(
+                Map.of("conditions", conditions, "conditionLogic", "or"));
+
+        assertTrue(and.test(Map.of("role", "CHILD", "age", 12)));
+        assertFalse(and.test(Map.of("role", "CHILD", "age", 30)));
+        assertTrue(or.test(Map.of("role", "SPOUSE", "age", 25)));
+        assertFalse(or.test(Map.of("role", "SPOUSE", "age", 40)));
+    }
+
+    @Test
+    public void misconfiguredConditionsAreRejectedWhenCompiled() {
+        assertThrows(IllegalArgumentException.class, () -> condition("in", "NY"));
+        assertThrows(IllegalArgumentException.class, () -> condition("greaterThan", "adult"));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleConditions.compileCondition(Map.of("field", "f", "operator", "equals")));
+        assertThrows(IllegalArgumentException.class,
+                () -> RuleConditions.compileFilter(Map.of("filterField", "relationship")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.pdf.service;
+
+import com.example.pdf.function.FunctionExpressionResolver;
+import com.example.pdf.function.FunctionRegistry;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AcroFormFillServiceTest {
+
+    /** Serves a generated form with text fields instead of reading config-repo/acroforms. */
+    private static AcroFormFillService serviceWithForm(String... fieldNames) throws Exception {
+        byte[] form;
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            PDAcroForm acroForm = new PDAcroForm(doc);
+            doc.getDocumentCatalog().setAcroForm(acroForm);
+            PDResources resources = new PDResources();
+            resources.put(COSName.getPDFName("Helv"), PDType1Font.HELVETICA);
+            acroForm.setDefaultResources(resources);
+            acroForm.setDefaultAppearance("/Helv 10 Tf 0 g");
+            for (String name : fieldNames) {
+                PDTextField field = new PDTextField(acroForm);
+                field.setPartialName(name);
+                acroForm.getFields().add(field);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            doc.save(out);
+            form = out.toByteArray();
+        }
+        return new AcroFormFillService(new FunctionExpressionResolver(new FunctionRegistry())) {
+            @Override
+            public byte[] loadTemplateBytes(String templatePath) {
+                return form;
+            }
+        };
+    }
+
+    @Test
+    public void fillsExpressionsSeparatedByLiteralText() throws Exception {
+        AcroFormFillService service = serviceWithForm("fullName", "greeting", "last", "plan");
+        Map<String, String> mappings = new LinkedHashMap<>();
+        mappings.put("fullName", "#{uppercase(firstName)} #{uppercase(lastName)}");
+        mappings.put("greeting", "Dear #{capitalize(firstName)},");
+        mappings.put("last", "#{uppercase(lastName)}");
+        mappings.put("plan", "applicants[relationship=PRIMARY].plan");
+        Map<String, Object> payload = Map.of("firstName", "ann", "lastName", "lee",
+            "applicants", List.of(Map.of("relationship", "PRIMARY", "plan", "G1")));
+
+        byte[] pdf = service.fillAcroForm("form.pdf", mappings, payload);
+
+        try (PDDocument filled = PDDocument.load(pdf)) {
+            PDAcroForm acroForm = filled.getDocumentCatalog().getAcroForm();
+            assertEquals("ANN LEE", acroForm.getField("fullName").getValueAsString());
+            assertEquals("Dear Ann,", acroForm.getField("greeting").getValueAsString());
+            assertEquals("LEE", acroForm.getField("last").getValueAsString());
+            assertEquals("G1", acroForm.getField("plan").getValueAsString());
+        }
+    }
+}
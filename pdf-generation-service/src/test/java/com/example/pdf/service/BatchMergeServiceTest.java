@@ -0,0 +1,139 @@
+package com.example.pdf.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchMergeServiceTest {
+
+    private final AtomicInteger configLoads = new AtomicInteger();
+    private BatchMergeService service;
+
+    /** Renders "PDF:<name>" instead of a real PDF; fails when the payload asks it to. */
+    private final FlexiblePdfMergeService mergeService = new FlexiblePdfMergeService() {
+        @Override
+        public byte[] generateMergedPdf(PdfMergeConfig config, Map<String, Object> payload) {
+            if (payload.containsKey("fail")) {
+                throw new IllegalStateException("render failed");
+            }
+            return ("PDF:" + payload.get("name")).getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    private final PdfMergeConfigService configService = new PdfMergeConfigService() {
+        @Override
+        public PdfMergeConfig loadConfig(String configName) {
+            configLoads.incrementAndGet();
+            if (!"known".equals(configName)) {
+                throw new RuntimeException("not found");
+            }
+            return new PdfMergeConfig();
+        }
+    };
+
+    private BatchMergeService start(int maxInFlight) {
+        service = new BatchMergeService(mergeService, configService, 2, maxInFlight);
+        service.start();
+        return service;
+    }
+
+    @AfterEach
+    public void stop() {
+        if (service != null) service.stop();
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws Exception {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rendersEachItemAndWritesManifest() throws Exception {
+        start(1);
+        String ndjson = String.join("\n",
+            "{\"configName\": \"known\"}",
+            "{\"id\": \"a\", \"payload\": {\"name\": \"Alice\"}}",
+            "",
+            "{\"id\": \"b\", \"payload\": {\"name\": \"Bob\"}, \"outputFileName\": \"bob.pdf\"}",
+            "not json",
+            "{\"id\": \"c\"}",
+            "{\"id\": \"d\", \"payload\": {\"fail\": true}}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Map<String, Object> manifest = service.process(null, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertEquals("PDF:Alice", new String(entries.get("a.pdf"), StandardCharsets.UTF_8));
+        assertEquals("PDF:Bob", new String(entries.get("bob.pdf"), StandardCharsets.UTF_8));
+        assertEquals(1, configLoads.get(), "config should be loaded once per batch");
+
+        assertEquals(5, manifest.get("total"));
+        assertEquals(2L, manifest.get("succeeded"));
+        List<Map<String, Object>> items = (List<Map<String, Object>>) manifest.get("items");
+        assertEquals(List.of("a", "b", "line-5", "c", "d"), items.stream().map(m -> m.get("id")).toList());
+        assertEquals("OK", items.get(1).get("status"));
+        assertEquals("Missing 'payload' object", items.get(3).get("error"));
+        assertEquals("render failed", items.get(4).get("error"));
+
+        Map<String, Object> written = new ObjectMapper().readValue(entries.get(BatchMergeService.MANIFEST_ENTRY), Map.class);
+        assertEquals("known", written.get("configName"));
+        assertEquals(5, ((List<?>) written.get("items")).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void entryNamesNeverCollide() throws Exception {
+        start(1);
+        String ndjson = String.join("\n",
+            "{\"id\": \"x\", \"payload\": {\"name\": \"1\"}, \"outputFileName\": \"a.pdf\"}",
+            "{\"id\": \"y\", \"payload\": {\"name\": \"2\"}, \"outputFileName\": \"3-a.pdf\"}",
+            "{\"id\": \"z\", \"payload\": {\"name\": \"3\"}, \"outputFileName\": \"a.pdf\"}",
+            "{\"id\": \"w\", \"payload\": {\"name\": \"4\"}, \"outputFileName\": \"a.pdf\"}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Map<String, Object> manifest = service.process("known", new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        List<Map<String, Object>> items = (List<Map<String, Object>>) manifest.get("items");
+        assertEquals(4, items.stream().map(m -> m.get("file")).distinct().count());
+        assertEquals(5, entries.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals("PDF:" + (i + 1), new String(entries.get((String) items.get(i).get("file")), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void unknownConfigFailsEveryItem() throws Exception {
+        start(4);
+        String ndjson = "{\"payload\": {}}\n{\"payload\": {}}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Map<String, Object> manifest = service.process("missing", new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+
+        assertEquals(0L, manifest.get("succeeded"));
+        assertEquals(1, configLoads.get());
+        List<Map<String, Object>> items = (List<Map<String, Object>>) manifest.get("items");
+        assertTrue(((String) items.get(0).get("error")).startsWith("Failed to load config missing"));
+        assertEquals(Map.of(BatchMergeService.MANIFEST_ENTRY, 1).keySet(), unzip(out.toByteArray()).keySet());
+    }
+}
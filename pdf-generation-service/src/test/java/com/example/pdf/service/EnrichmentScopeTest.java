@@ -0,0 +1,66 @@
+package com.example.pdf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnrichmentScopeTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    /** Appends its name to "trail" so results show the order enrichers ran in. */
+    private PayloadEnricher enricher(String name) {
+        return new PayloadEnricher() {
+            @Override
+            public Map<String, Object> enrich(Map<String, Object> payload) {
+                calls.add(name);
+                Map<String, Object> enriched = PayloadOverlay.over(payload);
+                enriched.put("trail", payload.getOrDefault("trail", "") + "/" + name);
+                return enriched;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private final PayloadEnricherRegistry registry =
+        new PayloadEnricherRegistry(List.of(enricher("a"), enricher("b"), enricher("c")));
+
+    @Test
+    public void sectionsReuseMemoizedChainPrefixes() {
+        Map<String, Object> payload = Map.of("name", "John");
+        EnrichmentScope scope = registry.newScope(payload);
+
+        assertEquals("/a", registry.applyEnrichers(List.of("a"), scope).get("trail"));
+        assertEquals("/a/b", registry.applyEnrichers(List.of("a", "b"), scope).get("trail"));
+        assertEquals("/a/b", registry.applyEnrichers(List.of("a", "b"), scope).get("trail"));
+        assertEquals("/a/b/c", registry.applyEnrichers(List.of("a", "b", "c"), scope).get("trail"));
+        assertEquals(List.of("a", "b", "c"), calls);
+
+        // Order matters: a different chain is computed from the payload
+        assertEquals("/b/a", registry.applyEnrichers(List.of("b", "a"), scope).get("trail"));
+        assertEquals(List.of("a", "b", "c", "b", "a"), calls);
+        assertEquals(5, scope.getMemoizedChainCount());
+        assertEquals(Map.of("name", "John"), payload);
+    }
+
+    @Test
+    public void eachSectionGetsItsOwnTopLevelMap() {
+        EnrichmentScope scope = registry.newScope(Map.of("name", "John"));
+
+        Map<String, Object> first = registry.applyEnrichers(List.of("a"), scope);
+        first.put("scratch", true);
+        Map<String, Object> second = registry.applyEnrichers(List.of("a"), scope);
+
+        assertNotSame(first, second);
+        assertFalse(second.containsKey("scratch"));
+        assertEquals(List.of("a"), calls);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pdf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreemarkerServiceRefreshTest {
+
+    @Test
+    public void productionModeServesCachedTemplateUntilRefresh() throws Exception {
+        Path dir = Paths.get("target", "test-templates");
+        Files.createDirectories(dir);
+        Path tpl = dir.resolve("refresh-test.ftl");
+        Files.writeString(tpl, "v1 ${payload.name}");
+        String location = "target/test-templates/refresh-test.ftl";
+
+        FreemarkerService svc = new FreemarkerService(FreemarkerService.MODE_PRODUCTION, 0);
+        Map<String, Object> model = Map.of("payload", Map.of("name", "Alice"));
+
+        assertEquals("v1 Alice", svc.processTemplateFromLocation(location, model));
+
+        Files.writeString(tpl, "v2 ${payload.name}");
+        // No update checks in production mode: the compiled v1 stays in use
+        assertEquals("v1 Alice", svc.processTemplateFromLocation(location, model));
+
+        long before = svc.getVersion();
+        long after = svc.refresh("test");
+        assertEquals(before + 1, after);
+        assertEquals("v2 Alice", svc.processTemplateFromLocation(location, model));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.pdf.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HtmlSectionBatchingTest {
+
+    private static final String STYLE = "<style>@page { size: 8.5in 11in; margin: 0.5in; } p { font-size: 12px; }</style>";
+
+    private static String section(String title, int paragraphs) {
+        StringBuilder body = new StringBuilder("<h1>" + title + "</h1>");
+        for (int i = 0; i < paragraphs; i++) {
+            body.append("<p>").append(title).append(" paragraph ").append(i).append("</p>");
+        }
+        return "<!DOCTYPE html><html><head>" + STYLE + "</head><body>" + body + "</body></html>";
+    }
+
+    @Test
+    public void combinesSectionsWithAnchorsAndSharedHead() {
+        String combined = HtmlSectionBatcher.combine(
+            List.of(section("Cover", 1), section("Terms", 1)), List.of("a0", "a1"));
+
+        assertEquals(1, combined.split("@page", -1).length - 1, "identical style blocks are emitted once");
+        assertTrue(combined.contains("<div id=\"a0\" class=\"pdf-batch-section\">"));
+        assertTrue(combined.contains("<div id=\"a1\" class=\"pdf-batch-section\" style=\"page-break-before: always;\">"));
+    }
+
+    @Test
+    public void singlePassRecoversSectionStartPages() throws Exception {
+        HtmlPdfService service = new HtmlPdfService(new HtmlAssetStore());
+        HtmlPdfService.BatchedPdf batched = service.renderHtmlSectionsToPdf(
+            List.of(section("Cover", 1), section("Summary", 120), section("Disclosures", 1)),
+            List.of("s0", "s1", "s2"), "test");
+
+        try (PDDocument doc = PDDocument.load(batched.getPdf())) {
+            int pages = doc.getNumberOfPages();
+            assertTrue(pages >= 4, "long middle section should span several pages, got " + pages);
+
+            assertEquals(0, batched.getStartPages().get("s0"));
+            assertEquals(1, batched.getStartPages().get("s1"));
+            int disclosures = batched.getStartPages().get("s2");
+            assertEquals(pages - 1, disclosures);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(disclosures + 1);
+            stripper.setEndPage(disclosures + 1);
+            assertTrue(stripper.getText(doc).contains("Disclosures"));
+        }
+    }
+}
@@ -41,4 +41,24 @@ public class MappingPreprocessorJsonPathTest {
         assertTrue(normalized.containsKey("primaryApplicant"), "primaryApplicant missing: " + normalized);
         assertTrue(normalized.containsKey("child1"), "child1 missing: " + normalized);
     }
+
+    @Test
+    public void compiledSelectorsAreReusedUntilSelectorsChange() {
+        GenerateRequest req = new GenerateRequest();
+        req.setPayload(Map.of("app", Map.of("applicants", List.of(
+                Map.of("type", "Primary", "id", "A1"),
+                Map.of("type", "Child", "id", "A2")))));
+
+        PreprocessorConfig cfg = new PreprocessorConfig();
+        cfg.selectors = Map.of("firstId", "$.app.applicants[0].id", "broken", "$.app.applicants[?(");
+
+        Map<String, Object> first = MappingPreprocessor.normalize(req, cfg);
+        assertEquals("A1", first.get("firstId"));
+        assertTrue(first.containsKey("broken"));
+        assertNull(first.get("broken"));
+        assertSame(cfg.compiledSelectors(), cfg.compiledSelectors());
+
+        cfg.selectors = Map.of("firstId", "$.app.applicants[1].id");
+        assertEquals("A2", MappingPreprocessor.normalize(req, cfg).get("firstId"));
+    }
 }
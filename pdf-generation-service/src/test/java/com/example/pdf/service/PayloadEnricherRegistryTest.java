@@ -0,0 +1,157 @@
+package com.example.pdf.service;
+
+import com.example.pdf.service.enrichers.CoverageSummaryEnricher;
+import com.example.pdf.service.enrichers.DateFormattingEnricher;
+import com.example.pdf.service.enrichers.EnrollmentContextEnricher;
+import com.example.pdf.service.enrichers.PremiumCalculationEnricher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadEnricherRegistryTest {
+
+    private static final List<String> BUILT_IN =
+        List.of("enrollmentContext", "dateFormatting", "coverageSummary", "premiumCalculation");
+
+    private final List<PayloadEnricherRegistry> started = new ArrayList<>();
+
+    private PayloadEnricherRegistry registry(int parallelThreads, PayloadEnricher... extra) {
+        List<PayloadEnricher> enrichers = new ArrayList<>(List.of(new EnrollmentContextEnricher(),
+            new DateFormattingEnricher(), new CoverageSummaryEnricher(), new PremiumCalculationEnricher()));
+        enrichers.addAll(List.of(extra));
+        PayloadEnricherRegistry registry = new PayloadEnricherRegistry(enrichers, parallelThreads);
+        registry.start();
+        started.add(registry);
+        return registry;
+    }
+
+    @AfterEach
+    public void stop() {
+        started.forEach(PayloadEnricherRegistry::stop);
+    }
+
+    /** Reads {@code from} and writes {@code to}, or declares nothing when both are null. */
+    private static PayloadEnricher copying(String name, String from, String to) {
+        return new PayloadEnricher() {
+            @Override
+            public Map<String, Object> enrich(Map<String, Object> payload) {
+                Map<String, Object> enriched = PayloadOverlay.over(payload);
+                enriched.put(to != null ? to : name, payload.get(from != null ? from : "enrollmentContext"));
+                return enriched;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Set<String> reads() {
+                return from != null ? Set.of(from) : null;
+            }
+
+            @Override
+            public Set<String> writes() {
+                return to != null ? Set.of(to) : null;
+            }
+        };
+    }
+
+    private static List<List<String>> names(List<List<PayloadEnricher>> stages) {
+        List<List<String>> names = new ArrayList<>();
+        for (List<PayloadEnricher> stage : stages) {
+            names.add(stage.stream().map(PayloadEnricher::getName).toList());
+        }
+        return names;
+    }
+
+    @Test
+    public void independentEnrichersShareAStageAndDependentsStartTheNext() {
+        PayloadEnricherRegistry registry = registry(2,
+            copying("contextCopy", "enrollmentContext", "contextCopy"),
+            copying("undeclared", null, null));
+
+        assertEquals(List.of(BUILT_IN), names(registry.stages(BUILT_IN)));
+        assertEquals(List.of(List.of("enrollmentContext", "dateFormatting"), List.of("contextCopy", "coverageSummary")),
+            names(registry.stages(List.of("enrollmentContext", "dateFormatting", "contextCopy", "coverageSummary"))));
+        assertEquals(List.of(List.of("dateFormatting"), List.of("undeclared"), List.of("premiumCalculation")),
+            names(registry.stages(List.of("dateFormatting", "undeclared", "premiumCalculation"))));
+
+        // Sequential mode keeps one enricher per stage
+        assertEquals(List.of(List.of("enrollmentContext"), List.of("dateFormatting")),
+            names(registry(0).stages(List.of("enrollmentContext", "dateFormatting"))));
+    }
+
+    @Test
+    public void concurrentStagesGiveTheSequentialResult() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("enrollment", Map.of("products", List.of("medical", "dental"), "marketCategory", "individual", "state", "CA"));
+        payload.put("effectiveDate", "2026-01-01");
+        payload.put("primary", Map.of("firstName", "John", "dateOfBirth", "1980-05-15"));
+        payload.put("allDependents", List.of(Map.of("firstName", "Tim", "dateOfBirth", "2015-01-01")));
+        payload.put("medical", Map.of("monthlyPremium", 300));
+        payload.put("dental", Map.of("monthlyPremium", 40));
+        List<String> chain = new ArrayList<>(BUILT_IN);
+        chain.add("contextCopy");
+
+        Map<String, Object> sequential = registry(0, copying("contextCopy", "enrollmentContext", "contextCopy"))
+            .applyEnrichers(chain, payload);
+        Map<String, Object> parallel = registry(4, copying("contextCopy", "enrollmentContext", "contextCopy"))
+            .applyEnrichers(chain, payload);
+
+        assertEquals(sequential, parallel);
+        assertNotNull(parallel.get("contextCopy"));
+        assertEquals(parallel.get("enrollmentContext"), parallel.get("contextCopy"));
+    }
+
+    @Test
+    public void stageMembersRunConcurrently() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        PayloadEnricher[] waiting = new PayloadEnricher[2];
+        for (int i = 0; i < 2; i++) {
+            String key = "slow" + i;
+            waiting[i] = new PayloadEnricher() {
+                @Override
+                public Map<String, Object> enrich(Map<String, Object> payload) {
+                    bothRunning.countDown();
+                    try {
+                        // Only returns true if the other enricher is running at the same time
+                        Map<String, Object> enriched = PayloadOverlay.over(payload);
+                        enriched.put(key, bothRunning.await(5, TimeUnit.SECONDS));
+                        return enriched;
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                @Override
+                public String getName() {
+                    return key;
+                }
+
+                @Override
+                public Set<String> reads() {
+                    return Set.of();
+                }
+
+                @Override
+                public Set<String> writes() {
+                    return Set.of(key);
+                }
+            };
+        }
+
+        Map<String, Object> enriched = registry(2, waiting).applyEnrichers(List.of("slow0", "slow1"), Map.of());
+
+        assertEquals(Map.of("slow0", true, "slow1", true), enriched);
+    }
+}
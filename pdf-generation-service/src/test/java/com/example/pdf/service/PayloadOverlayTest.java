@@ -0,0 +1,98 @@
+package com.example.pdf.service;
+
+import com.example.pdf.service.enrichers.CoverageSummaryEnricher;
+import com.example.pdf.service.enrichers.DateFormattingEnricher;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadOverlayTest {
+
+    @Test
+    public void writesAndRemovalsStayInTheOverlay() {
+        Map<String, Object> base = new HashMap<>(Map.of("a", 1, "b", 2));
+        Map<String, Object> overlay = PayloadOverlay.over(base);
+
+        overlay.put("c", 3);
+        overlay.put("a", 10);
+        overlay.remove("b");
+        overlay.put("n", null);
+
+        assertEquals(Map.of("a", 1, "b", 2), base);
+        assertEquals(10, overlay.get("a"));
+        assertNull(overlay.get("b"));
+        assertFalse(overlay.containsKey("b"));
+        assertTrue(overlay.containsKey("n"));
+        assertEquals(3, overlay.size());
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("a", 10);
+        expected.put("c", 3);
+        expected.put("n", null);
+        assertEquals(expected, overlay);
+        assertEquals(expected, new HashMap<>(overlay));
+
+        overlay.clear();
+        assertTrue(overlay.isEmpty());
+        assertEquals(2, base.size());
+    }
+
+    @Test
+    public void overlayOfOverlaySharesBaseAndCopiesChanges() {
+        Map<String, Object> base = Map.of("a", 1);
+        Map<String, Object> first = PayloadOverlay.over(base);
+        first.put("b", 2);
+        Map<String, Object> second = PayloadOverlay.over(first);
+        second.put("c", 3);
+
+        assertEquals(Map.of("a", 1, "b", 2), first);
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), second);
+    }
+
+    @Test
+    public void enricherChainLeavesInputPayloadUnchanged() {
+        Map<String, Object> primary = new HashMap<>(Map.of(
+            "firstName", "John",
+            "dateOfBirth", "1980-05-15",
+            "coverages", List.of(new HashMap<>(Map.of("productType", "MEDICAL", "premium", 100)))));
+        Map<String, Object> dependent = new HashMap<>(Map.of("firstName", "Tim", "dateOfBirth", "2015-01-01"));
+        Map<String, Object> payload = new HashMap<>(Map.of(
+            "primary", primary,
+            "allDependents", List.of(dependent),
+            "applicants", List.of(primary)));
+        Map<String, Object> snapshot = deepCopyOf(payload);
+
+        PayloadEnricherRegistry registry = new PayloadEnricherRegistry(
+            List.of(new DateFormattingEnricher(), new CoverageSummaryEnricher()));
+        Map<String, Object> enriched = registry.applyEnrichers(List.of("dateFormatting", "coverageSummary"), payload);
+
+        assertEquals(snapshot, payload);
+        assertTrue(enriched.containsKey("formattedDates"));
+        assertTrue(enriched.containsKey("coverageSummary"));
+        assertNotNull(((Map<?, ?>) enriched.get("primary")).get("calculatedAge"));
+        assertNotNull(((Map<?, ?>) ((List<?>) enriched.get("allDependents")).get(0)).get("ageCategory"));
+        assertFalse(primary.containsKey("calculatedAge"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deepCopyOf(Map<String, Object> map) {
+        Map<String, Object> copy = new HashMap<>();
+        map.forEach((k, v) -> copy.put(k, deepCopy(v)));
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            return deepCopyOf((Map<String, Object>) value);
+        }
+        if (value instanceof List) {
+            return ((List<Object>) value).stream().map(PayloadOverlayTest::deepCopy).toList();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.pdf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadPathBatchTest {
+
+    private final Map<String, Object> payload = Map.of(
+        "applicants", List.of(
+            Map.of("relationship", "PRIMARY", "demographic", Map.of("firstName", "John", "lastName", "Doe")),
+            Map.of("relationship", "DEPENDENT", "demographic", Map.of("firstName", "Tim")),
+            Map.of("relationship", "DEPENDENT", "demographic", Map.of("firstName", "Ann"))
+        ),
+        "plan", Map.of("code", "G1.5")
+    );
+
+    @Test
+    public void resolvesLikeIndividualPathsWithSharedPrefixes() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("first", "applicants[relationship=PRIMARY].demographic.firstName");
+        fields.put("last", "applicants[relationship=PRIMARY].demographic.lastName");
+        fields.put("dep1", "applicants[relationship=DEPENDENT][1].demographic.firstName");
+        fields.put("dep", "applicants[relationship=DEPENDENT].demographic.firstName");
+        fields.put("spouse", "applicants[relationship=SPOUSE].demographic.firstName");
+        fields.put("plan", "plan.code");
+        fields.put("missing", "plan.code.length");
+        fields.put("version", "static:v2.0");
+        fields.put("none", null);
+
+        PayloadPathBatch batch = PayloadPathBatch.compile(fields);
+        Map<String, Object> resolved = batch.resolve(payload);
+
+        assertEquals(List.copyOf(fields.keySet()), List.copyOf(resolved.keySet()));
+        for (Map.Entry<String, String> e : fields.entrySet()) {
+            Object expected = e.getValue() == null ? null : PayloadPath.compile(e.getValue()).resolve(payload);
+            assertEquals(expected, resolved.get(e.getKey()), e.getKey());
+        }
+        assertEquals("Doe", resolved.get("last"));
+        assertEquals("Ann", resolved.get("dep1"));
+        assertNull(resolved.get("spouse"));
+
+        // The PRIMARY filter, its first match and demographic are applied once for both names
+        int individual = 0;
+        for (String path : fields.values()) {
+            individual += path == null ? 0 : PayloadPath.compile(path).steps().size();
+        }
+        assertEquals(21, batch.getStepCount());
+        assertTrue(batch.getStepCount() < individual);
+    }
+
+    @Test
+    public void nullPayloadStillResolvesStaticValues() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("name", "applicants[0].demographic.firstName");
+        fields.put("form", "static:Enrollment Form");
+
+        Map<String, Object> resolved = PayloadPathBatch.compile(fields).resolve(null);
+
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("name", null);
+        expected.put("form", "Enrollment Form");
+        assertEquals(expected, resolved);
+    }
+
+    @Test
+    public void malformedPathIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> PayloadPathBatch.compile(Map.of("bad", "applicants[relationship=PRIMARY.name")));
+    }
+
+    @Test
+    public void mappingServiceResolvesAllPathsLikeResolvePath() {
+        MappingService svc = new MappingService();
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("first", "applicants.0.demographic.firstName");
+        fields.put("last", "applicants[0].demographic.lastName");
+        fields.put("dep", "applicants.2.demographic.firstName");
+        fields.put("outOfRange", "applicants.5.demographic.firstName");
+        fields.put("plan", "plan.code");
+        fields.put("missing", "plan.name");
+
+        Map<String, Object> resolved = svc.resolvePaths(payload, fields);
+
+        for (Map.Entry<String, String> e : fields.entrySet()) {
+            assertEquals(svc.resolvePath(payload, e.getValue()), resolved.get(e.getKey()), e.getKey());
+        }
+        assertEquals("John", resolved.get("first"));
+        assertEquals("Doe", resolved.get("last"));
+        assertEquals("Ann", resolved.get("dep"));
+        assertEquals(resolved, svc.resolvePaths(payload, new LinkedHashMap<>(fields)));
+    }
+
+    @Test
+    public void compiledMappingsStayCachedPastTheCap() {
+        AcroFormFillService fillService = new AcroFormFillService(null);
+        MappingService mappingService = new MappingService();
+        for (int i = 0; i < 300; i++) {
+            Map<String, String> fields = Map.of("first", "applicants[0].demographic.firstName", "n", "plan.code" + i);
+            assertSame(fillService.pathBatch(fields), fillService.pathBatch(new HashMap<>(fields)));
+            assertEquals("John", mappingService.resolvePaths(payload, fields).get("first"));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.pdf.service;
+
+import freemarker.template.Configuration;
+import freemarker.template.DefaultObjectWrapperBuilder;
+import freemarker.template.SimpleHash;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadPathTest {
+
+    private final Map<String, Object> payload = Map.of(
+        "applicants", List.of(
+            Map.of("relationship", "PRIMARY", "demographic", Map.of("firstName", "John")),
+            Map.of("relationship", "DEPENDENT", "demographic", Map.of("firstName", "Tim")),
+            Map.of("relationship", "DEPENDENT", "demographic", Map.of("firstName", "Ann"))
+        ),
+        "plan", Map.of("code", "G1.5")
+    );
+
+    @Test
+    public void resolvesFiltersIndexesAndStaticValues() {
+        assertEquals("John", PayloadPath.compile("applicants[relationship=PRIMARY].demographic.firstName").resolve(payload));
+        assertEquals("Ann", PayloadPath.compile("applicants[relationship=DEPENDENT][1].demographic.firstName").resolve(payload));
+        // A filtered list without index resolves to its first match
+        assertEquals("Tim", PayloadPath.compile("applicants[relationship=DEPENDENT].demographic.firstName").resolve(payload));
+        assertEquals("G1.5", PayloadPath.compile("plan.code").resolve(payload));
+        assertEquals("fixed", PayloadPath.compile("static:fixed").resolve(payload));
+
+        assertNull(PayloadPath.compile("applicants[relationship=SPOUSE].demographic.firstName").resolve(payload));
+        assertNull(PayloadPath.compile("applicants[5].demographic").resolve(payload));
+        assertNull(PayloadPath.compile("plan.code.length").resolve(payload));
+        assertSame(PayloadPath.compile("plan.code"), PayloadPath.compile("plan.code"));
+    }
+
+    @Test
+    public void keyOnANonMapValueResolvesToNull() {
+        List<Object> top = List.of(Map.of("name", "first"), Map.of("name", "second"));
+        assertEquals("second", PayloadPath.compile("[1].name").resolve(top));
+        assertNull(PayloadPath.compile("foo[0].name").resolve(top));
+        assertNull(PayloadPath.compile("plan.code[0]").resolve(payload));
+        assertNull(PayloadPath.compile("applicants.relationship").resolve(payload));
+    }
+
+    @Test
+    public void compiledPathCacheKeepsWorkingPastItsBound() {
+        for (int i = 0; i < 12_000; i++) {
+            assertNull(PayloadPath.compile("plan.unknown" + i).resolve(payload));
+        }
+        assertSame(PayloadPath.compile("plan.code"), PayloadPath.compile("plan.code"));
+        assertEquals("G1.5", PayloadPath.compile("plan.code").resolve(payload));
+    }
+
+    @Test
+    public void dataModelViewListsEntriesReadOnly() throws Exception {
+        SimpleHash model = new SimpleHash(new DefaultObjectWrapperBuilder(Configuration.VERSION_2_3_32).build());
+        model.put("plan", Map.of("code", "G1.5"));
+        model.put("state", "CA");
+
+        Map<String, Object> view = PayloadPathMethod.lookupView(model);
+
+        assertEquals(Map.of("plan", Map.of("code", "G1.5"), "state", "CA"), view);
+        assertEquals(2, view.size());
+        assertTrue(view.containsKey("state"));
+        assertFalse(view.containsKey("missing"));
+        assertEquals("G1.5", PayloadPath.compile("plan.code").resolve(view));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> view.entrySet().clear());
+    }
+
+    @Test
+    public void resolvePathMethodWorksWithTunedWrapperAndSharedScope() throws Exception {
+        Path dir = Paths.get("target", "test-templates");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("resolve-path-test.ftl"),
+            "${resolvePath(\"applicants[relationship=PRIMARY].demographic.firstName\")!\"-\"}"
+                + "|${resolvePath(\"applicants[relationship=SPOUSE].demographic.firstName\")!\"-\"}"
+                + "|<#list payload.applicants as a>${resolvePath(a, \"demographic.firstName\")}</#list>");
+        String location = "target/test-templates/resolve-path-test.ftl";
+
+        FreemarkerService svc = new FreemarkerService(FreemarkerService.MODE_PRODUCTION, 0, FreemarkerService.WRAPPER_TUNED);
+        TemplateModelScope scope = svc.newModelScope();
+        Map<String, Object> model = Map.of("payload", payload);
+
+        assertEquals("John|-|JohnTimAnn", svc.processTemplateFromLocation(location, model, scope));
+        int wrapped = scope.getWrappedContainerCount();
+        assertTrue(wrapped > 0);
+
+        // A second section over the same payload reuses the wrapped containers
+        assertEquals("John|-|JohnTimAnn", svc.processTemplateFromLocation(location, Map.of("payload", payload), scope));
+        assertEquals(wrapped + 1, scope.getWrappedContainerCount()); // only the new model map
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.pdf.service;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PdfAssetDedupTest {
+
+    private static String logoDataUri() throws Exception {
+        BufferedImage img = new BufferedImage(120, 60, BufferedImage.TYPE_INT_RGB);
+        Random rnd = new Random(42);
+        for (int x = 0; x < img.getWidth(); x++) {
+            for (int y = 0; y < img.getHeight(); y++) {
+                img.setRGB(x, y, rnd.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", png);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+    }
+
+    @Test
+    public void dataUriImagesAreStoredOnceByContent() throws Exception {
+        HtmlAssetStore store = new HtmlAssetStore();
+        String uri = logoDataUri();
+
+        String ref = store.register(uri);
+        assertTrue(ref.startsWith("asset:"));
+        assertEquals(ref, store.register(uri));
+        // Same bytes, different base64 line wrapping: same content hash
+        String wrapped = "data:image/png;base64," + Base64.getMimeEncoder().encodeToString(Base64.getDecoder().decode(uri.substring(uri.indexOf(',') + 1)));
+        assertEquals(ref, store.register(wrapped));
+        assertEquals(1, store.size());
+        assertEquals("http://example.com/a.png", store.register("http://example.com/a.png"));
+    }
+
+    @Test
+    public void pinnedAssetsSurviveEvictionFromTheStore() throws Exception {
+        HtmlAssetStore store = new HtmlAssetStore();
+        Map<String, byte[]> pinned = new HashMap<>();
+        String ref = store.register(logoDataUri(), pinned);
+        store.clear();
+
+        assertNull(store.get(ref));
+        assertNull(store.streamFactory().getUrl(ref).getStream());
+        assertNotNull(store.streamFactory(pinned).getUrl(ref).getStream());
+    }
+
+    @Test
+    public void renderKeepsImagesWhenStoreCannotHoldThem() throws Exception {
+        // A store smaller than the image: it may be evicted between tidy and layout
+        HtmlPdfService htmlPdfService = new HtmlPdfService(new HtmlAssetStore(1, 5 * 1024 * 1024));
+        String html = "<html><body><img src=\"" + logoDataUri() + "\" /></body></html>";
+
+        try (PDDocument doc = PDDocument.load(htmlPdfService.renderHtmlToPdf(html))) {
+            assertEquals(1, distinctImages(doc));
+        }
+    }
+
+    @Test
+    public void mergedSectionsShareOneImageAfterDedup() throws Exception {
+        HtmlPdfService htmlPdfService = new HtmlPdfService(new HtmlAssetStore());
+        String html = "<html><body><img src=\"" + logoDataUri() + "\" /><p>Section</p></body></html>";
+
+        PDDocument merged = new PDDocument();
+        PDDocument a = PDDocument.load(htmlPdfService.renderHtmlToPdf(html));
+        PDDocument b = PDDocument.load(htmlPdfService.renderHtmlToPdf(html));
+        for (PDPage p : a.getPages()) merged.addPage(p);
+        for (PDPage p : b.getPages()) merged.addPage(p);
+
+        assertEquals(2, distinctImages(merged));
+        int replaced = PdfResourceDeduplicator.deduplicate(merged);
+        assertTrue(replaced >= 1);
+        assertEquals(1, distinctImages(merged));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        merged.save(out);
+        merged.close();
+        a.close();
+        b.close();
+        try (PDDocument reloaded = PDDocument.load(out.toByteArray())) {
+            assertEquals(2, reloaded.getNumberOfPages());
+        }
+    }
+
+    @Test
+    public void deeplyNestedResourcesAreSkippedNotFatal() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            for (int i = 0; i < 2; i++) {
+                COSDictionary fonts = new COSDictionary();
+                fonts.setItem(COSName.getPDFName("Deep"), nestedFont(20));
+                fonts.setItem(COSName.getPDFName("Flat"), nestedFont(1));
+                COSDictionary resources = new COSDictionary();
+                resources.setItem(COSName.FONT, fonts);
+                PDPage page = new PDPage();
+                page.getCOSObject().setItem(COSName.RESOURCES, resources);
+                doc.addPage(page);
+            }
+
+            assertEquals(1, PdfResourceDeduplicator.deduplicate(doc));
+            assertSame(font(doc, 0, "Flat"), font(doc, 1, "Flat"));
+            assertNotSame(font(doc, 0, "Deep"), font(doc, 1, "Deep"));
+        }
+    }
+
+    private static COSDictionary nestedFont(int depth) {
+        COSDictionary font = new COSDictionary();
+        font.setItem(COSName.TYPE, COSName.FONT);
+        COSDictionary level = font;
+        for (int i = 0; i < depth; i++) {
+            COSDictionary next = new COSDictionary();
+            level.setItem(COSName.getPDFName("Next"), next);
+            level = next;
+        }
+        return font;
+    }
+
+    private static COSBase font(PDDocument doc, int page, String name) {
+        return doc.getPage(page).getCOSObject().getCOSDictionary(COSName.RESOURCES)
+            .getCOSDictionary(COSName.FONT).getDictionaryObject(COSName.getPDFName(name));
+    }
+
+    private static int distinctImages(PDDocument doc) {
+        Set<COSBase> images = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PDPage page : doc.getPages()) {
+            COSDictionary xObjects = page.getCOSObject().getCOSDictionary(COSName.RESOURCES).getCOSDictionary(COSName.XOBJECT);
+            if (xObjects == null) continue;
+            for (COSName name : xObjects.keySet()) {
+                images.add(xObjects.getDictionaryObject(name));
+            }
+        }
+        return images.size();
+    }
+}
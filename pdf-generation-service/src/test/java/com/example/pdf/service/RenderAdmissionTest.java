@@ -0,0 +1,146 @@
+package com.example.pdf.service;
+
+import com.example.pdf.service.RenderAdmission.AdmissionRejectedException;
+import com.example.pdf.service.RenderAdmission.Permit;
+import com.example.pdf.service.RenderAdmission.RenderClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderAdmissionTest {
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> state(RenderAdmission admission, RenderClass renderClass) {
+        return (Map<String, Object>) admission.snapshot().get(renderClass.name().toLowerCase());
+    }
+
+    @Test
+    public void queuesUpToCapThenRejectsWith429() throws Exception {
+        RenderAdmission admission = new RenderAdmission(true, 1, 1, 1, 1, 5_000, 2.0);
+        Permit first = admission.acquire(RenderClass.MERGE);
+
+        // Second request waits in the single queue slot
+        CountDownLatch admitted = new CountDownLatch(1);
+        AtomicReference<Permit> second = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            second.set(admission.acquire(RenderClass.MERGE));
+            admitted.countDown();
+        });
+        waiter.start();
+        while ((Integer) state(admission, RenderClass.MERGE).get("waiting") == 0) Thread.sleep(5);
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+            () -> admission.acquire(RenderClass.MERGE));
+        assertEquals(429, rejected.getStatus());
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+
+        // Other classes have their own limit
+        admission.acquire(RenderClass.EXCEL).close();
+
+        first.close();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        second.get().close();
+        assertEquals(0, state(admission, RenderClass.MERGE).get("inFlight"));
+    }
+
+    @Test
+    public void admitsQueuedRequestsInArrivalOrder() throws Exception {
+        RenderAdmission admission = new RenderAdmission(true, 1, 1, 1, 10, 5_000, 2.0);
+        Permit held = admission.acquire(RenderClass.ACROFORM);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        for (String name : List.of("a", "b", "c", "d")) {
+            if (name.equals("d")) {
+                // The freed slot is handed to the oldest waiter within release, so a request
+                // arriving after it still queues behind b and c
+                held.close();
+                assertEquals(1, state(admission, RenderClass.ACROFORM).get("inFlight"));
+                assertEquals(2, state(admission, RenderClass.ACROFORM).get("waiting"));
+            }
+            int queuedBefore = (Integer) state(admission, RenderClass.ACROFORM).get("waiting");
+            new Thread(() -> {
+                try (Permit p = admission.acquire(RenderClass.ACROFORM)) {
+                    order.add(name);
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }).start();
+            while ((Integer) state(admission, RenderClass.ACROFORM).get("waiting") == queuedBefore) Thread.sleep(5);
+        }
+
+        gate.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b", "c", "d"), order);
+        assertEquals(0, state(admission, RenderClass.ACROFORM).get("inFlight"));
+    }
+
+    @Test
+    public void timesOutWith503() {
+        RenderAdmission admission = new RenderAdmission(true, 1, 1, 1, 10, 20, 2.0);
+        try (Permit held = admission.acquire(RenderClass.HTML)) {
+            AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> admission.acquire(RenderClass.HTML));
+            assertEquals(503, rejected.getStatus());
+        }
+    }
+
+    @Test
+    public void limitGrowsWhenSaturatedAndShrinksWhenLatencyRises() throws Exception {
+        RenderAdmission admission = new RenderAdmission(true, 2, 1, 10, 10, 1_000, 2.0);
+        // Fast renders at the limit: limit grows
+        for (int i = 0; i < 5; i++) {
+            Permit a = admission.acquire(RenderClass.ACROFORM);
+            Permit b = admission.acquire(RenderClass.ACROFORM);
+            a.close();
+            b.close();
+        }
+        int grown = (Integer) state(admission, RenderClass.ACROFORM).get("limit");
+        assertTrue(grown > 2, "limit should grow, was " + grown);
+
+        // Much slower renders: limit is cut
+        for (int i = 0; i < 5; i++) {
+            Permit slow = admission.acquire(RenderClass.ACROFORM);
+            Thread.sleep(30);
+            slow.close();
+        }
+        int shrunk = (Integer) state(admission, RenderClass.ACROFORM).get("limit");
+        assertTrue(shrunk < grown, "limit should shrink, was " + shrunk);
+    }
+
+    @Test
+    public void abandonedPermitsFreeTheSlotWithoutASample() throws Exception {
+        RenderAdmission admission = new RenderAdmission(true, 1, 1, 10, 10, 1_000, 2.0);
+        admission.acquire(RenderClass.HTML).close();
+        long latency = (Long) state(admission, RenderClass.HTML).get("latencyMs");
+        Object limit = state(admission, RenderClass.HTML).get("limit");
+
+        Permit failed = admission.acquire(RenderClass.HTML);
+        Thread.sleep(30);
+        failed.abandon();
+        failed.close();
+
+        Map<String, Object> state = state(admission, RenderClass.HTML);
+        assertEquals(latency, state.get("latencyMs"));
+        assertEquals(limit, state.get("limit"));
+        assertEquals(0, state.get("inFlight"));
+        admission.acquire(RenderClass.HTML).close();
+    }
+
+    @Test
+    public void disabledAdmitsEverything() {
+        RenderAdmission admission = new RenderAdmission(false, 1, 1, 1, 0, 0, 2.0);
+        admission.acquire(RenderClass.MERGE);
+        admission.acquire(RenderClass.MERGE).close();
+    }
+}
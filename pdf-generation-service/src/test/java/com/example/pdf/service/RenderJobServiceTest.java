@@ -0,0 +1,110 @@
+package com.example.pdf.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderJobServiceTest {
+
+    @TempDir
+    Path spool;
+
+    private RenderJobService service;
+
+    private RenderJobService start(int maxQueued, long ttlMillis) throws Exception {
+        service = new RenderJobService(1, maxQueued, spool.toString(), ttlMillis, 60_000);
+        service.start();
+        return service;
+    }
+
+    @AfterEach
+    public void stop() {
+        if (service != null) service.stop();
+    }
+
+    private static void await(RenderJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished(), "job did not finish: " + job.getStatus());
+    }
+
+    @Test
+    public void runsHigherPriorityFirstAndSpoolsResult() throws Exception {
+        start(10, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        RenderJob blocker = service.submit("test", 0, "a.pdf", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new byte[] {1};
+        });
+        RenderJob low = service.submit("test", 1, "low.pdf", () -> { order.add("low"); return new byte[] {2}; });
+        RenderJob high = service.submit("test", 9, "high.pdf", () -> { order.add("high"); return new byte[] {3, 3}; });
+        assertEquals(RenderJob.Status.QUEUED, high.getStatus());
+
+        release.countDown();
+        await(blocker);
+        await(low);
+        await(high);
+
+        assertEquals(List.of("high", "low"), order);
+        assertEquals(RenderJob.Status.COMPLETED, high.getStatus());
+        assertArrayEquals(new byte[] {3, 3}, Files.readAllBytes(high.getResultFile()));
+        assertEquals(2, high.getSizeBytes());
+    }
+
+    @Test
+    public void rejectsWhenQueueFullAndRecordsFailures() throws Exception {
+        start(1, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        RenderJob running = service.submit("test", 0, "a.pdf", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("boom");
+        });
+        // Wait until the first job left the queue, then fill the single queue slot
+        while (running.getStatus() == RenderJob.Status.QUEUED) Thread.sleep(5);
+        service.submit("test", 0, "b.pdf", () -> new byte[0]);
+        assertThrows(RejectedExecutionException.class, () -> service.submit("test", 0, "c.pdf", () -> new byte[0]));
+
+        release.countDown();
+        await(running);
+        assertEquals(RenderJob.Status.FAILED, running.getStatus());
+        assertEquals("boom", running.getError());
+    }
+
+    @Test
+    public void expiredJobsAndSpoolFilesAreRemoved() throws Exception {
+        start(10, 0);
+        RenderJob job = service.submit("test", 0, "a.pdf", () -> new byte[] {1});
+        await(job);
+        Thread.sleep(5);
+        service.cleanupExpired();
+        assertNull(service.getJob(job.getId()));
+        assertFalse(Files.exists(job.getResultFile()));
+    }
+
+    @Test
+    public void orphanedSpoolFilesAreRemovedOncePastTtl() throws Exception {
+        // Left by a previous process, younger than the TTL at startup
+        Path orphan = Files.write(spool.resolve("orphan.pdf"), new byte[] {1});
+        start(10, 60_000);
+        assertTrue(Files.exists(orphan));
+
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+        service.cleanupExpired();
+        assertFalse(Files.exists(orphan));
+    }
+}
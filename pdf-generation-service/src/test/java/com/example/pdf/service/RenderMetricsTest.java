@@ -0,0 +1,56 @@
+package com.example.pdf.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RenderMetrics metrics = new RenderMetrics(registry, false);
+
+    @Test
+    public void configLoadIsTaggedHitOrMiss() {
+        long t0 = metrics.start();
+        metrics.configCacheMiss();
+        metrics.configLoaded(t0);
+        metrics.configLoaded(metrics.start());
+        metrics.configLoaded(metrics.start());
+
+        assertEquals(1, registry.get(RenderMetrics.CONFIG_LOAD).tag("cache", "miss").timer().count());
+        assertEquals(2, registry.get(RenderMetrics.CONFIG_LOAD).tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    public void unrecordedMissDoesNotTagTheNextLookup() {
+        // A loader call outside configLoadStart/configLoaded leaves the flag on this thread
+        metrics.configCacheMiss();
+        metrics.configLoaded(metrics.configLoadStart());
+
+        assertEquals(1, registry.get(RenderMetrics.CONFIG_LOAD).tag("cache", "hit").timer().count());
+        assertNull(registry.find(RenderMetrics.CONFIG_LOAD).tag("cache", "miss").timer());
+    }
+
+    @Test
+    public void generatedRecordsOutcomeAndOutputSize() {
+        metrics.generated("merge", metrics.start(), new byte[100]);
+        metrics.generated("merge", metrics.start(), new byte[300]);
+        metrics.generated("merge", metrics.start(), null);
+
+        assertEquals(2, registry.get(RenderMetrics.GENERATE).tags("kind", "merge", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(RenderMetrics.GENERATE).tags("kind", "merge", "outcome", "error").timer().count());
+        assertEquals(400, registry.get(RenderMetrics.OUTPUT_SIZE).tag("kind", "merge").summary().totalAmount());
+    }
+
+    @Test
+    public void stagesSectionsAndEnrichersUseFixedTags() {
+        metrics.stage("save", metrics.start());
+        metrics.section(null, metrics.start());
+        metrics.enricher("coverageSummary", metrics.start());
+
+        assertEquals(1, registry.get(RenderMetrics.MERGE_STAGE).tag("stage", "save").timer().count());
+        assertEquals(1, registry.get(RenderMetrics.SECTION_RENDER).tag("type", "unknown").timer().count());
+        assertEquals(1, registry.get(RenderMetrics.ENRICHER).tag("enricher", "coverageSummary").timer().count());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.pdf.service;
+
+import com.example.pdf.service.RenderProfiler.Stage;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderProfilerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void keepsBoundedWindowAndReportsPercentiles() {
+        RenderProfiler profiler = new RenderProfiler(true, 100, 2, 0, 5);
+        // 200 samples of 1..200 ms; only the latest 100 (101..200) stay in the window
+        for (int i = 1; i <= 200; i++) {
+            profiler.record("templates/slow.ftl", Stage.FREEMARKER_PROCESS, i * 1_000_000L);
+        }
+        profiler.record("templates/fast.ftl", Stage.FREEMARKER_PROCESS, 1_000_000L);
+        profiler.record("templates/third.ftl", Stage.HTML_LAYOUT, 1_000_000L);
+
+        Map<String, Object> slow = profiler.snapshot("templates/slow.ftl");
+        Map<String, Object> stats = ((Map<String, Map<String, Object>>) slow.get("stages")).get("freemarker");
+        assertEquals(200L, stats.get("count"));
+        assertEquals(100, stats.get("window"));
+        assertEquals(150.0, stats.get("p50Ms"));
+        assertEquals(199.0, stats.get("p99Ms"));
+        assertEquals(200.0, stats.get("maxMs"));
+
+        // Template cap of 2: the third template is folded into "(other)"
+        assertNull(profiler.snapshot("templates/third.ftl"));
+        assertNotNull(profiler.snapshot(RenderProfiler.OTHER));
+
+        List<Map<String, Object>> top = profiler.snapshot(1);
+        assertEquals(1, top.size());
+        assertEquals("templates/slow.ftl", top.get(0).get("template"));
+    }
+
+    @Test
+    public void htmlRenderRecordsTidyLayoutAndWriteStages() throws Exception {
+        RenderProfiler profiler = new RenderProfiler(true, 16, 10, 0, 5);
+        HtmlPdfService service = new HtmlPdfService(new HtmlAssetStore());
+        Field f = HtmlPdfService.class.getDeclaredField("renderProfiler");
+        f.setAccessible(true);
+        f.set(service, profiler);
+
+        service.renderHtmlToPdf("<html><body><p>Hello</p></body></html>", "templates/hello.ftl");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stages = (Map<String, Object>) profiler.snapshot("templates/hello.ftl").get("stages");
+        assertTrue(stages.containsKey("jsoup-tidy"));
+        assertTrue(stages.containsKey("openhtmltopdf-layout"));
+        assertTrue(stages.containsKey("pdf-write"));
+    }
+
+    @Test
+    public void disabledProfilerRecordsNothing() {
+        RenderProfiler profiler = RenderProfiler.disabled();
+        profiler.stop("x", Stage.PDF_WRITE, profiler.start());
+        assertTrue(profiler.snapshot(0).isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.pdf.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderResultCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private RenderResultCache start(long maxBytes, long ttlMillis) throws Exception {
+        RenderResultCache cache = new RenderResultCache(true, dir.toString(), maxBytes, ttlMillis);
+        cache.start();
+        return cache;
+    }
+
+    @Test
+    public void payloadKeyOrderDoesNotMatterButVersionDoes() throws Exception {
+        RenderResultCache cache = start(1 << 20, 60_000);
+        AtomicInteger renders = new AtomicInteger();
+        Map<String, Object> a = new LinkedHashMap<>();
+        a.put("x", 1);
+        a.put("y", Map.of("z", "v"));
+        Map<String, Object> b = new LinkedHashMap<>();
+        b.put("y", Map.of("z", "v"));
+        b.put("x", 1);
+
+        byte[] first = cache.getOrRender("merge", "cfg", "v1", a, () -> new byte[] {(byte) renders.incrementAndGet()});
+        byte[] second = cache.getOrRender("merge", "cfg", "v1", b, () -> new byte[] {(byte) renders.incrementAndGet()});
+        assertArrayEquals(first, second);
+        assertEquals(1, renders.get());
+
+        cache.getOrRender("merge", "cfg", "v2", a, () -> new byte[] {(byte) renders.incrementAndGet()});
+        assertEquals(2, renders.get());
+        assertEquals(1L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    public void concurrentIdenticalRequestsShareOneRender() throws Exception {
+        RenderResultCache cache = start(1 << 20, 60_000);
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> results = new java.util.ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.getOrRender("merge", "cfg", "v1", Map.of("id", 7), () -> {
+                    renders.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new byte[] {42};
+                })));
+            }
+            while ((Long) cache.getStats().get("collapsed") < 3) Thread.sleep(5);
+            release.countDown();
+            for (Future<byte[]> result : results) {
+                assertArrayEquals(new byte[] {42}, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, renders.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failuresAreNotCachedAndSizeBoundEvicts() throws Exception {
+        RenderResultCache cache = start(10, 60_000);
+        assertThrows(IllegalStateException.class, () -> cache.getOrRender("merge", "cfg", "v1", Map.of(), () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, cache.getStats().get("entries"));
+
+        cache.getOrRender("merge", "cfg", "v1", Map.of("n", 1), () -> new byte[6]);
+        cache.getOrRender("merge", "cfg", "v1", Map.of("n", 2), () -> new byte[6]);
+        assertEquals(1, cache.getStats().get("entries"));
+        assertEquals(6L, cache.getStats().get("totalBytes"));
+    }
+
+    @Test
+    public void fingerprintFollowsConfigContent() {
+        RenderResultCache cache = new RenderResultCache(true, dir.toString(), 1, 1);
+        PdfMergeConfig one = new PdfMergeConfig();
+        one.setPageNumbering("bottom");
+        PdfMergeConfig same = new PdfMergeConfig();
+        same.setPageNumbering("bottom");
+        PdfMergeConfig other = new PdfMergeConfig();
+        other.setPageNumbering("top");
+        assertEquals(cache.fingerprint(one), cache.fingerprint(same));
+        assertNotEquals(cache.fingerprint(one), cache.fingerprint(other));
+    }
+
+    @Test
+    public void fileVersionChangesWhenTemplateIsReplaced() throws Exception {
+        RenderResultCache cache = new RenderResultCache(true, dir.toString(), 1, 1);
+        Path template = dir.resolve("form.pdf");
+        assertEquals("missing", cache.fileVersion(template));
+
+        Files.write(template, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(template, FileTime.fromMillis(1_000_000));
+        String v1 = cache.fileVersion(template);
+        Files.write(template, new byte[] {1, 2, 3});
+        Files.setLastModifiedTime(template, FileTime.fromMillis(2_000_000));
+        assertNotEquals(v1, cache.fileVersion(template));
+    }
+
+    @Test
+    public void instancesSharingADirectoryKeepTheirOwnEntries() throws Exception {
+        RenderResultCache first = start(1 << 20, 60_000);
+        first.getOrRender("merge", "cfg", "v1", Map.of("id", 1), () -> new byte[] {1});
+
+        RenderResultCache second = start(1 << 20, 60_000);
+        second.getOrRender("merge", "cfg", "v1", Map.of("id", 1), () -> new byte[] {2});
+
+        assertArrayEquals(new byte[] {1}, first.getOrRender("merge", "cfg", "v1", Map.of("id", 1), () -> new byte[] {3}));
+        assertEquals(1L, first.getStats().get("hits"));
+
+        second.stop();
+        try (Stream<Path> instances = Files.list(dir)) {
+            assertEquals(1, instances.count());
+        }
+        assertArrayEquals(new byte[] {1}, first.getOrRender("merge", "cfg", "v1", Map.of("id", 1), () -> new byte[] {3}));
+    }
+}